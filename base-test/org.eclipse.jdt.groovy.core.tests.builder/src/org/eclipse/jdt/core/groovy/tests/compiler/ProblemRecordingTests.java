@@ -0,0 +1,109 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eclipse.jdt.core.groovy.tests.compiler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.codehaus.groovy.control.messages.Message;
+import org.codehaus.groovy.control.messages.SimpleMessage;
+import org.codehaus.groovy.control.messages.SyntaxErrorMessage;
+import org.codehaus.groovy.syntax.SyntaxException;
+import org.codehaus.jdt.groovy.internal.compiler.ast.GroovyCompilationUnitDeclaration;
+import org.codehaus.jdt.groovy.internal.compiler.ast.GroovyParser;
+import org.eclipse.jdt.core.compiler.CategorizedProblem;
+import org.eclipse.jdt.groovy.core.util.ReflectionUtils;
+import org.eclipse.jdt.internal.compiler.CompilationResult;
+import org.eclipse.jdt.internal.compiler.DefaultErrorHandlingPolicies;
+import org.eclipse.jdt.internal.compiler.batch.CompilationUnit;
+import org.eclipse.jdt.internal.compiler.impl.CompilerOptions;
+import org.eclipse.jdt.internal.compiler.problem.DefaultProblemFactory;
+import org.eclipse.jdt.internal.compiler.problem.ProblemReporter;
+
+/**
+ * Parser recovery can report one syntax error at one place over and over; only
+ * a few copies of it are recorded.  Other errors are always recorded.
+ */
+public class ProblemRecordingTests extends TestCase {
+
+    private static final String SOURCE = "class X {\n  def x() {\n  }\n}\n";
+
+    private GroovyCompilationUnitDeclaration unit;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        CompilerOptions options = new CompilerOptions();
+        options.groovyProjectName = "Problems";
+        ProblemReporter reporter = new ProblemReporter(DefaultErrorHandlingPolicies.proceedWithAllProblems(), options, new DefaultProblemFactory());
+        CompilationUnit source = new CompilationUnit(SOURCE.toCharArray(), "X.groovy", null);
+        unit = (GroovyCompilationUnitDeclaration) new GroovyParser(options, reporter, false, false).dietParse(source, new CompilationResult(source, 0, 1, 100));
+        unit.compilationResult.lineSeparatorPositions = new int[] {9, 21, 25, 27};
+        unit.compilationResult.problems = null;
+        unit.compilationResult.problemCount = 0;
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        unit.cleanUp();
+        GroovyParser.tidyCache("Problems");
+        super.tearDown();
+    }
+
+    public void testRepeatedSyntaxErrorCapped() throws Exception {
+        List<Message> errors = new ArrayList<Message>();
+        for (int i = 0; i < 10; i += 1) {
+            errors.add(syntaxError("unexpected token: }", 3, 3));
+        }
+        errors.add(syntaxError("unexpected token: def", 2, 3));
+
+        assertProblems(4, errors);
+        assertTrue("Copies are handled", errors.isEmpty());
+    }
+
+    public void testDistinctErrorsAtOnePlace() throws Exception {
+        List<Message> errors = new ArrayList<Message>();
+        for (int i = 0; i < 6; i += 1) {
+            errors.add(syntaxError("The method 'void m" + i + "()' must be implemented", 1, 7));
+        }
+
+        assertProblems(6, errors);
+    }
+
+    public void testUnlocatedErrorsNotCapped() throws Exception {
+        List<Message> errors = new ArrayList<Message>();
+        for (int i = 0; i < 5; i += 1) {
+            errors.add(syntaxError("General error during conversion", 0, 0));
+            errors.add(new SimpleMessage("Unable to resolve transform", unit.getSourceUnit()));
+        }
+
+        assertProblems(10, errors);
+    }
+
+    //--------------------------------------------------------------------------
+
+    private SyntaxErrorMessage syntaxError(String message, int line, int column) {
+        return new SyntaxErrorMessage(new SyntaxException(message, line, column), unit.getSourceUnit());
+    }
+
+    private void assertProblems(int expected, List<Message> errors) {
+        ReflectionUtils.executePrivateMethod(GroovyCompilationUnitDeclaration.class, "recordProblems", new Class[] {List.class}, unit, new Object[] {errors});
+        CategorizedProblem[] problems = unit.compilationResult.getProblems();
+        assertEquals(expected, problems == null ? 0 : problems.length);
+    }
+}
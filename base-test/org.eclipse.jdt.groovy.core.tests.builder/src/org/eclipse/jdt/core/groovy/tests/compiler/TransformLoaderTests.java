@@ -0,0 +1,146 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eclipse.jdt.core.groovy.tests.compiler;
+
+import junit.framework.TestCase;
+
+import org.codehaus.jdt.groovy.internal.compiler.ast.GroovyCompilationUnitDeclaration;
+import org.codehaus.jdt.groovy.internal.compiler.ast.GroovyParser;
+import org.eclipse.core.runtime.FileLocator;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.jdt.groovy.core.CacheMetrics;
+import org.eclipse.jdt.groovy.core.util.ReflectionUtils;
+import org.eclipse.jdt.internal.compiler.CompilationResult;
+import org.eclipse.jdt.internal.compiler.DefaultErrorHandlingPolicies;
+import org.eclipse.jdt.internal.compiler.batch.CompilationUnit;
+import org.eclipse.jdt.internal.compiler.impl.CompilerOptions;
+import org.eclipse.jdt.internal.compiler.problem.DefaultProblemFactory;
+import org.eclipse.jdt.internal.compiler.problem.ProblemReporter;
+
+/**
+ * The AST transform loaders of projects must stay open while a compilation
+ * uses them, however often the projects let go of them in the meantime.  The
+ * configure loader, which defines the transforms, is what the cache metrics
+ * measure and track once it is closed.
+ */
+public class TransformLoaderTests extends TestCase {
+
+    private static final String RESOURCE = "junit/framework/TestCase.class";
+
+    private static final String CACHE_NAME = "GroovyParser.projectToLoaderCache";
+
+    private String classpath;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        classpath = FileLocator.resolve(Platform.getBundle("org.eclipse.jdt.groovy.core.tests.builder").getEntry("lib/junit4_4.5.0.jar")).getFile();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        GroovyParser.tidyCache("One");
+        GroovyParser.tidyCache("Two");
+        super.tearDown();
+    }
+
+    public void testSharedBetweenProjects() throws Exception {
+        assertSame(configureLoader(parse("One")), configureLoader(parse("Two")));
+    }
+
+    public void testOpenWhileCompiling() throws Exception {
+        GroovyParser parser = newParser("One");
+        GroovyCompilationUnitDeclaration unit = parse(parser);
+        ClassLoader loader = configureLoader(unit);
+
+        // as after a clean, a project close or a classpath change
+        GroovyParser.tidyCache("One");
+        assertNotNull(loader.getResource(RESOURCE));
+        assertNotSame(loader, configureLoader(parse("One")));
+
+        unit.cleanUp();
+        assertNotNull("The parser still uses the loader", loader.getResource(RESOURCE));
+    }
+
+    public void testClosedOnceUnused() throws Exception {
+        GroovyCompilationUnitDeclaration unit = parse("One");
+        ClassLoader loader = configureLoader(unit);
+        unit.cleanUp();
+        unit = null;
+
+        GroovyParser.tidyCache("One");
+        for (int i = 0; i < 10 && loader.getResource(RESOURCE) != null; i += 1) {
+            System.gc();
+            Thread.sleep(100);
+            // expired leases are given back whenever loaders are handed out or released
+            GroovyParser.closeClassLoader("Two");
+        }
+        assertNull(loader.getResource(RESOURCE));
+        assertTrue("The configure loader is tracked until collected", isOrphaned(loader));
+    }
+
+    public void testEstimatedSize() throws Exception {
+        GroovyCompilationUnitDeclaration unit = parse("One");
+        long before = CacheMetrics.getInstance().getEstimatedBytes(CACHE_NAME);
+        // junit is only on the project's classpath, so it is defined by the configure loader
+        configureLoader(unit).loadClass("junit.framework.Assert");
+        assertTrue(CacheMetrics.getInstance().getEstimatedBytes(CACHE_NAME) > before);
+        unit.cleanUp();
+    }
+
+    public void testFullReset() throws Exception {
+        GroovyCompilationUnitDeclaration unit = parse("One");
+        ClassLoader loader = configureLoader(unit);
+
+        // as when a trait is compiled (GRECLIPSE-1776)
+        ReflectionUtils.executePrivateMethod(GroovyParser.class, "tidyCache", new Class[0], null, new Object[0]);
+        assertNotSame(loader, configureLoader(parse("One")));
+        assertNotNull(loader.getResource(RESOURCE));
+    }
+
+    //--------------------------------------------------------------------------
+
+    private GroovyParser newParser(String projectName) {
+        CompilerOptions options = new CompilerOptions();
+        options.groovyProjectName = projectName;
+        options.groovyClassLoaderPath = classpath;
+        ProblemReporter reporter = new ProblemReporter(DefaultErrorHandlingPolicies.proceedWithAllProblems(), options, new DefaultProblemFactory());
+        return new GroovyParser(options, reporter, false, false);
+    }
+
+    private GroovyCompilationUnitDeclaration parse(String projectName) {
+        return parse(newParser(projectName));
+    }
+
+    private static GroovyCompilationUnitDeclaration parse(GroovyParser parser) {
+        CompilationUnit source = new CompilationUnit("class X {}".toCharArray(), "X.groovy", null);
+        return (GroovyCompilationUnitDeclaration) parser.dietParse(source, new CompilationResult(source, 0, 1, 100));
+    }
+
+    private static ClassLoader configureLoader(GroovyCompilationUnitDeclaration unit) {
+        return unit.getCompilationUnit().getTransformLoader().getParent();
+    }
+
+    private static boolean isOrphaned(ClassLoader loader) {
+        String prefix = loader.getClass().getName() + '@' + Integer.toHexString(System.identityHashCode(loader)) + ' ';
+        for (String orphan : CacheMetrics.getInstance().getOrphanedClassLoaders()) {
+            if (orphan.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -15,14 +15,19 @@
  */
 package org.eclipse.jdt.core.groovy.tests.model;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 
 import junit.framework.Test;
 
 import org.codehaus.groovy.ast.ModuleNode;
+import org.codehaus.groovy.control.Phases;
+import org.codehaus.jdt.groovy.internal.compiler.ast.ReconcileTimings;
 import org.codehaus.jdt.groovy.model.GroovyCompilationUnit;
 import org.codehaus.jdt.groovy.model.ModuleNodeMapper;
+import org.codehaus.jdt.groovy.model.ReconcileBudget;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.NullProgressMonitor;
@@ -33,11 +38,15 @@ import org.eclipse.jdt.core.IField;
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IMemberValuePair;
 import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.IProblemRequestor;
 import org.eclipse.jdt.core.IType;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.compiler.IProblem;
 import org.eclipse.jdt.core.tests.util.Util;
 import org.eclipse.jdt.groovy.core.util.JavaConstants;
+import org.eclipse.jdt.groovy.core.util.ReflectionUtils;
+import org.eclipse.jdt.internal.core.JavaModelManager.PerWorkingCopyInfo;
 
 public final class GroovyCompilationUnitTests extends AbstractGroovyTypeRootTests {
 
@@ -214,6 +223,142 @@ public final class GroovyCompilationUnitTests extends AbstractGroovyTypeRootTest
         assertTrue("getNewModuleNode() should have forced creation of a new module node", module1 != module2);
     }
 
+    public void testGetModuleNode_Released() throws Exception {
+        IFile groovyFile = createSimpleGroovyProject();
+        GroovyCompilationUnit unit1 = (GroovyCompilationUnit) JavaCore.createCompilationUnitFrom(groovyFile);
+        unit1.becomeWorkingCopy(null);
+        try {
+            ModuleNode node1 = unit1.getModuleNode();
+            // as under memory pressure
+            Object mapper = ReflectionUtils.executePrivateMethod(ModuleNodeMapper.class, "getInstance", new Class[0], null, new Object[0]);
+            ReflectionUtils.executePrivateMethod(ModuleNodeMapper.class, "release", new Class[] {PerWorkingCopyInfo.class}, mapper, new Object[] {unit1.getPerWorkingCopyInfo()});
+
+            // rebuilt synchronously by the caller
+            ModuleNode node2 = unit1.getModuleNode();
+            assertNotNull(node2);
+            assertNotSame(node1, node2);
+            assertEquals(node1.getClasses().size(), node2.getClasses().size());
+            assertSame(node2, unit1.getModuleNode());
+        } finally {
+            unit1.discardWorkingCopy();
+        }
+    }
+
+    public void testReconcileTimings() throws Exception {
+        IFile groovyFile = createSimpleGroovyProject();
+        GroovyCompilationUnit unit = (GroovyCompilationUnit) JavaCore.createCompilationUnitFrom(groovyFile);
+        long budget = ReconcileBudget.getBudgetMillis();
+        ReconcileBudget.setBudgetMillis(60000);
+        unit.becomeWorkingCopy(new CollectingProblemRequestor(), null);
+        try {
+            // a consistent working copy would not build its structure again
+            unit.getBuffer().append("\n");
+            unit.reconcile(ICompilationUnit.NO_AST, true, null, null);
+            ReconcileTimings timings = ReconcileBudget.getLastTimings(unit);
+            assertNotNull(timings);
+            assertTrue(timings.getTotalNanos() > 0);
+            assertTrue(timings.getPhaseNanos(Phases.CONVERSION) > 0);
+            assertTrue(timings.getPhaseNanos(Phases.CONVERSION) <= timings.getTotalNanos());
+            assertFalse(ReconcileBudget.isDegraded(unit));
+        } finally {
+            unit.discardWorkingCopy();
+            ReconcileBudget.setBudgetMillis(budget);
+        }
+        assertNull("Timings should be dropped with the working copy", ReconcileBudget.getLastTimings(unit));
+    }
+
+    public void testReconcileBudget_Degraded() throws Exception {
+        IFile groovyFile = createSimpleGroovyProject();
+        GroovyCompilationUnit unit = (GroovyCompilationUnit) JavaCore.createCompilationUnitFrom(groovyFile);
+        long budget = ReconcileBudget.getBudgetMillis();
+        ReconcileBudget.setBudgetMillis(100);
+        CollectingProblemRequestor requestor = new CollectingProblemRequestor();
+        unit.becomeWorkingCopy(requestor, null);
+        try {
+            recordReconcile(unit, 500, false);
+            assertTrue(ReconcileBudget.isDegraded(unit));
+
+            // a consistent working copy would not build its structure again
+            unit.getBuffer().append("\n");
+            unit.reconcile(ICompilationUnit.NO_AST, true, null, null);
+            boolean reported = false;
+            for (IProblem problem : requestor.problems) {
+                reported |= problem.getMessage().contains("took 500ms (budget is 100ms)");
+            }
+            assertTrue("Degraded reconcile should be reported: " + requestor.problems, reported);
+            assertTrue(ReconcileBudget.isDegraded(unit));
+        } finally {
+            unit.discardWorkingCopy();
+            ReconcileBudget.setBudgetMillis(budget);
+        }
+        assertFalse("Degradation should be dropped with the working copy", ReconcileBudget.isDegraded(unit));
+    }
+
+    public void testReconcileBudget_Recovered() throws Exception {
+        IFile groovyFile = createSimpleGroovyProject();
+        GroovyCompilationUnit unit = (GroovyCompilationUnit) JavaCore.createCompilationUnitFrom(groovyFile);
+        long budget = ReconcileBudget.getBudgetMillis();
+        ReconcileBudget.setBudgetMillis(100);
+        try {
+            recordReconcile(unit, 50, false);
+            assertFalse(ReconcileBudget.isDegraded(unit));
+            recordReconcile(unit, 500, false);
+            assertTrue(ReconcileBudget.isDegraded(unit));
+
+            // degraded reconciles are quick but say nothing about a full one
+            for (int i = 1; i < ReconcileBudget.REPROBE_INTERVAL; i += 1) {
+                recordReconcile(unit, 10, true);
+                assertTrue(ReconcileBudget.isDegraded(unit));
+            }
+            recordReconcile(unit, 10, true);
+            assertFalse("Should get another full reconcile", ReconcileBudget.isDegraded(unit));
+
+            // still too slow
+            recordReconcile(unit, 500, false);
+            assertTrue(ReconcileBudget.isDegraded(unit));
+            for (int i = 0; i < ReconcileBudget.REPROBE_INTERVAL; i += 1) {
+                recordReconcile(unit, 10, true);
+            }
+            assertFalse(ReconcileBudget.isDegraded(unit));
+
+            // within the budget now
+            recordReconcile(unit, 50, false);
+            assertFalse(ReconcileBudget.isDegraded(unit));
+            recordReconcile(unit, 50, false);
+            assertFalse(ReconcileBudget.isDegraded(unit));
+        } finally {
+            ReconcileBudget.setBudgetMillis(budget);
+        }
+    }
+
+    private static void recordReconcile(ICompilationUnit unit, long millis, boolean degraded) {
+        ReconcileTimings timings = ReconcileTimings.start();
+        timings.stop();
+        ReflectionUtils.setPrivateField(ReconcileTimings.class, "totalNanos", timings, millis * 1000000L);
+        ReflectionUtils.executePrivateMethod(ReconcileBudget.class, "recordReconcile",
+            new Class[] {ICompilationUnit.class, ReconcileTimings.class, boolean.class}, null, new Object[] {unit, timings, degraded});
+        assertSame(timings, ReconcileBudget.getLastTimings(unit));
+    }
+
+    private static class CollectingProblemRequestor implements IProblemRequestor {
+        final List<IProblem> problems = new ArrayList<IProblem>();
+
+        public void acceptProblem(IProblem problem) {
+            problems.add(problem);
+        }
+
+        public void beginReporting() {
+            problems.clear();
+        }
+
+        public void endReporting() {
+        }
+
+        public boolean isActive() {
+            return true;
+        }
+    }
+
     public void testMarkerAnnotation_1() throws Exception {
         IPath root = createAnnotationGroovyProject();
         env.addGroovyClass(root, "p", "X",
@@ -0,0 +1,223 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eclipse.jdt.core.groovy.tests.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.Test;
+
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.jdt.groovy.internal.compiler.ast.BinaryClassNodeCache;
+import org.codehaus.jdt.groovy.internal.compiler.ast.JDTClassNode;
+import org.codehaus.jdt.groovy.internal.compiler.ast.JDTResolver;
+import org.codehaus.jdt.groovy.model.GroovyCompilationUnit;
+import org.codehaus.jdt.groovy.model.ModuleNodeMapper;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.compiler.CharOperation;
+import org.eclipse.jdt.core.tests.util.Util;
+import org.eclipse.jdt.groovy.core.util.JavaConstants;
+import org.eclipse.jdt.groovy.core.util.ReflectionUtils;
+import org.eclipse.jdt.internal.compiler.lookup.ImportBinding;
+import org.eclipse.jdt.internal.compiler.lookup.LookupEnvironment;
+
+/**
+ * Nodes of archive types are shared between the reconciles of a project (see
+ * {@link BinaryClassNodeCache}) only as long as the lookup environment they
+ * were created with has not been reset.  Resolvers stored with module nodes
+ * keep their scope; released resolvers keep the environment only if they
+ * share their nodes.
+ */
+public final class SharedBinaryTypesTests extends AbstractGroovyTypeRootTests {
+
+    public static Test suite() {
+        return buildTestSuite(SharedBinaryTypesTests.class);
+    }
+
+    public SharedBinaryTypesTests(String name) {
+        super(name);
+    }
+
+    private GroovyCompilationUnit unit;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        BinaryClassNodeCache.tidy("Project");
+        JDTResolver.recordInstances = true;
+        JDTResolver.instances = new ArrayList<JDTResolver>();
+
+        IPath projectPath = env.addProject("Project");
+        env.addExternalJars(projectPath, Util.getJavaClassLibs());
+        env.addGroovyJars(projectPath);
+        fullBuild(projectPath);
+
+        // remove old package fragment root so that names don't collide
+        env.removePackageFragmentRoot(projectPath, "");
+
+        IPath root = env.addPackageFragmentRoot(projectPath, "src");
+        env.setOutputFolder(projectPath, "bin");
+        env.addGroovyClass(root, "p", "Files",
+            "package p\n" +
+            "import java.io.File\n" +
+            "class Files {\n" +
+            "  String name(File file) { file.getName() }\n" +
+            "}\n");
+        fullBuild(projectPath);
+
+        unit = (GroovyCompilationUnit) JavaCore.createCompilationUnitFrom(getFile("Project/src/p/Files.groovy"));
+        unit.becomeWorkingCopy(null);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        try {
+            unit.discardWorkingCopy();
+            BinaryClassNodeCache.tidy("Project");
+        } finally {
+            JDTResolver.recordInstances = false;
+            JDTResolver.instances = null;
+            super.tearDown();
+        }
+    }
+
+    public void testSharedAcrossReconciles() throws Exception {
+        JDTResolver first = reconcile(ICompilationUnit.NO_AST);
+        JDTResolver second = reconcile(ICompilationUnit.NO_AST);
+        assertNotSame(first, second);
+
+        JDTClassNode node = JDTResolver.getCachedNode(second, "java.io.File");
+        assertSame(JDTResolver.getCachedNode(first, "java.io.File"), node);
+        assertSame(first, node.getResolver());
+        // members are materialized from the donor's environment
+        assertFalse(node.getMethods("getName").isEmpty());
+        assertNotNull(node.getSuperClass());
+    }
+
+    public void testNotSharedAfterEnvironmentReset() throws Exception {
+        JDTResolver first = reconcile(ICompilationUnit.NO_AST);
+        ((LookupEnvironment) ReflectionUtils.getPrivateField(JDTResolver.class, "environment", first)).reset();
+
+        JDTResolver second = reconcile(ICompilationUnit.NO_AST);
+        JDTClassNode node = JDTResolver.getCachedNode(second, "java.io.File");
+        assertNotSame(JDTResolver.getCachedNode(first, "java.io.File"), node);
+        assertSame(second, node.getResolver());
+        assertFalse(node.getMethods("getName").isEmpty());
+
+        // the reset donor's nodes are gone for good
+        JDTResolver third = reconcile(ICompilationUnit.NO_AST);
+        assertSame(second, JDTResolver.getCachedNode(third, "java.io.File").getResolver());
+    }
+
+    public void testNotSharedWhenCreatingAST() throws Exception {
+        // the environment lives on in the bindings of the DOM AST
+        JDTResolver first = reconcile(JavaConstants.AST_LEVEL);
+        JDTResolver second = reconcile(ICompilationUnit.NO_AST);
+        JDTClassNode node = JDTResolver.getCachedNode(second, "java.io.File");
+        assertNotSame(JDTResolver.getCachedNode(first, "java.io.File"), node);
+        assertSame(second, node.getResolver());
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testLeastRecentDonorReplaced() throws Exception {
+        JDTResolver first = reconcile(ICompilationUnit.NO_AST);
+        BinaryClassNodeCache cache = ((Map<String, BinaryClassNodeCache>) ReflectionUtils.getPrivateField(BinaryClassNodeCache.class, "caches", null)).get("Project");
+        Map<String, JDTClassNode> nodes = (Map<String, JDTClassNode>) ReflectionUtils.getPrivateField(BinaryClassNodeCache.class, "nodes", cache);
+        assertSame(first, nodes.get("java.io.File").getResolver());
+
+        List<JDTResolver> donors = new ArrayList<JDTResolver>();
+        for (int i = 0; i < 4; i += 1) {
+            JDTResolver donor = reconcile(ICompilationUnit.NO_AST);
+            ReflectionUtils.executePrivateMethod(BinaryClassNodeCache.class, "donate", new Class[] {JDTResolver.class, List.class}, cache,
+                new Object[] {donor, Collections.singletonList(JDTResolver.getCachedNode(donor, "java.io.File"))});
+            donors.add(donor);
+        }
+
+        // the first donor made room for the last, and its nodes went with it
+        assertEquals(donors, ReflectionUtils.executeNoArgPrivateMethod(BinaryClassNodeCache.class, "getDonors", cache));
+        assertNull(nodes.get("java.io.File"));
+    }
+
+    public void testStoredResolver() throws Exception {
+        reconcile(ICompilationUnit.NO_AST);
+        JDTResolver resolver = unit.getModuleInfo(false).resolver;
+        if (!ModuleNodeMapper.shouldStoreResovler()) {
+            assertNull(resolver);
+            return;
+        }
+
+        // DSLD and content assist resolve the names of source types with the stored resolver
+        assertNotNull(resolver.getScope());
+        ClassNode type = resolver.resolve("p.Files");
+        assertEquals("p.Files", type.getName());
+        assertFalse(type.getMethods("name").isEmpty());
+        assertTrue(resolver.resolve("java.util.zip.ZipFile") instanceof JDTClassNode);
+    }
+
+    public void testReleasedDonor() throws Exception {
+        JDTResolver resolver = reconcile(ICompilationUnit.NO_AST);
+        resolver.release();
+
+        // the resolver no longer refers to the compiled unit
+        assertNull(resolver.getScope());
+        assertNotNull(ReflectionUtils.getPrivateField(JDTResolver.class, "environment", resolver));
+        assertImported("java.io.File", resolver.getImports());
+
+        ClassNode type = resolver.resolve("java.util.zip.ZipFile");
+        assertTrue(type instanceof JDTClassNode);
+        assertFalse(type.getMethods("getName").isEmpty());
+    }
+
+    public void testReleasedNonDonor() throws Exception {
+        JDTResolver resolver = reconcile(JavaConstants.AST_LEVEL);
+        resolver.release();
+
+        assertNull(resolver.getScope());
+        assertNull(ReflectionUtils.getPrivateField(JDTResolver.class, "environment", resolver));
+        assertImported("java.io.File", resolver.getImports());
+
+        // nodes created while compiling can still be used
+        assertFalse(JDTResolver.getCachedNode(resolver, "java.io.File").getMethods("getName").isEmpty());
+    }
+
+    //--------------------------------------------------------------------------
+
+    private static void assertImported(String typeName, ImportBinding[] imports) {
+        for (ImportBinding binding : imports) {
+            if (!binding.onDemand && CharOperation.toString(binding.compoundName).equals(typeName)) {
+                return;
+            }
+        }
+        fail("No import of " + typeName + " in " + Arrays.toString(imports));
+    }
+
+    private JDTResolver reconcile(int astLevel) throws Exception {
+        JDTResolver.instances.clear();
+        unit.reconcile(astLevel, true, unit.owner, null);
+        for (JDTResolver resolver : JDTResolver.instances) {
+            if (JDTResolver.getCachedNode(resolver, "java.io.File") != null) {
+                return resolver;
+            }
+        }
+        fail("No resolver converted java.io.File");
+        return null;
+    }
+}
@@ -39,6 +39,7 @@ public class AllSearchTests {
         suite.addTestSuite(LocalVariableReferenceSearchTests.class);
         suite.addTestSuite(MethodReferenceSearchTests.class);
         suite.addTestSuite(OperatorOverloadingInferencingTests.class);
+        suite.addTestSuite(SearchTokenFilterTests.class);
         suite.addTestSuite(StaticInferencingTests.class);
         suite.addTestSuite(SyntheticAccessorInferencingTests.class);
         suite.addTestSuite(TypeReferenceSearchTests.class);
@@ -377,6 +377,24 @@ public final class GenericInferencingTests extends AbstractInferencingTest {
         assertType(contents, start, end, "XX[]");
     }
 
+    public void testArray14() {
+        createUnit("Box", "class Box<T> {\n T[] items\n}");
+        String contents = "new Box<String>().items[0].length()";
+        String toFind = "items";
+        int start = contents.lastIndexOf(toFind);
+        int end = start + toFind.length();
+        assertType(contents, start, end, "java.lang.String[]");
+    }
+
+    public void testArray15() {
+        createUnit("Box", "class Box<T> {\n List<T>[] lists\n}");
+        String contents = "new Box<Integer>().lists[0].get(0)";
+        String toFind = "get";
+        int start = contents.lastIndexOf(toFind);
+        int end = start + toFind.length();
+        assertType(contents, start, end, "java.lang.Integer");
+    }
+
     public void testForLoop1() {
         String contents = "def x = 1..4\nfor (a in x) { \na }";
         String toFind = "a";
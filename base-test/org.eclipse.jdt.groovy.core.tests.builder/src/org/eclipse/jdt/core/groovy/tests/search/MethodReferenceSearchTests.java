@@ -1,5 +1,5 @@
 /*
- * Copyright 2009-2016 the original author or authors.
+ * Copyright 2009-2017 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,6 +19,7 @@ import java.util.List;
 
 import junit.framework.Test;
 
+import org.codehaus.jdt.groovy.integration.internal.ParallelDelegatedSearch;
 import org.codehaus.jdt.groovy.model.GroovyCompilationUnit;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.jdt.core.IJavaElement;
@@ -260,6 +261,26 @@ public class MethodReferenceSearchTests extends AbstractGroovySearchTest {
     }
 
 
+    // arity of dynamic references is not indexed, so calls with many arguments are found too
+    public void testMethodWithManyParameters() throws Exception {
+        doTestForTwoMethodReferences(
+                "class First {\n" +
+                "    void xxx(a, b, c, d, e, f, g, h) { }\n" +
+                "}",
+                "class Second {\n" +
+                "    void other0() {\n" +
+                "        First f\n" +
+                "        f.xxx(1, 2, 3, 4, 5, 6, 7, 8)\n" +
+                "    }\n" +
+                "    void other1() {\n" +
+                "    }\n" +
+                "    void other2() {\n" +
+                "        First f\n" +
+                "        f.xxx(1, 2, 3, 4, 5, 6, 7, 8)\n" +
+                "    }\n" +
+                "}", false, 0, "xxx" );
+    }
+
     public void testConstructorReferenceSearch() throws Exception {
         String groovyContents =
                 "package p\n"
@@ -306,6 +327,42 @@ public class MethodReferenceSearchTests extends AbstractGroovySearchTest {
         assertEquals("Should have found 4 matches in Other.groovy", 4, otherCnt);
     }
 
+    public void testParallelSearch() throws Exception {
+        GroovyCompilationUnit first = createUnit("p", "First", "package p\nclass First {\n  def xxx() { }\n}");
+        for (int i = 0; i < 6; i += 1) {
+            createUnit("p", "User" + i, "package p\nclass User" + i + " {\n  def m(First f) {\n    f.xxx()\n    f.xxx()\n  }\n}");
+            // Java units in between are searched sequentially
+            createJavaUnit("p", "JavaUser" + i, "package p;\nclass JavaUser" + i + " {\n  void m(First f) {\n    f.xxx();\n  }\n}");
+        }
+        fullBuild(project.getFullPath());
+        IMethod method = first.getType("First").getMethods()[0];
+
+        List<SearchMatch> sequential = searchForReferences(method);
+        ParallelDelegatedSearch.setEnabled(true);
+        List<SearchMatch> parallel;
+        try {
+            parallel = searchForReferences(method);
+        } finally {
+            ParallelDelegatedSearch.setEnabled(false);
+        }
+
+        assertEquals("Incorrect number of matches:\n" + parallel, 18, parallel.size());
+        assertEquals(sequential.size(), parallel.size());
+        for (int i = 0, n = sequential.size(); i < n; i += 1) {
+            assertEquals(sequential.get(i).getElement(), parallel.get(i).getElement());
+            assertEquals(sequential.get(i).getOffset(), parallel.get(i).getOffset());
+        }
+    }
+
+    private List<SearchMatch> searchForReferences(IMethod method) throws Exception {
+        MockSearchRequestor requestor = new MockSearchRequestor();
+        new SearchEngine().search(SearchPattern.createPattern(method, IJavaSearchConstants.REFERENCES),
+                new SearchParticipant[] { SearchEngine.getDefaultSearchParticipant() },
+                SearchEngine.createJavaSearchScope(new IJavaElement[] { method.getAncestor(IJavaElement.PACKAGE_FRAGMENT_ROOT) }, false),
+                requestor, new NullProgressMonitor());
+        return requestor.matches;
+    }
+
     private void doTestForTwoMethodReferencesInScript(String secondContents) throws JavaModelException {
         doTestForTwoMethodReferences(FIRST_CONTENTS_CLASS_FOR_METHODS, secondContents, true, 3, "xxx");
     }
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eclipse.jdt.core.groovy.tests.search;
+
+import java.util.List;
+
+import junit.framework.Test;
+
+import org.codehaus.jdt.groovy.model.GroovyCompilationUnit;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.search.IJavaSearchConstants;
+import org.eclipse.jdt.core.search.SearchMatch;
+import org.eclipse.jdt.core.search.SearchPattern;
+import org.eclipse.jdt.groovy.search.ITypeRequestor;
+import org.eclipse.jdt.groovy.search.SearchTokenFilter;
+import org.eclipse.jdt.groovy.search.TypeInferencingVisitorWithRequestor;
+import org.eclipse.jdt.groovy.search.TypeRequestorFactory;
+
+/**
+ * The textual pre-check of delegated searches must never lose a match.
+ */
+public class SearchTokenFilterTests extends AbstractGroovySearchTest {
+
+    public SearchTokenFilterTests(String name) {
+        super(name);
+    }
+
+    public static Test suite() {
+        return buildTestSuite(SearchTokenFilterTests.class);
+    }
+
+    private static final String FIRST =
+        "package p\n" +
+        "class First {\n" +
+        "  static def xxx() { }\n" +
+        "  static def getYyy() { }\n" +
+        "}\n";
+
+    public void testAccept() throws Exception {
+        SearchTokenFilter filter = SearchTokenFilter.create(SearchPattern.createPattern("xxx", IJavaSearchConstants.METHOD,
+            IJavaSearchConstants.REFERENCES, SearchPattern.R_EXACT_MATCH | SearchPattern.R_CASE_SENSITIVE));
+
+        assertTrue(filter.accept("def a = x.xxx()".toCharArray()));
+        assertFalse(filter.accept("def a = x.yyy()".toCharArray()));
+        assertFalse(filter.accept("def a = x.xxx()".toCharArray(), 0, 10));
+        assertTrue("names may be spelled with escapes", filter.accept("def a = x.\\u0078xx()".toCharArray()));
+    }
+
+    public void testAcceptAccessors() throws Exception {
+        SearchTokenFilter filter = SearchTokenFilter.create(SearchPattern.createPattern("getYyy", IJavaSearchConstants.METHOD,
+            IJavaSearchConstants.REFERENCES, SearchPattern.R_EXACT_MATCH | SearchPattern.R_CASE_SENSITIVE));
+
+        assertTrue(filter.accept("x.getYyy()".toCharArray()));
+        assertTrue(filter.accept("x.yyy".toCharArray()));
+    }
+
+    public void testNoFilter() throws Exception {
+        assertNull(SearchTokenFilter.create(SearchPattern.createPattern("xx*", IJavaSearchConstants.METHOD,
+            IJavaSearchConstants.REFERENCES, SearchPattern.R_PATTERN_MATCH | SearchPattern.R_CASE_SENSITIVE)));
+        assertNull(SearchTokenFilter.create(SearchPattern.createPattern("XXX", IJavaSearchConstants.METHOD,
+            IJavaSearchConstants.REFERENCES, SearchPattern.R_EXACT_MATCH)));
+        assertNull(SearchTokenFilter.create(SearchPattern.createPattern("FiSe", IJavaSearchConstants.TYPE,
+            IJavaSearchConstants.REFERENCES, SearchPattern.R_CAMELCASE_MATCH)));
+        assertNull(SearchTokenFilter.create(SearchPattern.createPattern("First", IJavaSearchConstants.TYPE,
+            IJavaSearchConstants.DECLARATIONS, SearchPattern.R_EXACT_MATCH | SearchPattern.R_CASE_SENSITIVE)));
+    }
+
+    public void testMembers() throws Exception {
+        assertSameMatches(1, "xxx",
+            "import p.First\n" +
+            "class Second {\n" +
+            "  def a() { First.xxx() }\n" +
+            "  def b() { First.getYyy() }\n" +
+            "}\n");
+    }
+
+    public void testAccessorAsProperty() throws Exception {
+        assertSameMatches(0, "getYyy",
+            "import p.First\n" +
+            "class Second {\n" +
+            "  def a() { First.yyy }\n" +
+            "  def b() { First.xxx() }\n" +
+            "}\n");
+    }
+
+    public void testStaticImportAlias() throws Exception {
+        assertSameMatches(1, "xxx",
+            "import static p.First.xxx as zzz\n" +
+            "class Second {\n" +
+            "  def a() { zzz() }\n" +
+            "}\n");
+    }
+
+    public void testTypeImportAlias() throws Exception {
+        assertSameMatches(2, null,
+            "import p.First as Alias\n" +
+            "class Second {\n" +
+            "  Alias a() { new Alias() }\n" +
+            "  def b() { }\n" +
+            "}\n");
+    }
+
+    //--------------------------------------------------------------------------
+
+    /**
+     * Searches the second unit for references to the method of {@code First}
+     * with the given name (or to {@code First} itself), with and without the
+     * filter, and checks that there are at least the expected number of
+     * matches and that the filter loses none of them.
+     */
+    private void assertSameMatches(int expected, String methodName, String secondContents) throws Exception {
+        GroovyCompilationUnit first = createUnit("p", "First", FIRST);
+        IJavaElement element = first.getType("First");
+        if (methodName != null) {
+            element = first.getType("First").getMethod(methodName, new String[0]);
+        }
+        SearchPattern pattern = SearchPattern.createPattern(element, IJavaSearchConstants.REFERENCES);
+        GroovyCompilationUnit second = createUnit("", "Second", secondContents);
+
+        List<SearchMatch> unfiltered = search(second, pattern, null);
+        assertTrue("Too few matches: " + unfiltered, unfiltered.size() >= expected);
+
+        SearchTokenFilter filter = SearchTokenFilter.create(pattern);
+        assertNotNull(filter);
+        assertTrue(filter.accept(second.getContents()));
+        assertEquals(String.valueOf(unfiltered), String.valueOf(search(second, pattern, filter)));
+    }
+
+    private List<SearchMatch> search(GroovyCompilationUnit unit, SearchPattern pattern, SearchTokenFilter filter) {
+        MockSearchRequestor requestor = new MockSearchRequestor();
+        MockPossibleMatch match = new MockPossibleMatch(unit);
+        ITypeRequestor typeRequestor = new TypeRequestorFactory().createRequestor(match, pattern, requestor);
+        TypeInferencingVisitorWithRequestor visitor = factory.createVisitor(match);
+        visitor.setMemberFilter(filter);
+        visitor.visitCompilationUnit(typeRequestor);
+        return requestor.getMatches();
+    }
+}
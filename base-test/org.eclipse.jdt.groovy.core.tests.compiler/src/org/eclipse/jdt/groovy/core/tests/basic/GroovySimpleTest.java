@@ -15,10 +15,16 @@
  */
 package org.eclipse.jdt.groovy.core.tests.basic;
 
+import java.io.Closeable;
 import java.io.File;
+import java.io.FileOutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
 
 import junit.framework.Test;
 
@@ -27,14 +33,20 @@ import org.codehaus.groovy.ast.ImportNode;
 import org.codehaus.groovy.ast.MethodNode;
 import org.codehaus.groovy.ast.ModuleNode;
 import org.codehaus.groovy.ast.Parameter;
+import org.codehaus.groovy.control.Phases;
 import org.codehaus.jdt.groovy.internal.compiler.ast.AliasImportReference;
+import org.codehaus.jdt.groovy.internal.compiler.ast.CompilerMetrics;
 import org.codehaus.jdt.groovy.internal.compiler.ast.EventListener;
 import org.codehaus.jdt.groovy.internal.compiler.ast.GroovyClassScope;
 import org.codehaus.jdt.groovy.internal.compiler.ast.GroovyCompilationUnitDeclaration;
+import org.codehaus.jdt.groovy.internal.compiler.ast.IndexedURLClassLoader;
 import org.codehaus.jdt.groovy.internal.compiler.ast.JDTClassNode;
 import org.codehaus.jdt.groovy.internal.compiler.ast.JDTResolver;
+import org.codehaus.jdt.groovy.internal.compiler.ast.ProjectCompilerMetrics;
 import org.eclipse.jdt.core.tests.util.GroovyUtils;
+import org.eclipse.jdt.core.tests.util.Util;
 import org.eclipse.jdt.core.util.ClassFileBytesDisassembler;
+import org.eclipse.jdt.groovy.core.util.ReflectionUtils;
 import org.eclipse.jdt.internal.compiler.ast.ASTNode;
 import org.eclipse.jdt.internal.compiler.ast.FieldDeclaration;
 import org.eclipse.jdt.internal.compiler.ast.ImportReference;
@@ -4895,6 +4907,197 @@ public final class GroovySimpleTest extends AbstractGroovyRegressionTest {
         }
     }
 
+    public void testJDTClassNode_LazyMethods() {
+        try {
+            JDTResolver.recordInstances = true;
+            runConformTest(new String[] {
+                "p/Run.groovy",
+                "package p;\n"+
+                "public class Run {\n" +
+                "  public static void main(String[] argv) {\n"+
+                "    java.util.ArrayList list = new java.util.ArrayList()\n"+
+                "    System.out.print(list.size());\n"+
+                "  }\n"+
+                "}\n"
+            },"0");
+
+            JDTClassNode classnode = JDTResolver.getCachedNode("java.util.ArrayList<E>");
+            assertNotNull(classnode);
+            // methods of one name, then all methods without converting the first ones again
+            List<MethodNode> sizeMethods = classnode.getDeclaredMethods("size");
+            assertEquals(1, sizeMethods.size());
+            int count = 0;
+            for (MethodNode method : classnode.getMethods()) {
+                if (method.getName().equals("size")) {
+                    assertSame(sizeMethods.get(0), method);
+                    count += 1;
+                }
+            }
+            assertEquals(1, count);
+            assertEquals(1, classnode.getDeclaredMethods("size").size());
+            assertTrue(classnode.getDeclaredMethods("add").size() > 1);
+        } finally {
+            JDTResolver.instances.clear();
+            JDTResolver.recordInstances=false;
+        }
+    }
+
+    public void testIndexedTransformLoader() throws Exception {
+        // synthetic classpath of 300 jars, each with a package of its own
+        File dir = File.createTempFile("indexed", "jars");
+        dir.delete();
+        dir.mkdirs();
+        URL[] urls = new URL[301];
+        for (int i = 0; i < 300; i += 1) {
+            File jar = new File(dir, "lib" + i + ".jar");
+            JarOutputStream out = new JarOutputStream(new FileOutputStream(jar));
+            try {
+                out.putNextEntry(new JarEntry("p" + i + "/q/Resource.txt"));
+                out.write(i);
+            } finally {
+                out.close();
+            }
+            urls[i] = jar.toURI().toURL();
+        }
+        // an output folder, whose contents change after the index is built
+        File classes = new File(dir, "classes");
+        new File(classes, "r").mkdirs();
+        urls[300] = classes.toURI().toURL();
+
+        URLClassLoader plain = new URLClassLoader(urls, null);
+        IndexedURLClassLoader indexed = new IndexedURLClassLoader(urls, null);
+        try {
+            assertNotNull(indexed.getResource("p123/q/Resource.txt"));
+            assertNull(indexed.getResource("p123/Missing.txt"));
+            assertNull(indexed.getResource("r/Late.txt"));
+            new FileOutputStream(new File(classes, "r/Late.txt")).close();
+            assertNotNull(indexed.getResource("r/Late.txt"));
+            try {
+                indexed.loadClass("p123.q.Missing");
+                fail("class should not be found");
+            } catch (ClassNotFoundException expected) {
+            }
+
+            // the same answers as without the index
+            for (int i = 0; i < 300; i += 1) {
+                String name = "p" + i + "/q/Resource.txt";
+                assertEquals(String.valueOf(plain.getResource(name)), String.valueOf(indexed.getResource(name)));
+            }
+            assertNull(plain.getResource("java/util/Missing.class"));
+            assertNull(indexed.getResource("java/util/Missing.class"));
+        } finally {
+            close(plain);
+            close(indexed);
+            Util.delete(dir);
+        }
+    }
+
+    public void testIndexedTransformLoaderMissingEntry() throws Exception {
+        File dir = File.createTempFile("indexed", "jars");
+        dir.delete();
+        dir.mkdirs();
+        File jar = new File(dir, "lib.jar");
+        JarOutputStream out = new JarOutputStream(new FileOutputStream(jar));
+        try {
+            out.putNextEntry(new JarEntry("p/Resource.txt"));
+            out.write(0);
+        } finally {
+            out.close();
+        }
+        // an output folder that is only created by the first build
+        File classes = new File(dir, "classes");
+        URL[] urls = new URL[] {jar.toURI().toURL(), new URL(classes.toURI().toURL() + "/")};
+
+        URLClassLoader plain = new URLClassLoader(urls, null);
+        IndexedURLClassLoader indexed = new IndexedURLClassLoader(urls, null);
+        try {
+            assertNotNull(indexed.getResource("p/Resource.txt"));
+            assertNull(indexed.getResource("r/Late.txt"));
+            new File(classes, "r").mkdirs();
+            new FileOutputStream(new File(classes, "r/Late.txt")).close();
+            assertNotNull(plain.getResource("r/Late.txt"));
+            assertNotNull(indexed.getResource("r/Late.txt"));
+        } finally {
+            close(plain);
+            close(indexed);
+            Util.delete(dir);
+        }
+    }
+
+    public void testCompilerMetricsPerProject() throws Exception {
+        boolean enabled = CompilerMetrics.isEnabled();
+        CompilerMetrics.setEnabled(true);
+        CompilerMetrics.reset();
+        try {
+            enterMetrics("A");
+            recordMetrics("event", 5);
+            enterMetrics("B");
+            recordMetrics("event", 7);
+            recordMetrics("event", 3);
+            exitMetrics();
+            // back to the enclosing project
+            recordMetrics("event", 11);
+            exitMetrics();
+            // outside of any compile
+            recordMetrics("event", 13);
+
+            ProjectCompilerMetrics a = CompilerMetrics.getMetrics("A");
+            assertEquals(2, a.getCount("event"));
+            assertEquals(16, a.getTotalNanos("event"));
+            assertEquals(11, a.getMaxNanos("event"));
+            ProjectCompilerMetrics b = CompilerMetrics.getMetrics("B");
+            assertEquals(2, b.getCount("event"));
+            assertEquals(10, b.getTotalNanos("event"));
+            assertEquals(7, b.getMaxNanos("event"));
+            assertNull(CompilerMetrics.getMetrics(null));
+
+            long start = System.nanoTime();
+            runConformTest(new String[] {
+                "p/X.groovy",
+                "package p\n" +
+                "class X {\n" +
+                "  static void main(String[] args) {\n" +
+                "    print 'success'\n" +
+                "  }\n" +
+                "}\n",
+            }, "success");
+            long elapsed = System.nanoTime() - start;
+
+            // each phase is recorded once per unit, although compile restarts from the first phase
+            ProjectCompilerMetrics metrics = CompilerMetrics.getMetrics(null);
+            long units = metrics.getCount("phase:" + Phases.getDescription(Phases.CLASS_GENERATION));
+            assertTrue(units > 0);
+            long phaseNanos = 0;
+            for (int phase = Phases.INITIALIZATION; phase <= Phases.CLASS_GENERATION; phase += 1) {
+                String event = "phase:" + Phases.getDescription(phase);
+                assertEquals(event, units, metrics.getCount(event));
+                phaseNanos += metrics.getTotalNanos(event);
+            }
+            assertTrue("Phases took " + phaseNanos + "ns of " + elapsed + "ns", phaseNanos <= elapsed);
+        } finally {
+            CompilerMetrics.reset();
+            CompilerMetrics.setEnabled(enabled);
+        }
+    }
+
+    private static void enterMetrics(String projectName) {
+        ReflectionUtils.executePrivateMethod(CompilerMetrics.class, "enter", new Class[] {String.class}, null, new Object[] {projectName});
+    }
+
+    private static void exitMetrics() {
+        ReflectionUtils.executePrivateMethod(CompilerMetrics.class, "exit", new Class[0], null, new Object[0]);
+    }
+
+    private static void recordMetrics(String event, long nanos) {
+        ReflectionUtils.executePrivateMethod(CompilerMetrics.class, "record", new Class[] {String.class, long.class}, null, new Object[] {event, nanos});
+    }
+
+    private static void close(URLClassLoader loader) throws Exception {
+        if (loader instanceof Closeable) {
+            ((Closeable) loader).close();
+        }
+    }
+
     public void testSecondaryTypeTagging() {
         runConformTest(new String[] {
             "Run.groovy",
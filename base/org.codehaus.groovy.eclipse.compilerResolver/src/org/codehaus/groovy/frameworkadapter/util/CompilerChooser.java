@@ -111,26 +111,19 @@ public class CompilerChooser {
             // WRONG on e4.4 it looks like osgi remember which bundle was activated last time and will
             // use that one again, rather than automatically use latest available version.
             if (found /*&& activeIndex > 0*/) {
+                boolean refreshNeeded = false;
                 for (int i = 0; i < bundles.length; i++) {
                     Bundle bundle = bundles[i];
                     if (i != activeIndex) {
                         System.out.println("Avoided bundle version = "+bundle.getVersion());
+                        refreshNeeded |= mayBeWired(bundle);
                         bundle.uninstall();
                     } else {
                         System.out.println("Blessed bundle version = "+bundle.getVersion());
                     }
                 }
-                PackageAdmin pkgAdmin = context.getService(context.getServiceReference(org.osgi.service.packageadmin.PackageAdmin.class));
-                try {
-                    Method method = pkgAdmin.getClass().getMethod("refreshPackages", Bundle[].class, boolean.class, FrameworkListener[].class);
-                    if (method == null) {
-                        pkgAdmin.refreshPackages(bundles);
-                    } else {
-                        method.setAccessible(true);
-                        method.invoke(pkgAdmin, bundles, true, null);
-                    }
-                } catch (Exception e) {
-                    pkgAdmin.refreshPackages(bundles);
+                if (refreshNeeded) {
+                    refreshPackages(context, bundles);
                 }
             } else {
                 if (!found) {
@@ -148,6 +141,32 @@ public class CompilerChooser {
         //dump(bundles);
     }
 
+    /**
+     * Only a bundle that has been resolved (and may since have been started)
+     * can have other bundles wired to it; an installed one cannot.
+     */
+    private static boolean mayBeWired(Bundle bundle) {
+        return (bundle.getState() & (Bundle.RESOLVED | Bundle.STARTING | Bundle.ACTIVE | Bundle.STOPPING)) != 0;
+    }
+
+    /**
+     * Refreshes the packages of the given bundles and waits for the refresh to complete.
+     */
+    private void refreshPackages(BundleContext context, Bundle[] bundles) {
+        PackageAdmin pkgAdmin = context.getService(context.getServiceReference(org.osgi.service.packageadmin.PackageAdmin.class));
+        try {
+            Method method = pkgAdmin.getClass().getMethod("refreshPackages", Bundle[].class, boolean.class, FrameworkListener[].class);
+            if (method == null) {
+                pkgAdmin.refreshPackages(bundles);
+            } else {
+                method.setAccessible(true);
+                method.invoke(pkgAdmin, bundles, true, null);
+            }
+        } catch (Exception e) {
+            pkgAdmin.refreshPackages(bundles);
+        }
+    }
+
     private void dump(Bundle[] bundles) {
         for (int i = 0; i < bundles.length; i++) {
             Bundle b = bundles[i];
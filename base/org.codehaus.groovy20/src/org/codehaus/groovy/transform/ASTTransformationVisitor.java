@@ -173,6 +173,7 @@ public final class ASTTransformationVisitor extends ClassCodeVisitorSupport {
                 			}
                 		}
                 		long etime = System.nanoTime();
+                		GroovyLogManager.manager.recordTiming(TraceCategory.AST_TRANSFORM, "transform:" + snt.getClass().getName(), etime - stime);
                 		if (GroovyLogManager.manager.hasLoggers()) {
                 			try {
 	                			GroovyLogManager.manager.log(TraceCategory.AST_TRANSFORM,"Local transform "+snt.getClass().getName()+" on "+classNode.getName()+":"+node[1]+" = "+((etime-stime)/1000000)+"ms");
@@ -463,6 +464,7 @@ public final class ASTTransformationVisitor extends ClassCodeVisitorSupport {
                     			}
                     		}
                             long etime = System.nanoTime();
+                            GroovyLogManager.manager.recordTiming(TraceCategory.AST_TRANSFORM, "transform:" + instance.getClass().getName(), etime - stime);
                     		if (GroovyLogManager.manager.hasLoggers()) {
                     			long timetaken = (etime-stime)/1000000;
                     			if (timetaken>0) {
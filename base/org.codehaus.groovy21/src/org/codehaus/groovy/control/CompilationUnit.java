@@ -640,6 +640,11 @@ public class CompilationUnit extends ProcessingUnit {
     }
     
     private void doPhaseOperation(Object operation) {
+        // GRECLIPSE add
+        boolean timed = org.codehaus.groovy.eclipse.GroovyLogManager.manager.hasTimingListener();
+        long stime = timed ? System.nanoTime() : 0;
+        try {
+        // GRECLIPSE end
         if (operation instanceof PrimaryClassNodeOperation) {
             applyToPrimaryClassNodes((PrimaryClassNodeOperation) operation);
         } else if (operation instanceof SourceUnitOperation) {
@@ -647,6 +652,14 @@ public class CompilationUnit extends ProcessingUnit {
         } else {
             applyToGeneratedGroovyClasses((GroovyClassOperation) operation);
         }
+        // GRECLIPSE add
+        } finally {
+            if (timed) {
+                org.codehaus.groovy.eclipse.GroovyLogManager.manager.recordTiming(org.codehaus.groovy.eclipse.TraceCategory.COMPILER,
+                    "operation:" + operation.getClass().getName(), System.nanoTime() - stime);
+            }
+        }
+        // GRECLIPSE end
     }
 
     private void recordPhaseOpsInAllOtherPhases(int currPhase) {
@@ -102,8 +102,33 @@ public class GroovyLogManager {
         return false;
     }
 
+    /**
+     * Receives the duration of timed compiler events, such as phase operations
+     * and AST transforms, whether or not any loggers are installed.
+     */
+    public interface ITimingListener {
+        void timing(TraceCategory category, String event, long nanos);
+    }
+
+    private volatile ITimingListener timingListener;
+
+    public void setTimingListener(ITimingListener listener) {
+        timingListener = listener;
+    }
+
+    public boolean hasTimingListener() {
+        return timingListener != null;
+    }
+
+    public void recordTiming(TraceCategory category, String event, long nanos) {
+        ITimingListener listener = timingListener;
+        if (listener != null) {
+            listener.timing(category, event, nanos);
+        }
+    }
+
     public void logStart(String event) {
-        timers.put(event, System.currentTimeMillis());
+        timers.put(event, System.nanoTime());
     }
 
     public void logEnd(String event, TraceCategory category) {
@@ -111,18 +136,18 @@ public class GroovyLogManager {
     }
 
     public void logEnd(String event, TraceCategory category, String message) {
-        Long then = timers.get(event);
+        Long then = timers.remove(event);
         if (then != null) {
+            long elapsed = System.nanoTime() - then.longValue();
+            recordTiming(category, event, elapsed);
             if (hasLoggers()) {
-                long now = System.currentTimeMillis();
-                long elapsed = now - then.longValue();
+                elapsed /= 1000000L;
                 if ((message != null) && (message.length() > 0)) {
                     log(category, "Event complete: " + elapsed + "ms: " + event + " (" + message + ")");
                 } else {
                     log(category, "Event complete: " + elapsed + "ms: " + event);
                 }
             }
-            timers.remove(event);
         }
     }
 
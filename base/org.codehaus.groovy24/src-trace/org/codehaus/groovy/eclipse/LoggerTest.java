@@ -100,4 +100,26 @@ public class LoggerTest extends TestCase {
         assertTrue(GroovyLogManager.manager.removeLogger(l1));
         assertFalse(GroovyLogManager.manager.removeLogger(l1));
     }
+
+    public void testTimingListener() throws Exception {
+        final StringBuilder events = new StringBuilder();
+        GroovyLogManager.manager.setTimingListener(new GroovyLogManager.ITimingListener() {
+            public void timing(TraceCategory category, String event, long nanos) {
+                assertTrue(nanos >= 0);
+                events.append(category.label).append(':').append(event).append(';');
+            }
+        });
+        try {
+            assertTrue(GroovyLogManager.manager.hasTimingListener());
+            GroovyLogManager.manager.logStart("event");
+            GroovyLogManager.manager.logEnd("event", TraceCategory.COMPILER);
+            // already ended
+            GroovyLogManager.manager.logEnd("event", TraceCategory.COMPILER);
+            GroovyLogManager.manager.recordTiming(TraceCategory.AST_TRANSFORM, "transform", 42L);
+            assertEquals("Compiler:event;AST Transforms:transform;", events.toString());
+        } finally {
+            GroovyLogManager.manager.setTimingListener(null);
+        }
+        assertFalse(GroovyLogManager.manager.hasTimingListener());
+    }
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2009-2016 the original author or authors.
+ * Copyright 2009-2017 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -40,6 +40,7 @@ import org.eclipse.core.runtime.Status;
 import org.eclipse.jdt.groovy.core.Activator;
 import org.eclipse.jdt.internal.compiler.ISourceElementRequestor;
 import org.eclipse.jdt.internal.compiler.ast.ImportReference;
+import org.eclipse.jdt.internal.core.search.indexing.SourceIndexerRequestor;
 import org.eclipse.jdt.internal.core.util.Util;
 
 /**
@@ -104,16 +105,14 @@ public class GroovyIndexingVisitor extends ClassCodeVisitorSupport {
         int start = call.getStart();
         // also could be a field reference
         requestor.acceptFieldReference(methodName, start);
-        // we don't know how many arguments the method has, so go up to 7.
-        for (int i = 0; i < 7; i++) {
-            requestor.acceptMethodReference(methodName, i, start);
-        }
+        acceptDynamicReference(methodName, start);
     }
 
     @Override
     public void visitFieldExpression(FieldExpression expression) {
         super.visitFieldExpression(expression);
         requestor.acceptFieldReference(expression.getFieldName().toCharArray(), expression.getStart());
+        acceptPropertyReference(expression.getFieldName(), expression.getStart());
     }
 
     @Override
@@ -121,12 +120,12 @@ public class GroovyIndexingVisitor extends ClassCodeVisitorSupport {
         if (!(expression.isTrueExpression() || expression.isFalseExpression() || expression.isNullExpression() || expression
                 .isEmptyStringExpression())) {
             char[] constName = expression.getValue().toString().toCharArray();
-            int start = expression.getStart();
-            requestor.acceptFieldReference(constName, start);
-            // also could be a method reference
-            // we don't know how many arguments the method has, so go up to 7.
-            for (int i = 0; i < 7; i++) {
-                requestor.acceptMethodReference(constName, i, start);
+            // only identifiers can name a field, property or method
+            if (isIdentifier(constName)) {
+                int start = expression.getStart();
+                requestor.acceptFieldReference(constName, start);
+                // also could be a method reference
+                acceptDynamicReference(constName, start);
             }
         }
         super.visitConstantExpression(expression);
@@ -161,6 +160,7 @@ public class GroovyIndexingVisitor extends ClassCodeVisitorSupport {
     @Override
     public void visitVariableExpression(VariableExpression expression) {
         requestor.acceptUnknownReference(expression.getName().toCharArray(), expression.getStart());
+        acceptPropertyReference(expression.getName(), expression.getStart());
     }
 
     @Override
@@ -252,6 +252,46 @@ public class GroovyIndexingVisitor extends ClassCodeVisitorSupport {
         }
     }
 
+    /**
+     * Records a method reference whose number of arguments is not known.  The
+     * JDT indexer stores it once, in an arity-agnostic category; any other
+     * requestor gets a plain method reference for each likely arity.
+     */
+    private void acceptDynamicReference(char[] name, int start) {
+        if (requestor instanceof SourceIndexerRequestor) {
+            ((SourceIndexerRequestor) requestor).acceptGroovyDynamicReference(name, start);
+            ((SourceIndexerRequestor) requestor).acceptGroovyPropertyReference(name, start);
+        } else {
+            // we don't know how many arguments the method has, so go up to 7.
+            for (int i = 0; i < 7; i++) {
+                requestor.acceptMethodReference(name, i, start);
+            }
+        }
+    }
+
+    /**
+     * Records a reference to a property or accessor under the property name,
+     * so that references to {@code foo}, {@code getFoo}, {@code isFoo} and
+     * {@code setFoo} are all found by a single index query.
+     */
+    private void acceptPropertyReference(String name, int start) {
+        if (requestor instanceof SourceIndexerRequestor) {
+            ((SourceIndexerRequestor) requestor).acceptGroovyPropertyReference(name.toCharArray(), start);
+        }
+    }
+
+    private static boolean isIdentifier(char[] name) {
+        if (name.length == 0 || !Character.isJavaIdentifierStart(name[0])) {
+            return false;
+        }
+        for (int i = 1; i < name.length; i++) {
+            if (!Character.isJavaIdentifierPart(name[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private char[][] splitName(ClassNode node, boolean useQualifiedName) {
         String name = useQualifiedName ? node.getName() : node.getNameWithoutPackage();
         String[] nameArr = name.split("\\.");
@@ -17,9 +17,11 @@ package org.codehaus.jdt.groovy.integration.internal;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 import org.codehaus.groovy.control.CompilerConfiguration;
 import org.codehaus.groovy.control.ErrorCollector;
@@ -42,12 +44,14 @@ import org.eclipse.jdt.core.ISourceRange;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.WorkingCopyOwner;
 import org.eclipse.jdt.core.search.IJavaSearchScope;
+import org.eclipse.jdt.core.search.SearchMatch;
 import org.eclipse.jdt.core.search.SearchPattern;
 import org.eclipse.jdt.core.search.SearchRequestor;
 import org.eclipse.jdt.groovy.core.util.ContentTypeUtils;
 import org.eclipse.jdt.groovy.core.util.GroovyUtils;
 import org.eclipse.jdt.groovy.core.util.ReflectionUtils;
 import org.eclipse.jdt.groovy.search.ITypeRequestor;
+import org.eclipse.jdt.groovy.search.SearchTokenFilter;
 import org.eclipse.jdt.groovy.search.TypeInferencingVisitorFactory;
 import org.eclipse.jdt.groovy.search.TypeInferencingVisitorWithRequestor;
 import org.eclipse.jdt.groovy.search.TypeRequestorFactory;
@@ -191,10 +195,38 @@ public class GroovyLanguageSupport implements LanguageSupport {
     }
 
     public boolean maybePerformDelegatedSearch(PossibleMatch possibleMatch, SearchPattern pattern, SearchRequestor requestor) {
+        return performDelegatedSearch(possibleMatch, pattern, requestor, false);
+    }
+
+    public Map<PossibleMatch, List<SearchMatch>> performDelegatedSearches(PossibleMatch[] possibleMatches, int start, int length,
+            SearchPattern pattern, IProgressMonitor monitor) {
+        if (!ParallelDelegatedSearch.isEnabled()) {
+            return Collections.emptyMap();
+        }
+        return ParallelDelegatedSearch.search(possibleMatches, start, length, pattern, monitor);
+    }
+
+    /**
+     * Searches one possible match on the calling thread.  Visitors, type lookups
+     * and the module node of the possible match are all created by this call; if
+     * it runs concurrently for different possible matches, the calls into the
+     * contributed type lookups are serialized.
+     */
+    static boolean performDelegatedSearch(PossibleMatch possibleMatch, SearchPattern pattern, SearchRequestor requestor, boolean concurrent) {
         if (possibleMatch.openable != null && possibleMatch.openable.exists()) {
             ITypeRequestor typeRequestor = new TypeRequestorFactory().createRequestor(possibleMatch, pattern, requestor);
             if (typeRequestor != null) {
-                TypeInferencingVisitorWithRequestor visitor = new TypeInferencingVisitorFactory().createVisitor(possibleMatch);
+                SearchTokenFilter filter = null;
+                if (possibleMatch.openable instanceof GroovyCompilationUnit) {
+                    filter = SearchTokenFilter.create(pattern);
+                    // no textual occurrence of the name, so no match; skip parsing and inferencing altogether
+                    if (filter != null && !filter.accept(possibleMatch.getContents())) {
+                        return true;
+                    }
+                }
+                TypeInferencingVisitorFactory factory = new TypeInferencingVisitorFactory();
+                TypeInferencingVisitorWithRequestor visitor = concurrent ? factory.createConcurrentVisitor(possibleMatch) : factory.createVisitor(possibleMatch);
+                visitor.setMemberFilter(filter);
                 visitor.visitCompilationUnit(typeRequestor);
                 return true;
             }
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.jdt.groovy.integration.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.codehaus.jdt.groovy.model.GroovyCompilationUnit;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.jdt.core.search.SearchMatch;
+import org.eclipse.jdt.core.search.SearchPattern;
+import org.eclipse.jdt.core.search.SearchRequestor;
+import org.eclipse.jdt.internal.core.search.matching.PossibleMatch;
+import org.eclipse.jdt.internal.core.util.Util;
+
+/**
+ * Opt-in parallel mode of the delegated search.  The Groovy compilation units
+ * among a batch of possible matches are searched by a pool of worker threads;
+ * each worker parses, creates its own type lookups and infers its unit in
+ * isolation and buffers the matches it finds.  Calls into contributed type
+ * lookups, which need not be thread safe, are serialized.  The buffered matches
+ * are reported by the match locator on the calling thread, each in the place of
+ * its possible match, so results are the same as for a sequential search.
+ * <p>
+ * Enabled by the {@value #ENABLED_PROPERTY} system property or by
+ * {@link #setEnabled(boolean)}.  The pool has one thread per processor and is
+ * shut down when the plug-in stops.
+ */
+public class ParallelDelegatedSearch {
+
+    public static final String ENABLED_PROPERTY = "greclipse.search.parallel";
+
+    private static volatile boolean enabled = Boolean.getBoolean(ENABLED_PROPERTY);
+
+    private static ExecutorService executor;
+
+    private ParallelDelegatedSearch() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean value) {
+        enabled = value;
+    }
+
+    /**
+     * @return the buffered matches of the possible matches that were searched
+     */
+    static Map<PossibleMatch, List<SearchMatch>> search(PossibleMatch[] possibleMatches, int start, int length, final SearchPattern pattern,
+            IProgressMonitor monitor) {
+        List<PossibleMatch> candidates = new ArrayList<PossibleMatch>(length);
+        for (int i = start, n = start + length; i < n; i += 1) {
+            PossibleMatch possibleMatch = possibleMatches[i];
+            if (possibleMatch.isInterestingSourceFile() && possibleMatch.openable instanceof GroovyCompilationUnit) {
+                candidates.add(possibleMatch);
+            }
+        }
+        if (candidates.size() < 2) {
+            // nothing to gain; leave it to the sequential search
+            return Collections.emptyMap();
+        }
+
+        ExecutorService workers = getExecutor();
+        List<Future<List<SearchMatch>>> futures = new ArrayList<Future<List<SearchMatch>>>(candidates.size());
+        for (final PossibleMatch possibleMatch : candidates) {
+            futures.add(workers.submit(new Callable<List<SearchMatch>>() {
+                public List<SearchMatch> call() {
+                    BufferingRequestor buffer = new BufferingRequestor();
+                    if (GroovyLanguageSupport.performDelegatedSearch(possibleMatch, pattern, buffer, true)) {
+                        return buffer.matches;
+                    }
+                    return null;
+                }
+            }));
+        }
+
+        Map<PossibleMatch, List<SearchMatch>> searched = new HashMap<PossibleMatch, List<SearchMatch>>();
+        try {
+            for (int i = 0, n = futures.size(); i < n; i += 1) {
+                List<SearchMatch> matches = await(futures.get(i), monitor);
+                if (matches != null) {
+                    searched.put(candidates.get(i), matches);
+                }
+            }
+        } catch (OperationCanceledException e) {
+            for (Future<List<SearchMatch>> future : futures) {
+                future.cancel(true);
+            }
+            throw e;
+        }
+        return searched;
+    }
+
+    /**
+     * @return the buffered matches or {@code null} if the possible match is left to the sequential search
+     */
+    private static List<SearchMatch> await(Future<List<SearchMatch>> future, IProgressMonitor monitor) {
+        while (true) {
+            if (monitor != null && monitor.isCanceled()) {
+                throw new OperationCanceledException();
+            }
+            try {
+                return future.get(100, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // check for cancellation and keep waiting
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new OperationCanceledException();
+            } catch (ExecutionException e) {
+                Util.log(e.getCause(), "Error in parallel delegated search");
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Stops the worker threads; a later search starts new ones.
+     */
+    public static synchronized void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    private static synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), new ThreadFactory() {
+                private final AtomicInteger count = new AtomicInteger();
+
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "Groovy search worker " + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return executor;
+    }
+
+    private static class BufferingRequestor extends SearchRequestor {
+        final List<SearchMatch> matches = new ArrayList<SearchMatch>();
+
+        @Override
+        public void acceptSearchMatch(SearchMatch match) {
+            matches.add(match);
+        }
+    }
+}
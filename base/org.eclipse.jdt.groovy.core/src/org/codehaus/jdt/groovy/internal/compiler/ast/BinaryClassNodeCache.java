@@ -0,0 +1,245 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.jdt.groovy.internal.compiler.ast;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.compiler.CharOperation;
+import org.eclipse.jdt.groovy.core.CacheMetrics;
+import org.eclipse.jdt.groovy.core.ICacheReporter;
+import org.eclipse.jdt.internal.compiler.lookup.BinaryTypeBinding;
+import org.eclipse.jdt.internal.compiler.lookup.TypeBinding;
+
+/**
+ * Shares the {@link JDTClassNode}s of binary types that come from archives (the
+ * JRE and jars on the classpath) between the {@link JDTResolver}s of successive
+ * reconciles of a project, so that each reconcile does not convert
+ * {@code java.*}, {@code groovy.*} and library types all over again.
+ * <p>
+ * A cache is keyed by project and by the classpath that {@link GroovyParser}
+ * computed for it; it is replaced when the classpath changes and discarded when
+ * the Java model reports that the project's classpath or the contents of one of
+ * its archives changed.  A shared node is only handed out for a binding that
+ * comes from the same archive entry.
+ * <p>
+ * Shared nodes keep the lookup environment of the reconcile that created them
+ * (their donor) and continue to materialize members, generics and annotations
+ * from it, serialized on the donor's lock.  So only resolvers of reconciles
+ * that leave their environment alone afterwards donate, and a donor's nodes are
+ * evicted if its environment is found to have been reset all the same.  The
+ * number of donors is bounded, which bounds the number of lookup environments
+ * retained: a new donor replaces the one that donated least recently, along
+ * with its nodes.  The retained environments are accounted for in
+ * {@link CacheMetrics}.
+ * <p>
+ * Disabled by setting the {@value #ENABLED_PROPERTY} system property to false.
+ */
+public class BinaryClassNodeCache {
+
+    public static final String ENABLED_PROPERTY = "greclipse.sharedBinaryTypes";
+
+    private static final boolean enabled = Boolean.valueOf(System.getProperty(ENABLED_PROPERTY, "true")).booleanValue();
+
+    private static final int MAX_DONORS = 4;
+
+    private static final Map<String, BinaryClassNodeCache> caches = new ConcurrentHashMap<String, BinaryClassNodeCache>();
+
+    static {
+        CacheMetrics.register(new ICacheReporter() {
+            public String getCacheName() {
+                return "BinaryClassNodeCache";
+            }
+
+            public void report(CacheMetrics.Report report) {
+                for (Map.Entry<String, BinaryClassNodeCache> entry : caches.entrySet()) {
+                    // nodes are converted lazily; count a modest size for each
+                    int count = entry.getValue().nodes.size();
+                    report.add(entry.getKey(), count, 2 * 1024L * count);
+                    // and the lookup environments that the donors pin, by the bindings they converted
+                    for (JDTResolver donor : entry.getValue().getDonors()) {
+                        report.add(entry.getKey(), 1, 8 * 1024L * donor.getConvertedCount());
+                    }
+                }
+            }
+        });
+    }
+
+    private static IElementChangedListener classpathListener;
+
+    private static synchronized void ensureClasspathListener() {
+        if (classpathListener == null) {
+            classpathListener = new IElementChangedListener() {
+                public void elementChanged(ElementChangedEvent event) {
+                    IJavaElementDelta delta = event.getDelta();
+                    if (delta != null) {
+                        for (IJavaElementDelta child : delta.getAffectedChildren()) {
+                            if (child.getElement() instanceof IJavaProject && (child.getKind() != IJavaElementDelta.CHANGED ||
+                                    (child.getFlags() & (IJavaElementDelta.F_CLASSPATH_CHANGED | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED | IJavaElementDelta.F_CLOSED)) != 0 ||
+                                    hasArchiveChange(child))) {
+                                tidy(child.getElement().getElementName());
+                            }
+                        }
+                    }
+                }
+            };
+            JavaCore.addElementChangedListener(classpathListener, ElementChangedEvent.POST_CHANGE);
+        }
+    }
+
+    private static boolean hasArchiveChange(IJavaElementDelta projectDelta) {
+        for (IJavaElementDelta root : projectDelta.getAffectedChildren()) {
+            if ((root.getFlags() & (IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED | IJavaElementDelta.F_REMOVED_FROM_CLASSPATH)) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Discards all shared nodes and stops listening for classpath changes.
+     */
+    public static synchronized void dispose() {
+        if (classpathListener != null) {
+            JavaCore.removeElementChangedListener(classpathListener);
+            classpathListener = null;
+        }
+        caches.clear();
+    }
+
+    /**
+     * @return the cache of the project for the given classpath or {@code null} if nodes are not shared
+     */
+    static BinaryClassNodeCache forProject(String projectName, String classpath) {
+        if (!enabled || projectName == null) {
+            return null;
+        }
+        if (classpath == null) {
+            classpath = "";
+        }
+        BinaryClassNodeCache cache = caches.get(projectName);
+        if (cache == null || !cache.classpath.equals(classpath)) {
+            ensureClasspathListener();
+            synchronized (caches) {
+                cache = caches.get(projectName);
+                if (cache == null || !cache.classpath.equals(classpath)) {
+                    cache = new BinaryClassNodeCache(classpath);
+                    caches.put(projectName, cache);
+                }
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * Discards the shared nodes of the project.
+     */
+    public static void tidy(String projectName) {
+        caches.remove(projectName);
+    }
+
+    /**
+     * @return {@code true} iff the binding is of an unrestricted binary type read from an archive
+     */
+    static boolean isShareable(TypeBinding binding) {
+        if (binding instanceof BinaryTypeBinding) {
+            // access restrictions are specific to the project that looks the type up
+            if (binding.hasRestrictedAccess()) {
+                return false;
+            }
+            char[] fileName = ((BinaryTypeBinding) binding).getFileName();
+            return fileName != null && CharOperation.indexOf('|', fileName) > 0;
+        }
+        return false;
+    }
+
+    //--------------------------------------------------------------------------
+
+    private final String classpath;
+    private final Map<String, JDTClassNode> nodes = new ConcurrentHashMap<String, JDTClassNode>();
+    // least recently donating first
+    private final List<JDTResolver> donors = new ArrayList<JDTResolver>(MAX_DONORS);
+
+    private BinaryClassNodeCache(String classpath) {
+        this.classpath = classpath;
+    }
+
+    /**
+     * @return shared node for the binding or {@code null}
+     */
+    JDTClassNode get(String name, BinaryTypeBinding binding) {
+        JDTClassNode node = nodes.get(name);
+        if (node != null && !node.resolver.isEnvironmentIntact()) {
+            evict(node.resolver);
+            return null;
+        }
+        if (node != null && CharOperation.equals(node.jdtBinding.getFileName(), binding.getFileName())) {
+            return node;
+        }
+        return null;
+    }
+
+    private synchronized void evict(JDTResolver donor) {
+        donors.remove(donor);
+        for (Iterator<JDTClassNode> it = nodes.values().iterator(); it.hasNext();) {
+            if (it.next().resolver == donor) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Offers the shareable nodes created by a resolver whose compilation is
+     * complete and whose lookup environment is not going to be reset.  Must be
+     * called on the thread that ran the compilation.
+     */
+    void donate(JDTResolver resolver, List<JDTClassNode> candidates) {
+        if (candidates.isEmpty()) {
+            return;
+        }
+        synchronized (this) {
+            if (!donors.remove(resolver) && donors.size() >= MAX_DONORS) {
+                evict(donors.get(0));
+            }
+            donors.add(resolver);
+            for (JDTClassNode node : candidates) {
+                String name = node.getName();
+                if (node.resolver == resolver && !nodes.containsKey(name)) {
+                    nodes.put(name, node);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the number of resolvers whose nodes are shared
+     */
+    synchronized int getDonorCount() {
+        return donors.size();
+    }
+
+    synchronized List<JDTResolver> getDonors() {
+        return new ArrayList<JDTResolver>(donors);
+    }
+}
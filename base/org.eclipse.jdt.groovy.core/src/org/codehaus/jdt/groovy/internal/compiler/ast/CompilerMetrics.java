@@ -0,0 +1,219 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.jdt.groovy.internal.compiler.ast;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.codehaus.groovy.control.Phases;
+import org.codehaus.groovy.eclipse.GroovyLogManager;
+import org.codehaus.groovy.eclipse.TraceCategory;
+import org.eclipse.jdt.internal.core.util.Util;
+
+/**
+ * Collects per-project timings of the Groovy compile pipeline: compiler phases,
+ * phase operations, AST transforms, type resolution through JDT and population
+ * of the JDT compilation unit declaration.  Each project's timings are exposed
+ * as an MBean named {@code org.codehaus.groovy.eclipse:type=CompilerMetrics,project=...}
+ * and all of them can be dumped as JSON with {@link #toJson()}.
+ * <p>
+ * Collection is off by default; it is turned on by the {@value #ENABLED_PROPERTY}
+ * system property or by {@link #setEnabled(boolean)}.  Timings are attributed
+ * to the project whose compilation unit is being processed on the current thread.
+ */
+public class CompilerMetrics {
+
+    public static final String ENABLED_PROPERTY = "greclipse.compiler.metrics";
+
+    public static final String OBJECT_NAME_PREFIX = "org.codehaus.groovy.eclipse:type=CompilerMetrics,project=";
+
+    private static final String NO_PROJECT = "<none>";
+
+    private static final Map<String, ProjectCompilerMetrics> projects = new ConcurrentHashMap<String, ProjectCompilerMetrics>();
+
+    private static final ThreadLocal<Context> context = new ThreadLocal<Context>();
+
+    private static volatile boolean enabled;
+
+    static {
+        if (Boolean.getBoolean(ENABLED_PROPERTY)) {
+            setEnabled(true);
+        }
+    }
+
+    private static class Context {
+        final ProjectCompilerMetrics metrics;
+        final Context previous;
+        long markNanos = System.nanoTime();
+
+        Context(ProjectCompilerMetrics metrics, Context previous) {
+            this.metrics = metrics;
+            this.previous = previous;
+        }
+    }
+
+    private CompilerMetrics() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static synchronized void setEnabled(boolean value) {
+        enabled = value;
+        if (value) {
+            GroovyLogManager.manager.setTimingListener(new GroovyLogManager.ITimingListener() {
+                public void timing(TraceCategory category, String event, long nanos) {
+                    record(event, nanos);
+                }
+            });
+        } else {
+            GroovyLogManager.manager.setTimingListener(null);
+        }
+    }
+
+    /**
+     * @return the metrics of the project or {@code null} if nothing has been recorded for it
+     */
+    public static ProjectCompilerMetrics getMetrics(String projectName) {
+        return projects.get(projectName != null ? projectName : NO_PROJECT);
+    }
+
+    /**
+     * Discards all metrics and unregisters their MBeans.
+     */
+    public static synchronized void reset() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (String projectName : projects.keySet()) {
+            try {
+                ObjectName name = objectName(projectName);
+                if (server.isRegistered(name)) {
+                    server.unregisterMBean(name);
+                }
+            } catch (JMException e) {
+                Util.log(e, "Unable to unregister compiler metrics of " + projectName);
+            }
+        }
+        projects.clear();
+    }
+
+    public static String toJson() {
+        List<String> names = new ArrayList<String>(projects.keySet());
+        Collections.sort(names);
+        StringBuilder sb = new StringBuilder("{");
+        for (int i = 0, n = names.size(); i < n; i += 1) {
+            if (i > 0) sb.append(',');
+            sb.append('\n').append(ProjectCompilerMetrics.quote(names.get(i))).append(": ");
+            projects.get(names.get(i)).appendJson(sb);
+        }
+        return sb.append("\n}").toString();
+    }
+
+    //--------------------------------------------------------------------------
+
+    /**
+     * Attributes the timings recorded on the current thread to the given
+     * project until the matching {@link #exit()}.  Calls may be nested.
+     */
+    static void enter(String projectName) {
+        if (enabled) {
+            context.set(new Context(metricsFor(projectName != null ? projectName : NO_PROJECT), context.get()));
+        }
+    }
+
+    static void exit() {
+        Context current = context.get();
+        if (current != null) {
+            if (current.previous != null) {
+                context.set(current.previous);
+            } else {
+                context.remove();
+            }
+        }
+    }
+
+    /**
+     * Restarts the clock of the current phase, so that time spent outside of it
+     * is not attributed to it.
+     */
+    static void mark() {
+        Context current = context.get();
+        if (current != null) {
+            current.markNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * Records the time since the previous phase completed (or since the last
+     * {@link #mark()}) as the duration of the phase.  This is the only place
+     * that records {@code phase:} events; the {@code operation:} and
+     * {@code transform:} events are parts of a phase.
+     */
+    static void phaseComplete(int phase) {
+        Context current = context.get();
+        if (current != null) {
+            long now = System.nanoTime();
+            current.metrics.record("phase:" + Phases.getDescription(phase), now - current.markNanos);
+            current.markNanos = now;
+        }
+    }
+
+    /**
+     * @return start time for {@link #record(String, long)} or 0 if nothing is being recorded
+     */
+    static long start() {
+        return context.get() != null ? System.nanoTime() : 0L;
+    }
+
+    static void recordSince(String event, long startNanos) {
+        if (startNanos != 0L) {
+            record(event, System.nanoTime() - startNanos);
+        }
+    }
+
+    static void record(String event, long nanos) {
+        Context current = context.get();
+        if (current != null) {
+            current.metrics.record(event, nanos);
+        }
+    }
+
+    private static synchronized ProjectCompilerMetrics metricsFor(String projectName) {
+        ProjectCompilerMetrics metrics = projects.get(projectName);
+        if (metrics == null) {
+            metrics = new ProjectCompilerMetrics(projectName);
+            projects.put(projectName, metrics);
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, objectName(projectName));
+            } catch (JMException e) {
+                Util.log(e, "Unable to register compiler metrics of " + projectName);
+            }
+        }
+        return metrics;
+    }
+
+    private static ObjectName objectName(String projectName) throws JMException {
+        return new ObjectName(OBJECT_NAME_PREFIX + ObjectName.quote(projectName));
+    }
+}
@@ -147,6 +147,8 @@ public class GroovyCompilationUnitDeclaration extends CompilationUnitDeclaration
     // The groovy sourceunit (a member of the groovyCompilationUnit)
     private SourceUnit groovySourceUnit;
     private CompilerOptions compilerOptions;
+    // Keeps the project's AST transform loader open until this unit is cleaned up
+    GroovyParser.Lease loaderLease;
     public static boolean defaultCheckGenerics = false;
     public static boolean earlyTransforms = true;
     static {
@@ -168,6 +170,8 @@ public class GroovyCompilationUnitDeclaration extends CompilationUnitDeclaration
     private boolean isScript = false;
     private TraitHelper traitHelper = new TraitHelper();
     private static final boolean DEBUG_TASK_TAGS = false;
+    // beyond this many copies of one syntax error at one offset, further (recovery) copies add nothing
+    private static final int MAX_REPEATS_PER_OFFSET = 3;
 
     public GroovyCompilationUnitDeclaration(
             ProblemReporter problemReporter,
@@ -211,8 +215,14 @@ public class GroovyCompilationUnitDeclaration extends CompilationUnitDeclaration
             ClassLoader cl = Thread.currentThread().getContextClassLoader();
             try {
                 Thread.currentThread().setContextClassLoader(groovyCompilationUnit.getTransformLoader());
+                ReconcileTimings timings = ReconcileTimings.current();
+                if (timings != null) {
+                    timings.mark();
+                }
+                CompilerMetrics.enter(compilerOptions != null ? compilerOptions.groovyProjectName : null);
                 groovyCompilationUnit.compile(phase);
             } finally {
+                CompilerMetrics.exit();
                 Thread.currentThread().setContextClassLoader(cl);
             }
             if (groovySourceUnit.getErrorCollector().hasErrors()) {
@@ -314,8 +324,15 @@ public class GroovyCompilationUnitDeclaration extends CompilationUnitDeclaration
      * Populate the compilation unit based on the successful parse.
      */
     public void populateCompilationUnitDeclaration() {
-        UnitPopulator populator = new UnitPopulator();
-        populator.populate(this, groovySourceUnit);
+        CompilerMetrics.enter(compilerOptions != null ? compilerOptions.groovyProjectName : null);
+        try {
+            long start = CompilerMetrics.start();
+            UnitPopulator populator = new UnitPopulator();
+            populator.populate(this, groovySourceUnit);
+            CompilerMetrics.recordSince("populateCompilationUnitDeclaration", start);
+        } finally {
+            CompilerMetrics.exit();
+        }
     }
 
     private final static boolean DEBUG = false;
@@ -452,18 +469,22 @@ public class GroovyCompilationUnitDeclaration extends CompilationUnitDeclaration
         // against the wrong type. That is the only case I have seen of it, so I'm not putting in the general mechanism for all
         // errors yet, I'm just dealing with RuntimeParserExceptions. The general strategy would be to compare the ModuleNode
         // for each message with the ModuleNode currently being processed - if they differ then this isn't a message for this
-        // unit and so we ignore it. If we do deal with it then we remember that we did (in errorsRecorded) and remove it from
-        // the list of those to process.
+        // unit and so we ignore it. If we do deal with it then we remove it from the list of those to process.
 
-        List<Message> errorsRecorded = new ArrayList<Message>();
+        if (errors.isEmpty()) {
+            return;
+        }
+        int[] lineSeparatorPositions = compilationResult.lineSeparatorPositions;
+        DefaultProblemFactory problemFactory = new DefaultProblemFactory();
+        // number of copies of each syntax error recorded so far by start offset; parser recovery from broken code can
+        // report the same error at one place over and over
+        Map<String, Integer> repeats = new HashMap<String, Integer>();
         // FIXASC poor way to get the errors attached to the files
         // FIXASC does groovy ever produce warnings? How are they treated here?
         for (Iterator<?> iterator = errors.iterator(); iterator.hasNext();) {
             SyntaxException syntaxException = null;
             Message message = (Message) iterator.next();
-            StringWriter sw = new StringWriter();
-            message.write(new PrintWriter(sw));
-            String msg = sw.toString();
+            String msg = null; // other messages are formatted only if they are recorded
             CategorizedProblem p = null;
             int line = 0;
             int sev = 0;
@@ -529,32 +550,20 @@ public class GroovyCompilationUnitDeclaration extends CompilationUnitDeclaration
                     soffset = rpe.getNode().getStart();
                     eoffset = rpe.getNode().getEnd() - 1;
                     // need to work out the line again as it may be wrong
-                    line = 0;
-                    while (compilationResult.lineSeparatorPositions[line] < soffset
-                            && line < compilationResult.lineSeparatorPositions.length) {
-                        line++;
-                    }
-
-                    line++; // from an array index to a real 'line number'
+                    line = getLine(lineSeparatorPositions, soffset);
                 }
             }
             if (syntaxException instanceof PreciseSyntaxException) {
                 soffset = ((PreciseSyntaxException) syntaxException).getStartOffset();
                 eoffset = ((PreciseSyntaxException) syntaxException).getEndOffset();
                 // need to work out the line again as it may be wrong
-                line = 0;
-                while (line < compilationResult.lineSeparatorPositions.length
-                        && compilationResult.lineSeparatorPositions[line] < soffset) {
-                    line++;
-                }
-                ;
-                line++; // from an array index to a real 'line number'
+                line = getLine(lineSeparatorPositions, soffset);
             } else {
                 if (soffset == -1) {
-                    soffset = getOffset(compilationResult.lineSeparatorPositions, line, scol);
+                    soffset = getOffset(lineSeparatorPositions, line, scol);
                 }
                 if (eoffset == -1) {
-                    eoffset = getOffset(compilationResult.lineSeparatorPositions, line, ecol);
+                    eoffset = getOffset(lineSeparatorPositions, line, ecol);
                 }
             }
             if (soffset > eoffset) {
@@ -565,12 +574,39 @@ public class GroovyCompilationUnitDeclaration extends CompilationUnitDeclaration
                 eoffset = sourceEnd;
             }
 
-            p = new DefaultProblemFactory().createProblem(getFileName(), 0, new String[] {msg}, 0, new String[] {msg}, sev, soffset, eoffset, line, scol);
+            if (syntaxException != null && syntaxException.getStartLine() > 0) {
+                String key = soffset + msg;
+                Integer recorded = repeats.get(key);
+                if (recorded != null && recorded >= MAX_REPEATS_PER_OFFSET) {
+                    // a copy of a problem that is already recorded
+                    iterator.remove();
+                    continue;
+                }
+                repeats.put(key, recorded == null ? 1 : recorded + 1);
+            }
+            if (msg == null) {
+                StringWriter sw = new StringWriter();
+                message.write(new PrintWriter(sw));
+                msg = sw.toString();
+            }
+
+            p = problemFactory.createProblem(getFileName(), 0, new String[] {msg}, 0, new String[] {msg}, sev, soffset, eoffset, line, scol);
             problemReporter.record(p, compilationResult, this, false);
-            errorsRecorded.add(message);
-            log(String.valueOf(compilationResult.getFileName()) + ": " + line + " " + msg);
+            iterator.remove();
+            if (DEBUG) {
+                log(String.valueOf(compilationResult.getFileName()) + ": " + line + " " + msg);
+            }
+        }
+    }
+
+    /**
+     * @return the 1-based number of the line that contains the offset
+     */
+    private static int getLine(int[] lineSeparatorPositions, int offset) {
+        if (lineSeparatorPositions == null || lineSeparatorPositions.length == 0) {
+            return 1;
         }
-        errors.removeAll(errorsRecorded);
+        return org.eclipse.jdt.internal.compiler.util.Util.getLineNumber(offset, lineSeparatorPositions, 0, lineSeparatorPositions.length - 1);
     }
 
     private int getOffset(int[] lineSeparatorPositions, int line, int col) {
@@ -722,6 +758,10 @@ public class GroovyCompilationUnitDeclaration extends CompilationUnitDeclaration
         if (groovySourceUnit instanceof EclipseSourceUnit) {
             ((EclipseSourceUnit) groovySourceUnit).resolver.cleanUp();
         }
+        if (loaderLease != null) {
+            loaderLease.release();
+            loaderLease = null;
+        }
     }
 
 /*
@@ -42,20 +42,21 @@ public class GroovyErrorCollectorForJDT extends ErrorCollector {
 
     @Override
     public void addErrorAndContinue(Message message) {
-        try {
-            String error;
-            if (message instanceof SimpleMessage) {
-                error = ((SimpleMessage) message).getMessage();
-            } else {
-                StringWriter writer = new StringWriter();
-                message.write(new PrintWriter(writer));
-                error = writer.toString().trim();
-            }
-            if (GroovyLogManager.manager.hasLoggers()) {
+        // broken code can produce many errors per reconcile; format them only for the trace log
+        if (GroovyLogManager.manager.hasLoggers()) {
+            try {
+                String error;
+                if (message instanceof SimpleMessage) {
+                    error = ((SimpleMessage) message).getMessage();
+                } else {
+                    StringWriter writer = new StringWriter();
+                    message.write(new PrintWriter(writer));
+                    error = writer.toString().trim();
+                }
                 GroovyLogManager.manager.log(TraceCategory.COMPILER, error);
+            } catch (Throwable t) {
+                Util.log(t);
             }
-        } catch (Throwable t) {
-            Util.log(t);
         }
         super.addErrorAndContinue(message);
     }
@@ -15,28 +15,40 @@
  */
 package org.codehaus.jdt.groovy.internal.compiler.ast;
 
+import java.io.Closeable;
 import java.io.File;
+import java.io.IOException;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Field;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.StringTokenizer;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.jar.JarFile;
 
 import groovy.lang.GroovyClassLoader;
 
+import org.apache.xbean.classloader.DestroyableClassLoader;
 import org.apache.xbean.classloader.NonLockingJarFileClassLoader;
 import org.codehaus.groovy.ast.ClassNode;
 import org.codehaus.groovy.control.CompilationUnit;
 import org.codehaus.groovy.control.CompilationUnit.PrimaryClassNodeOperation;
+import org.codehaus.groovy.control.CompilationUnit.ProgressCallback;
 import org.codehaus.groovy.control.CompilationUnit.ProgressListener;
 import org.codehaus.groovy.control.CompilerConfiguration;
 import org.codehaus.groovy.control.ErrorCollector;
 import org.codehaus.groovy.control.Phases;
+import org.codehaus.groovy.control.ProcessingUnit;
 import org.codehaus.groovy.control.SourceUnit;
 import org.codehaus.groovy.control.customizers.CompilationCustomizer;
 import org.codehaus.groovy.eclipse.GroovyLogManager;
@@ -48,7 +60,10 @@ import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.jdt.core.compiler.CharOperation;
 import org.eclipse.jdt.core.util.CompilerUtils;
+import org.eclipse.jdt.groovy.core.CacheMetrics;
+import org.eclipse.jdt.groovy.core.ICacheReporter;
 import org.eclipse.jdt.groovy.core.util.GroovyUtils;
+import org.eclipse.jdt.groovy.core.util.ReflectionUtils;
 import org.eclipse.jdt.groovy.core.util.ScriptFolderSelector;
 import org.eclipse.jdt.internal.compiler.CompilationResult;
 import org.eclipse.jdt.internal.compiler.ast.CompilationUnitDeclaration;
@@ -62,6 +77,7 @@ import org.eclipse.jdt.internal.compiler.lookup.LookupEnvironment;
 import org.eclipse.jdt.internal.compiler.problem.ProblemReporter;
 import org.eclipse.jdt.internal.core.builder.BatchImageBuilder;
 import org.eclipse.jdt.internal.core.builder.BuildNotifier;
+import org.eclipse.jdt.internal.core.util.Util;
 
 /**
  * The mapping layer between the groovy parser and the JDT. This class communicates with the groovy parser and translates results
@@ -85,53 +101,232 @@ public class GroovyParser {
     }
 
     /*
-     * Each project is allowed a GroovyClassLoader that will be used to load transform definitions and supporting classes. A cache
-     * is maintained from project names to the current classpath and associated loader. If the classpath matches the cached version
-     * on a call to build a parser then it is reused. If it does not match then a new loader is created and stored (storing it
-     * orphans the previously cached one). When either a full build or a clean or project close occurs, we also discard the loader
-     * instances associated with the project.
+     * Each project is allowed a GroovyClassLoader that will be used to load transform definitions and supporting classes. Loaders
+     * are shared: they are cached by canonical classpath (entries made canonical, duplicates dropped) and reference counted by
+     * the projects that use them, so projects with the same classpath share one loader and its open jars. When a project's
+     * classpath changes, or when a full build, a clean or a project close occurs, the project releases its loader. Each
+     * compilation in flight also holds a lease on the loader it uses: one for the parser and one for every unit it parses,
+     * given back when the unit is cleaned up (or, failing that, when parser or unit are garbage collected). The loader is
+     * closed, releasing its jars, once no project and no compilation uses it anymore.
      */
 
+    private static final Object loaderLock = new Object();
     private static Map<String, PathLoaderPair> projectToLoaderCache = new ConcurrentHashMap<String, PathLoaderPair>();
+    private static Map<String, PathLoaderPair> classpathToLoaderCache = new HashMap<String, PathLoaderPair>();
+    private static Map<String, String> projectToClasspath = new HashMap<String, String>();
+    private static Set<Lease> leases = new HashSet<Lease>();
+    private static ReferenceQueue<Object> expiredLeases = new ReferenceQueue<Object>();
     private static Map<String, ScriptFolderSelector> scriptFolderSelectorCache = new ConcurrentHashMap<String, ScriptFolderSelector>();
 
+    static {
+        CacheMetrics.register(new ICacheReporter() {
+            public String getCacheName() {
+                return "GroovyParser.projectToLoaderCache";
+            }
+
+            public void report(CacheMetrics.Report report) {
+                for (Map.Entry<String, PathLoaderPair> entry : projectToLoaderCache.entrySet()) {
+                    PathLoaderPair pathLoaderPair = entry.getValue();
+                    // a shared loader is split evenly between its users
+                    report.add(entry.getKey(), 1, pathLoaderPair.estimateSize() / Math.max(1, pathLoaderPair.users));
+                }
+            }
+        });
+        CacheMetrics.register(new ICacheReporter() {
+            public String getCacheName() {
+                return "GroovyParser.scriptFolderSelectorCache";
+            }
+
+            public void report(CacheMetrics.Report report) {
+                for (String projectName : scriptFolderSelectorCache.keySet()) {
+                    report.add(projectName, 1, 512);
+                }
+            }
+        });
+    }
+
     static class PathLoaderPair {
-        String classpath;
-        GroovyClassLoader groovyClassLoader;
+        final String classpath;
+        final URLClassLoader configureLoader;
+        volatile GroovyClassLoader groovyClassLoader;
+        int users, leases;
+        boolean closed;
 
         PathLoaderPair(String classpath) {
             this.classpath = classpath;
-            this.groovyClassLoader = new GroovyClassLoader(createConfigureLoader(classpath));
+            this.configureLoader = createConfigureLoader(classpath);
+            this.groovyClassLoader = new GroovyClassLoader(configureLoader);
+        }
+
+        /**
+         * Rough estimate: the class path and open jar indexes of the configure
+         * loader plus the classes defined by both loaders.  The transforms and
+         * their dependencies are defined by the configure loader.
+         */
+        long estimateSize() {
+            long size = 2L * classpath.length();
+            size += 16 * 1024L * new StringTokenizer(classpath, File.pathSeparator).countTokens();
+            size += 4 * 1024L * (countDefinedClasses(configureLoader) + groovyClassLoader.getLoadedClasses().length);
+            return size;
+        }
+
+        /**
+         * Closes both loaders, which releases the jars they have opened, once
+         * neither a project nor a compilation uses them.  The configure loader
+         * is then expected to be collected, since it holds the jars and the
+         * transform classes; the Groovy loader is its child.
+         */
+        void closeIfUnused(String owner) {
+            if (users <= 0 && leases <= 0 && !closed) {
+                closed = true;
+                CacheMetrics.orphaned(configureLoader, owner);
+                closeLoader(groovyClassLoader);
+                closeLoader(configureLoader);
+            }
         }
     }
 
     /**
-     * Close the jar files that have been kept open by the URLClassLoader
+     * @return the number of classes defined by the loader or 0 if the VM does not tell
      */
-    public static void close(GroovyClassLoader groovyClassLoader) {
+    private static int countDefinedClasses(ClassLoader loader) {
         try {
-            Class<?> clazz = java.net.URLClassLoader.class;
-            Field field_urlClasspath = clazz.getDeclaredField("ucp");
-            field_urlClasspath.setAccessible(true);
-            Object urlClasspath = field_urlClasspath.get(groovyClassLoader);
-            Field field_loaders = urlClasspath.getClass().getDeclaredField("loaders");
-            field_loaders.setAccessible(true);
-            Object[] jarLoaders = ((java.util.Collection<?>) field_loaders.get(urlClasspath)).toArray();
-            for (Object jarLoader : jarLoaders) {
-                try {
-                    Field field_jarFile = jarLoader.getClass().getDeclaredField("jar");
-                    field_jarFile.setAccessible(true);
-                    JarFile jarFile = (JarFile) field_jarFile.get(jarLoader);
-                    String jarFileName = jarFile.getName();
-                    if (jarFileName.indexOf("cache") != -1 || jarFileName.indexOf("plugins") != -1) {
-                        jarFile.close();
+            Object classes = ReflectionUtils.throwableGetPrivateField(ClassLoader.class, "classes", loader);
+            if (classes instanceof Collection) {
+                return ((Collection<?>) classes).size();
+            }
+        } catch (Exception e) {
+            // not available on this VM
+        }
+        return 0;
+    }
+
+    /**
+     * Keeps a loader open while a compilation uses it.
+     */
+    static final class Lease extends WeakReference<Object> {
+        private PathLoaderPair pathLoaderPair;
+
+        private Lease(Object holder, PathLoaderPair pathLoaderPair) {
+            super(holder, expiredLeases);
+            this.pathLoaderPair = pathLoaderPair;
+            pathLoaderPair.leases += 1;
+        }
+
+        void release() {
+            synchronized (loaderLock) {
+                if (pathLoaderPair != null) {
+                    leases.remove(this);
+                    pathLoaderPair.leases -= 1;
+                    pathLoaderPair.closeIfUnused(pathLoaderPair.classpath);
+                    pathLoaderPair = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return a lease on the loader of the pair for as long as the holder is in use or {@code null} if there is no pair
+     */
+    private static Lease lease(Object holder, PathLoaderPair pathLoaderPair) {
+        if (pathLoaderPair == null) {
+            return null;
+        }
+        synchronized (loaderLock) {
+            releaseExpiredLeases();
+            Lease lease = new Lease(holder, pathLoaderPair);
+            leases.add(lease);
+            return lease;
+        }
+    }
+
+    private static void releaseExpiredLeases() {
+        for (Reference<?> ref; (ref = expiredLeases.poll()) != null;) {
+            ((Lease) ref).release();
+        }
+    }
+
+    private static void closeLoader(ClassLoader loader) {
+        try {
+            if (loader instanceof DestroyableClassLoader) {
+                ((DestroyableClassLoader) loader).destroy();
+            } else if (loader instanceof Closeable) {
+                ((Closeable) loader).close();
+            }
+        } catch (IOException e) {
+            Util.log(e, "Unable to close AST transform loader");
+        }
+    }
+
+    /**
+     * @return the class path with its entries made canonical and without duplicates
+     */
+    private static String canonicalize(String path) {
+        Set<String> entries = new LinkedHashSet<String>();
+        for (StringTokenizer tokenizer = new StringTokenizer(path, File.pathSeparator); tokenizer.hasMoreTokens();) {
+            File file = new File(tokenizer.nextToken());
+            try {
+                entries.add(file.getCanonicalPath());
+            } catch (IOException e) {
+                entries.add(file.getAbsolutePath());
+            }
+        }
+        StringBuilder sb = new StringBuilder(path.length());
+        for (String entry : entries) {
+            if (sb.length() > 0) sb.append(File.pathSeparatorChar);
+            sb.append(entry);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @return the loader for the classpath, shared with all other projects that have the same classpath
+     */
+    private static PathLoaderPair acquireLoader(String projectName, String path) {
+        synchronized (loaderLock) {
+            releaseExpiredLeases();
+            PathLoaderPair pathAndLoader = projectToLoaderCache.get(projectName);
+            if (pathAndLoader != null && projectToClasspath.get(projectName).equals(path)) {
+                return pathAndLoader;
+            }
+            String classpath = canonicalize(path);
+            if (pathAndLoader == null || !classpath.equals(pathAndLoader.classpath)) {
+                if (pathAndLoader != null) {
+                    // classpath change detected
+                    releaseLoader(projectName);
+                }
+                pathAndLoader = classpathToLoaderCache.get(classpath);
+                if (pathAndLoader == null) {
+                    if (GroovyLogManager.manager.hasLoggers()) {
+                        GroovyLogManager.manager.log(TraceCategory.AST_TRANSFORM,
+                                "Classpath for GroovyClassLoader (used to discover transforms): " + classpath);
                     }
-                } catch (Throwable t) {
-                    // Probably not a JarLoader
+                    pathAndLoader = new PathLoaderPair(classpath);
+                    classpathToLoaderCache.put(classpath, pathAndLoader);
+                }
+                pathAndLoader.users += 1;
+                projectToLoaderCache.put(projectName, pathAndLoader);
+            }
+            projectToClasspath.put(projectName, path);
+            return pathAndLoader;
+        }
+    }
+
+    /**
+     * Releases the project's use of its loader; the loader is closed once no other project and no compilation uses it.
+     */
+    private static void releaseLoader(String projectName) {
+        synchronized (loaderLock) {
+            releaseExpiredLeases();
+            projectToClasspath.remove(projectName);
+            PathLoaderPair pathLoaderPair = projectToLoaderCache.remove(projectName);
+            if (pathLoaderPair != null) {
+                pathLoaderPair.users -= 1;
+                if (pathLoaderPair.users <= 0) {
+                    classpathToLoaderCache.remove(pathLoaderPair.classpath);
+                    pathLoaderPair.closeIfUnused(projectName);
                 }
             }
-        } catch (Throwable t) {
-            // Not the kind of VM we thought it was...
         }
     }
 
@@ -139,26 +334,39 @@ public class GroovyParser {
      * Remove all cached classloaders for this project
      */
     public static void tidyCache(String projectName) {
-        // This will orphan the loader on the heap
-        projectToLoaderCache.remove(projectName);
+        releaseLoader(projectName);
         scriptFolderSelectorCache.remove(projectName);
+        BinaryClassNodeCache.tidy(projectName);
     }
 
+    /**
+     * Releases the project's loader, which closes the jars it has open unless another project or a compilation uses it.
+     */
     public static void closeClassLoader(String projectName) {
-        PathLoaderPair pathLoaderPair = projectToLoaderCache.get(projectName);
-        if (pathLoaderPair != null) {
-            close(pathLoaderPair.groovyClassLoader);
-        }
+        releaseLoader(projectName);
     }
 
     /**
      * Clears cached class loaders for all caches. It helps to fix problems with cached trait helper classes.
+     * <p>
+     * The loaders are closed as soon as the compilations still using them, such as the one that asks for this,
+     * are done with them.
      */
     static void tidyCache() {
-        projectToLoaderCache.clear();
+        synchronized (loaderLock) {
+            releaseExpiredLeases();
+            for (PathLoaderPair pathLoaderPair : classpathToLoaderCache.values()) {
+                pathLoaderPair.users = 0;
+                pathLoaderPair.closeIfUnused(pathLoaderPair.classpath);
+            }
+            classpathToLoaderCache.clear();
+            projectToLoaderCache.clear();
+            projectToClasspath.clear();
+        }
     }
 
     private GroovyClassLoader gclForBatch = null;
+    private Lease loaderLease;
 
     private GroovyClassLoader getLoaderFor(String path) {
         GroovyClassLoader gcl = null;
@@ -202,24 +410,14 @@ public class GroovyParser {
             if (projectName == null) {
                 // throw new IllegalStateException("Cannot build without knowing project name");
             } else {
-                PathLoaderPair pathAndLoader = projectToLoaderCache.get(projectName);
-                if (pathAndLoader == null) {
-                    if (GroovyLogManager.manager.hasLoggers()) {
-                        GroovyLogManager.manager.log(TraceCategory.AST_TRANSFORM,
-                                "Classpath for GroovyClassLoader (used to discover transforms): " + path);
-                    }
-                    pathAndLoader = new PathLoaderPair(path);
-                    projectToLoaderCache.put(projectName, pathAndLoader);
-                } else {
-                    if (!path.equals(pathAndLoader.classpath)) {
-                        // classpath change detected
-                        // System.out.println("Classpath change detected for " + projectName);
-                        pathAndLoader = new PathLoaderPair(path);
-                        projectToLoaderCache.put(projectName, pathAndLoader);
-                    }
+                PathLoaderPair pathLoaderPair = acquireLoader(projectName, path);
+                // lease before letting go of the previous loader, in case both are the same
+                Lease previous = loaderLease;
+                loaderLease = lease(this, pathLoaderPair);
+                if (previous != null) {
+                    previous.release();
                 }
-                // System.out.println("Using loader with path " + pathAndLoader.classpath);
-                gcl = pathAndLoader.groovyClassLoader;
+                gcl = pathLoaderPair.groovyClassLoader;
             }
         }
         return gcl;
@@ -304,7 +502,7 @@ public class GroovyParser {
         if (NONLOCKING) {
             return new NonLockingJarFileClassLoader("AST Transform loader", urls, parent);
         } else {
-            return new URLClassLoader(urls, parent);
+            return new IndexedURLClassLoader(urls, parent);
         }
     }
 
@@ -390,6 +588,9 @@ public class GroovyParser {
         groovySourceUnit.isReconcile = compilationUnit.isReconcile;
         GroovyCompilationUnitDeclaration gcuDeclaration = new GroovyCompilationUnitDeclaration(problemReporter, compilationResult,
                 sourceCode.length, compilationUnit, groovySourceUnit, compilerOptions);
+        if (loaderLease != null) {
+            gcuDeclaration.loaderLease = lease(gcuDeclaration, loaderLease.pathLoaderPair);
+        }
         // FIXASC get this from the Antlr parser
         compilationResult.lineSeparatorPositions = GroovyUtils.getSourceLineSeparatorsIn(sourceCode);
         compilationUnit.addSource(groovySourceUnit);
@@ -404,6 +605,9 @@ public class GroovyParser {
                 }
             }
         }
+        if ((compilationUnit.isReconcile && ReconcileTimings.current() != null) || CompilerMetrics.isEnabled()) {
+            compilationUnit.setProgressCallback(new PhaseTimingCallback());
+        }
         gcuDeclaration.processToPhase(Phases.CONVERSION);
 
         // Groovy moduleNode is null when there is a fatal error
@@ -483,6 +687,42 @@ public class GroovyParser {
         }
     }
 
+    /**
+     * PhaseTimingCallback is called back when the compiler completes a phase. It feeds the phase timings of the
+     * {@link ReconcileTimings} recording on the current thread, if any, and of the {@link CompilerMetrics}.
+     * <p>
+     * Each compile call restarts from the first phase, so the phases completed by an earlier call (parsing and
+     * conversion, when the unit is later resolved) are called back again; these are not recorded a second time.
+     */
+    static class PhaseTimingCallback extends ProgressCallback {
+
+        private int lastPhase;
+        private int recordedThrough;
+
+        @Override
+        public void call(ProcessingUnit context, int phase) {
+            if (phase < lastPhase) {
+                recordedThrough = lastPhase;
+            }
+            lastPhase = phase;
+            boolean replayed = (phase <= recordedThrough);
+
+            ReconcileTimings timings = ReconcileTimings.current();
+            if (timings != null) {
+                if (replayed) {
+                    timings.mark();
+                } else {
+                    timings.phaseComplete(phase);
+                }
+            }
+            if (replayed) {
+                CompilerMetrics.mark();
+            } else {
+                CompilerMetrics.phaseComplete(phase);
+            }
+        }
+    }
+
     private CompilationUnit makeCompilationUnit(GroovyClassLoader loader, GroovyClassLoader transformLoader, boolean isReconcile, boolean allowTransforms) {
 
         // FIXASC (M3) need our own tweaked subclass of CompilerConfiguration?
@@ -520,6 +760,9 @@ public class GroovyParser {
             compilerOptions.groovyTransformsToRunOnReconcile,
             compilerOptions.groovyExcludeGlobalASTScan);
         this.resolver = new JDTResolver(cu);
+        if (isReconcile) {
+            resolver.setSharedNodes(BinaryClassNodeCache.forProject(projectName, gclClasspath));
+        }
         cu.setResolveVisitor(resolver);
         cu.tweak(isReconcile);
 
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.jdt.groovy.internal.compiler.ast;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+
+/**
+ * Loader of the AST transform classpath that knows which packages its jars
+ * contain.  The index is built once, from the central directories of the jars,
+ * the first time a class or resource is looked up.  Lookups in packages that
+ * no jar contains are answered from the index (and a direct check of the
+ * classpath's directories, whose contents change with builds, and of entries
+ * that did not exist when the index was built) instead of
+ * probing every jar in turn; this is the common case, since Groovy resolves
+ * names by trying each imported package.  Lookups in indexed packages go
+ * through {@link URLClassLoader} as before.
+ * <p>
+ * Classpaths that cannot be indexed, for example because of remote entries or
+ * jars with a {@code Class-Path} manifest attribute, are not filtered.
+ */
+public class IndexedURLClassLoader extends URLClassLoader {
+
+    private Set<String> packages;
+    private List<File> directories;
+    private boolean indexable = true;
+
+    public IndexedURLClassLoader(URL[] urls, ClassLoader parent) {
+        super(urls, parent);
+    }
+
+    @Override
+    protected void addURL(URL url) {
+        super.addURL(url);
+        synchronized (this) {
+            packages = null;
+            directories = null;
+            indexable = true;
+        }
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+        if (!mightContain(name.replace('.', '/').concat(".class"))) {
+            throw new ClassNotFoundException(name);
+        }
+        return super.findClass(name);
+    }
+
+    @Override
+    public URL findResource(String name) {
+        if (!mightContain(name)) {
+            return null;
+        }
+        return super.findResource(name);
+    }
+
+    @Override
+    public Enumeration<URL> findResources(String name) throws IOException {
+        if (!mightContain(name)) {
+            return Collections.enumeration(Collections.<URL>emptyList());
+        }
+        return super.findResources(name);
+    }
+
+    /**
+     * @return {@code false} iff the resource is known not to be on the classpath
+     */
+    boolean mightContain(String path) {
+        Set<String> indexed;
+        List<File> classpathDirectories;
+        synchronized (this) {
+            if (!ensureIndexed()) {
+                return true;
+            }
+            indexed = packages;
+            classpathDirectories = directories;
+        }
+        int slash = path.lastIndexOf('/');
+        if (indexed.contains(slash > 0 ? path.substring(0, slash) : "")) {
+            return true;
+        }
+        for (File directory : classpathDirectories) {
+            if (new File(directory, path).exists()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private synchronized boolean ensureIndexed() {
+        if (packages == null && indexable) {
+            Set<String> jarPackages = new HashSet<String>();
+            List<File> classpathDirectories = new ArrayList<File>();
+            for (URL url : getURLs()) {
+                if (!"file".equals(url.getProtocol())) {
+                    indexable = false;
+                    break;
+                }
+                File file;
+                try {
+                    file = new File(url.toURI());
+                } catch (URISyntaxException e) {
+                    file = new File(url.getPath());
+                }
+                if (!file.isFile()) {
+                    // entries that do not exist yet may become output folders
+                    classpathDirectories.add(file);
+                } else if (!indexJar(file, jarPackages)) {
+                    indexable = false;
+                    break;
+                }
+            }
+            if (indexable) {
+                directories = classpathDirectories;
+                packages = jarPackages;
+            }
+        }
+        return indexable;
+    }
+
+    /**
+     * Adds the packages of the jar and their parents to the index.
+     *
+     * @return {@code false} if the jar cannot be indexed
+     */
+    private static boolean indexJar(File file, Set<String> packages) {
+        JarFile jar = null;
+        try {
+            jar = new JarFile(file, false);
+            Manifest manifest = jar.getManifest();
+            if (manifest != null && manifest.getMainAttributes().getValue(Attributes.Name.CLASS_PATH) != null) {
+                return false;
+            }
+            packages.add("");
+            for (Enumeration<? extends ZipEntry> entries = jar.entries(); entries.hasMoreElements();) {
+                String name = entries.nextElement().getName();
+                int slash = name.lastIndexOf('/');
+                while (slash > 0 && packages.add(name.substring(0, slash))) {
+                    slash = name.lastIndexOf('/', slash - 1);
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            // not a jar; let URLClassLoader deal with it
+            return false;
+        } finally {
+            if (jar != null) {
+                try {
+                    jar.close();
+                } catch (IOException e) {
+                    // ignore
+                }
+            }
+        }
+    }
+}
@@ -16,6 +16,7 @@
 package org.codehaus.jdt.groovy.internal.compiler.ast;
 
 import java.lang.reflect.Modifier;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -63,8 +64,8 @@ import org.eclipse.jdt.internal.compiler.lookup.ParameterizedTypeBinding;
 import org.eclipse.jdt.internal.compiler.lookup.RawTypeBinding;
 import org.eclipse.jdt.internal.compiler.lookup.ReferenceBinding;
 import org.eclipse.jdt.internal.compiler.lookup.SourceTypeBinding;
-import org.eclipse.jdt.internal.compiler.lookup.SyntheticMethodBinding;
 import org.eclipse.jdt.internal.compiler.lookup.TypeBinding;
+import org.eclipse.jdt.internal.compiler.lookup.TypeConstants;
 import org.eclipse.jdt.internal.compiler.lookup.TypeVariableBinding;
 
 /**
@@ -92,6 +93,10 @@ public class JDTClassNode extends ClassNode implements JDTNode {
     private int bits = 0;
     private static final int ANNOTATIONS_INITIALIZED = 0x0001;
     private static final int PROPERTIES_INITIALIZED = 0x0002;
+    private static final int METHODS_INITIALIZED = 0x0004;
+    private static final int METHODS_VERIFIED = 0x0008;
+    // Selectors whose methods have been converted, until all methods are
+    private Set<String> initializedSelectors;
     private TypeDeclaration groovyDecl = null;
 
     static final ClassNode unboundWildcard; // represents plain old '?'
@@ -152,7 +157,8 @@ public class JDTClassNode extends ClassNode implements JDTNode {
 
     @Override
     public void lazyClassInit() {
-        synchronized (lazyInitLock) {
+        // resolver's lock rather than lazyInitLock, so that a shared node never waits for a lock held while waiting for its own
+        synchronized (resolver.lock) {
             if (lazyInitDone) {
                 return;
             }
@@ -245,7 +251,8 @@ public class JDTClassNode extends ClassNode implements JDTNode {
         // We do this here rather than at the start of the method because
         // the preceding code sets 'groovyDecl', later used to 'initializeProperties'.
 
-        // From this point onward... the code is only about initializing fields, constructors and methods.
+        // From this point onward... the code is only about initializing fields and constructors; methods are initialized
+        // by selector as they are asked for (see initializeMethods).
         if (redirect != null) {
             // The code in ClassNode seems set up to get field information *always* from the end of the 'redirect' chain.
             // So, the redirect target should be responsible for its own members initialisation.
@@ -256,80 +263,129 @@ public class JDTClassNode extends ClassNode implements JDTNode {
             return;
         }
 
-        MethodBinding[] bindings = null;
+        // ClassNode reads constructors and fields of a redirect target directly, so these cannot be deferred
+        for (MethodBinding methodBinding : getMethodBindings(TypeConstants.INIT)) {
+            if (methodBinding.isConstructor()) {
+                ConstructorNode cNode = constructorBindingToConstructorNode(methodBinding);
+                addConstructor(cNode);
+            }
+        }
+
+        FieldBinding[] fieldBindings = null;
         if (jdtBinding instanceof ParameterizedTypeBinding) {
-            ReferenceBinding genericType = ((ParameterizedTypeBinding) jdtBinding).genericType();
-            bindings = genericType.methods();
+            fieldBindings = ((ParameterizedTypeBinding) jdtBinding).genericType().fields();
         } else {
-            bindings = jdtBinding.methods();
+            fieldBindings = jdtBinding.fields();
         }
-        if (bindings != null) {
-            for (int i = 0; i < bindings.length; i++) {
-                if (bindings[i].isConstructor()) {
-                    ConstructorNode cNode = constructorBindingToConstructorNode(bindings[i]);
-                    addConstructor(cNode);
-                } else {
-                    MethodNode mNode = methodBindingToMethodNode(bindings[i]);
-                    addMethod(mNode);
-                }
+        if (fieldBindings != null) {
+            for (int i = 0; i < fieldBindings.length; i++) {
+                FieldNode fNode = fieldBindingToFieldNode(fieldBindings[i], groovyDecl);
+                addField(fNode);
             }
         }
-        if (jdtBinding instanceof BinaryTypeBinding) {
-            MethodBinding[] infraBindings = ((BinaryTypeBinding) jdtBinding).infraMethods();
-            for (int i = 0; i < infraBindings.length; i++) {
-                if (infraBindings[i].isConstructor()) {
-                    ConstructorNode cNode = constructorBindingToConstructorNode(infraBindings[i]);
-                    addConstructor(cNode);
-                } else {
-                    MethodNode mNode = methodBindingToMethodNode(infraBindings[i]);
+    }
+
+    /**
+     * Converts the methods of the given selector (or all methods if selector is
+     * {@code null}) that have not been converted yet.  Groovy mostly asks for
+     * methods by name, so most of a type's methods are never converted.
+     */
+    private void initializeMethods(String selector) {
+        synchronized (resolver.lock) {
+            lazyClassInit();
+            if ((bits & METHODS_INITIALIZED) != 0) {
+                return;
+            }
+            // record progress before converting, since conversion may come back here
+            Set<String> skipSelectors = null;
+            if (selector != null) {
+                if (initializedSelectors == null) {
+                    initializedSelectors = new HashSet<String>();
+                }
+                if (!initializedSelectors.add(selector)) {
+                    return;
+                }
+            } else {
+                skipSelectors = initializedSelectors;
+                initializedSelectors = null;
+                bits |= METHODS_INITIALIZED;
+            }
+            for (MethodBinding methodBinding : getMethodBindings(selector != null ? selector.toCharArray() : null)) {
+                if (!methodBinding.isConstructor() && (skipSelectors == null || !skipSelectors.contains(String.valueOf(methodBinding.selector)))) {
+                    MethodNode mNode = methodBindingToMethodNode(methodBinding);
                     addMethod(mNode);
                 }
             }
         }
+    }
+
+    /**
+     * @return the declared, infrastructure and synthetic method bindings of the
+     *     given selector, or all of them if selector is {@code null}
+     */
+    private List<MethodBinding> getMethodBindings(char[] selector) {
+        List<MethodBinding> result = new ArrayList<MethodBinding>();
+
+        ReferenceBinding declaringType = jdtBinding;
+        if (jdtBinding instanceof ParameterizedTypeBinding) {
+            declaringType = ((ParameterizedTypeBinding) jdtBinding).genericType();
+        }
+        addMethodBindings(selector == null ? declaringType.methods() : declaringType.getMethods(selector), selector, result);
+
+        if (jdtBinding instanceof BinaryTypeBinding) {
+            addMethodBindings(((BinaryTypeBinding) jdtBinding).infraMethods(), selector, result);
+        }
         // Synthetic bindings are created for features like covariance, where the method implementing an interface method uses a
         // different return type (interface I { A foo(); } class C implements I { AA foo(); } - this needs a method 'A foo()' in C.
         if (jdtBinding instanceof SourceTypeBinding) {
             SourceTypeBinding jdtSourceTypeBinding = (SourceTypeBinding) jdtBinding;
             ClassScope classScope = jdtSourceTypeBinding.scope;
             // a null scope indicates it has already been 'cleaned up' so nothing to do (CUDeclaration.cleanUp())
-            if (classScope != null) {
+            // the verifier only adds methods, so constructors can be had without it
+            if (classScope != null && (bits & METHODS_VERIFIED) == 0 && !CharOperation.equals(selector, TypeConstants.INIT)) {
                 CompilationUnitScope cuScope = classScope.compilationUnitScope();
                 LookupEnvironment environment = classScope.environment();
                 MethodVerifier verifier = environment.methodVerifier();
                 cuScope.verifyMethods(verifier);
+                bits |= METHODS_VERIFIED;
             }
-            SyntheticMethodBinding[] syntheticMethodBindings = ((SourceTypeBinding) jdtBinding).syntheticMethods();
-            if (syntheticMethodBindings != null) {
-                for (int i = 0; i < syntheticMethodBindings.length; i++) {
-                    if (syntheticMethodBindings[i].isConstructor()) {
-                        ConstructorNode cNode = constructorBindingToConstructorNode(bindings[i]);
-                        addConstructor(cNode);
-                    } else {
-                        MethodNode mNode = methodBindingToMethodNode(syntheticMethodBindings[i]);
-                        addMethod(mNode);
-                    }
+            addMethodBindings(jdtSourceTypeBinding.syntheticMethods(), selector, result);
+        }
+        return result;
+    }
+
+    private static void addMethodBindings(MethodBinding[] bindings, char[] selector, List<MethodBinding> result) {
+        if (bindings != null) {
+            for (MethodBinding binding : bindings) {
+                if (selector == null || CharOperation.equals(selector, binding.selector)) {
+                    result.add(binding);
                 }
             }
         }
+    }
 
-        FieldBinding[] fieldBindings = null;
-        if (jdtBinding instanceof ParameterizedTypeBinding) {
-            fieldBindings = ((ParameterizedTypeBinding) jdtBinding).genericType().fields();
-        } else {
-            fieldBindings = jdtBinding.fields();
+    @Override
+    public List<MethodNode> getMethods() {
+        if (redirect == null) {
+            initializeMethods(null);
         }
-        if (fieldBindings != null) {
-            for (int i = 0; i < fieldBindings.length; i++) {
-                FieldNode fNode = fieldBindingToFieldNode(fieldBindings[i], groovyDecl);
-                addField(fNode);
-            }
+        return super.getMethods();
+    }
+
+    @Override
+    public List<MethodNode> getDeclaredMethods(String name) {
+        if (redirect == null) {
+            initializeMethods(name);
         }
+        return super.getDeclaredMethods(name);
     }
 
     @Override
     public boolean mightHaveInners() {
         // return super.hasInnerClasses();
-        return jdtBinding.memberTypes().length != 0;
+        synchronized (resolver.lock) {
+            return jdtBinding.memberTypes().length != 0;
+        }
     }
 
     /**
@@ -338,6 +394,7 @@ public class JDTClassNode extends ClassNode implements JDTNode {
     private MethodNode methodBindingToMethodNode(MethodBinding methodBinding) {
         // FIXASC What value is there in getting the parameter names correct? (for methods and ctors)
         // If they need to be correct we need to retrieve the method decl from the binding scope
+        long start = CompilerMetrics.start();
 
         String name = String.valueOf(methodBinding.selector);
 
@@ -368,6 +425,7 @@ public class JDTClassNode extends ClassNode implements JDTNode {
         GenericsType[] generics = new JDTClassNodeBuilder(resolver).configureTypeVariables(methodBinding.typeVariables());
         mNode.setGenericsTypes(generics);
 
+        CompilerMetrics.recordSince("resolve:methodBindingToMethodNode", start);
         return mNode;
     }
 
@@ -519,17 +577,19 @@ public class JDTClassNode extends ClassNode implements JDTNode {
         return super.getAnnotations(type);
     }
 
-    private synchronized void ensureAnnotationsInitialized() {
-        if ((bits & ANNOTATIONS_INITIALIZED) == 0) {
-            if ((jdtBinding instanceof SourceTypeBinding)) {
-                // ensure resolved
-                ((SourceTypeBinding) jdtBinding).getAnnotationTagBits();
-            }
-            AnnotationBinding[] annotationBindings = jdtBinding.getAnnotations();
-            for (AnnotationBinding annotationBinding : annotationBindings) {
-                addAnnotation(new JDTAnnotationNode(annotationBinding, this.resolver));
+    private void ensureAnnotationsInitialized() {
+        synchronized (resolver.lock) {
+            if ((bits & ANNOTATIONS_INITIALIZED) == 0) {
+                if ((jdtBinding instanceof SourceTypeBinding)) {
+                    // ensure resolved
+                    ((SourceTypeBinding) jdtBinding).getAnnotationTagBits();
+                }
+                AnnotationBinding[] annotationBindings = jdtBinding.getAnnotations();
+                for (AnnotationBinding annotationBinding : annotationBindings) {
+                    addAnnotation(new JDTAnnotationNode(annotationBinding, this.resolver));
+                }
+                bits |= ANNOTATIONS_INITIALIZED;
             }
-            bits |= ANNOTATIONS_INITIALIZED;
         }
     }
 
@@ -539,7 +599,13 @@ public class JDTClassNode extends ClassNode implements JDTNode {
         }
     }
 
-    protected synchronized void initializeProperties() {
+    protected void initializeProperties() {
+        synchronized (resolver.lock) {
+            initializePropertiesLocked();
+        }
+    }
+
+    private void initializePropertiesLocked() {
         if ((bits & PROPERTIES_INITIALIZED) == 0) {
             lazyClassInit();
             // getX methods
@@ -24,6 +24,7 @@ import java.util.Map;
 import org.codehaus.groovy.ast.ClassHelper;
 import org.codehaus.groovy.ast.ClassNode;
 import org.codehaus.groovy.ast.GenericsType;
+import org.eclipse.jdt.core.compiler.CharOperation;
 import org.eclipse.jdt.internal.compiler.ast.Wildcard;
 import org.eclipse.jdt.internal.compiler.lookup.ArrayBinding;
 import org.eclipse.jdt.internal.compiler.lookup.BaseTypeBinding;
@@ -34,6 +35,7 @@ import org.eclipse.jdt.internal.compiler.lookup.ParameterizedTypeBinding;
 import org.eclipse.jdt.internal.compiler.lookup.RawTypeBinding;
 import org.eclipse.jdt.internal.compiler.lookup.SourceTypeBinding;
 import org.eclipse.jdt.internal.compiler.lookup.TypeBinding;
+import org.eclipse.jdt.internal.compiler.lookup.TypeConstants;
 import org.eclipse.jdt.internal.compiler.lookup.TypeIds;
 import org.eclipse.jdt.internal.compiler.lookup.TypeVariableBinding;
 import org.eclipse.jdt.internal.compiler.lookup.UnresolvedReferenceBinding;
@@ -63,7 +65,13 @@ class JDTClassNodeBuilder {
         // See comment on org.eclipse.jdt.internal.compiler.lookup.LookupEnvironment.getTypeFromCompoundName(char[][], boolean,
         // boolean)
         if (type instanceof UnresolvedReferenceBinding) {
-            type = resolver.getScope().environment.askForType(((UnresolvedReferenceBinding) type).compoundName);
+            char[][] compoundName = ((UnresolvedReferenceBinding) type).compoundName;
+            LookupEnvironment environment = resolver.getLookupEnvironment();
+            if (environment == null) {
+                // the resolver has been released and let go of the environment
+                return ClassHelper.makeWithoutCaching(CharOperation.toString(compoundName));
+            }
+            type = environment.askForType(compoundName);
         }
 
         if (type instanceof TypeVariableBinding) {
@@ -277,7 +285,11 @@ class JDTClassNodeBuilder {
         if (tv.firstBound == null) {
             TypeBinding erasure = tv.erasure();
             if (erasure == null) {
-                erasure = resolver.getScope().getJavaLangObject();
+                LookupEnvironment environment = resolver.getLookupEnvironment();
+                if (environment == null) {
+                    return new TypeBinding[0];
+                }
+                erasure = environment.getResolvedType(TypeConstants.JAVA_LANG_OBJECT, null);
             }
             return new TypeBinding[] { erasure }; // Should be JLObject
             // return new TypeBinding[] { resolver.getScope().getJavaLangObject() };
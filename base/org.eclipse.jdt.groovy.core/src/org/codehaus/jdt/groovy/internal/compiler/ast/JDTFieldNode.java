@@ -66,14 +66,16 @@ public class JDTFieldNode extends FieldNode implements JDTNode {
     }
 
     private void ensureAnnotationsInitialized() {
-        if ((bits & ANNOTATIONS_INITIALIZED) == 0) {
-            // If the backing declaring entity for the member is not a SourceTypeBinding then the
-            // annotations will have already been discarded/lost
-            AnnotationBinding[] annotationBindings = fieldBinding.getAnnotations();
-            for (AnnotationBinding annotationBinding : annotationBindings) {
-                super.addAnnotation(new JDTAnnotationNode(annotationBinding, this.resolver));
+        synchronized (resolver.lock) {
+            if ((bits & ANNOTATIONS_INITIALIZED) == 0) {
+                // If the backing declaring entity for the member is not a SourceTypeBinding then the
+                // annotations will have already been discarded/lost
+                AnnotationBinding[] annotationBindings = fieldBinding.getAnnotations();
+                for (AnnotationBinding annotationBinding : annotationBindings) {
+                    super.addAnnotation(new JDTAnnotationNode(annotationBinding, this.resolver));
+                }
+                bits |= ANNOTATIONS_INITIALIZED;
             }
-            bits |= ANNOTATIONS_INITIALIZED;
         }
     }
 
@@ -69,14 +69,16 @@ public class JDTMethodNode extends MethodNode implements JDTNode {
     }
 
     private void ensureAnnotationsInitialized() {
-        if ((bits & ANNOTATIONS_INITIALIZED) == 0) {
-            // If the backing declaring entity for the member is not a SourceTypeBinding then the
-            // annotations will have already been discarded/lost
-            AnnotationBinding[] annotationBindings = methodBinding.getAnnotations();
-            for (AnnotationBinding annotationBinding : annotationBindings) {
-                super.addAnnotation(new JDTAnnotationNode(annotationBinding, this.resolver));
+        synchronized (resolver.lock) {
+            if ((bits & ANNOTATIONS_INITIALIZED) == 0) {
+                // If the backing declaring entity for the member is not a SourceTypeBinding then the
+                // annotations will have already been discarded/lost
+                AnnotationBinding[] annotationBindings = methodBinding.getAnnotations();
+                for (AnnotationBinding annotationBinding : annotationBindings) {
+                    super.addAnnotation(new JDTAnnotationNode(annotationBinding, this.resolver));
+                }
+                bits |= ANNOTATIONS_INITIALIZED;
             }
-            bits |= ANNOTATIONS_INITIALIZED;
         }
     }
 
@@ -40,8 +40,13 @@ import org.eclipse.jdt.groovy.core.util.ReflectionUtils;
 import org.eclipse.jdt.internal.compiler.ast.SingleTypeReference;
 import org.eclipse.jdt.internal.compiler.ast.TypeDeclaration;
 import org.eclipse.jdt.internal.compiler.env.AccessRestriction;
+import org.eclipse.jdt.internal.compiler.lookup.BinaryTypeBinding;
+import org.eclipse.jdt.internal.compiler.lookup.ImportBinding;
+import org.eclipse.jdt.internal.compiler.lookup.LookupEnvironment;
+import org.eclipse.jdt.internal.compiler.lookup.PackageBinding;
 import org.eclipse.jdt.internal.compiler.lookup.TypeBinding;
 import org.eclipse.jdt.internal.compiler.lookup.TypeIds;
+import org.eclipse.jdt.internal.core.CompilationUnitProblemFinder;
 
 /**
  * An extension to the standard groovy ResolveVisitor that can ask JDT for types when groovy cannot find them. A groovy project in
@@ -50,7 +55,8 @@ import org.eclipse.jdt.internal.compiler.lookup.TypeIds;
  * Resolver lifecycle:<br>
  * The JDTResolver is created at the same time as the (Groovy) CompilationUnit. The CompilationUnit knows about all the code that is
  * to be compiled together. The resolver maintains a cache from Binding to JDTClassNode and the cache contents have the same
- * lifetime as the JDTResolver. The resolver does type lookups through the currently active scope - the active scope is set when the
+ * lifetime as the JDTResolver. Nodes for archive types may additionally be shared with the resolvers of later reconciles of the
+ * same project (see {@link BinaryClassNodeCache}). The resolver does type lookups through the currently active scope - the active scope is set when the
  * method 'commencingResolution()' is called. This is called by the superclass (ResolveVisitor) when it is about to start resolving
  * every reference in a type.
  *
@@ -134,6 +140,20 @@ public class JDTResolver extends ResolveVisitor {
 
     private Set<ClassNode> resolvedClassNodes = new HashSet<ClassNode>();
 
+    // Nodes of archive types shared with the resolvers of other reconciles of the same project
+    private BinaryClassNodeCache sharedNodes;
+
+    // Guards node creation and materialization; borrowers of this resolver's shared nodes take it too
+    final Object lock = this;
+
+    // The lookup environment that this resolver's nodes materialize from and its default package at the time; a reset
+    // of the environment replaces the default package
+    private LookupEnvironment environment;
+    private PackageBinding environmentMark;
+
+    // The imports of the compiled unit once the scope is released (see release()); they keep neither bindings nor scope
+    private ImportBinding[] imports;
+
     public JDTResolver(CompilationUnit groovyCompilationUnit) {
         super(groovyCompilationUnit);
         if (recordInstances) {
@@ -144,9 +164,125 @@ public class JDTResolver extends ResolveVisitor {
         }
     }
 
+    /**
+     * Enables the use of nodes shared between compilations.
+     */
+    void setSharedNodes(BinaryClassNodeCache sharedNodes) {
+        this.sharedNodes = sharedNodes;
+    }
+
     public void cleanUp() {
         inProgress.clear();
         //nodeCache.clear();
+        if (sharedNodes != null) {
+            if (isDonatable()) {
+                List<JDTClassNode> shareable = new ArrayList<JDTClassNode>();
+                synchronized (lock) {
+                    for (JDTClassNode node : nodeCache.values()) {
+                        if (node.resolver == this && BinaryClassNodeCache.isShareable(node.jdtBinding)) {
+                            shareable.add(node);
+                        }
+                    }
+                }
+                sharedNodes.donate(this, shareable);
+            }
+            // a donor never borrows from later donors, so borrowers only ever wait for the locks of earlier ones
+            sharedNodes = null;
+        }
+    }
+
+    /**
+     * Nodes may only be shared if the lookup environment they materialize from
+     * is left alone once the compilation is complete: that of a reconcile that
+     * neither resets it (see CompilationUnitProblemFinder.process) nor hands it
+     * on to a DOM AST.
+     */
+    private boolean isDonatable() {
+        return isEnvironmentIntact() && environment.typeRequestor instanceof CompilationUnitProblemFinder &&
+            environment.globalOptions.parseLiteralExpressionsAsConstants; // false iff creating an AST
+    }
+
+    /**
+     * @return {@code true} iff the lookup environment of this resolver's nodes has not been reset
+     */
+    boolean isEnvironmentIntact() {
+        return environment != null && environment.defaultPackage == environmentMark;
+    }
+
+    /**
+     * @return the number of bindings this resolver has converted to nodes
+     */
+    int getConvertedCount() {
+        synchronized (lock) {
+            return nodeCache.size();
+        }
+    }
+
+    /**
+     * Releases state that is only needed while the compilation is running. The
+     * resolver keeps its scope, so it can still resolve the names of source and
+     * binary types afterwards (see {@link #resolve(String)}).
+     */
+    public void compact() {
+        synchronized (lock) {
+            inProgress.clear();
+            scopes.clear();
+            resolvedClassNodes.clear();
+            unresolvables.clear();
+        }
+    }
+
+    /**
+     * Compacts this resolver and also releases its scope, which refers to the
+     * compiled unit's declarations, for a resolver that no one resolves names
+     * with any more; its nodes remain usable.  The lookup environment is only
+     * kept if the nodes may be shared; then the resolver can still resolve the
+     * names of binary types, but no longer those of source types.
+     */
+    public void release() {
+        synchronized (lock) {
+            compact();
+            if (activeScope != null) {
+                imports = detach(activeScope.imports);
+                activeScope = null;
+            }
+            if (!isDonatable()) {
+                environment = null;
+                environmentMark = null;
+            }
+        }
+    }
+
+    private static ImportBinding[] detach(ImportBinding[] imports) {
+        if (imports == null) {
+            return null;
+        }
+        ImportBinding[] detached = new ImportBinding[imports.length];
+        for (int i = 0; i < imports.length; i += 1) {
+            detached[i] = new ImportBinding(imports[i].compoundName, imports[i].onDemand, null, imports[i].reference);
+        }
+        return detached;
+    }
+
+    /**
+     * @return the lookup environment that this resolver's nodes materialize from, or {@code null} if it has been released
+     */
+    LookupEnvironment getLookupEnvironment() {
+        if (activeScope != null) {
+            return activeScope.environment();
+        }
+        return environment;
+    }
+
+    /**
+     * @return the imports of the compiled unit, including the default ones; once released, their bindings are not
+     *         available
+     */
+    public ImportBinding[] getImports() {
+        if (activeScope != null) {
+            return activeScope.imports;
+        }
+        return imports;
     }
 
     @Override
@@ -304,7 +440,9 @@ public class JDTResolver extends ResolveVisitor {
     protected boolean resolveToClass(ClassNode type) {
         ClassNode node;
         if (activeScope != null) {
+            long start = CompilerMetrics.start();
             node = activeScope.lookupClassNodeForBinary(type.getName(), this);
+            CompilerMetrics.recordSince("resolve:lookupClassNodeForBinary", start);
             if (DEBUG) {
                 log("resolveToClass (jdt)", type, node != null);
             }
@@ -312,6 +450,13 @@ public class JDTResolver extends ResolveVisitor {
                 type.setRedirect(node);
                 return true;
             }
+        } else if (environment != null) {
+            // released: there is no scope to check visibility from
+            TypeBinding jdtBinding = environment.getType(CharOperation.splitOn('.', type.getName().toCharArray()));
+            if (jdtBinding instanceof BinaryTypeBinding) {
+                type.setRedirect(convertToClassNode(jdtBinding));
+                return true;
+            }
         }
         // Rudimentary grab support - if the compilation unit has our special classloader and a
         // grab has occurred, try and find the class through it
@@ -372,10 +517,12 @@ public class JDTResolver extends ResolveVisitor {
 
     public ClassNode resolve(String qualifiedName) {
         ClassNode type = ClassHelper.makeWithoutCaching(qualifiedName);
-        if (super.resolve(type)) {
-            return type.redirect();
-        } else {
-            return ClassHelper.DYNAMIC_TYPE;
+        synchronized (lock) {
+            if (super.resolve(type)) {
+                return type.redirect();
+            } else {
+                return ClassHelper.DYNAMIC_TYPE;
+            }
         }
     }
 
@@ -420,19 +567,29 @@ public class JDTResolver extends ResolveVisitor {
      * Converts a JDT TypeBinding to a Groovy ClassNode.
      */
     protected ClassNode convertToClassNode(TypeBinding jdtBinding) {
-        JDTClassNode existingNode = checkForExisting(jdtBinding);
-        if (existingNode != null) {
-            if (DEBUG) {
-                log("Using cached JDTClassNode for binding " + toString(jdtBinding));
+        synchronized (lock) {
+            JDTClassNode existingNode = checkForExisting(jdtBinding);
+            if (existingNode != null) {
+                if (DEBUG) {
+                    log("Using cached JDTClassNode for binding " + toString(jdtBinding));
+                }
+                return existingNode;
             }
-            return existingNode;
-        }
-        if (DEBUG) {
-            if (jdtBinding.id != TypeIds.T_void /*&& !jdtBinding.isPrimitiveOrBoxedPrimitiveType()*/) {
-                log("createJDTClassNode: Building new JDTClassNode for binding " + toString(jdtBinding));
+            existingNode = checkForShared(jdtBinding);
+            if (existingNode != null) {
+                if (DEBUG) {
+                    log("Using shared JDTClassNode for binding " + toString(jdtBinding));
+                }
+                nodeCache.put(jdtBinding, existingNode);
+                return existingNode;
             }
+            if (DEBUG) {
+                if (jdtBinding.id != TypeIds.T_void /*&& !jdtBinding.isPrimitiveOrBoxedPrimitiveType()*/) {
+                    log("createJDTClassNode: Building new JDTClassNode for binding " + toString(jdtBinding));
+                }
+            }
+            return createJDTClassNode(jdtBinding);
         }
-        return createJDTClassNode(jdtBinding);
     }
 
     private JDTClassNode checkForExisting(TypeBinding jdtBinding) {
@@ -446,6 +603,13 @@ public class JDTResolver extends ResolveVisitor {
         return node;
     }
 
+    private JDTClassNode checkForShared(TypeBinding jdtBinding) {
+        if (sharedNodes != null && BinaryClassNodeCache.isShareable(jdtBinding)) {
+            return sharedNodes.get(CharOperation.toString(((BinaryTypeBinding) jdtBinding).compoundName), (BinaryTypeBinding) jdtBinding);
+        }
+        return null;
+    }
+
     /**
      * Creates a Groovy ClassNode that represents the JDT TypeBinding. Steps
      * include building the basic structure, marking node as 'in progress' and
@@ -499,6 +663,10 @@ public class JDTResolver extends ResolveVisitor {
             throw geb;
         }
         activeScope = (GroovyCompilationUnitScope) gtDeclaration.scope.compilationUnitScope();
+        if (environment == null) {
+            environment = activeScope.environment();
+            environmentMark = environment.defaultPackage;
+        }
         if (DEBUG) {
             log("commencing resolution for " + currentClass.getName());
         }
@@ -538,11 +706,14 @@ public class JDTResolver extends ResolveVisitor {
     }
 
     public void startResolving(ClassNode node, SourceUnit source) {
+        long start = CompilerMetrics.start();
         try {
             super.startResolving(node, source);
             unresolvables.clear();
         } catch (AbortResolutionException are) {
             // Can occur if there are other problems with the node (syntax errors) - so don't try resolving it
+        } finally {
+            CompilerMetrics.recordSince("resolve:startResolving", start);
         }
     }
 
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.jdt.groovy.internal.compiler.ast;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Nanosecond counters and duration histograms of the compiler events of one
+ * project.  See {@link CompilerMetrics}.
+ */
+public class ProjectCompilerMetrics implements ProjectCompilerMetricsMBean {
+
+    static final int BUCKETS = 32;
+
+    private static class Timer {
+        long count, totalNanos, maxNanos;
+        final long[] histogram = new long[BUCKETS];
+
+        synchronized void add(long nanos) {
+            count += 1;
+            totalNanos += nanos;
+            if (nanos > maxNanos) {
+                maxNanos = nanos;
+            }
+            long micros = nanos / 1000L;
+            int bucket = micros <= 0 ? 0 : 64 - Long.numberOfLeadingZeros(micros);
+            histogram[Math.min(bucket, BUCKETS - 1)] += 1;
+        }
+    }
+
+    private final String projectName;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<String, Timer>();
+
+    ProjectCompilerMetrics(String projectName) {
+        this.projectName = projectName;
+    }
+
+    void record(String event, long nanos) {
+        Timer timer = timers.get(event);
+        if (timer == null) {
+            synchronized (timers) {
+                timer = timers.get(event);
+                if (timer == null) {
+                    timer = new Timer();
+                    timers.put(event, timer);
+                }
+            }
+        }
+        timer.add(nanos);
+    }
+
+    public String getProjectName() {
+        return projectName;
+    }
+
+    public String[] getEventNames() {
+        List<String> names = new ArrayList<String>(timers.keySet());
+        Collections.sort(names);
+        return names.toArray(new String[names.size()]);
+    }
+
+    public long getCount(String event) {
+        Timer timer = timers.get(event);
+        if (timer == null) return 0;
+        synchronized (timer) {
+            return timer.count;
+        }
+    }
+
+    public long getTotalNanos(String event) {
+        Timer timer = timers.get(event);
+        if (timer == null) return 0;
+        synchronized (timer) {
+            return timer.totalNanos;
+        }
+    }
+
+    public long getMaxNanos(String event) {
+        Timer timer = timers.get(event);
+        if (timer == null) return 0;
+        synchronized (timer) {
+            return timer.maxNanos;
+        }
+    }
+
+    public long[] getHistogram(String event) {
+        Timer timer = timers.get(event);
+        if (timer == null) return new long[BUCKETS];
+        synchronized (timer) {
+            return timer.histogram.clone();
+        }
+    }
+
+    public void reset() {
+        timers.clear();
+    }
+
+    public String toJson() {
+        StringBuilder sb = new StringBuilder();
+        appendJson(sb);
+        return sb.toString();
+    }
+
+    void appendJson(StringBuilder sb) {
+        sb.append('{');
+        boolean first = true;
+        for (String name : getEventNames()) {
+            Timer timer = timers.get(name);
+            if (timer == null) continue;
+            if (!first) sb.append(',');
+            first = false;
+            sb.append("\n  ").append(quote(name)).append(": ");
+            synchronized (timer) {
+                sb.append("{\"count\": ").append(timer.count);
+                sb.append(", \"totalNanos\": ").append(timer.totalNanos);
+                sb.append(", \"maxNanos\": ").append(timer.maxNanos);
+                sb.append(", \"histogram\": [");
+                int last = BUCKETS - 1;
+                while (last > 0 && timer.histogram[last] == 0) {
+                    last -= 1;
+                }
+                for (int b = 0; b <= last; b += 1) {
+                    if (b > 0) sb.append(", ");
+                    sb.append(timer.histogram[b]);
+                }
+                sb.append("]}");
+            }
+        }
+        sb.append("\n}");
+    }
+
+    static String quote(String text) {
+        StringBuilder sb = new StringBuilder(text.length() + 2).append('"');
+        for (int i = 0, n = text.length(); i < n; i += 1) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < ' ') {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.jdt.groovy.internal.compiler.ast;
+
+/**
+ * Management interface of {@link ProjectCompilerMetrics}.
+ */
+public interface ProjectCompilerMetricsMBean {
+
+    String getProjectName();
+
+    /**
+     * @return names of the timed events, for example {@code phase:semantic analysis}
+     *         or {@code transform:org.codehaus.groovy.transform.sc.StaticCompileTransformation}
+     */
+    String[] getEventNames();
+
+    long getCount(String event);
+
+    long getTotalNanos(String event);
+
+    long getMaxNanos(String event);
+
+    /**
+     * @return event counts by duration; bucket {@code i} counts durations of
+     *         less than 2<sup>i</sup> microseconds that do not fit a lower bucket
+     */
+    long[] getHistogram(String event);
+
+    String toJson();
+
+    void reset();
+}
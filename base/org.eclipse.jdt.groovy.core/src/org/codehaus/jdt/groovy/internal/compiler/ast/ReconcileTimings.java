@@ -0,0 +1,109 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.jdt.groovy.internal.compiler.ast;
+
+import org.codehaus.groovy.control.Phases;
+
+/**
+ * Records how long each compiler phase takes while a single compilation unit
+ * is reconciled.  Recording is thread-confined: {@link #start()} binds an
+ * instance to the current thread and {@link GroovyParser} installs a phase
+ * callback on the reconcile compilation unit that feeds it.
+ */
+public class ReconcileTimings {
+
+    private static final ThreadLocal<ReconcileTimings> current = new ThreadLocal<ReconcileTimings>();
+
+    /**
+     * Begins recording on the current thread.
+     */
+    public static ReconcileTimings start() {
+        ReconcileTimings timings = new ReconcileTimings();
+        current.set(timings);
+        return timings;
+    }
+
+    /**
+     * @return the timings being recorded on the current thread or {@code null}
+     */
+    public static ReconcileTimings current() {
+        return current.get();
+    }
+
+    //--------------------------------------------------------------------------
+
+    private final long[] phaseNanos = new long[Phases.ALL + 1];
+    private final long startNanos;
+    private long markNanos;
+    private long totalNanos = -1;
+
+    private ReconcileTimings() {
+        startNanos = markNanos = System.nanoTime();
+    }
+
+    /**
+     * Stops recording on the current thread.
+     */
+    public void stop() {
+        totalNanos = System.nanoTime() - startNanos;
+        if (current.get() == this) {
+            current.remove();
+        }
+    }
+
+    /**
+     * Called when the compiler (re)starts processing, so that time spent
+     * between two compile calls is not attributed to the next phase.
+     */
+    void mark() {
+        markNanos = System.nanoTime();
+    }
+
+    void phaseComplete(int phase) {
+        long now = System.nanoTime();
+        if (phase >= 0 && phase < phaseNanos.length) {
+            phaseNanos[phase] += now - markNanos;
+        }
+        markNanos = now;
+    }
+
+    public long getPhaseNanos(int phase) {
+        return phaseNanos[phase];
+    }
+
+    /**
+     * @return wall-clock time from {@link #start()} to {@link #stop()}
+     */
+    public long getTotalNanos() {
+        return totalNanos >= 0 ? totalNanos : System.nanoTime() - startNanos;
+    }
+
+    public long getTotalMillis() {
+        return getTotalNanos() / 1000000L;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("total=").append(getTotalMillis()).append("ms");
+        for (int phase = Phases.INITIALIZATION; phase <= Phases.ALL; phase += 1) {
+            if (phaseNanos[phase] > 0) {
+                sb.append(' ').append(Phases.getDescription(phase)).append('=').append(phaseNanos[phase] / 1000000L).append("ms");
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -25,6 +25,7 @@ import org.codehaus.groovy.eclipse.GroovyLogManager;
 import org.codehaus.groovy.eclipse.TraceCategory;
 import org.codehaus.jdt.groovy.integration.internal.MultiplexingSourceElementRequestorParser;
 import org.codehaus.jdt.groovy.internal.compiler.ast.GroovyCompilationUnitDeclaration;
+import org.codehaus.jdt.groovy.internal.compiler.ast.ReconcileTimings;
 import org.codehaus.jdt.groovy.model.ModuleNodeMapper.ModuleNodeInfo;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
@@ -37,6 +38,7 @@ import org.eclipse.jdt.core.CompletionRequestor;
 import org.eclipse.jdt.core.IBuffer;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaModelMarker;
 import org.eclipse.jdt.core.IJavaModelStatusConstants;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.IType;
@@ -54,6 +56,7 @@ import org.eclipse.jdt.internal.compiler.SourceElementParser;
 import org.eclipse.jdt.internal.compiler.impl.CompilerOptions;
 import org.eclipse.jdt.internal.compiler.problem.DefaultProblemFactory;
 import org.eclipse.jdt.internal.compiler.problem.ProblemReporter;
+import org.eclipse.jdt.internal.compiler.problem.ProblemSeverities;
 import org.eclipse.jdt.internal.core.ASTHolderCUInfo;
 import org.eclipse.jdt.internal.core.CompilationUnit;
 import org.eclipse.jdt.internal.core.CompilationUnitElementInfo;
@@ -113,6 +116,10 @@ public class GroovyCompilationUnit extends CompilationUnit {
 
     /**
      * Gets the module info for this compilation unit
+     * <p>
+     * Module nodes of working copies that have not been used for a while may be released under memory pressure (see
+     * {@link ModuleNodeMapper}). Such a module node is rebuilt here, in the calling thread, which costs as much as a
+     * reconcile of the unit; callers on the UI thread should be prepared for that.
      *
      * @param force if true, then a module info is created even if not a working copy. This occurs by temporarily turning the
      *        compilation unit into a working copy and then discarding it.
@@ -120,6 +127,11 @@ public class GroovyCompilationUnit extends CompilationUnit {
      *         working copy. Also will be null if a problem occurs
      */
     public ModuleNodeInfo getModuleInfo(boolean force) {
+        return getModuleInfo(force, true);
+    }
+
+    private ModuleNodeInfo getModuleInfo(boolean force, boolean restore) {
+        boolean released = false;
         try {
             if (!isConsistent()) {
                 makeConsistent(null);
@@ -135,7 +147,11 @@ public class GroovyCompilationUnit extends CompilationUnit {
                 }
                 PerWorkingCopyInfo info = getPerWorkingCopyInfo();
                 if (info != null) {
-                    return ModuleNodeMapper.getInstance().get(info);
+                    ModuleNodeInfo moduleInfo = ModuleNodeMapper.getInstance().get(info);
+                    if (moduleInfo != null || !restore || !ModuleNodeMapper.getInstance().isReleased(info)) {
+                        return moduleInfo;
+                    }
+                    released = true;
                 }
             } finally {
                 try {
@@ -149,6 +165,15 @@ public class GroovyCompilationUnit extends CompilationUnit {
         } catch (JavaModelException e) {
             Util.log(e, "Exception thrown when trying to get Groovy module node for " + this.getElementName());
         }
+        if (released) {
+            // the module node of this background editor was released to save memory; rebuild it
+            try {
+                openWhenClosed(createElementInfo(), false, new NullProgressMonitor());
+            } catch (JavaModelException e) {
+                Util.log(e, "Exception thrown when trying to get Groovy module node for " + this.getElementName());
+            }
+            return getModuleInfo(force, false);
+        }
         // return null if not found. Means that there was a problem with build structure
         return null;
     }
@@ -174,6 +199,7 @@ public class GroovyCompilationUnit extends CompilationUnit {
             PerWorkingCopyInfo info = getPerWorkingCopyInfo();
             if (workingCopyInfoWillBeDiscarded(info)) {
                 ModuleNodeMapper.getInstance().remove(info);
+                ReconcileBudget.forget(this);
             }
             super.discardWorkingCopy();
         } finally {
@@ -263,6 +289,12 @@ public class GroovyCompilationUnit extends CompilationUnit {
                 CompilerUtils.setGroovyClasspath(compilerOptions, project);
             }
 
+            // units that blew the reconcile budget last time are reconciled without AST transforms
+            boolean degraded = computeProblems && ReconcileBudget.isDegraded(this);
+            if (degraded) {
+                compilerOptions.groovyTransformsToRunOnReconcile = "";
+            }
+
             ProblemReporter reporter = new ProblemReporter(new GroovyErrorHandlingPolicy(!computeProblems), compilerOptions, new DefaultProblemFactory());
 
             SourceElementParser parser = new MultiplexingSourceElementRequestorParser(
@@ -309,18 +341,23 @@ public class GroovyCompilationUnit extends CompilationUnit {
                 // the top most (regardless of the computeProblems setting) and so we track how many recursive
                 // calls we have made - if we are at depth 2 we do what JDT was going to do (the quick thing).
                 if (computeProblems || depth.intValue() < 2) {
+                    ReconcileTimings timings = (computeProblems && depth.intValue() == 1 ? ReconcileTimings.start() : null);
                     if (problems == null) {
                         // report problems to the problem requestor
                         problems = new HashMap<String, CategorizedProblem[]>();
-                        compilationUnitDeclaration =
-                            (GroovyCompilationUnitDeclaration) CompilationUnitProblemFinder.process(
-                                source,
-                                parser,
-                                this.owner,
-                                problems,
-                                createAST,
-                                reconcileFlags,
-                                pm);
+                        try {
+                            compilationUnitDeclaration =
+                                (GroovyCompilationUnitDeclaration) CompilationUnitProblemFinder.process(
+                                    source,
+                                    parser,
+                                    this.owner,
+                                    problems,
+                                    createAST,
+                                    reconcileFlags,
+                                    pm);
+                        } finally {
+                            endTimings(timings, degraded, problems);
+                        }
                         if (computeProblems) {
                             try {
                                 perWorkingCopyInfo.beginReporting();
@@ -337,15 +374,19 @@ public class GroovyCompilationUnit extends CompilationUnit {
                             }
                         }
                     } else {
-                        compilationUnitDeclaration =
-                            (GroovyCompilationUnitDeclaration) CompilationUnitProblemFinder.process(
-                                source,
-                                parser,
-                                this.owner,
-                                problems,
-                                createAST,
-                                reconcileFlags,
-                                pm);
+                        try {
+                            compilationUnitDeclaration =
+                                (GroovyCompilationUnitDeclaration) CompilationUnitProblemFinder.process(
+                                    source,
+                                    parser,
+                                    this.owner,
+                                    problems,
+                                    createAST,
+                                    reconcileFlags,
+                                    pm);
+                        } finally {
+                            endTimings(timings, degraded, problems);
+                        }
                     }
                 } else {
                     compilationUnitDeclaration =
@@ -405,6 +446,30 @@ public class GroovyCompilationUnit extends CompilationUnit {
         }
     }
 
+    /**
+     * Records the reconcile telemetry of this unit and, if the reconcile ran degraded, tells the user why.
+     */
+    private void endTimings(ReconcileTimings timings, boolean degraded, Map<String, CategorizedProblem[]> problems) {
+        if (timings != null) {
+            timings.stop();
+            ReconcileBudget.recordReconcile(this, timings, degraded);
+        }
+        if (degraded && problems != null) {
+            String message = ReconcileBudget.getDegradedMessage(this);
+            CategorizedProblem problem = new DefaultProblemFactory().createProblem(getFileName(), 0, new String[] {message}, 0,
+                new String[] {message}, ProblemSeverities.Warning, 0, 0, 1, 1);
+            CategorizedProblem[] existing = problems.get(IJavaModelMarker.JAVA_MODEL_PROBLEM_MARKER);
+            if (existing == null) {
+                problems.put(IJavaModelMarker.JAVA_MODEL_PROBLEM_MARKER, new CategorizedProblem[] {problem});
+            } else {
+                CategorizedProblem[] merged = new CategorizedProblem[existing.length + 1];
+                System.arraycopy(existing, 0, merged, 0, existing.length);
+                merged[existing.length] = problem;
+                problems.put(IJavaModelMarker.JAVA_MODEL_PROBLEM_MARKER, merged);
+            }
+        }
+    }
+
     protected void maybeCacheModuleNode(JavaModelManager.PerWorkingCopyInfo perWorkingCopyInfo, GroovyCompilationUnitDeclaration compilationUnitDeclaration) {
         ModuleNodeMapper.getInstance().maybeCacheModuleNode(perWorkingCopyInfo, compilationUnitDeclaration);
     }
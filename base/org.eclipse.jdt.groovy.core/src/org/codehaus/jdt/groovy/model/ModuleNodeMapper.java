@@ -1,5 +1,5 @@
 /*
- * Copyright 2009-2016 the original author or authors.
+ * Copyright 2009-2017 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,8 +15,9 @@
  */
 package org.codehaus.jdt.groovy.model;
 
+import java.lang.ref.SoftReference;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.locks.ReentrantLock;
@@ -33,7 +34,10 @@ import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.groovy.core.CacheMetrics;
+import org.eclipse.jdt.groovy.core.ICacheReporter;
 import org.eclipse.jdt.groovy.core.util.ReflectionUtils;
+import org.eclipse.jdt.core.compiler.CategorizedProblem;
 import org.eclipse.jdt.internal.compiler.CompilationResult;
 import org.eclipse.jdt.internal.core.JavaModelManager;
 import org.eclipse.jdt.internal.core.JavaModelManager.PerWorkingCopyInfo;
@@ -42,7 +46,18 @@ import org.eclipse.jdt.internal.core.util.Util;
 /**
  * Stores module nodes for groovy compilation units This class is not meant to be accessed externally.
  * <p>
- * One module node is stored per working copy of a unit.
+ * One module node is stored per working copy of a unit.  Stored nodes are
+ * compacted: the resolver drops its per-compilation state and the compilation
+ * result keeps only its problems.  The resolver is stored too if the DSL
+ * bundle is installed, since DSLD and content assist resolve type names with
+ * it, so it keeps its scope; otherwise it also drops its scope, so that only
+ * the stored resolver pins the compiled JDT AST.
+ * <p>
+ * Only the {@value #DEFAULT_MAX_RETAINED} most recently used module nodes (or
+ * as many as the {@value #MAX_RETAINED_PROPERTY} system property says; zero
+ * means all of them) are held strongly; the others are held softly and may be
+ * released under memory pressure.  A released module node is rebuilt on demand
+ * by {@link GroovyCompilationUnit#getModuleInfo(boolean)}.
  *
  * @author Andrew Eisenberg
  * @created Jun 11, 2009
@@ -85,26 +100,87 @@ public class ModuleNodeMapper {
         }
     }
 
+    /**
+     * Holds a module info strongly while it is among the most recently used and
+     * softly afterwards.
+     */
+    private static class CachedModuleInfo {
+        private ModuleNodeInfo strong;
+        private final SoftReference<ModuleNodeInfo> soft;
+
+        CachedModuleInfo(ModuleNodeInfo info) {
+            this.strong = info;
+            this.soft = new SoftReference<ModuleNodeInfo>(info);
+        }
+
+        ModuleNodeInfo get() {
+            return strong != null ? strong : soft.get();
+        }
+    }
+
+    public static final String MAX_RETAINED_PROPERTY = "greclipse.moduleNodes.maxRetained";
+
+    // enough for the editors that are commonly open at the same time
+    private static final int DEFAULT_MAX_RETAINED = 20;
+
+    private static final int MAX_RETAINED = Integer.getInteger(MAX_RETAINED_PROPERTY, DEFAULT_MAX_RETAINED).intValue();
+
     private static final ModuleNodeMapper INSTANCE = new ModuleNodeMapper();
 
+    static {
+        CacheMetrics.register(new ICacheReporter() {
+            public String getCacheName() {
+                return "ModuleNodeMapper.infoToModuleMap";
+            }
+
+            public void report(CacheMetrics.Report report) {
+                INSTANCE.report(report);
+            }
+        });
+    }
+
     static ModuleNodeMapper getInstance() {
         return INSTANCE;
     }
 
     private final ReentrantLock lock = new ReentrantLock(true);
 
-    private final Map<PerWorkingCopyInfo, ModuleNodeInfo> infoToModuleMap = new HashMap<PerWorkingCopyInfo, ModuleNodeInfo>();
+    // access ordered, so that the least recently used entries come first
+    private final Map<PerWorkingCopyInfo, CachedModuleInfo> infoToModuleMap = new LinkedHashMap<PerWorkingCopyInfo, CachedModuleInfo>(16, 0.75f, true);
 
     void store(PerWorkingCopyInfo key, ModuleNodeInfo val) {
         lock.lock();
         try {
             sweepAndPurgeModuleNodes();
-            infoToModuleMap.put(key, val);
+            infoToModuleMap.put(key, new CachedModuleInfo(val));
+            releaseLeastRecentlyUsed();
         } finally {
             lock.unlock();
         }
     }
 
+    /**
+     * Holds all but the {@link #MAX_RETAINED} most recently used module infos softly.
+     */
+    private void releaseLeastRecentlyUsed() {
+        if (MAX_RETAINED <= 0) {
+            return;
+        }
+        int strongCount = 0;
+        for (CachedModuleInfo cached : infoToModuleMap.values()) {
+            if (cached.strong != null) strongCount += 1;
+        }
+        for (CachedModuleInfo cached : infoToModuleMap.values()) {
+            if (strongCount <= MAX_RETAINED) {
+                break;
+            }
+            if (cached.strong != null) {
+                cached.strong = null;
+                strongCount -= 1;
+            }
+        }
+    }
+
     private final static boolean DSL_BUNDLE_INSTALLED;
     static {
         boolean result = false;
@@ -134,7 +210,45 @@ public class ModuleNodeMapper {
         lock.lock();
         try {
             sweepAndPurgeModuleNodes();
-            return infoToModuleMap.get(info);
+            CachedModuleInfo cached = infoToModuleMap.get(info);
+            if (cached == null) {
+                return null;
+            }
+            ModuleNodeInfo moduleInfo = cached.get();
+            if (moduleInfo != null && cached.strong == null) {
+                cached.strong = moduleInfo;
+                releaseLeastRecentlyUsed();
+            }
+            return moduleInfo;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return {@code true} iff a module info was stored for the working copy but has since been released
+     */
+    boolean isReleased(PerWorkingCopyInfo info) {
+        lock.lock();
+        try {
+            CachedModuleInfo cached = infoToModuleMap.get(info);
+            return cached != null && cached.get() == null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Releases a stored module info as memory pressure would.
+     */
+    void release(PerWorkingCopyInfo info) {
+        lock.lock();
+        try {
+            CachedModuleInfo cached = infoToModuleMap.get(info);
+            if (cached != null) {
+                cached.strong = null;
+                cached.soft.clear();
+            }
         } finally {
             lock.unlock();
         }
@@ -154,8 +268,9 @@ public class ModuleNodeMapper {
         lock.lock();
         try {
             sweepAndPurgeModuleNodes();
-            ModuleNodeInfo removed = infoToModuleMap.remove(info);
-            return removed != null ? removed.module : null;
+            CachedModuleInfo removed = infoToModuleMap.remove(info);
+            ModuleNodeInfo moduleInfo = removed != null ? removed.get() : null;
+            return moduleInfo != null ? moduleInfo.module : null;
         } finally {
             lock.unlock();
         }
@@ -173,13 +288,20 @@ public class ModuleNodeMapper {
                 if (perWorkingCopyInfo != null && compilationUnitDeclaration != null) {
                     ModuleNode module = compilationUnitDeclaration.getModuleNode();
                     if (module != null) {
-                        JDTResolver resolver = null;
-                        if (shouldStoreResovler()) {
-                            resolver = (JDTResolver) compilationUnitDeclaration.getCompilationUnit().getResolveVisitor();
+                        JDTResolver resolver = (JDTResolver) compilationUnitDeclaration.getCompilationUnit().getResolveVisitor();
+                        if (resolver != null) {
+                            if (shouldStoreResovler()) {
+                                // DSLD and content assist resolve type names with the stored resolver
+                                resolver.compact();
+                            } else {
+                                // only the module's nodes refer to the resolver
+                                resolver.release();
+                                resolver = null;
+                            }
                         }
 
                         ModuleNodeInfo info = new ModuleNodeInfo(module, resolver);
-                        info.result = compilationUnitDeclaration.compilationResult();
+                        info.result = compactResult(compilationUnitDeclaration.compilationResult());
 
                         store(perWorkingCopyInfo, info);
                     }
@@ -199,6 +321,51 @@ public class ModuleNodeMapper {
         }
     }
 
+    /**
+     * Copies the problems of a compilation result.  The original also refers to
+     * the compiled unit's declarations, dependencies and source.
+     */
+    private static CompilationResult compactResult(CompilationResult result) {
+        if (result == null) {
+            return null;
+        }
+        CompilationResult compact = new CompilationResult(result.getFileName(), result.unitIndex, result.totalUnitsKnown, 0);
+        CategorizedProblem[] problems = result.getProblems();
+        if (problems != null) {
+            compact.problems = problems;
+            compact.problemCount = problems.length;
+        }
+        CategorizedProblem[] tasks = result.getTasks();
+        if (tasks != null) {
+            compact.tasks = tasks;
+            compact.taskCount = tasks.length;
+        }
+        compact.lineSeparatorPositions = result.lineSeparatorPositions;
+        compact.hasSyntaxError = result.hasSyntaxError;
+        return compact;
+    }
+
+    /**
+     * Estimates retained module nodes from the number of source lines they
+     * were built from; released entries only count as the entry itself.
+     */
+    private void report(CacheMetrics.Report report) {
+        lock.lock();
+        try {
+            for (Map.Entry<PerWorkingCopyInfo, CachedModuleInfo> entry : infoToModuleMap.entrySet()) {
+                String projectName = entry.getKey().getWorkingCopy().getJavaProject().getElementName();
+                ModuleNodeInfo info = entry.getValue().get();
+                long size = 64;
+                if (info != null && info.result != null && info.result.lineSeparatorPositions != null) {
+                    size += 512L * (info.result.lineSeparatorPositions.length + 1);
+                }
+                report.add(projectName, 1, size);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
     public static boolean isEmpty() {
         return INSTANCE.infoToModuleMap.isEmpty();
     }
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.jdt.groovy.model;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.codehaus.groovy.eclipse.GroovyLogManager;
+import org.codehaus.groovy.eclipse.TraceCategory;
+import org.codehaus.jdt.groovy.internal.compiler.ast.ReconcileTimings;
+import org.eclipse.jdt.core.ICompilationUnit;
+
+/**
+ * Adaptive reconcile policy.  The phase timings of the last reconcile of each
+ * working copy are kept; once a full reconcile of a unit exceeds the budget,
+ * subsequent reconciles of that unit run degraded: AST transforms (including
+ * the static type checker behind {@code @CompileStatic}/{@code @TypeChecked})
+ * are skipped.  Every {@value #REPROBE_INTERVAL} degraded reconciles, the unit
+ * gets another full reconcile; if that one is within the budget, the unit is
+ * no longer degraded.  Otherwise it stays degraded for another interval or
+ * until its working copy is discarded.
+ * <p>
+ * The budget is read from the {@value #BUDGET_PROPERTY} system property, in
+ * milliseconds; zero or less disables degradation.
+ */
+public class ReconcileBudget {
+
+    public static final String BUDGET_PROPERTY = "greclipse.reconcile.budget";
+
+    /** Number of degraded reconciles of a unit before it gets another full reconcile. */
+    public static final int REPROBE_INTERVAL = 10;
+
+    private static volatile long budgetMillis = Long.getLong(BUDGET_PROPERTY, 2000L).longValue();
+
+    private static final Map<String, ReconcileTimings> lastTimings = new ConcurrentHashMap<String, ReconcileTimings>();
+    private static final Map<String, Degradation> degradedUnits = new ConcurrentHashMap<String, Degradation>();
+
+    private ReconcileBudget() {
+    }
+
+    public static long getBudgetMillis() {
+        return budgetMillis;
+    }
+
+    /**
+     * Changes the budget.  Units that were degraded under the old budget get
+     * another full reconcile.
+     */
+    public static void setBudgetMillis(long millis) {
+        budgetMillis = millis;
+        degradedUnits.clear();
+    }
+
+    /**
+     * @return {@code true} if the next reconcile of the unit should skip AST
+     *         transforms; {@code false} if it should be a full reconcile,
+     *         including the periodic re-probes of degraded units
+     */
+    public static boolean isDegraded(ICompilationUnit unit) {
+        if (budgetMillis <= 0) {
+            return false;
+        }
+        Degradation degradation = degradedUnits.get(unit.getHandleIdentifier());
+        return degradation != null && degradation.remaining > 0;
+    }
+
+    /**
+     * @return timings of the most recent reconcile of the unit or {@code null}
+     */
+    public static ReconcileTimings getLastTimings(ICompilationUnit unit) {
+        return lastTimings.get(unit.getHandleIdentifier());
+    }
+
+    static void recordReconcile(ICompilationUnit unit, ReconcileTimings timings, boolean wasDegraded) {
+        String key = unit.getHandleIdentifier();
+        lastTimings.put(key, timings);
+        if (wasDegraded) {
+            Degradation degradation = degradedUnits.get(key);
+            if (degradation != null) {
+                degradation.remaining -= 1;
+            }
+        } else if (budgetMillis > 0 && timings.getTotalMillis() > budgetMillis) {
+            degradedUnits.put(key, new Degradation(timings.getTotalMillis()));
+        } else {
+            // a full reconcile within the budget; the unit has recovered
+            degradedUnits.remove(key);
+        }
+        if (GroovyLogManager.manager.hasLoggers()) {
+            GroovyLogManager.manager.log(TraceCategory.COMPILER, "Reconcile of " + unit.getElementName() + (wasDegraded ? " (degraded): " : ": ") + timings);
+        }
+    }
+
+    static void forget(ICompilationUnit unit) {
+        String key = unit.getHandleIdentifier();
+        lastTimings.remove(key);
+        degradedUnits.remove(key);
+    }
+
+    static String getDegradedMessage(ICompilationUnit unit) {
+        Degradation degradation = degradedUnits.get(unit.getHandleIdentifier());
+        return "Groovy: Reconciling this file took " + (degradation == null ? "longer than " + budgetMillis : degradation.millis) +
+            "ms (budget is " + budgetMillis + "ms); AST transforms and static type checking are skipped while editing it";
+    }
+
+    /**
+     * Duration of the full reconcile that exceeded the budget and the number of
+     * degraded reconciles left before the next full one.
+     */
+    private static class Degradation {
+        final long millis;
+        volatile int remaining = REPROBE_INTERVAL;
+
+        Degradation(long millis) {
+            this.millis = millis;
+        }
+    }
+}
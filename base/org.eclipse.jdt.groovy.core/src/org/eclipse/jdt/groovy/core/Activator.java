@@ -19,6 +19,8 @@ import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 
+import org.codehaus.jdt.groovy.integration.internal.ParallelDelegatedSearch;
+import org.codehaus.jdt.groovy.internal.compiler.ast.BinaryClassNodeCache;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.ProjectScope;
 import org.eclipse.core.runtime.Plugin;
@@ -63,6 +65,9 @@ public class Activator extends Plugin {
     }
 
     public void stop(BundleContext context) throws Exception {
+        CacheMetrics.unregisterMBean();
+        ParallelDelegatedSearch.shutdown();
+        BinaryClassNodeCache.dispose();
         plugin = null;
         super.stop(context);
     }
@@ -0,0 +1,292 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eclipse.jdt.groovy.core;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.eclipse.jdt.internal.core.util.Util;
+
+/**
+ * Accounts for the memory held by the long-lived caches of the Groovy model:
+ * class loaders and script folder selectors of {@code GroovyParser}, module
+ * nodes of open editors, shared binary class nodes, DSLD stores and so on.
+ * Each cache contributes an {@link ICacheReporter} that counts its entries and
+ * estimates their retained size per project.
+ * <p>
+ * Class loaders dropped from a cache (for example after a classpath change)
+ * are tracked with weak references; one that is not collected while others
+ * are indicates a leak.  Everything is exposed as the MBean
+ * {@value #OBJECT_NAME} and can be written to the workspace with {@link #dump()}.
+ */
+public class CacheMetrics implements CacheMetricsMBean {
+
+    public static final String OBJECT_NAME = "org.codehaus.groovy.eclipse:type=CacheMetrics";
+
+    private static final CacheMetrics INSTANCE = new CacheMetrics();
+
+    private static final List<ICacheReporter> reporters = new CopyOnWriteArrayList<ICacheReporter>();
+
+    private static final ReferenceQueue<ClassLoader> collected = new ReferenceQueue<ClassLoader>();
+
+    private static final Set<OrphanedLoader> orphans = new HashSet<OrphanedLoader>();
+
+    private static boolean registered;
+
+    private static class OrphanedLoader extends WeakReference<ClassLoader> {
+        final String description;
+        final long orphanedAt = System.currentTimeMillis();
+
+        OrphanedLoader(ClassLoader loader, String projectName) {
+            super(loader, collected);
+            this.description = loader.getClass().getName() + '@' + Integer.toHexString(System.identityHashCode(loader)) + " of " + projectName;
+        }
+    }
+
+    /**
+     * Entry counts and estimated sizes of one cache, per project.
+     */
+    public static class Report {
+        private final Map<String, long[]> projects = new TreeMap<String, long[]>();
+
+        public void add(String projectName, int entries, long estimatedBytes) {
+            String key = projectName != null ? projectName : "<none>";
+            long[] totals = projects.get(key);
+            if (totals == null) {
+                totals = new long[2];
+                projects.put(key, totals);
+            }
+            totals[0] += entries;
+            totals[1] += estimatedBytes;
+        }
+
+        int getEntryCount() {
+            int count = 0;
+            for (long[] totals : projects.values()) {
+                count += totals[0];
+            }
+            return count;
+        }
+
+        long getEstimatedBytes() {
+            long bytes = 0;
+            for (long[] totals : projects.values()) {
+                bytes += totals[1];
+            }
+            return bytes;
+        }
+    }
+
+    private CacheMetrics() {
+    }
+
+    public static CacheMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    public static void register(ICacheReporter reporter) {
+        reporters.add(reporter);
+        registerMBean();
+    }
+
+    public static void unregister(ICacheReporter reporter) {
+        reporters.remove(reporter);
+    }
+
+    /**
+     * Tracks a class loader that has been dropped from a cache and is expected to be collected.
+     */
+    public static void orphaned(ClassLoader loader, String projectName) {
+        if (loader != null) {
+            synchronized (orphans) {
+                expungeCollected();
+                orphans.add(new OrphanedLoader(loader, projectName));
+            }
+        }
+    }
+
+    private static void expungeCollected() {
+        Reference<? extends ClassLoader> ref;
+        while ((ref = collected.poll()) != null) {
+            orphans.remove(ref);
+        }
+    }
+
+    private static synchronized void registerMBean() {
+        if (!registered) {
+            registered = true;
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE, new ObjectName(OBJECT_NAME));
+            } catch (JMException e) {
+                Util.log(e, "Unable to register cache metrics");
+            }
+        }
+    }
+
+    static synchronized void unregisterMBean() {
+        if (registered) {
+            registered = false;
+            try {
+                MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+                ObjectName name = new ObjectName(OBJECT_NAME);
+                if (server.isRegistered(name)) {
+                    server.unregisterMBean(name);
+                }
+            } catch (JMException e) {
+                Util.log(e, "Unable to unregister cache metrics");
+            }
+        }
+    }
+
+    private static Map<String, Report> collect() {
+        Map<String, Report> reports = new TreeMap<String, Report>();
+        for (ICacheReporter reporter : reporters) {
+            Report report = new Report();
+            try {
+                reporter.report(report);
+            } catch (RuntimeException e) {
+                Util.log(e, "Unable to report cache " + reporter.getCacheName());
+            }
+            reports.put(reporter.getCacheName(), report);
+        }
+        return reports;
+    }
+
+    //--------------------------------------------------------------------------
+
+    public String[] getCacheNames() {
+        Set<String> names = collect().keySet();
+        return names.toArray(new String[names.size()]);
+    }
+
+    public int getEntryCount(String cacheName) {
+        Report report = collect().get(cacheName);
+        return report != null ? report.getEntryCount() : 0;
+    }
+
+    public long getEstimatedBytes(String cacheName) {
+        Report report = collect().get(cacheName);
+        return report != null ? report.getEstimatedBytes() : 0;
+    }
+
+    public int getOrphanedClassLoaderCount() {
+        synchronized (orphans) {
+            expungeCollected();
+            return orphans.size();
+        }
+    }
+
+    public String[] getOrphanedClassLoaders() {
+        List<String> descriptions = new ArrayList<String>();
+        long now = System.currentTimeMillis();
+        synchronized (orphans) {
+            expungeCollected();
+            for (OrphanedLoader orphan : orphans) {
+                if (orphan.get() != null) {
+                    descriptions.add(orphan.description + ", orphaned " + ((now - orphan.orphanedAt) / 1000) + "s ago");
+                }
+            }
+        }
+        return descriptions.toArray(new String[descriptions.size()]);
+    }
+
+    public String toJson() {
+        StringBuilder sb = new StringBuilder("{\n\"caches\": {");
+        boolean first = true;
+        for (Map.Entry<String, Report> entry : collect().entrySet()) {
+            if (!first) sb.append(',');
+            first = false;
+            Report report = entry.getValue();
+            sb.append("\n  ").append(quote(entry.getKey())).append(": {\"entries\": ").append(report.getEntryCount());
+            sb.append(", \"estimatedBytes\": ").append(report.getEstimatedBytes()).append(", \"projects\": {");
+            boolean firstProject = true;
+            for (Map.Entry<String, long[]> project : report.projects.entrySet()) {
+                if (!firstProject) sb.append(", ");
+                firstProject = false;
+                sb.append(quote(project.getKey())).append(": {\"entries\": ").append(project.getValue()[0]);
+                sb.append(", \"estimatedBytes\": ").append(project.getValue()[1]).append('}');
+            }
+            sb.append("}}");
+        }
+        sb.append("\n},\n\"orphanedClassLoaders\": [");
+        String[] orphaned = getOrphanedClassLoaders();
+        for (int i = 0; i < orphaned.length; i += 1) {
+            if (i > 0) sb.append(',');
+            sb.append("\n  ").append(quote(orphaned[i]));
+        }
+        return sb.append("\n]\n}").toString();
+    }
+
+    public String dump() {
+        File file;
+        Activator activator = Activator.getDefault();
+        if (activator != null) {
+            file = activator.getStateLocation().append("cache-metrics.json").toFile();
+        } else {
+            file = new File(System.getProperty("java.io.tmpdir"), "groovy-cache-metrics.json");
+        }
+        Writer writer = null;
+        try {
+            writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+            writer.write(toJson());
+        } catch (IOException e) {
+            Util.log(e, "Unable to write cache metrics to " + file);
+            return null;
+        } finally {
+            if (writer != null) {
+                try {
+                    writer.close();
+                } catch (IOException e) {
+                    // ignore
+                }
+            }
+        }
+        return file.getAbsolutePath();
+    }
+
+    private static String quote(String text) {
+        StringBuilder sb = new StringBuilder(text.length() + 2).append('"');
+        for (int i = 0, n = text.length(); i < n; i += 1) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < ' ') {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eclipse.jdt.groovy.core;
+
+/**
+ * Management interface of {@link CacheMetrics}.
+ */
+public interface CacheMetricsMBean {
+
+    String[] getCacheNames();
+
+    int getEntryCount(String cacheName);
+
+    long getEstimatedBytes(String cacheName);
+
+    /**
+     * @return number of class loaders that were dropped from a cache and have not been collected yet
+     */
+    int getOrphanedClassLoaderCount();
+
+    /**
+     * @return descriptions of the class loaders that were dropped from a cache and have not been collected yet
+     */
+    String[] getOrphanedClassLoaders();
+
+    String toJson();
+
+    /**
+     * Writes {@link #toJson()} to the plug-in's state location in the workspace.
+     *
+     * @return path of the written file
+     */
+    String dump();
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eclipse.jdt.groovy.core;
+
+/**
+ * Reports the contents of a long-lived cache to {@link CacheMetrics}.
+ */
+public interface ICacheReporter {
+
+    /**
+     * @return name of the cache, for example {@code GroovyParser.projectToLoaderCache}
+     */
+    String getCacheName();
+
+    /**
+     * Adds the entry counts and estimated retained sizes of the cache, per
+     * project, to the report.  Estimates need not be exact; they should be
+     * cheap to compute and comparable between runs.
+     */
+    void report(CacheMetrics.Report report);
+}
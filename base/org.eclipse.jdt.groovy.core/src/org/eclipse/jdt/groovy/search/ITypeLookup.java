@@ -31,6 +31,10 @@ import org.codehaus.jdt.groovy.model.GroovyCompilationUnit;
  *          Instances of this interface will attempt to determine the type of a Groovy ASTNode that is passed in.
  *          <p>
  *          Type Lookups are meant to be stateless. All interesting state should be stored in the variable lookup
+ *          <p>
+ *          A new lookup is created for each type inferencing visitor and {@link #initialize} is called once, before the visit.
+ *          Contributed lookups need a public no-argument constructor; only the first instance is created through the extension
+ *          registry, unless the lookup implements {@link org.eclipse.core.runtime.IExecutableExtension}.
  */
 public interface ITypeLookup {
 
@@ -0,0 +1,243 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eclipse.jdt.groovy.search;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.codehaus.groovy.ast.ImportNode;
+import org.codehaus.groovy.ast.ModuleNode;
+import org.eclipse.jdt.core.ILocalVariable;
+import org.eclipse.jdt.core.compiler.CharOperation;
+import org.eclipse.jdt.core.search.SearchPattern;
+import org.eclipse.jdt.groovy.core.util.ReflectionUtils;
+import org.eclipse.jdt.internal.core.search.matching.ConstructorPattern;
+import org.eclipse.jdt.internal.core.search.matching.FieldPattern;
+import org.eclipse.jdt.internal.core.search.matching.JavaSearchPattern;
+import org.eclipse.jdt.internal.core.search.matching.LocalVariablePattern;
+import org.eclipse.jdt.internal.core.search.matching.MethodPattern;
+import org.eclipse.jdt.internal.core.search.matching.OrPattern;
+import org.eclipse.jdt.internal.core.search.matching.TypeReferencePattern;
+import org.eclipse.jdt.internal.core.search.matching.VariablePattern;
+
+/**
+ * Cheap textual pre-check for delegated searches.  The search requestors only
+ * report nodes whose source text is the searched name, so a file (or a member
+ * of a type) that does not contain any of the candidate tokens derived from the
+ * pattern cannot produce a match and need not be inferred.
+ * <p>
+ * Filters are only created for patterns whose matches are known to contain the
+ * name verbatim; {@link #create(SearchPattern)} answers {@code null} for anything
+ * else (type declarations, wildcards, camel case or case insensitive matching).
+ * <p>
+ * An aliased import spells the imported name only in the import itself; use
+ * {@link #withImportAliases(ModuleNode)} before filtering the members of a
+ * module, so that references through the alias are not filtered out.
+ */
+public class SearchTokenFilter {
+
+    /**
+     * @return filter for the pattern or {@code null} if the pattern cannot be pre-checked
+     */
+    public static SearchTokenFilter create(SearchPattern pattern) {
+        List<char[]> tokens = new ArrayList<char[]>();
+        if (!collectTokens(pattern, tokens) || tokens.isEmpty()) {
+            return null;
+        }
+        return new SearchTokenFilter(tokens.toArray(new char[tokens.size()][]));
+    }
+
+    private static boolean collectTokens(SearchPattern pattern, List<char[]> tokens) {
+        if (pattern instanceof OrPattern) {
+            SearchPattern[] patterns = (SearchPattern[]) ReflectionUtils.getPrivateField(OrPattern.class, "patterns", pattern);
+            for (SearchPattern orPattern : patterns) {
+                if (orPattern != null && !collectTokens(orPattern, tokens)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        if (pattern instanceof MethodPattern) {
+            char[] selector = (char[]) ReflectionUtils.getPrivateField(MethodPattern.class, "selector", pattern);
+            return isVerbatim(pattern) && addName(selector, tokens);
+        } else if (pattern instanceof FieldPattern) {
+            char[] name = (char[]) ReflectionUtils.getPrivateField(VariablePattern.class, "name", pattern);
+            return isVerbatim(pattern) && addName(name, tokens);
+        } else if (pattern instanceof ConstructorPattern) {
+            return isVerbatim(pattern) && addToken(((ConstructorPattern) pattern).declaringSimpleName, tokens);
+        } else if (pattern instanceof TypeReferencePattern) {
+            char[] simpleName = (char[]) ReflectionUtils.getPrivateField(TypeReferencePattern.class, "simpleName", pattern);
+            return isVerbatim(pattern) && addToken(simpleName, tokens);
+        } else if (pattern instanceof LocalVariablePattern) {
+            ILocalVariable localVar = (ILocalVariable) ReflectionUtils.getPrivateField(LocalVariablePattern.class, "localVariable", pattern);
+            return localVar != null && addToken(localVar.getElementName().toCharArray(), tokens);
+        }
+        return false;
+    }
+
+    /**
+     * Adds the name of a method or field.  Accessor and property forms are added
+     * as well, so that a property expression that refers to a getter or setter
+     * (or vice versa) is not filtered out.
+     */
+    private static boolean addName(char[] name, List<char[]> tokens) {
+        if (!addToken(name, tokens)) {
+            return false;
+        }
+        int prefix = accessorPrefixLength(name);
+        if (prefix > 0) {
+            char[] property = new char[name.length - prefix];
+            System.arraycopy(name, prefix, property, 0, property.length);
+            property[0] = Character.toLowerCase(property[0]);
+            tokens.add(property);
+        } else if (Character.isLowerCase(name[0])) {
+            char[] capitalized = name.clone();
+            capitalized[0] = Character.toUpperCase(capitalized[0]);
+            tokens.add(capitalized);
+        }
+        return true;
+    }
+
+    private static int accessorPrefixLength(char[] name) {
+        int prefix;
+        if (name.length > 3 && (name[0] == 'g' || name[0] == 's') && name[1] == 'e' && name[2] == 't') {
+            prefix = 3;
+        } else if (name.length > 2 && name[0] == 'i' && name[1] == 's') {
+            prefix = 2;
+        } else {
+            return 0;
+        }
+        return Character.isUpperCase(name[prefix]) ? prefix : 0;
+    }
+
+    private static boolean addToken(char[] token, List<char[]> tokens) {
+        if (token == null || token.length == 0) {
+            return false;
+        }
+        for (char c : token) {
+            if (c == '*' || c == '?' || !Character.isJavaIdentifierPart(c)) {
+                return false;
+            }
+        }
+        tokens.add(token);
+        return true;
+    }
+
+    private static boolean isVerbatim(SearchPattern pattern) {
+        if (pattern instanceof JavaSearchPattern) {
+            boolean isCaseSensitive = ((Boolean) ReflectionUtils.getPrivateField(JavaSearchPattern.class, "isCaseSensitive", pattern)).booleanValue();
+            boolean isCamelCase = ((Boolean) ReflectionUtils.getPrivateField(JavaSearchPattern.class, "isCamelCase", pattern)).booleanValue();
+            return isCaseSensitive && !isCamelCase && (pattern.getMatchRule() & SearchPattern.R_REGEXP_MATCH) == 0;
+        }
+        return false;
+    }
+
+    //--------------------------------------------------------------------------
+
+    private final char[][] tokens;
+
+    private SearchTokenFilter(char[][] tokens) {
+        this.tokens = tokens;
+    }
+
+    /**
+     * @return filter that also accepts the aliases of the module's imports of
+     *         any of the names or this filter if there are no such aliases
+     */
+    public SearchTokenFilter withImportAliases(ModuleNode module) {
+        List<char[]> aliased = new ArrayList<char[]>();
+        for (ImportNode importNode : module.getImports()) {
+            addAlias(importNode.getType().getNameWithoutPackage(), importNode.getAlias(), aliased);
+        }
+        for (ImportNode importNode : module.getStaticImports().values()) {
+            addAlias(importNode.getFieldName(), importNode.getAlias(), aliased);
+        }
+        if (aliased.isEmpty()) {
+            return this;
+        }
+        for (char[] token : tokens) {
+            aliased.add(token);
+        }
+        return new SearchTokenFilter(aliased.toArray(new char[aliased.size()][]));
+    }
+
+    private void addAlias(String name, String alias, List<char[]> aliased) {
+        if (name == null || alias == null || alias.equals(name)) {
+            return;
+        }
+        // an inner type is imported as Outer.Inner or Outer$Inner
+        int dot = Math.max(name.lastIndexOf('.'), name.lastIndexOf('$'));
+        char[] simpleName = name.substring(dot + 1).toCharArray();
+        for (char[] token : tokens) {
+            if (CharOperation.equals(token, simpleName)) {
+                addName(alias.toCharArray(), aliased);
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return {@code true} iff the contents may contain a match
+     */
+    public boolean accept(char[] contents) {
+        return contents == null || accept(contents, 0, contents.length);
+    }
+
+    /**
+     * @return {@code true} iff the given range of the contents may contain a match
+     */
+    public boolean accept(char[] contents, int start, int end) {
+        if (contents == null || start < 0 || end > contents.length || start >= end) {
+            return true;
+        }
+        if (hasUnicodeEscape(contents, start, end)) {
+            // names may be spelled with escapes, which the token search would miss
+            return true;
+        }
+        for (char[] token : tokens) {
+            if (indexOf(token, contents, start, end) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasUnicodeEscape(char[] contents, int start, int end) {
+        for (int i = start, n = end - 1; i < n; i += 1) {
+            if (contents[i] == '\\' && contents[i + 1] == 'u') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int indexOf(char[] token, char[] contents, int start, int end) {
+        char first = token[0];
+        for (int i = start, n = end - token.length; i <= n; i += 1) {
+            if (contents[i] == first) {
+                int j = 1;
+                while (j < token.length && contents[i + j] == token[j]) {
+                    j += 1;
+                }
+                if (j == token.length) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+}
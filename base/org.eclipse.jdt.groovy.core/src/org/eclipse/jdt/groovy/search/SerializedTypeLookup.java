@@ -0,0 +1,120 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eclipse.jdt.groovy.search;
+
+import org.codehaus.groovy.ast.AnnotationNode;
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.ast.FieldNode;
+import org.codehaus.groovy.ast.ImportNode;
+import org.codehaus.groovy.ast.MethodNode;
+import org.codehaus.groovy.ast.Parameter;
+import org.codehaus.groovy.ast.expr.Expression;
+import org.codehaus.groovy.ast.stmt.BlockStatement;
+import org.codehaus.jdt.groovy.model.GroovyCompilationUnit;
+
+/**
+ * Wraps a contributed type lookup so that it is only ever called by one thread
+ * at a time, together with all the other wrapped lookups.  Contributed lookups
+ * are not required to be thread safe, and the instances of one kind of lookup
+ * may share state (like the DSLD store), so it is not enough to confine each
+ * instance to its thread.
+ */
+class SerializedTypeLookup implements ITypeLookup {
+
+    private static final Object LOCK = new Object();
+
+    static ITypeLookup wrap(ITypeLookup lookup) {
+        if (lookup instanceof ITypeLookupExtension) {
+            return new Extension((ITypeLookupExtension) lookup);
+        }
+        return new SerializedTypeLookup(lookup);
+    }
+
+    private final ITypeLookup delegate;
+
+    private SerializedTypeLookup(ITypeLookup delegate) {
+        this.delegate = delegate;
+    }
+
+    public TypeLookupResult lookupType(Expression node, VariableScope scope, ClassNode objectExpressionType) {
+        synchronized (LOCK) {
+            return delegate.lookupType(node, scope, objectExpressionType);
+        }
+    }
+
+    public TypeLookupResult lookupType(FieldNode node, VariableScope scope) {
+        synchronized (LOCK) {
+            return delegate.lookupType(node, scope);
+        }
+    }
+
+    public TypeLookupResult lookupType(MethodNode node, VariableScope scope) {
+        synchronized (LOCK) {
+            return delegate.lookupType(node, scope);
+        }
+    }
+
+    public TypeLookupResult lookupType(AnnotationNode node, VariableScope scope) {
+        synchronized (LOCK) {
+            return delegate.lookupType(node, scope);
+        }
+    }
+
+    public TypeLookupResult lookupType(ImportNode node, VariableScope scope) {
+        synchronized (LOCK) {
+            return delegate.lookupType(node, scope);
+        }
+    }
+
+    public TypeLookupResult lookupType(ClassNode node, VariableScope scope) {
+        synchronized (LOCK) {
+            return delegate.lookupType(node, scope);
+        }
+    }
+
+    public TypeLookupResult lookupType(Parameter node, VariableScope scope) {
+        synchronized (LOCK) {
+            return delegate.lookupType(node, scope);
+        }
+    }
+
+    public void initialize(GroovyCompilationUnit unit, VariableScope topLevelScope) {
+        synchronized (LOCK) {
+            delegate.initialize(unit, topLevelScope);
+        }
+    }
+
+    private static class Extension extends SerializedTypeLookup implements ITypeLookupExtension {
+        private final ITypeLookupExtension delegate;
+
+        Extension(ITypeLookupExtension delegate) {
+            super(delegate);
+            this.delegate = delegate;
+        }
+
+        public TypeLookupResult lookupType(Expression node, VariableScope scope, ClassNode objectExpressionType, boolean isStaticObjectExpression) {
+            synchronized (LOCK) {
+                return delegate.lookupType(node, scope, objectExpressionType, isStaticObjectExpression);
+            }
+        }
+
+        public void lookupInBlock(BlockStatement node, VariableScope scope) {
+            synchronized (LOCK) {
+                delegate.lookupInBlock(node, scope);
+            }
+        }
+    }
+}
@@ -39,18 +39,34 @@ public class TypeInferencingVisitorFactory {
      * @return a fully configured {@link TypeInferencingVisitorWithRequestor}
      */
     public TypeInferencingVisitorWithRequestor createVisitor(PossibleMatch possibleMatch) {
+        return createVisitor(possibleMatch, false);
+    }
 
+    /**
+     * Create a new {@link TypeInferencingVisitorWithRequestor} that may be used
+     * concurrently with others.  The contributed type lookups of the visitor may
+     * share state with the lookups of other visitors (like the DSLD store and the
+     * closures of its scripts), so calls to them are serialized.
+     *
+     * @param possibleMatch corresponds to the compilation unit to be inferred
+     * @return a fully configured {@link TypeInferencingVisitorWithRequestor}
+     */
+    public TypeInferencingVisitorWithRequestor createConcurrentVisitor(PossibleMatch possibleMatch) {
+        return createVisitor(possibleMatch, true);
+    }
+
+    private TypeInferencingVisitorWithRequestor createVisitor(PossibleMatch possibleMatch, boolean concurrent) {
         try {
             IOpenable openable = possibleMatch.openable;
             if (openable instanceof GroovyCompilationUnit) {
                 TypeInferencingVisitorWithRequestor visitor = new TypeInferencingVisitorWithRequestor(
                         (GroovyCompilationUnit) openable, createLookups(((GroovyCompilationUnit) openable).getJavaProject()
-                                .getProject()));
+                                .getProject(), concurrent));
                 return visitor;
             } else if (openable instanceof ClassFile) {
                 TypeInferencingVisitorWithRequestor visitor = new TypeInferencingVisitorWithRequestor(
                         new GroovyClassFileWorkingCopy((ClassFile) openable, null), createLookups(((ClassFile) openable)
-                                .getJavaProject().getProject()));
+                                .getJavaProject().getProject(), concurrent));
                 return visitor;
             } else {
                 Util.log(new RuntimeException(),
@@ -63,14 +79,19 @@ public class TypeInferencingVisitorFactory {
     }
 
     public TypeInferencingVisitorWithRequestor createVisitor(GroovyCompilationUnit unit) {
-        return new TypeInferencingVisitorWithRequestor(unit, createLookups(unit.getJavaProject().getProject()));
+        return new TypeInferencingVisitorWithRequestor(unit, createLookups(unit.getJavaProject().getProject(), false));
     }
 
     // Order matters!!! SimpleTypeLookup must be last
-    private ITypeLookup[] createLookups(IProject project) {
+    private ITypeLookup[] createLookups(IProject project, boolean concurrent) {
         ITypeLookup[] lookups;
         try {
             List<ITypeLookup> lookupsList = TypeLookupRegistry.getRegistry().getLookupsFor(project);
+            if (concurrent) {
+                for (int i = 0, n = lookupsList.size(); i < n; i += 1) {
+                    lookupsList.set(i, SerializedTypeLookup.wrap(lookupsList.get(i)));
+                }
+            }
             lookupsList.add(new CategoryTypeLookup());
             lookupsList.add(new SimpleTypeLookup());
             lookups = lookupsList.toArray(new ITypeLookup[0]);
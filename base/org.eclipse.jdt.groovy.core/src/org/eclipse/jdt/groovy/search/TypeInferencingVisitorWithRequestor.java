@@ -97,7 +97,9 @@ import org.codehaus.jdt.groovy.model.ModuleNodeMapper.ModuleNodeInfo;
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.jdt.core.IField;
 import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IMember;
 import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.ISourceRange;
 import org.eclipse.jdt.core.IType;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.compiler.CharOperation;
@@ -258,8 +260,11 @@ public class TypeInferencingVisitorWithRequestor extends ClassCodeVisitorSupport
     // Assume that if something returns an answer, then we go with that.
     // Later on, should do some ordering of results
     private final ITypeLookup[] lookups;
+    private final ModuleNode moduleNode;
 
     private ITypeRequestor requestor;
+    private SearchTokenFilter memberFilter;
+    private char[] memberFilterContents;
     private IJavaElement enclosingElement;
     private ASTNode enclosingDeclarationNode;
     private BinaryExpression enclosingAssignment;
@@ -313,10 +318,27 @@ public class TypeInferencingVisitorWithRequestor extends ClassCodeVisitorSupport
         ModuleNodeInfo info = createModuleNode(unit);
         this.resolver = info != null ? info.resolver : null;
         this.enclosingDeclarationNode = info != null ? info.module : null;
+        this.moduleNode = info != null ? info.module : null;
+    }
+
+    /**
+     * @return the module node that is visited or {@code null} if there is none
+     */
+    public ModuleNode getModuleNode() {
+        return moduleNode;
     }
 
     //--------------------------------------------------------------------------
 
+    /**
+     * Methods and fields whose source does not pass the filter are skipped.
+     * Types and their synthetic members are always visited.
+     */
+    public void setMemberFilter(SearchTokenFilter memberFilter) {
+        this.memberFilter = memberFilter;
+        this.memberFilterContents = null;
+    }
+
     public void visitCompilationUnit(ITypeRequestor requestor) {
         if (enclosingDeclarationNode == null) {
             // no module node, can't do anything
@@ -378,18 +400,31 @@ public class TypeInferencingVisitorWithRequestor extends ClassCodeVisitorSupport
             visitClassInternal(node);
 
             try {
+                // end of the previous member; annotations and modifiers of a member may precede its source range
+                int previousEnd = node.getStart();
                 // visitJDT so that we have the proper enclosing element
                 for (IJavaElement child : type.getChildren()) {
                     // filter out synthetic members for enums
                     if (type.isEnum() && shouldFilterEnumMember(child)) {
                         continue;
                     }
+                    ISourceRange range = ((IMember) child).getSourceRange();
+                    int regionStart = previousEnd;
+                    if (range != null && range.getOffset() >= 0) {
+                        previousEnd = Math.max(previousEnd, range.getOffset() + range.getLength());
+                    }
                     switch (child.getElementType()) {
                         case IJavaElement.METHOD:
+                            if (isFilteredMember(range, regionStart)) {
+                                continue;
+                            }
                             visitJDT((IMethod) child, requestor);
                             break;
 
                         case IJavaElement.FIELD:
+                            if (isFilteredMember(range, regionStart)) {
+                                continue;
+                            }
                             visitJDT((IField) child, requestor);
                             break;
 
@@ -2620,6 +2655,18 @@ assert primaryExprType != null && dependentExprType != null;
         return list != null && !list.isEmpty();
     }
 
+    private boolean isFilteredMember(ISourceRange range, int regionStart) {
+        if (memberFilter == null || range == null || range.getOffset() < 0 || range.getLength() <= 0) {
+            return false;
+        }
+        if (memberFilterContents == null) {
+            memberFilterContents = unit.getContents();
+            memberFilter = memberFilter.withImportAliases(moduleNode);
+        }
+        int start = Math.max(0, Math.min(regionStart, range.getOffset()));
+        return !memberFilter.accept(memberFilterContents, start, range.getOffset() + range.getLength());
+    }
+
     private static boolean shouldFilterEnumMember(IJavaElement child) {
         int type = child.getElementType();
         String name = child.getElementName();
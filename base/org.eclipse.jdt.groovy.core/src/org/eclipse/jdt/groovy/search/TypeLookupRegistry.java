@@ -19,17 +19,31 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IConfigurationElement;
+import org.eclipse.core.runtime.IExecutableExtension;
 import org.eclipse.core.runtime.IExtension;
 import org.eclipse.core.runtime.IExtensionPoint;
+import org.eclipse.core.runtime.IRegistryEventListener;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.jdt.internal.core.util.Util;
 
 /**
  * Manages type lookups
+ * <p>
+ * The lookup factories that apply to a project are cached per project; the
+ * cache entry is dropped when the project's description (and so possibly its
+ * natures) changes, and the whole cache when type lookup extensions come or go.
+ * The first lookup of each extension is created through the extension registry;
+ * later ones are created with the lookup's no-argument constructor, unless the
+ * lookup implements {@link IExecutableExtension}.
  *
  * @author Andrew Eisenberg
  * @created Nov 17, 2009
@@ -50,45 +64,125 @@ public class TypeLookupRegistry {
     }
 
     // maps from project nature to lists of type lookup classes
-    private Map<String, List<IConfigurationElement>> natureLookupMap = new HashMap<String, List<IConfigurationElement>>();
+    private volatile Map<String, List<IConfigurationElement>> natureLookupMap;
+
+    // maps from project name to the factories of the lookups that apply to it
+    private final Map<String, LookupFactory[]> projectLookupCache = new ConcurrentHashMap<String, LookupFactory[]>();
+
+    /**
+     * Creates the lookups of one type lookup extension.
+     */
+    private static class LookupFactory {
+        private final IConfigurationElement config;
+        private volatile Class<? extends ITypeLookup> type;
+
+        LookupFactory(IConfigurationElement config) {
+            this.config = config;
+        }
+
+        ITypeLookup create() throws CoreException {
+            Class<? extends ITypeLookup> lookupType = type;
+            if (lookupType != null) {
+                try {
+                    return lookupType.newInstance();
+                } catch (Exception e) {
+                    Util.log(e, "Problem instantiating lookup " + lookupType.getName());
+                    type = null;
+                }
+            }
+            ITypeLookup lookup = (ITypeLookup) config.createExecutableExtension(LOOKUP);
+            if (!(lookup instanceof IExecutableExtension)) {
+                type = lookup.getClass();
+            }
+            return lookup;
+        }
+    }
 
     List<ITypeLookup> getLookupsFor(IProject project) throws CoreException {
         if (!project.exists()) {
             return new ArrayList<ITypeLookup>(3);
         }
-        String[] natures = project.getDescription().getNatureIds();
-        List<ITypeLookup> lookups = new ArrayList<ITypeLookup>();
+        LookupFactory[] factories = projectLookupCache.get(project.getName());
+        if (factories == null) {
+            factories = createFactories(project.getDescription().getNatureIds());
+            projectLookupCache.put(project.getName(), factories);
+        }
+        List<ITypeLookup> lookups = new ArrayList<ITypeLookup>(factories.length + 2);
+        for (LookupFactory factory : factories) {
+            try {
+                lookups.add(factory.create());
+            } catch (CoreException e) {
+                Util.log(e, "Problem creating lookup for type " + factory.config.getAttribute(LOOKUP));
+            }
+        }
+        return lookups;
+    }
+
+    private LookupFactory[] createFactories(String[] natures) {
+        Map<String, List<IConfigurationElement>> lookupMap = natureLookupMap;
+        List<LookupFactory> factories = new ArrayList<LookupFactory>();
         for (String nature : natures) {
-            List<IConfigurationElement> configs = natureLookupMap.get(nature);
+            List<IConfigurationElement> configs = lookupMap.get(nature);
             if (configs != null) {
                 for (IConfigurationElement config : configs) {
-                    try {
-                        lookups.add((ITypeLookup) config.createExecutableExtension(LOOKUP));
-                    } catch (CoreException e) {
-                        Util.log(e, "Problem creating lookup for type " + config.getAttribute(LOOKUP));
-                    }
+                    factories.add(new LookupFactory(config));
                 }
             }
         }
-        return lookups;
+        return factories.toArray(new LookupFactory[factories.size()]);
     }
 
     private TypeLookupRegistry() {
         initialize();
+        ResourcesPlugin.getWorkspace().addResourceChangeListener(new IResourceChangeListener() {
+            public void resourceChanged(IResourceChangeEvent event) {
+                IResourceDelta delta = event.getDelta();
+                if (delta != null) {
+                    for (IResourceDelta child : delta.getAffectedChildren()) {
+                        if (child.getKind() != IResourceDelta.CHANGED ||
+                                (child.getFlags() & (IResourceDelta.DESCRIPTION | IResourceDelta.OPEN)) != 0) {
+                            projectLookupCache.remove(child.getResource().getName());
+                        }
+                    }
+                }
+            }
+        }, IResourceChangeEvent.POST_CHANGE);
+        Platform.getExtensionRegistry().addListener(new IRegistryEventListener() {
+            public void added(IExtension[] extensions) {
+                reinitialize();
+            }
+
+            public void removed(IExtension[] extensions) {
+                reinitialize();
+            }
+
+            public void added(IExtensionPoint[] extensionPoints) {
+            }
+
+            public void removed(IExtensionPoint[] extensionPoints) {
+            }
+        }, TYPE_LOOKUP_EXTENSION);
+    }
+
+    private void reinitialize() {
+        initialize();
+        projectLookupCache.clear();
     }
 
     private void initialize() {
+        Map<String, List<IConfigurationElement>> lookupMap = new HashMap<String, List<IConfigurationElement>>();
         IExtensionPoint extPoint = Platform.getExtensionRegistry().getExtensionPoint(TYPE_LOOKUP_EXTENSION);
         IExtension[] exts = extPoint.getExtensions();
         for (IExtension ext : exts) {
             IConfigurationElement[] configs = ext.getConfigurationElements();
             for (IConfigurationElement config : configs) {
-                createLookup(config);
+                createLookup(config, lookupMap);
             }
         }
+        natureLookupMap = lookupMap;
     }
 
-    private void createLookup(IConfigurationElement config) {
+    private void createLookup(IConfigurationElement config, Map<String, List<IConfigurationElement>> lookupMap) {
         try {
             if (config.getName().equals(LOOKUP)) {
                 if (config.getAttribute(LOOKUP) != null) {
@@ -96,11 +190,11 @@ public class TypeLookupRegistry {
                     for (IConfigurationElement appliesTo : appliesTos) {
                         String nature = appliesTo.getAttribute(NATURE);
                         List<IConfigurationElement> elts;
-                        if (natureLookupMap.containsKey(nature)) {
-                            elts = natureLookupMap.get(nature);
+                        if (lookupMap.containsKey(nature)) {
+                            elts = lookupMap.get(nature);
                         } else {
                             elts = new ArrayList<IConfigurationElement>(3);
-                            natureLookupMap.put(nature, elts);
+                            lookupMap.put(nature, elts);
                         }
                         elts.add(config);
                     }
@@ -69,7 +69,6 @@ import org.codehaus.groovy.runtime.XmlGroovyMethods;
 import org.codehaus.jdt.groovy.internal.compiler.ast.JDTMethodNode;
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.jdt.groovy.core.util.GroovyUtils;
-import org.eclipse.jdt.groovy.core.util.ReflectionUtils;
 
 /**
  * Maps variable names to types in a hierarchy.
@@ -649,7 +648,7 @@ public class VariableScope {
         if (mapper.hasGenerics() && (GroovyUtils.getGenericsTypes(method).length > 0 ||
                 GroovyUtils.getGenericsTypes(method.getDeclaringClass()).length > 0)) {
 
-            ClassNode returnType = resolveTypeParameterization(mapper, clone(method.getReturnType()));
+            ClassNode returnType = resolveTypeParameterization(mapper, cloneIfParameterized(method.getReturnType()));
 
             Parameter[] parameters = method.getParameters();
             if (parameters != null && parameters.length > 0) {
@@ -657,7 +656,7 @@ public class VariableScope {
                 parameters = new Parameter[n];
                 for (int i = 0; i < n; i += 1) {
                     Parameter original = method.getParameters()[i];
-                    ClassNode parameterType = resolveTypeParameterization(mapper, clone(original.getType()));
+                    ClassNode parameterType = resolveTypeParameterization(mapper, cloneIfParameterized(original.getType()));
                     parameters[i] = new Parameter(parameterType, original.getName(), original.getInitialExpression());
                     parameters[i].addAnnotations(original.getAnnotations());
                     parameters[i].setClosureSharedVariable(original.isClosureSharedVariable());
@@ -683,7 +682,7 @@ public class VariableScope {
                 resolved.addAnnotations(method.getAnnotations());
             }
             resolved.setAnnotationDefault(method.hasAnnotationDefault());
-            resolved.setDeclaringClass(resolveTypeParameterization(mapper, clone(method.getDeclaringClass())));
+            resolved.setDeclaringClass(resolveTypeParameterization(mapper, cloneIfParameterized(method.getDeclaringClass())));
             resolved.setGenericsTypes(method.getGenericsTypes()); // TODO: resolve?
             resolved.setHasNoRealSourcePosition(method.hasNoRealSourcePosition());
             resolved.copyNodeMetaData(method);
@@ -715,6 +714,17 @@ public class VariableScope {
         return cloneInternal(type, 0);
     }
 
+    /**
+     * Types without generics come through {@link #resolveTypeParameterization(GenericsMapper, ClassNode)}
+     * unchanged, so they are shared instead of copied.
+     */
+    private static ClassNode cloneIfParameterized(ClassNode type) {
+        if (type == null || GroovyUtils.getGenericsTypes(type).length == 0) {
+            return type;
+        }
+        return clone(type);
+    }
+
     public static ClassNode clonedMap() {
         ClassNode clone = clone(MAP_CLASS_NODE);
         cleanGenerics(clone.getGenericsTypes()[0]);
@@ -759,13 +769,17 @@ public class VariableScope {
         if (type == null || type.isPrimitive()) {
             return type;
         }
-        ClassNode newType = type.getPlainNodeReference();
+        ClassNode newType;
+        if (type.isArray()) {
+            // array of the copied component type that otherwise refers to the original
+            newType = cloneInternal(type.getComponentType(), depth + 1).makeArray();
+            newType.setRedirect(type.redirect());
+        } else {
+            newType = type.getPlainNodeReference();
+        }
 
         newType.setSourcePosition(type);
         newType.setGenericsPlaceHolder(type.isGenericsPlaceHolder());
-        ReflectionUtils.setPrivateField(ClassNode.class, "componentType", newType,
-            cloneInternal(type.getComponentType(), depth + 1)
-        );
 
         // GRECLIPSE-1024: set an arbitrary depth to return from
         // ensures that improperly set up generics do not lead to infinite recursion
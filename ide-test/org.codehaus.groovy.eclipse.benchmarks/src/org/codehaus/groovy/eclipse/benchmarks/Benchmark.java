@@ -0,0 +1,79 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.benchmarks;
+
+import java.util.List;
+import java.util.Map;
+
+import org.codehaus.groovy.eclipse.test.TestProject;
+import org.codehaus.jdt.groovy.model.GroovyCompilationUnit;
+
+/**
+ * A measured operation over all files of a {@link SyntheticCorpus}.
+ */
+public abstract class Benchmark {
+
+    private final String name;
+
+    protected Benchmark(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Prepares the benchmark for a corpus.  Not measured.
+     *
+     * @param units working copies of the corpus files, in corpus order
+     */
+    public void setUp(SyntheticCorpus corpus, TestProject project, List<GroovyCompilationUnit> units) throws Exception {
+    }
+
+    /**
+     * Performs one operation.  The result must depend on the work done so
+     * that it cannot be optimized away.
+     */
+    public abstract long run() throws Exception;
+
+    /**
+     * @return additional measurements (name to total nanoseconds)
+     *         collected since the last call, or {@code null}
+     */
+    public Map<String, Long> collectSecondaryMetrics() {
+        return null;
+    }
+
+    /**
+     * @return counts of events (name to total) collected since the last
+     *         call, or {@code null}
+     */
+    public Map<String, Long> collectCountMetrics() {
+        return null;
+    }
+
+    /**
+     * @return memory measurements (name to bytes) taken after the measured
+     *         iterations, or {@code null}
+     */
+    public Map<String, Long> collectMemoryMetrics() {
+        return null;
+    }
+
+    public void tearDown() throws Exception {
+    }
+}
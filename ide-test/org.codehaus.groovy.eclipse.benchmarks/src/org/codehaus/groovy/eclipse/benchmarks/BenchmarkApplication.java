@@ -0,0 +1,188 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.benchmarks;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.codehaus.groovy.eclipse.test.TestProject;
+import org.codehaus.jdt.groovy.model.GroovyCompilationUnit;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.equinox.app.IApplication;
+import org.eclipse.equinox.app.IApplicationContext;
+import org.eclipse.jdt.core.JavaCore;
+
+/**
+ * Headless application that runs the parser, resolver, inferencing, lookup
+ * setup, DSLD, formatter, search index, broken code and transform loader
+ * benchmarks against synthetic corpora and writes the results as JMH-style
+ * JSON, so that regressions can be tracked from build to build.
+ *
+ * <pre>
+ * eclipse -application org.codehaus.groovy.eclipse.benchmarks.benchmark [--corpus scripts,classes,spock,grails]
+ *     [--benchmarks parse,reconcile,inference,lookups,dsld,format,index,broken,loader,urlloader] [--files N] [--scale N] [--warmup N] [--iterations N] [--result_file PATH]
+ * </pre>
+ */
+public class BenchmarkApplication implements IApplication {
+
+    private static final String PROJECT_NAME = "GroovyBenchmarks";
+
+    private List<SyntheticCorpus.Kind> corpora = new ArrayList<SyntheticCorpus.Kind>();
+    private List<String> benchmarkNames = new ArrayList<String>();
+    private int files = 20;
+    private int scale = 10;
+    private int warmupIterations = 5;
+    private int measurementIterations = 10;
+    private String resultFile;
+
+    public Object start(IApplicationContext context) throws Exception {
+        if (!processCommandLine((String[]) context.getArguments().get(IApplicationContext.APPLICATION_ARGS))) {
+            return Integer.valueOf(-1);
+        }
+
+        // now ensure that the classpath containers and variables are initialized
+        JavaCore.initializeAfterLoad(new NullProgressMonitor());
+
+        BenchmarkRunner runner = new BenchmarkRunner(warmupIterations, measurementIterations);
+        for (SyntheticCorpus.Kind kind : corpora) {
+            SyntheticCorpus corpus = new SyntheticCorpus(kind, files, scale);
+            TestProject project = new TestProject(PROJECT_NAME);
+            try {
+                List<GroovyCompilationUnit> units = corpus.materialize(project);
+                project.waitForIndexer();
+                for (String name : benchmarkNames) {
+                    BenchmarkRunner.Result result = runner.run(createBenchmark(name), corpus, project, units);
+                    System.out.println(String.format("%-10s %-8s %10.3f ms/op  (+- %.3f)", name, kind.id, result.getScoreMillis(), result.getScoreErrorMillis()));
+                }
+            } finally {
+                project.dispose();
+            }
+        }
+
+        String json = runner.toJson();
+        if (resultFile == null) {
+            System.out.println(json);
+        } else {
+            Writer out = new OutputStreamWriter(new FileOutputStream(new File(resultFile)), "UTF-8");
+            try {
+                out.write(json);
+            } finally {
+                out.close();
+            }
+            System.out.println("Results written to " + resultFile);
+        }
+        return IApplication.EXIT_OK;
+    }
+
+    public void stop() {
+        // nothing to clean up
+    }
+
+    static Benchmark createBenchmark(String name) {
+        if ("parse".equals(name)) {
+            return new ParseBenchmark();
+        } else if ("reconcile".equals(name)) {
+            return new ReconcileBenchmark();
+        } else if ("inference".equals(name)) {
+            return new InferencingBenchmark();
+        } else if ("lookups".equals(name)) {
+            return new LookupSetupBenchmark();
+        } else if ("dsld".equals(name)) {
+            return new DSLDBenchmark();
+        } else if ("format".equals(name)) {
+            return new FormatterBenchmark();
+        } else if ("index".equals(name)) {
+            return new IndexBenchmark();
+        } else if ("broken".equals(name)) {
+            return new BrokenCodeBenchmark();
+        } else if ("loader".equals(name)) {
+            return new TransformLoaderBenchmark(true);
+        } else if ("urlloader".equals(name)) {
+            return new TransformLoaderBenchmark(false);
+        }
+        throw new IllegalArgumentException("Unknown benchmark: " + name);
+    }
+
+    private boolean processCommandLine(String[] args) {
+        String corpusArg = "scripts,classes,spock,grails";
+        String benchmarksArg = "parse,reconcile,inference,lookups,dsld,format,index,broken,loader,urlloader";
+        try {
+            for (int i = 0; i < args.length; i += 1) {
+                String arg = args[i];
+                if (arg.equals("-h") || arg.equals("--help")) {
+                    printUsage(false);
+                    return false;
+                } else if (i == args.length - 1) {
+                    System.err.println("Missing " + arg + " argument");
+                    printUsage(true);
+                    return false;
+                } else if (arg.equals("--corpus")) {
+                    corpusArg = args[++i];
+                } else if (arg.equals("--benchmarks")) {
+                    benchmarksArg = args[++i];
+                } else if (arg.equals("--files")) {
+                    files = Integer.parseInt(args[++i]);
+                } else if (arg.equals("--scale")) {
+                    scale = Integer.parseInt(args[++i]);
+                } else if (arg.equals("--warmup")) {
+                    warmupIterations = Integer.parseInt(args[++i]);
+                } else if (arg.equals("--iterations")) {
+                    measurementIterations = Integer.parseInt(args[++i]);
+                } else if (arg.equals("--result_file")) {
+                    resultFile = args[++i];
+                } else {
+                    System.err.println("Unknown argument: " + arg);
+                    printUsage(true);
+                    return false;
+                }
+            }
+            for (String id : corpusArg.split(",")) {
+                corpora.add(SyntheticCorpus.Kind.fromId(id.trim()));
+            }
+            for (String name : benchmarksArg.split(",")) {
+                createBenchmark(name.trim());
+                benchmarkNames.add(name.trim());
+            }
+        } catch (IllegalArgumentException e) {
+            // also covers NumberFormatException
+            System.err.println(e.getMessage());
+            printUsage(true);
+            return false;
+        }
+        return true;
+    }
+
+    private void printUsage(boolean isInvalid) {
+        if (isInvalid) {
+            System.out.println("Invalid command line.");
+        }
+        System.out.println("Usage:");
+        System.out.println("eclipse -application org.codehaus.groovy.eclipse.benchmarks.benchmark [--help] [-h] [--corpus <KINDS>] [--benchmarks <NAMES>] [--files <N>] [--scale <N>] [--warmup <N>] [--iterations <N>] [--result_file <PATH>]");
+        System.out.println("where:");
+        System.out.println("\t--help OR -h  Print this message and exit.");
+        System.out.println("\t--corpus  Comma-separated corpora to generate: scripts, classes, spock, grails.  Defaults to all.");
+        System.out.println("\t--benchmarks  Comma-separated benchmarks to run: parse, reconcile, inference, lookups, dsld, format, index, broken, loader, urlloader.  Defaults to all.");
+        System.out.println("\t--files  Number of files in each corpus.  Defaults to 20.");
+        System.out.println("\t--scale  Size of each file (statements, members or features).  Defaults to 10.");
+        System.out.println("\t--warmup  Number of unmeasured iterations.  Defaults to 5.");
+        System.out.println("\t--iterations  Number of measured iterations.  Defaults to 10.");
+        System.out.println("\t--result_file  File to write the JSON results to.  If not specified, then results sent to sysout.");
+    }
+}
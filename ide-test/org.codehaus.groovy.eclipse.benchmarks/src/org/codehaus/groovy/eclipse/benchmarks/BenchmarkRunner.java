@@ -0,0 +1,198 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.benchmarks;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.codehaus.groovy.eclipse.test.TestProject;
+import org.codehaus.jdt.groovy.model.GroovyCompilationUnit;
+
+/**
+ * Runs benchmarks in the style of JMH's average time mode: a number of
+ * unmeasured warmup iterations followed by measured iterations, each of which
+ * performs a single operation over the whole corpus.  Results are written in
+ * the JSON format of JMH so that existing tooling can track them.
+ */
+public class BenchmarkRunner {
+
+    public static class Result {
+        final String benchmark;
+        final SyntheticCorpus corpus;
+        final long[] iterationNanos;
+        final Map<String, Long> secondaryNanos = new TreeMap<String, Long>();
+        final Map<String, Long> counts = new TreeMap<String, Long>();
+        final Map<String, Long> memoryBytes = new TreeMap<String, Long>();
+
+        Result(String benchmark, SyntheticCorpus corpus, int iterations) {
+            this.benchmark = benchmark;
+            this.corpus = corpus;
+            this.iterationNanos = new long[iterations];
+        }
+
+        public double getScoreMillis() {
+            double sum = 0;
+            for (long nanos : iterationNanos) {
+                sum += nanos;
+            }
+            return iterationNanos.length == 0 ? 0 : sum / iterationNanos.length / 1000000.0;
+        }
+
+        /**
+         * @return half-width of the 99.9% confidence interval of the score,
+         *         assuming normally distributed iteration times
+         */
+        public double getScoreErrorMillis() {
+            int n = iterationNanos.length;
+            if (n < 2) {
+                return Double.NaN;
+            }
+            double mean = getScoreMillis();
+            double squares = 0;
+            for (long nanos : iterationNanos) {
+                double delta = nanos / 1000000.0 - mean;
+                squares += delta * delta;
+            }
+            return 3.291 * Math.sqrt(squares / (n - 1)) / Math.sqrt(n);
+        }
+    }
+
+    // results of run() are accumulated here so that the work cannot be optimized away
+    public static volatile long sink;
+
+    private final int warmupIterations;
+    private final int measurementIterations;
+    private final List<Result> results = new ArrayList<Result>();
+
+    public BenchmarkRunner(int warmupIterations, int measurementIterations) {
+        this.warmupIterations = warmupIterations;
+        this.measurementIterations = measurementIterations;
+    }
+
+    public Result run(Benchmark benchmark, SyntheticCorpus corpus, TestProject project, List<GroovyCompilationUnit> units) throws Exception {
+        Result result = new Result(benchmark.getName(), corpus, measurementIterations);
+        benchmark.setUp(corpus, project, units);
+        try {
+            for (int i = 0; i < warmupIterations; i += 1) {
+                sink += benchmark.run();
+            }
+            benchmark.collectSecondaryMetrics();
+            benchmark.collectCountMetrics();
+            for (int i = 0; i < measurementIterations; i += 1) {
+                long start = System.nanoTime();
+                sink += benchmark.run();
+                result.iterationNanos[i] = System.nanoTime() - start;
+            }
+            Map<String, Long> secondary = benchmark.collectSecondaryMetrics();
+            if (secondary != null) {
+                result.secondaryNanos.putAll(secondary);
+            }
+            Map<String, Long> counts = benchmark.collectCountMetrics();
+            if (counts != null) {
+                result.counts.putAll(counts);
+            }
+            Map<String, Long> memory = benchmark.collectMemoryMetrics();
+            if (memory != null) {
+                result.memoryBytes.putAll(memory);
+            }
+        } finally {
+            benchmark.tearDown();
+        }
+        results.add(result);
+        return result;
+    }
+
+    public List<Result> getResults() {
+        return results;
+    }
+
+    public String toJson() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0, n = results.size(); i < n; i += 1) {
+            Result result = results.get(i);
+            if (i > 0) sb.append(',');
+            sb.append("\n  {");
+            sb.append("\n    \"benchmark\": \"").append(BenchmarkRunner.class.getPackage().getName()).append('.').append(result.benchmark).append("\",");
+            sb.append("\n    \"mode\": \"avgt\",");
+            sb.append("\n    \"threads\": 1,");
+            sb.append("\n    \"forks\": 0,");
+            sb.append("\n    \"jvm\": \"").append(escape(System.getProperty("java.home"))).append("\",");
+            sb.append("\n    \"vmVersion\": \"").append(escape(System.getProperty("java.vm.version"))).append("\",");
+            sb.append("\n    \"warmupIterations\": ").append(warmupIterations).append(',');
+            sb.append("\n    \"measurementIterations\": ").append(measurementIterations).append(',');
+
+            Map<String, String> params = new LinkedHashMap<String, String>();
+            params.put("corpus", result.corpus.getKind().id);
+            params.put("files", String.valueOf(result.corpus.getFileCount()));
+            params.put("scale", String.valueOf(result.corpus.getScale()));
+            sb.append("\n    \"params\": {");
+            boolean first = true;
+            for (Map.Entry<String, String> param : params.entrySet()) {
+                if (!first) sb.append(", ");
+                first = false;
+                sb.append('"').append(param.getKey()).append("\": \"").append(param.getValue()).append('"');
+            }
+            sb.append("},");
+
+            sb.append("\n    \"primaryMetric\": {");
+            sb.append("\n      \"score\": ").append(number(result.getScoreMillis())).append(',');
+            sb.append("\n      \"scoreError\": ").append(number(result.getScoreErrorMillis())).append(',');
+            sb.append("\n      \"scoreUnit\": \"ms/op\",");
+            sb.append("\n      \"rawData\": [[");
+            for (int j = 0; j < result.iterationNanos.length; j += 1) {
+                if (j > 0) sb.append(", ");
+                sb.append(number(result.iterationNanos[j] / 1000000.0));
+            }
+            sb.append("]]");
+            sb.append("\n    },");
+
+            sb.append("\n    \"secondaryMetrics\": {");
+            first = true;
+            for (Map.Entry<String, Long> metric : result.secondaryNanos.entrySet()) {
+                if (!first) sb.append(',');
+                first = false;
+                double perOp = measurementIterations == 0 ? 0 : metric.getValue().doubleValue() / measurementIterations / 1000000.0;
+                sb.append("\n      \"").append(escape(metric.getKey())).append("\": {\"score\": ").append(number(perOp)).append(", \"scoreUnit\": \"ms/op\"}");
+            }
+            for (Map.Entry<String, Long> metric : result.counts.entrySet()) {
+                if (!first) sb.append(',');
+                first = false;
+                double perOp = measurementIterations == 0 ? 0 : metric.getValue().doubleValue() / measurementIterations;
+                sb.append("\n      \"").append(escape(metric.getKey())).append("\": {\"score\": ").append(number(perOp)).append(", \"scoreUnit\": \"#/op\"}");
+            }
+            for (Map.Entry<String, Long> metric : result.memoryBytes.entrySet()) {
+                if (!first) sb.append(',');
+                first = false;
+                sb.append("\n      \"").append(escape(metric.getKey())).append("\": {\"score\": ").append(metric.getValue()).append(", \"scoreUnit\": \"B\"}");
+            }
+            sb.append(first ? "}" : "\n    }");
+            sb.append("\n  }");
+        }
+        return sb.append("\n]\n").toString();
+    }
+
+    private static String number(double value) {
+        return Double.isNaN(value) ? "\"NaN\"" : String.format(Locale.ENGLISH, "%.3f", value);
+    }
+
+    private static String escape(String text) {
+        return text == null ? "" : text.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.benchmarks;
+
+import java.util.List;
+import java.util.Map;
+
+import org.codehaus.groovy.eclipse.test.TestProject;
+import org.codehaus.jdt.groovy.internal.compiler.ast.GroovyParser;
+import org.codehaus.jdt.groovy.model.GroovyCompilationUnit;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.internal.compiler.CompilationResult;
+import org.eclipse.jdt.internal.compiler.DefaultErrorHandlingPolicies;
+import org.eclipse.jdt.internal.compiler.batch.CompilationUnit;
+import org.eclipse.jdt.internal.compiler.impl.CompilerOptions;
+import org.eclipse.jdt.internal.compiler.problem.DefaultProblemFactory;
+import org.eclipse.jdt.internal.compiler.problem.ProblemReporter;
+
+/**
+ * Measures {@link GroovyParser#dietParse} of files that do not parse, so that
+ * parser recovery and the recording of its syntax errors are covered.  The
+ * closing braces are taken out of the second half of each corpus file and an
+ * unfinished statement is added after every few lines.
+ */
+public class BrokenCodeBenchmark extends Benchmark {
+
+    private CompilerOptions options;
+    private ProblemReporter reporter;
+    private CompilationUnit[] sourceUnits;
+
+    public BrokenCodeBenchmark() {
+        super("broken");
+    }
+
+    @Override
+    public void setUp(SyntheticCorpus corpus, TestProject project, List<GroovyCompilationUnit> units) {
+        Map<String, String> table = JavaCore.getOptions();
+        table.put(CompilerOptions.OPTIONG_BuildGroovyFiles, CompilerOptions.ENABLED);
+        options = new CompilerOptions(table);
+        reporter = new ProblemReporter(DefaultErrorHandlingPolicies.proceedWithAllProblems(), options, new DefaultProblemFactory());
+
+        List<String> sources = corpus.getSources();
+        sourceUnits = new CompilationUnit[sources.size()];
+        for (int i = 0; i < sourceUnits.length; i += 1) {
+            sourceUnits[i] = new CompilationUnit(breakSource(sources.get(i)).toCharArray(), "Broken" + i + ".groovy", null);
+        }
+    }
+
+    @Override
+    public long run() {
+        long result = 0;
+        for (CompilationUnit sourceUnit : sourceUnits) {
+            GroovyParser parser = new GroovyParser(options, reporter, false, true);
+            // no limit, so that all of the recorded problems are counted
+            CompilationResult compilationResult = new CompilationResult(sourceUnit, 0, 0, Integer.MAX_VALUE);
+            parser.dietParse(sourceUnit, compilationResult);
+            result += compilationResult.problemCount;
+        }
+        return result;
+    }
+
+    private static String breakSource(String source) {
+        int half = source.length() / 2;
+        StringBuilder sb = new StringBuilder(source.length() + 100);
+        sb.append(source, 0, half);
+        int lines = 0;
+        for (int i = half, n = source.length(); i < n; i += 1) {
+            char c = source.charAt(i);
+            if (c != '}') {
+                sb.append(c);
+            }
+            if (c == '\n' && ++lines % 5 == 0) {
+                sb.append("def broken = (\n");
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.eclipse.dsl.DSLDStore;
+import org.codehaus.groovy.eclipse.dsl.DSLDStoreManager;
+import org.codehaus.groovy.eclipse.dsl.DSLPreferences;
+import org.codehaus.groovy.eclipse.dsl.GroovyDSLCoreActivator;
+import org.codehaus.groovy.eclipse.dsl.pointcuts.GroovyDSLDContext;
+import org.codehaus.groovy.eclipse.test.TestProject;
+import org.codehaus.jdt.groovy.model.GroovyCompilationUnit;
+import org.codehaus.jdt.groovy.model.ModuleNodeMapper.ModuleNodeInfo;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.jdt.groovy.search.VariableScope;
+
+/**
+ * Measures {@link DSLDStore#findContributions} for every class of every
+ * corpus file, against a project DSLD with a handful of typical pointcuts.
+ */
+public class DSLDBenchmark extends Benchmark {
+
+    private static final String DSLD =
+        "contribute(currentType(subType('java.lang.Object'))) {\n" +
+        "  property name: 'benchmarkProperty', type: String\n" +
+        "}\n" +
+        "contribute(currentType(annotatedBy('groovy.transform.CompileStatic'))) {\n" +
+        "  method name: 'benchmarkStatic', type: void\n" +
+        "}\n" +
+        "contribute(enclosingClass(fields(name('constraints') | name('mapping')))) {\n" +
+        "  method name: 'nullable', params: [value: boolean], type: void\n" +
+        "}\n" +
+        "contribute(currentType(subType('spock.lang.Specification'))) {\n" +
+        "  method name: 'interaction', params: [block: Closure], type: Object\n" +
+        "}\n" +
+        "contribute(enclosingScript() & currentType(subType('groovy.lang.Script'))) {\n" +
+        "  property name: 'benchmarkBinding', type: Map\n" +
+        "}\n";
+
+    private static class UnitContext {
+        final GroovyDSLDContext pattern;
+        final List<ClassNode> types;
+
+        UnitContext(GroovyDSLDContext pattern, List<ClassNode> types) {
+            this.pattern = pattern;
+            this.types = types;
+        }
+    }
+
+    private final List<UnitContext> contexts = new ArrayList<UnitContext>();
+    private DSLDStore store;
+    private Set<String> disabledScripts;
+    private IFile dsldFile;
+
+    public DSLDBenchmark() {
+        super("dsld");
+    }
+
+    @Override
+    public void setUp(SyntheticCorpus corpus, TestProject project, List<GroovyCompilationUnit> units) throws Exception {
+        dsldFile = project.getProject().getFile("benchmark.dsld");
+        if (!dsldFile.exists()) {
+            dsldFile.create(new ByteArrayInputStream(DSLD.getBytes("UTF-8")), true, null);
+        }
+        DSLDStoreManager manager = GroovyDSLCoreActivator.getDefault().getContextStoreManager();
+        manager.initialize(project.getProject(), true);
+        store = manager.getDSLDStore(project.getJavaProject());
+        disabledScripts = DSLPreferences.getDisabledScriptsAsSet();
+
+        contexts.clear();
+        for (GroovyCompilationUnit unit : units) {
+            ModuleNodeInfo info = unit.getModuleInfo(true);
+            if (info != null && info.module != null) {
+                contexts.add(new UnitContext(new GroovyDSLDContext(unit, info.module, info.resolver), info.module.getClasses()));
+            }
+        }
+    }
+
+    @Override
+    public long run() {
+        long result = 0;
+        for (UnitContext context : contexts) {
+            DSLDStore subStore = store.createSubStore(context.pattern);
+            for (ClassNode type : context.types) {
+                context.pattern.setCurrentScope(new VariableScope(null, type, false));
+                context.pattern.setTargetType(type);
+                context.pattern.setStatic(false);
+                result += subStore.findContributions(context.pattern, disabledScripts).size();
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        contexts.clear();
+        if (dsldFile != null && dsldFile.exists()) {
+            dsldFile.delete(true, null);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.codehaus.groovy.eclipse.refactoring.formatter.DefaultGroovyFormatter;
+import org.codehaus.groovy.eclipse.refactoring.formatter.FormatterPreferences;
+import org.codehaus.groovy.eclipse.refactoring.formatter.IFormatterPreferences;
+import org.codehaus.groovy.eclipse.test.TestProject;
+import org.codehaus.jdt.groovy.model.GroovyCompilationUnit;
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.TextSelection;
+import org.eclipse.text.edits.TextEdit;
+
+/**
+ * Measures {@link DefaultGroovyFormatter#format()} of every corpus file.
+ * Each operation formats fresh documents, so the edits are never empty.
+ */
+public class FormatterBenchmark extends Benchmark {
+
+    private IFormatterPreferences preferences;
+    private List<String> sources;
+
+    public FormatterBenchmark() {
+        super("format");
+    }
+
+    @Override
+    public void setUp(SyntheticCorpus corpus, TestProject project, List<GroovyCompilationUnit> units) {
+        preferences = new FormatterPreferences(project.getJavaProject());
+        sources = new ArrayList<String>();
+        for (String source : corpus.getSources()) {
+            // strip the indentation so that the formatter has work to do
+            sources.add(source.replaceAll("(?m)^\\s+", ""));
+        }
+    }
+
+    @Override
+    public long run() throws Exception {
+        long result = 0;
+        for (String source : sources) {
+            DefaultGroovyFormatter formatter = new DefaultGroovyFormatter(new TextSelection(0, 0), new Document(source), preferences, false);
+            TextEdit edit = formatter.format();
+            if (edit != null) {
+                result += edit.getChildrenSize();
+            }
+        }
+        return result;
+    }
+}
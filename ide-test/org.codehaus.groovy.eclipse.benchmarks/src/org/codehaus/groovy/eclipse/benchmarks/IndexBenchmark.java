@@ -0,0 +1,131 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.benchmarks;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.codehaus.groovy.eclipse.test.TestProject;
+import org.codehaus.jdt.groovy.model.GroovyCompilationUnit;
+import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.search.IJavaSearchConstants;
+import org.eclipse.jdt.core.search.SearchPattern;
+import org.eclipse.jdt.internal.core.JavaModelManager;
+import org.eclipse.jdt.internal.core.index.EntryResult;
+import org.eclipse.jdt.internal.core.index.Index;
+import org.eclipse.jdt.internal.core.search.indexing.IIndexConstants;
+import org.eclipse.jdt.internal.core.search.indexing.IndexManager;
+
+/**
+ * Measures index queries for references to each method declared in the
+ * corpus, which is the first step of every "find references" search.  The
+ * size of the project's index is printed during set up.  Set up fails if the
+ * dynamic references of the corpus were not indexed or cannot be found by
+ * the queries, and each run fails if it finds a different number of matches.
+ */
+public class IndexBenchmark extends Benchmark {
+
+    private Index index;
+    private final List<SearchPattern> patterns = new ArrayList<SearchPattern>();
+    private long expectedResult;
+
+    public IndexBenchmark() {
+        super("index");
+    }
+
+    @Override
+    public void setUp(SyntheticCorpus corpus, TestProject project, List<GroovyCompilationUnit> units) throws Exception {
+        project.waitForIndexer();
+        IndexManager manager = JavaModelManager.getIndexManager();
+        index = manager.getIndex(project.getProject().getFullPath(), true, false);
+        if (index == null) {
+            throw new IllegalStateException("No index for " + project.getProject().getName());
+        }
+        manager.saveIndex(index);
+
+        Set<String> selectors = new LinkedHashSet<String>();
+        for (GroovyCompilationUnit unit : units) {
+            for (IType type : unit.getAllTypes()) {
+                for (IMethod method : type.getMethods()) {
+                    selectors.add(method.getElementName());
+                }
+            }
+        }
+        patterns.clear();
+        for (String selector : selectors) {
+            patterns.add(createPattern(selector));
+        }
+
+        if (patterns.isEmpty()) {
+            throw new IllegalStateException("No methods declared in " + corpus.getKind().id + " corpus");
+        }
+
+        EntryResult[] dynamicReferences = query(IIndexConstants.GROOVY_DYNAMIC_REF);
+        if (dynamicReferences.length == 0 || !index.hasCategory(IIndexConstants.GROOVY_DYNAMIC_REF)) {
+            throw new IllegalStateException("No dynamic references indexed for " + corpus.getKind().id + " corpus");
+        }
+        for (EntryResult entry : dynamicReferences) {
+            String key = String.valueOf(entry.getWord());
+            if (selectors.contains(key) && createPattern(key).queryIn(index) == null) {
+                throw new IllegalStateException("Dynamic references to " + key + " not found");
+            }
+        }
+        expectedResult = run();
+
+        File indexFile = index.getIndexFile();
+        System.out.println("Index of " + corpus.getKind().id + " corpus: " + (indexFile != null ? indexFile.length() : -1) + " bytes, " +
+            query(IIndexConstants.METHOD_REF).length + " method reference keys, " + dynamicReferences.length +
+            " dynamic reference keys, " + patterns.size() + " selectors queried");
+    }
+
+    @Override
+    public long run() throws Exception {
+        long result = 0;
+        for (SearchPattern pattern : patterns) {
+            EntryResult[] entries = pattern.queryIn(index);
+            if (entries != null) {
+                for (EntryResult entry : entries) {
+                    result += entry.getDocumentNames(index).length;
+                }
+            }
+        }
+        if (expectedResult > 0 && result != expectedResult) {
+            throw new IllegalStateException("Expected " + expectedResult + " matches, but found " + result);
+        }
+        return result;
+    }
+
+    private static SearchPattern createPattern(String selector) {
+        return SearchPattern.createPattern(selector, IJavaSearchConstants.METHOD, IJavaSearchConstants.REFERENCES,
+            SearchPattern.R_EXACT_MATCH | SearchPattern.R_CASE_SENSITIVE);
+    }
+
+    private EntryResult[] query(char[] category) throws Exception {
+        EntryResult[] entries = index.query(new char[][] {category}, null, SearchPattern.R_PATTERN_MATCH);
+        return entries == null ? new EntryResult[0] : entries;
+    }
+
+    @Override
+    public void tearDown() {
+        patterns.clear();
+        expectedResult = 0;
+        index = null;
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.benchmarks;
+
+import java.util.List;
+
+import org.codehaus.groovy.ast.ASTNode;
+import org.codehaus.groovy.eclipse.test.TestProject;
+import org.codehaus.jdt.groovy.model.GroovyCompilationUnit;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.groovy.search.ITypeRequestor;
+import org.eclipse.jdt.groovy.search.TypeInferencingVisitorFactory;
+import org.eclipse.jdt.groovy.search.TypeInferencingVisitorWithRequestor;
+import org.eclipse.jdt.groovy.search.TypeLookupResult;
+
+/**
+ * Measures {@link TypeInferencingVisitorWithRequestor#visitCompilationUnit}
+ * over already reconciled working copies.
+ */
+public class InferencingBenchmark extends Benchmark {
+
+    private List<GroovyCompilationUnit> units;
+    private final TypeInferencingVisitorFactory factory = new TypeInferencingVisitorFactory();
+
+    public InferencingBenchmark() {
+        super("inference");
+    }
+
+    @Override
+    public void setUp(SyntheticCorpus corpus, TestProject project, List<GroovyCompilationUnit> units) {
+        this.units = units;
+        for (GroovyCompilationUnit unit : units) {
+            unit.getModuleNode();
+        }
+    }
+
+    @Override
+    public long run() {
+        final long[] count = new long[1];
+        ITypeRequestor requestor = new ITypeRequestor() {
+            public VisitStatus acceptASTNode(ASTNode node, TypeLookupResult result, IJavaElement enclosingElement) {
+                if (result.type != null) {
+                    count[0] += 1;
+                }
+                return VisitStatus.CONTINUE;
+            }
+        };
+        for (GroovyCompilationUnit unit : units) {
+            factory.createVisitor(unit).visitCompilationUnit(requestor);
+        }
+        return count[0];
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.benchmarks;
+
+import java.util.List;
+
+import org.codehaus.groovy.eclipse.test.TestProject;
+import org.codehaus.jdt.groovy.model.GroovyCompilationUnit;
+import org.eclipse.jdt.groovy.search.TypeInferencingVisitorFactory;
+import org.eclipse.jdt.groovy.search.TypeInferencingVisitorWithRequestor;
+
+/**
+ * Measures the creation of {@link TypeInferencingVisitorWithRequestor}s,
+ * {@value #VISITORS_PER_UNIT} per corpus file, without visiting anything.
+ * Each visitor gets its own set of contributed type lookups, so this is the
+ * setup cost that every search, code select and content assist pays.
+ */
+public class LookupSetupBenchmark extends Benchmark {
+
+    private static final int VISITORS_PER_UNIT = 100;
+
+    private List<GroovyCompilationUnit> units;
+    private final TypeInferencingVisitorFactory factory = new TypeInferencingVisitorFactory();
+
+    public LookupSetupBenchmark() {
+        super("lookups");
+    }
+
+    @Override
+    public void setUp(SyntheticCorpus corpus, TestProject project, List<GroovyCompilationUnit> units) {
+        this.units = units;
+    }
+
+    @Override
+    public long run() {
+        long count = 0;
+        for (GroovyCompilationUnit unit : units) {
+            for (int i = 0; i < VISITORS_PER_UNIT; i += 1) {
+                if (factory.createVisitor(unit) != null) {
+                    count += 1;
+                }
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.benchmarks;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.codehaus.groovy.eclipse.test.TestProject;
+import org.codehaus.jdt.groovy.internal.compiler.ast.CompilerMetrics;
+import org.codehaus.jdt.groovy.internal.compiler.ast.ProjectCompilerMetrics;
+import org.codehaus.jdt.groovy.model.GroovyCompilationUnit;
+import org.eclipse.jdt.core.ICompilationUnit;
+
+/**
+ * Measures a full reconcile of each working copy, which includes resolving
+ * every type reference through {@code JDTResolver}.  The time spent in the
+ * resolver is reported separately, from {@link CompilerMetrics}, and so are
+ * the number of method nodes converted from JDT bindings per reconciled file
+ * and the heap that remains in use while the module nodes of all working
+ * copies are cached.
+ */
+public class ReconcileBenchmark extends Benchmark {
+
+    private static final String METHOD_NODE_EVENT = "resolve:methodBindingToMethodNode";
+
+    private static final String[] RESOLVER_EVENTS = {"resolve:startResolving", "resolve:lookupClassNodeForBinary", METHOD_NODE_EVENT};
+
+    private List<GroovyCompilationUnit> units;
+    private List<String> sources;
+    private String projectName;
+    private boolean wasEnabled;
+    private final Map<String, Long> lastTotals = new HashMap<String, Long>();
+    private long lastMethodNodes;
+
+    public ReconcileBenchmark() {
+        super("reconcile");
+    }
+
+    @Override
+    public void setUp(SyntheticCorpus corpus, TestProject project, List<GroovyCompilationUnit> units) {
+        this.units = units;
+        this.sources = corpus.getSources();
+        this.projectName = project.getProject().getName();
+        wasEnabled = CompilerMetrics.isEnabled();
+        CompilerMetrics.setEnabled(true);
+        lastTotals.clear();
+        lastMethodNodes = 0;
+    }
+
+    @Override
+    public long run() throws Exception {
+        long result = 0;
+        for (int i = 0, n = units.size(); i < n; i += 1) {
+            GroovyCompilationUnit unit = units.get(i);
+            // changing the buffer makes the working copy inconsistent, so everything is rebuilt
+            unit.getBuffer().setContents(sources.get(i));
+            unit.reconcile(ICompilationUnit.NO_AST, true, null, null);
+            result += unit.getModuleNode().getClasses().size();
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, Long> collectSecondaryMetrics() {
+        ProjectCompilerMetrics metrics = CompilerMetrics.getMetrics(projectName);
+        if (metrics == null) {
+            return null;
+        }
+        Map<String, Long> deltas = new HashMap<String, Long>();
+        for (String event : RESOLVER_EVENTS) {
+            long total = metrics.getTotalNanos(event);
+            Long last = lastTotals.put(event, Long.valueOf(total));
+            deltas.put(event, Long.valueOf(total - (last != null ? last.longValue() : 0L)));
+        }
+        return deltas;
+    }
+
+    @Override
+    public Map<String, Long> collectCountMetrics() {
+        ProjectCompilerMetrics metrics = CompilerMetrics.getMetrics(projectName);
+        if (metrics == null) {
+            return null;
+        }
+        long total = metrics.getCount(METHOD_NODE_EVENT);
+        long delta = total - lastMethodNodes;
+        lastMethodNodes = total;
+        Map<String, Long> counts = new HashMap<String, Long>();
+        // each iteration reconciles every file once
+        counts.put("reconcile:methodNodesPerFile", Long.valueOf(delta / Math.max(1, units.size())));
+        return counts;
+    }
+
+    @Override
+    public Map<String, Long> collectMemoryMetrics() {
+        Map<String, Long> memory = new HashMap<String, Long>();
+        memory.put("reconcile:usedHeap", Long.valueOf(usedHeap()));
+        return memory;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        // take the least of a few collections; a single System.gc() is only a hint
+        for (int i = 0; i < 5; i += 1) {
+            System.gc();
+            used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+        }
+        return used;
+    }
+
+    @Override
+    public void tearDown() {
+        CompilerMetrics.setEnabled(wasEnabled);
+    }
+}
@@ -0,0 +1,242 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.codehaus.groovy.eclipse.test.TestProject;
+import org.codehaus.jdt.groovy.model.GroovyCompilationUnit;
+import org.eclipse.core.runtime.CoreException;
+
+/**
+ * Generates a deterministic set of Groovy sources of one kind.  The number of
+ * files and the size of each file are configurable.
+ */
+public class SyntheticCorpus {
+
+    public enum Kind {
+        SCRIPTS("scripts"),
+        CLASSES("classes"),
+        SPOCK("spock"),
+        GRAILS("grails");
+
+        public final String id;
+
+        Kind(String id) {
+            this.id = id;
+        }
+
+        public static Kind fromId(String id) {
+            for (Kind kind : values()) {
+                if (kind.id.equals(id)) {
+                    return kind;
+                }
+            }
+            throw new IllegalArgumentException("Unknown corpus: " + id);
+        }
+    }
+
+    private final Kind kind;
+    private final int scale;
+    private final List<String> names = new ArrayList<String>();
+    private final List<String> sources = new ArrayList<String>();
+
+    /**
+     * @param files number of files
+     * @param scale size of each file, in statements, members or features depending on the kind
+     */
+    public SyntheticCorpus(Kind kind, int files, int scale) {
+        this.kind = kind;
+        this.scale = scale;
+        for (int i = 0; i < files; i += 1) {
+            switch (kind) {
+            case SCRIPTS:
+                names.add("Script" + i);
+                sources.add(script(i));
+                break;
+            case CLASSES:
+                names.add("Large" + i);
+                sources.add(largeClass(i, files));
+                break;
+            case SPOCK:
+                names.add("Feature" + i + "Spec");
+                sources.add(spockSpec(i));
+                break;
+            case GRAILS:
+                names.add("Domain" + i);
+                sources.add(domainClass(i, files));
+                break;
+            }
+        }
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public int getFileCount() {
+        return sources.size();
+    }
+
+    public int getScale() {
+        return scale;
+    }
+
+    public String getPackageName() {
+        return "bench." + kind.id;
+    }
+
+    public List<String> getSources() {
+        return Collections.unmodifiableList(sources);
+    }
+
+    /**
+     * Creates the corpus files (and any types they depend on) in the project.
+     *
+     * @return working copies of the corpus files, in corpus order
+     */
+    public List<GroovyCompilationUnit> materialize(TestProject project) throws CoreException {
+        if (kind == Kind.SPOCK) {
+            // stand-in for the Spock runtime, which is not on the benchmark classpath
+            project.createGroovyTypeAndPackage("spock.lang", "Specification.groovy",
+                "abstract class Specification {\n  def Mock(Class type) { null }\n  def Stub(Class type) { null }\n  void thrown(Class type) { }\n}\n");
+        }
+        List<GroovyCompilationUnit> units = new ArrayList<GroovyCompilationUnit>(sources.size());
+        for (int i = 0, n = sources.size(); i < n; i += 1) {
+            units.add((GroovyCompilationUnit) project.createGroovyTypeAndPackage(getPackageName(), names.get(i) + ".groovy", sources.get(i)));
+        }
+        return units;
+    }
+
+    //--------------------------------------------------------------------------
+
+    private String script(int index) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("import java.util.concurrent.atomic.AtomicInteger\n\n");
+        sb.append("def counter = new AtomicInteger(").append(index).append(")\n");
+        sb.append("def names = ['alpha', 'beta', 'gamma', 'delta']\n\n");
+        for (int i = 0; i < scale; i += 1) {
+            sb.append("def block").append(i).append("(List<String> items) {\n");
+            sb.append("  items.findAll { it.size() > ").append(i % 5).append(" }.collect { it.toUpperCase() }.join(',')\n");
+            sb.append("}\n");
+            sb.append("def value").append(i).append(" = names.inject(0) { acc, name -> acc + name.length() * ").append(i).append(" }\n");
+            sb.append("if (value").append(i).append(" % 2 == 0) {\n");
+            sb.append("  println \"even ${value").append(i).append("} ${block").append(i).append("(names)}\"\n");
+            sb.append("} else {\n");
+            sb.append("  counter.addAndGet(value").append(i).append(")\n");
+            sb.append("}\n");
+            sb.append("names.eachWithIndex { name, idx -> assert name[0] != null && idx >= 0 }\n\n");
+        }
+        sb.append("println counter.get()\n");
+        return sb.toString();
+    }
+
+    private String largeClass(int index, int files) {
+        String name = "Large" + index;
+        String next = "Large" + ((index + 1) % files);
+        StringBuilder sb = new StringBuilder();
+        sb.append("import java.util.concurrent.ConcurrentHashMap\n\n");
+        sb.append("class ").append(name).append(" implements Comparable<").append(name).append("> {\n");
+        sb.append("  private final Map<String, List<Integer>> cache = new ConcurrentHashMap<String, List<Integer>>()\n");
+        sb.append("  ").append(next).append(" peer\n");
+        for (int i = 0; i < scale; i += 1) {
+            sb.append("  String field").append(i).append("\n");
+            sb.append("  int count").append(i).append(" = ").append(i).append("\n");
+        }
+        sb.append('\n');
+        for (int i = 0; i < scale; i += 1) {
+            sb.append("  List<Integer> method").append(i).append("(String key, int limit) {\n");
+            sb.append("    List<Integer> result = cache.get(key) ?: new ArrayList<Integer>()\n");
+            sb.append("    for (int j = 0; j < limit; j += 1) {\n");
+            sb.append("      result.add(j * count").append(i).append(")\n");
+            sb.append("    }\n");
+            sb.append("    field").append(i).append(" = key + result.size()\n");
+            if (i > 0) {
+                sb.append("    result.addAll(method").append(i - 1).append("(field").append(i).append(", limit - 1))\n");
+            }
+            sb.append("    cache.put(key, result)\n");
+            sb.append("    return result\n");
+            sb.append("  }\n\n");
+        }
+        sb.append("  int compareTo(").append(name).append(" other) {\n");
+        sb.append("    return cache.size() <=> other.cache.size()\n");
+        sb.append("  }\n");
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    private String spockSpec(int index) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("import spock.lang.Specification\n\n");
+        sb.append("class Feature").append(index).append("Spec extends Specification {\n\n");
+        sb.append("  def service = [lookup: { String key -> key.reverse() }, size: { -> 42 }]\n\n");
+        for (int i = 0; i < scale; i += 1) {
+            sb.append("  def \"feature ").append(i).append(" computes #expected from #a and #b\"() {\n");
+            sb.append("    given:\n");
+            sb.append("    def list = (1..").append(i + 2).append(").collect { it * a }\n");
+            sb.append("    def map = list.collectEntries { [(it.toString()): { -> it + b }] }\n\n");
+            sb.append("    when:\n");
+            sb.append("    def result = map.values().collect { it() }.findAll { it % 2 == 0 }.sum() ?: 0\n\n");
+            sb.append("    then:\n");
+            sb.append("    result >= expected\n");
+            sb.append("    list.every { it > 0 }\n\n");
+            sb.append("    where:\n");
+            sb.append("    a | b || expected\n");
+            sb.append("    1 | 2 || 0\n");
+            sb.append("    ").append(i + 1).append(" | 3 || 0\n");
+            sb.append("  }\n\n");
+        }
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    private String domainClass(int index, int files) {
+        String owner = "Domain" + ((index + files - 1) % files);
+        String child = "Domain" + ((index + 1) % files);
+        StringBuilder sb = new StringBuilder();
+        sb.append("class Domain").append(index).append(" {\n\n");
+        sb.append("  Long id\n");
+        sb.append("  Long version\n");
+        sb.append("  Date dateCreated\n");
+        sb.append("  Date lastUpdated\n");
+        for (int i = 0; i < scale; i += 1) {
+            sb.append("  String name").append(i).append("\n");
+            sb.append("  Integer amount").append(i).append("\n");
+        }
+        sb.append("\n  static belongsTo = [owner: ").append(owner).append("]\n");
+        sb.append("  static hasMany = [children: ").append(child).append(", tags: String]\n\n");
+        sb.append("  static constraints = {\n");
+        for (int i = 0; i < scale; i += 1) {
+            sb.append("    name").append(i).append(" blank: false, maxSize: ").append(32 + i).append(", validator: { val, obj -> val?.size() > ").append(i % 3).append(" }\n");
+            sb.append("    amount").append(i).append(" nullable: true, min: 0\n");
+        }
+        sb.append("  }\n\n");
+        sb.append("  static mapping = {\n");
+        sb.append("    table 'domain_").append(index).append("'\n");
+        sb.append("    children cascade: 'all-delete-orphan'\n");
+        for (int i = 0; i < scale; i += 1) {
+            sb.append("    name").append(i).append(" column: 'name_").append(i).append("', index: 'idx_").append(index).append('_').append(i).append("'\n");
+        }
+        sb.append("  }\n\n");
+        sb.append("  String toString() {\n");
+        sb.append("    \"Domain").append(index).append("(${id}, ${name0 ?: ''})\"\n");
+        sb.append("  }\n");
+        sb.append("}\n");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.benchmarks;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import org.codehaus.groovy.eclipse.test.TestProject;
+import org.codehaus.jdt.groovy.internal.compiler.ast.IndexedURLClassLoader;
+import org.codehaus.jdt.groovy.model.GroovyCompilationUnit;
+
+/**
+ * Measures resource lookups through the class path of AST transform loaders:
+ * one hit and one miss per lookup, over a class path of {@value #JARS} jars
+ * with a package each.  Runs either with {@link IndexedURLClassLoader} or, for
+ * comparison, with a plain {@link URLClassLoader}.  The corpus is not used.
+ */
+public class TransformLoaderBenchmark extends Benchmark {
+
+    private static final int JARS = 300;
+    private static final int LOOKUPS = 10000;
+
+    private final boolean indexed;
+    private File dir;
+    private URLClassLoader loader;
+
+    public TransformLoaderBenchmark(boolean indexed) {
+        super(indexed ? "loader" : "urlloader");
+        this.indexed = indexed;
+    }
+
+    @Override
+    public void setUp(SyntheticCorpus corpus, TestProject project, List<GroovyCompilationUnit> units) throws Exception {
+        dir = File.createTempFile("loader", "jars");
+        dir.delete();
+        dir.mkdirs();
+        URL[] urls = new URL[JARS];
+        for (int i = 0; i < JARS; i += 1) {
+            File jar = new File(dir, "lib" + i + ".jar");
+            JarOutputStream out = new JarOutputStream(new FileOutputStream(jar));
+            try {
+                out.putNextEntry(new JarEntry("p" + i + "/q/Resource.txt"));
+                out.write(i);
+            } finally {
+                out.close();
+            }
+            urls[i] = jar.toURI().toURL();
+        }
+        loader = indexed ? new IndexedURLClassLoader(urls, null) : new URLClassLoader(urls, null);
+    }
+
+    @Override
+    public long run() {
+        long result = 0;
+        for (int i = 0; i < LOOKUPS; i += 1) {
+            if (loader.getResource("p" + (i % JARS) + "/q/Resource.txt") != null) {
+                result += 1;
+            }
+            if (loader.getResource("java/util/Missing" + i + ".class") != null) {
+                result += 1;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        if (loader instanceof Closeable) {
+            ((Closeable) loader).close();
+        }
+        loader = null;
+        delete(dir);
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
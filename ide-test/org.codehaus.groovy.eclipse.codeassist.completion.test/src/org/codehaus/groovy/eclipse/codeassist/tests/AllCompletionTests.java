@@ -47,6 +47,7 @@ public class AllCompletionTests {
         suite.addTestSuite(NewFieldCompletionTests.class);
         suite.addTestSuite(OtherCompletionTests.class);
         suite.addTestSuite(ProposalProviderAndFilterTests.class);
+        suite.addTestSuite(RelevanceCacheTests.class);
         suite.addTestSuite(RelevanceTests.class);
         suite.addTestSuite(StaticImportsCompletionTests.class);
         suite.addTestSuite(TypeCompletionTests.class);
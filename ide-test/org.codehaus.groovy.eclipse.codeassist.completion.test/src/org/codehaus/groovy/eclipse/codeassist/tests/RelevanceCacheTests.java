@@ -0,0 +1,124 @@
+/*
+ * Copyright 2009-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.codeassist.tests;
+
+import junit.framework.Test;
+
+import org.codehaus.groovy.eclipse.codeassist.relevance.IRelevanceRule;
+import org.codehaus.groovy.eclipse.codeassist.relevance.RelevanceCache;
+import org.codehaus.groovy.eclipse.codeassist.relevance.RelevanceRules;
+import org.eclipse.jdt.core.IType;
+
+/**
+ * Tests that the relevance values remembered during one content assist
+ * invocation are reused and discarded when the context types change.
+ */
+public final class RelevanceCacheTests extends CompletionTestCase {
+
+    public static Test suite() {
+        return newTestSuite(RelevanceCacheTests.class);
+    }
+
+    private CountingRule rule;
+    private RelevanceCache cache;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        rule = new CountingRule();
+        cache = new RelevanceCache(rule);
+    }
+
+    public void testTypeCached() throws Exception {
+        IType[] context = addGroovySource("class A {}\nclass B {}", "A", "p").getAllTypes();
+
+        assertEquals(1, cache.getRelevance(context[1], context));
+        assertEquals(1, cache.getRelevance(context[1], context));
+        assertEquals(1, rule.typeCalls);
+
+        assertEquals(2, cache.getRelevance(context[0], context));
+        assertEquals(2, rule.typeCalls);
+    }
+
+    public void testNameCached() throws Exception {
+        IType[] context = addGroovySource("class A {}", "A", "p").getAllTypes();
+
+        assertEquals(1, cache.getRelevance("java.util.List".toCharArray(), context, 0, 0));
+        assertEquals(1, cache.getRelevance("java.util.List".toCharArray(), context, 0, 0));
+        assertEquals(1, rule.nameCalls);
+
+        // accessibility and modifiers are part of the key
+        assertEquals(2, cache.getRelevance("java.util.List".toCharArray(), context, 1, 0));
+        assertEquals(3, cache.getRelevance("java.util.List".toCharArray(), context, 0, 1));
+        assertEquals(3, rule.nameCalls);
+    }
+
+    public void testEqualContextKeepsValues() throws Exception {
+        IType[] context = addGroovySource("class A {}", "A", "p").getAllTypes();
+
+        cache.getRelevance(context[0], context);
+        cache.getRelevance("java.util.List".toCharArray(), context, 0, 0);
+        cache.getRelevance(context[0], context.clone());
+        cache.getRelevance("java.util.List".toCharArray(), context.clone(), 0, 0);
+        assertEquals(1, rule.typeCalls);
+        assertEquals(1, rule.nameCalls);
+    }
+
+    public void testChangedContextDiscardsValues() throws Exception {
+        IType[] context = addGroovySource("class A {}", "A", "p").getAllTypes();
+        IType[] other = addGroovySource("class C {}", "C", "q").getAllTypes();
+
+        cache.getRelevance(context[0], context);
+        cache.getRelevance("java.util.List".toCharArray(), context, 0, 0);
+
+        cache.getRelevance(context[0], other);
+        cache.getRelevance("java.util.List".toCharArray(), other, 0, 0);
+        assertEquals(2, rule.typeCalls);
+        assertEquals(2, rule.nameCalls);
+
+        // and switching back computes the values once more
+        cache.getRelevance(context[0], context);
+        assertEquals(3, rule.typeCalls);
+    }
+
+    public void testSameValuesAsRules() throws Exception {
+        IType[] context = addGroovySource("class A {}\nclass B {}", "A", "p").getAllTypes();
+        RelevanceCache cache = new RelevanceCache(RelevanceRules.ALL_RULES);
+
+        for (int i = 0; i < 2; i += 1) {
+            assertEquals(RelevanceRules.ALL_RULES.getRelevance(context[1], context), cache.getRelevance(context[1], context));
+            assertEquals(RelevanceRules.ALL_RULES.getRelevance("java.util.List".toCharArray(), context, 0, 0),
+                cache.getRelevance("java.util.List".toCharArray(), context, 0, 0));
+        }
+    }
+
+    //--------------------------------------------------------------------------
+
+    /**
+     * Returns the number of times it has been asked, per method.
+     */
+    private static class CountingRule implements IRelevanceRule {
+        int typeCalls, nameCalls;
+
+        public int getRelevance(IType relevanceType, IType[] contextTypes) {
+            return typeCalls += 1;
+        }
+
+        public int getRelevance(char[] fullyQualifiedName, IType[] contextTypes, int accessibility, int modifiers) {
+            return nameCalls += 1;
+        }
+    }
+}
@@ -120,6 +120,19 @@ public class SyntheticMemberSearchTests extends EclipseTestCase {
         assertNoMatch("run", "isExplicitIsser", contents, matches);
     }
 
+    public void testSearchInGroovyFiles() throws Exception {
+        String contents1 = "new p.G().getProp()\n";
+        String contents2 = "new p.G().setProp(null)\n";
+        testProject.createGroovyTypeAndPackage("", "Script1.groovy", contents1);
+        testProject.createGroovyTypeAndPackage("", "Script2.groovy", contents2);
+        testProject.createGroovyTypeAndPackage("", "Script3.groovy", "new p.G().notProp\n");
+        // documents are selected by the property key, so each accessor form is found in its own file
+        List<SearchMatch> matches = performSearch("prop");
+        assertNumMatch(2, matches);
+        assertMatch("run", "getProp", contents1, matches);
+        assertMatch("run", "setProp", contents2, matches);
+    }
+
     public void testSearchInJava1() throws Exception {
         String contents =
                 "class AClass {\n" +
@@ -200,6 +200,10 @@ public class TokenStreamTests extends TestCase {
         doTest("/*\nThis is a block comment\n*/\n'hello'", -1, QUOTED_STRING, LINE_BREAK, BLOCK_COMMENT, EOF);
     }
 
+    public void testBlockComment3() throws Exception {
+        doTest("/* one */ thing /* two */", -1, BLOCK_COMMENT, IDENT, BLOCK_COMMENT, EOF);
+    }
+
     public void testSafeDeref() throws Exception {
         doTest("foo?.bar", -1, IDENT, SAFE_DEREF, IDENT, EOF);
     }
@@ -241,12 +245,33 @@ public class TokenStreamTests extends TestCase {
         doTestOffsets("list[thing[i]].name", new int[] { 15, 19, 14, 15, 4, 14, 0, 4 });
     }
 
+    public void testOffsets3() throws Exception {
+        // Don't mess with the dot's, the auto formatter eats spaces.
+        // ............0.........1.........2.........3
+        // ............0123456789012345678901234567890123456789
+        doTestOffsets("/* one */ thing /* two */", new int[] { 16, 25, 10, 15, 0, 9 });
+    }
+
     public void testPeek() throws TokenStreamException {
         StringSourceBuffer sb = new StringSourceBuffer("hello");
         TokenStream stream = new TokenStream(sb, "hello".length() - 1);
         assertTrue(stream.peek().isType(Token.Type.IDENT));
     }
 
+    public void testPeekThenNext() throws TokenStreamException {
+        StringSourceBuffer sb = new StringSourceBuffer("a.b");
+        TokenStream stream = new TokenStream(sb, "a.b".length() - 1);
+        Token peeked = stream.peek();
+        assertSame(peeked, stream.peek());
+        assertSame(peeked, stream.next());
+        assertSame(peeked, stream.last());
+        assertTrue(stream.next().isType(Token.Type.DOT));
+        assertTrue(stream.peek().isType(Token.Type.IDENT));
+        assertEquals('a', stream.getCurrentChar());
+        assertTrue(stream.next().isType(Token.Type.IDENT));
+        assertTrue(stream.next().isType(Token.Type.EOF));
+    }
+
     public void testLast() throws TokenStreamException {
         StringSourceBuffer sb = new StringSourceBuffer("hello.");
         TokenStream stream = new TokenStream(sb, "hello.".length() - 1);
@@ -112,6 +112,19 @@ public class DSLInferencingTests extends AbstractDSLInferencingTest {
         assertDeclaringType(contents, start, end, "Other", true);
     }
 
+    public void testSourceTypeAfterReconcile() throws Exception {
+        // the stored resolver must still find types of the project's source folders
+        createUnit("q", "Other", "package q\nclass Other { String blar() { } }");
+        createDsls("currentType('Foo').accept { property name: 'other', type: 'q.Other' }");
+        String contents =
+            "class Foo { }\n" +
+            "new Foo().other.blar()";
+        int start = contents.lastIndexOf("blar");
+        int end = start + "blar".length();
+        assertType(contents, start, end, "java.lang.String", true);
+        assertDeclaringType(contents, start, end, "q.Other", true);
+    }
+
     public void testDelegatesTo2() throws Exception {
         createDsls("currentType('Foo').accept { delegatesTo type:'Other' }");
         String contents =
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.dsl.tests;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import org.codehaus.groovy.ast.ASTNode;
+import org.codehaus.groovy.eclipse.dsl.GroovyDSLCoreActivator;
+import org.codehaus.groovy.eclipse.dsl.checker.CheckerResultCache;
+import org.codehaus.groovy.eclipse.dsl.checker.IStaticCheckerHandler;
+import org.codehaus.groovy.eclipse.dsl.checker.ResourceTypeChecker;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.jface.text.Position;
+import org.eclipse.swt.widgets.Shell;
+
+/**
+ * Tests the order in which the static checker reports its results and the
+ * reuse of cached results.
+ */
+public final class StaticCheckerTests extends AbstractDSLInferencingTest {
+
+    public static Test suite() {
+        return new TestSuite(StaticCheckerTests.class);
+    }
+
+    public StaticCheckerTests(String name) {
+        super(name);
+    }
+
+    private File cacheFile;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        cacheFile = File.createTempFile("checker", ".cache");
+        cacheFile.delete();
+        createUnit("p", "A", "package p\nclass A { def a() { unknownA } }");
+        createUnit("p", "B", "package p\nclass B { def b() { unknownB1 + unknownB2 } }");
+        createUnit("q", "C", "package q\nclass C { def c() { 'c' } }");
+        createUnit("q", "D", "package q\nclass D { def d() { unknownD } }");
+        env.fullBuild();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        try {
+            super.tearDown();
+        } finally {
+            cacheFile.delete();
+        }
+    }
+
+    public void testResultsFollowTheirResource() throws Exception {
+        List<String> serial = check(1, null);
+        List<String> parallel = check(4, null);
+        assertEquals(serial, parallel);
+
+        int files = 0;
+        for (int i = 0, n = parallel.size(); i < n; i += 1) {
+            String event = parallel.get(i);
+            if (event.startsWith("file ")) {
+                files += 1;
+                assertEquals("start " + event.substring(5), parallel.get(i - 1));
+            } else if (event.startsWith("unknown ")) {
+                assertTrue(parallel.get(i - 1).startsWith("file ") || parallel.get(i - 1).startsWith("unknown "));
+            }
+        }
+        assertEquals(4, files);
+        assertEquals(4, count(parallel, "unknown "));
+    }
+
+    public void testCachedResults() throws Exception {
+        CheckerResultCache cache = newCache();
+        List<String> checked = check(2, cache);
+        assertEquals(0, cache.getHits());
+        assertEquals(4, cache.getMisses());
+        cache.save();
+
+        cache = newCache();
+        assertEquals(checked, check(2, cache));
+        assertEquals(4, cache.getHits());
+        assertEquals(0, cache.getMisses());
+    }
+
+    public void testStaleEntriesPruned() throws Exception {
+        CheckerResultCache cache = newCache();
+        check(1, cache);
+        assertEquals(4, cache.size());
+
+        project.getFile("src/q/D.groovy").delete(true, null);
+        cache.save();
+        assertEquals(3, newCache().size());
+    }
+
+    public void testFingerprintOfDSLDs() throws Exception {
+        String none = fingerprint();
+
+        createDsls("currentType().accept { property name: 'one' }");
+        refreshDSLDs();
+        String one = fingerprint();
+        assertFalse(none.equals(one));
+
+        // a script with the same contents (like a re-linked one) has the same fingerprint
+        deleteDslFile(0);
+        createDsls("currentType().accept { property name: 'one' }");
+        refreshDSLDs();
+        assertEquals(one, fingerprint());
+
+        deleteDslFile(0);
+        createDsls("currentType().accept { property name: 'two' }");
+        refreshDSLDs();
+        assertFalse(one.equals(fingerprint()));
+    }
+
+    public void testFingerprintOfDependencies() throws Exception {
+        IPath otherPath = env.addProject("Other", "1.5");
+        env.removePackageFragmentRoot(otherPath, "");
+        IPath root = env.addPackageFragmentRoot(otherPath, "src", null, null, "bin");
+        IPath path = env.addGroovyClass(root, "r", "E", "package r\nclass E { def e() { 'e' } }");
+        env.fullBuild("Other");
+        env.addRequiredProject(project.getFullPath(), otherPath);
+
+        CheckerResultCache cache = newCache();
+        check(1, cache);
+        cache.save();
+        cache = newCache();
+        check(1, cache);
+        assertEquals(4, cache.getHits());
+
+        // results may depend on the types of a required project
+        env.getWorkspace().getRoot().getFile(path).setContents(
+            new ByteArrayInputStream("package r\nclass E { def e() { 'e' }\n def f() { 'f' } }".getBytes("UTF-8")), true, false, null);
+        cache = newCache();
+        check(1, cache);
+        assertEquals(0, cache.getHits());
+        assertEquals(4, cache.getMisses());
+    }
+
+    //--------------------------------------------------------------------------
+
+    private CheckerResultCache newCache() throws Exception {
+        CheckerResultCache cache = new CheckerResultCache(cacheFile);
+        cache.load(fingerprint());
+        return cache;
+    }
+
+    private String fingerprint() throws Exception {
+        return CheckerResultCache.fingerprint(Collections.singletonList(project), false);
+    }
+
+    private void refreshDSLDs() {
+        env.fullBuild();
+        GroovyDSLCoreActivator.getDefault().getContextStoreManager().initialize(project, true);
+    }
+
+    private List<String> check(int numThreads, CheckerResultCache cache) throws Exception {
+        RecordingHandler handler = new RecordingHandler();
+        ResourceTypeChecker checker = new ResourceTypeChecker(handler, Collections.<IResource>singletonList(project.getFolder("src")), null, null, false);
+        checker.setNumThreads(numThreads);
+        checker.setResultCache(cache);
+        checker.doCheck(null);
+        return handler.events;
+    }
+
+    private static int count(List<String> events, String prefix) {
+        int count = 0;
+        for (String event : events) {
+            if (event.startsWith(prefix)) {
+                count += 1;
+            }
+        }
+        return count;
+    }
+
+    private static class RecordingHandler implements IStaticCheckerHandler {
+        final List<String> events = new ArrayList<String>();
+
+        public void handleUnknownReference(ASTNode node, Position position, int line) {
+            events.add("unknown " + node.getText());
+        }
+
+        public void handleTypeAssertionFailed(ASTNode node, String expectedType, String actualType, Position position, int line) {
+            events.add("assertion " + node.getText());
+        }
+
+        public void setResource(IFile resource) {
+            events.add("file " + resource.getFullPath());
+        }
+
+        public int numProblemsFound() {
+            return count(events, "unknown ") + count(events, "assertion ");
+        }
+
+        public void handleResourceStart(IResource resource) {
+            events.add("start " + resource.getFullPath());
+        }
+
+        public boolean finish(Shell shell) {
+            return numProblemsFound() == 0;
+        }
+    }
+}
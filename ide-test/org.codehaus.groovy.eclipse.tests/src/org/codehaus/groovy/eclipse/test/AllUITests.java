@@ -38,8 +38,10 @@ import org.codehaus.groovy.eclipse.test.ui.GroovyAutoIndenterTests2;
 import org.codehaus.groovy.eclipse.test.ui.GroovyPartitionScannerTests;
 import org.codehaus.groovy.eclipse.test.ui.GroovyTagScannerTests;
 import org.codehaus.groovy.eclipse.test.ui.HighlightingExtenderTests;
+import org.codehaus.groovy.eclipse.test.ui.HighlightingSnapshotsTests;
 import org.codehaus.groovy.eclipse.test.ui.OutlineExtenderTests;
 import org.codehaus.groovy.eclipse.test.ui.SemanticHighlightingTests;
+import org.codehaus.groovy.eclipse.test.ui.TypeLookupRegistryTests;
 import org.codehaus.groovy.eclipse.test.wizards.NewGroovyTestCaseWizardTest;
 import org.codehaus.groovy.eclipse.test.wizards.NewGroovyTypeWizardTest;
 import org.codehaus.groovy.eclipse.ui.search.FindOccurrencesTests;
@@ -80,7 +82,9 @@ public final class AllUITests {
         suite.addTestSuite(GroovyPartitionScannerTests.class);
         suite.addTestSuite(GroovyTagScannerTests.class);
         suite.addTestSuite(HighlightingExtenderTests.class);
+        suite.addTestSuite(HighlightingSnapshotsTests.class);
         suite.addTestSuite(OutlineExtenderTests.class);
+        suite.addTestSuite(TypeLookupRegistryTests.class);
 
         // wizards
         suite.addTestSuite(NewGroovyTestCaseWizardTest.class);
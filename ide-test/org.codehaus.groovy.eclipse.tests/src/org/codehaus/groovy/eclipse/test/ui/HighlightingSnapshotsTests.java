@@ -0,0 +1,139 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.test.ui;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+
+import org.codehaus.groovy.eclipse.editor.highlighting.HighlightedTypedPosition;
+import org.codehaus.groovy.eclipse.editor.highlighting.HighlightedTypedPosition.HighlightKind;
+import org.codehaus.groovy.eclipse.editor.highlighting.HighlightingSnapshots;
+import org.codehaus.groovy.eclipse.test.EclipseTestCase;
+import org.codehaus.groovy.eclipse.test.TestProject;
+import org.codehaus.jdt.groovy.model.GroovyCompilationUnit;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.jdt.core.JavaCore;
+
+/**
+ * Snapshots of semantic highlighting must never be handed out for contents or
+ * a classpath other than the ones they were taken with.  Only the most recently
+ * used snapshots are kept.
+ */
+public class HighlightingSnapshotsTests extends EclipseTestCase {
+
+    private static final String CONTENTS = "class Snap {\n  def field\n  def method() { field }\n}\n";
+
+    private File directory;
+    private HighlightingSnapshots snapshots;
+    private GroovyCompilationUnit unit;
+    private List<HighlightedTypedPosition> positions;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        directory = File.createTempFile("snapshots", "");
+        directory.delete();
+        snapshots = new HighlightingSnapshots(directory);
+        unit = (GroovyCompilationUnit) testProject.createGroovyTypeAndPackage("", "Snap.groovy", CONTENTS);
+        positions = Arrays.asList(
+            new HighlightedTypedPosition(CONTENTS.indexOf("field"), "field".length(), HighlightKind.FIELD),
+            new HighlightedTypedPosition(CONTENTS.indexOf("method"), "method".length(), HighlightKind.METHOD),
+            new HighlightedTypedPosition(CONTENTS.lastIndexOf("field"), "field".length(), HighlightKind.FIELD));
+        snapshots.save(unit, HighlightingSnapshots.hash(CONTENTS.toCharArray()), positions);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        try {
+            super.tearDown();
+        } finally {
+            File[] files = directory.listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    file.delete();
+                }
+            }
+            directory.delete();
+        }
+    }
+
+    public void testUnchanged() throws Exception {
+        assertEquals(positions, snapshots.load(unit));
+    }
+
+    public void testSourceChanged() throws Exception {
+        unit.getBuffer().setContents(CONTENTS.replace("field", "other"));
+        unit.save(null, true);
+
+        assertNull(snapshots.load(unit));
+    }
+
+    public void testSourceChangedBack() throws Exception {
+        unit.getBuffer().setContents(CONTENTS + "\n");
+        assertNull(snapshots.load(unit));
+
+        unit.getBuffer().setContents(CONTENTS);
+        assertEquals(positions, snapshots.load(unit));
+    }
+
+    public void testClasspathChanged() throws Exception {
+        TestProject.addEntry(testProject.getProject(), JavaCore.newContainerEntry(new Path("org.eclipse.jdt.junit.JUNIT_CONTAINER/4")));
+
+        assertNull(snapshots.load(unit));
+    }
+
+    public void testFingerprintRemembered() throws Exception {
+        String fingerprint = HighlightingSnapshots.fingerprint(unit.getJavaProject());
+        assertSame(fingerprint, HighlightingSnapshots.fingerprint(unit.getJavaProject()));
+
+        TestProject.addEntry(testProject.getProject(), JavaCore.newContainerEntry(new Path("org.eclipse.jdt.junit.JUNIT_CONTAINER/4")));
+        assertFalse(fingerprint.equals(HighlightingSnapshots.fingerprint(unit.getJavaProject())));
+    }
+
+    public void testLeastRecentlyUsedPruned() throws Exception {
+        HighlightingSnapshots small = new HighlightingSnapshots(directory, 2);
+        GroovyCompilationUnit first = save(small, "First");
+        for (File file : directory.listFiles()) {
+            file.setLastModified(System.currentTimeMillis() - 60000);
+        }
+        assertEquals(positions, small.load(unit));
+
+        GroovyCompilationUnit second = save(small, "Second");
+        assertEquals(2, directory.listFiles().length);
+        assertNull(small.load(first));
+        assertEquals(positions, small.load(unit));
+        assertEquals(positions, small.load(second));
+    }
+
+    public void testUnreadable() throws Exception {
+        for (File file : directory.listFiles()) {
+            file.delete();
+            file.createNewFile();
+        }
+
+        assertNull(snapshots.load(unit));
+    }
+
+    //--------------------------------------------------------------------------
+
+    private GroovyCompilationUnit save(HighlightingSnapshots snapshots, String name) throws Exception {
+        String contents = CONTENTS.replace("Snap", name);
+        GroovyCompilationUnit other = (GroovyCompilationUnit) testProject.createGroovyTypeAndPackage("", name + ".groovy", contents);
+        snapshots.save(other, HighlightingSnapshots.hash(contents.toCharArray()), positions);
+        return other;
+    }
+}
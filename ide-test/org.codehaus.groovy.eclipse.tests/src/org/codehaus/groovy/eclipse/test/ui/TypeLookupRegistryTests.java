@@ -0,0 +1,106 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.test.ui;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+
+import org.codehaus.groovy.eclipse.test.EclipseTestCase;
+import org.codehaus.groovy.eclipse.tests.TestTypeLookup;
+import org.eclipse.core.internal.registry.ExtensionRegistry;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.ContributorFactoryOSGi;
+import org.eclipse.core.runtime.IExtension;
+import org.eclipse.core.runtime.IExtensionRegistry;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.jdt.groovy.core.util.ReflectionUtils;
+import org.eclipse.jdt.groovy.search.ITypeLookup;
+import org.eclipse.jdt.groovy.search.TypeLookupRegistry;
+
+/**
+ * Tests that the lookups {@link TypeLookupRegistry} caches per project follow
+ * the natures of the project and the type lookup extensions.
+ */
+public class TypeLookupRegistryTests extends EclipseTestCase {
+
+    private static final String EXTENSION_ID = "org.codehaus.groovy.eclipse.tests.dynamicLookup";
+
+    public void testNatureAdded() throws Exception {
+        assertEquals(0, countTestLookups());
+        testProject.addNature(Extender1.NATURE1);
+        assertEquals(1, countTestLookups());
+    }
+
+    public void testNatureRemoved() throws Exception {
+        testProject.addNature(Extender1.NATURE1);
+        assertEquals(1, countTestLookups());
+        testProject.removeNature(Extender1.NATURE1);
+        assertEquals(0, countTestLookups());
+    }
+
+    public void testExtensionAddedAndRemoved() throws Exception {
+        testProject.addNature(Extender2.NATURE2);
+        assertEquals(1, countTestLookups());
+
+        IExtensionRegistry registry = Platform.getExtensionRegistry();
+        Object token = ((ExtensionRegistry) registry).getTemporaryUserToken();
+        String contribution =
+            "<plugin>\n" +
+            "  <extension point='org.eclipse.jdt.groovy.core.typeLookup' id='dynamicLookup'>\n" +
+            "    <lookup lookup='" + TestTypeLookup.class.getName() + "'>\n" +
+            "      <appliesTo projectNature='" + Extender2.NATURE2 + "'/>\n" +
+            "    </lookup>\n" +
+            "  </extension>\n" +
+            "</plugin>\n";
+        assertTrue(registry.addContribution(new ByteArrayInputStream(contribution.getBytes("UTF-8")),
+            ContributorFactoryOSGi.createContributor(Platform.getBundle("org.codehaus.groovy.eclipse.tests")), false, null, null, token));
+        try {
+            waitForTestLookups(2);
+        } finally {
+            IExtension extension = registry.getExtension(EXTENSION_ID);
+            assertNotNull(extension);
+            registry.removeExtension(extension, token);
+        }
+        waitForTestLookups(1);
+    }
+
+    //--------------------------------------------------------------------------
+
+    /**
+     * Registry change events are delivered asynchronously.
+     */
+    private void waitForTestLookups(int expected) throws Exception {
+        long end = System.currentTimeMillis() + 10000;
+        while (countTestLookups() != expected && System.currentTimeMillis() < end) {
+            Thread.sleep(50);
+        }
+        assertEquals(expected, countTestLookups());
+    }
+
+    @SuppressWarnings("unchecked")
+    private int countTestLookups() {
+        Object registry = ReflectionUtils.executeNoArgPrivateMethod(TypeLookupRegistry.class, "getRegistry", null);
+        List<ITypeLookup> lookups = (List<ITypeLookup>) ReflectionUtils.executePrivateMethod(TypeLookupRegistry.class,
+            "getLookupsFor", new Class[] {IProject.class}, registry, new Object[] {testProject.getProject()});
+        int count = 0;
+        for (ITypeLookup lookup : lookups) {
+            if (lookup instanceof TestTypeLookup) {
+                count += 1;
+            }
+        }
+        return count;
+    }
+}
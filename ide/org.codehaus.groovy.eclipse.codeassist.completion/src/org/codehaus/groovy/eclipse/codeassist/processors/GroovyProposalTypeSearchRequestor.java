@@ -31,12 +31,12 @@ import org.codehaus.groovy.eclipse.codeassist.completions.GroovyJavaMethodComple
 import org.codehaus.groovy.eclipse.codeassist.proposals.GroovyNamedArgumentProposal;
 import org.codehaus.groovy.eclipse.codeassist.proposals.ProposalFormattingOptions;
 import org.codehaus.groovy.eclipse.codeassist.relevance.Relevance;
+import org.codehaus.groovy.eclipse.codeassist.relevance.RelevanceCache;
 import org.codehaus.groovy.eclipse.codeassist.relevance.RelevanceRules;
 import org.codehaus.groovy.eclipse.codeassist.requestor.ContentAssistContext;
 import org.codehaus.groovy.eclipse.codeassist.requestor.ContentAssistLocation;
 import org.codehaus.groovy.eclipse.codeassist.requestor.MethodInfoContentAssistContext;
 import org.codehaus.groovy.eclipse.core.GroovyCore;
-import org.codehaus.jdt.groovy.internal.compiler.ast.GroovyCompilationUnitScope;
 import org.codehaus.jdt.groovy.internal.compiler.ast.JDTResolver;
 import org.codehaus.jdt.groovy.model.GroovyCompilationUnit;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -116,6 +116,9 @@ public class GroovyProposalTypeSearchRequestor implements ISearchRequestor, Rele
     // all the types in the target Compilation unit
     private IType[] allTypesInUnit;
 
+    // relevance of the types proposed during this invocation
+    private final RelevanceCache relevanceCache = new RelevanceCache(RelevanceRules.ALL_RULES);
+
     // instead of inserting text, show context information only for constructors
     private boolean contextOnly;
 
@@ -300,7 +303,7 @@ public class GroovyProposalTypeSearchRequestor implements ISearchRequestor, Rele
 
                 // get this imports from the module node
                 if (imports == null) {
-                    initializeImportArrays(resolver.getScope());
+                    initializeImportArrays(resolver.getImports());
                 }
 
                 // check to see if this type is imported explicitly
@@ -403,7 +406,7 @@ public class GroovyProposalTypeSearchRequestor implements ISearchRequestor, Rele
         proposal.setFlags(modifiers);
         proposal.setReplaceRange(this.offset, this.offset + this.replaceLength);
         proposal.setTokenRange(this.offset, this.actualCompletionPosition);
-        proposal.setRelevance(RelevanceRules.ALL_RULES.getRelevance(fullyQualifiedName, allTypesInUnit, accessibility, modifiers));
+        proposal.setRelevance(relevanceCache.getRelevance(fullyQualifiedName, allTypesInUnit, accessibility, modifiers));
         proposal.setTypeName(simpleTypeName);
         proposal.setAccessibility(accessibility);
         proposal.setPackageName(packageName);
@@ -444,7 +447,7 @@ public class GroovyProposalTypeSearchRequestor implements ISearchRequestor, Rele
         proposal.setFlags(modifiers);
         proposal.setReplaceRange(this.offset, this.offset + this.replaceLength);
         proposal.setTokenRange(this.offset, this.actualCompletionPosition);
-        proposal.setRelevance(RelevanceRules.ALL_RULES.getRelevance(fullyQualifiedName, allTypesInUnit, accessibility, modifiers));
+        proposal.setRelevance(relevanceCache.getRelevance(fullyQualifiedName, allTypesInUnit, accessibility, modifiers));
         proposal.setNameLookup(nameLookup);
         proposal.setTypeName(simpleTypeName);
         proposal.setAccessibility(accessibility);
@@ -534,7 +537,7 @@ public class GroovyProposalTypeSearchRequestor implements ISearchRequestor, Rele
                 char[] fullyQualifiedName = CharOperation.concat(packageName, simpleTypeName, '.');
 
                 if (imports == null) {
-                    initializeImportArrays(resolver.getScope());
+                    initializeImportArrays(resolver.getImports());
                 }
 
                 // propose all constructors regardless of package, but ignore
@@ -741,7 +744,7 @@ public class GroovyProposalTypeSearchRequestor implements ISearchRequestor, Rele
         typeProposal.setCompletion(typeCompletion);
         typeProposal.setReplaceRange(this.offset, this.offset + this.replaceLength);
         typeProposal.setTokenRange(this.offset, this.offset + this.replaceLength);
-        typeProposal.setRelevance(RelevanceRules.ALL_RULES.getRelevance(fullyQualifiedName, allTypesInUnit, accessibility, augmentedModifiers));
+        typeProposal.setRelevance(relevanceCache.getRelevance(fullyQualifiedName, allTypesInUnit, accessibility, augmentedModifiers));
         return typeProposal;
     }
 
@@ -789,11 +792,11 @@ public class GroovyProposalTypeSearchRequestor implements ISearchRequestor, Rele
      * NOTE: The original implementation of this method did not add "java.lang" to star
      * imports. Adding it to the array may result in extra type proposals. Not sure...
      */
-    private void initializeImportArrays(GroovyCompilationUnitScope scope) {
-        int i, n = scope.imports != null ? scope.imports.length : 0, s, t;
+    private void initializeImportArrays(ImportBinding[] importBindings) {
+        int i, n = importBindings != null ? importBindings.length : 0, s, t;
         for (i = 0, s = 0, t = 0; i < n; i += 1) {
-            if (!scope.imports[i].isStatic()) {
-                if (scope.imports[i].onDemand) {
+            if (!importBindings[i].isStatic()) {
+                if (importBindings[i].onDemand) {
                     s += 1;
                 } else {
                     t += 1;
@@ -804,11 +807,11 @@ public class GroovyProposalTypeSearchRequestor implements ISearchRequestor, Rele
         char[][] starImports = new char[s][];
         char[][][] typeImports = new char[t][][];
         for (i = 0, s = 0, t = 0; i < n; i += 1) {
-            if (!scope.imports[i].isStatic()) {
-                if (scope.imports[i].onDemand) {
-                    starImports[s++] = getImportName(scope.imports[i]);
+            if (!importBindings[i].isStatic()) {
+                if (importBindings[i].onDemand) {
+                    starImports[s++] = getImportName(importBindings[i]);
                 } else {
-                    typeImports[t++] = new char[][] {getSimpleName(scope.imports[i]), getImportName(scope.imports[i])};
+                    typeImports[t++] = new char[][] {getSimpleName(importBindings[i]), getImportName(importBindings[i])};
                 }
             }
         }
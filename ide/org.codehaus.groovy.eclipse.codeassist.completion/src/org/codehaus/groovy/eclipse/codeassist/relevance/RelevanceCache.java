@@ -0,0 +1,84 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.codeassist.relevance;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.jdt.core.IType;
+
+/**
+ * Remembers the relevance values computed by another rule, per type (or
+ * qualified name, accessibility and modifiers), for as long as the context
+ * types stay the same. Type completion evaluates the rules for thousands of
+ * types, many of them more than once.
+ * <p>
+ * Not thread-safe. A cache is meant to be created for one content assist
+ * invocation and dropped with it, so that edits that change the flags of a
+ * type are seen by the next invocation.
+ */
+public class RelevanceCache implements IRelevanceRule {
+
+	private static final int MAX_CACHED_RELEVANCE = 20000;
+
+	private final IRelevanceRule rule;
+
+	// relevance values computed for the context types below
+	private IType[] contextTypes;
+	private final Map<Object, Integer> relevance = new HashMap<Object, Integer>();
+
+	public RelevanceCache(IRelevanceRule rule) {
+		this.rule = rule;
+	}
+
+	public int getRelevance(IType relevanceType, IType[] contextTypes) {
+		Integer cached = getCachedRelevance(relevanceType, contextTypes);
+		if (cached == null) {
+			cached = rule.getRelevance(relevanceType, contextTypes);
+			relevance.put(relevanceType, cached);
+		}
+		return cached.intValue();
+	}
+
+	public int getRelevance(char[] fullyQualifiedName, IType[] contextTypes,
+			int accessibility, int modifiers) {
+		String key = String.valueOf(fullyQualifiedName) + '/' + accessibility + '/' + modifiers;
+		Integer cached = getCachedRelevance(key, contextTypes);
+		if (cached == null) {
+			cached = rule.getRelevance(fullyQualifiedName, contextTypes, accessibility, modifiers);
+			relevance.put(key, cached);
+		}
+		return cached.intValue();
+	}
+
+	/**
+	 * Discards the cached values if the context types have changed or too many
+	 * are cached.
+	 */
+	private Integer getCachedRelevance(Object key, IType[] contextTypes) {
+		if (this.contextTypes != contextTypes) {
+			if (!Arrays.equals(this.contextTypes, contextTypes)) {
+				relevance.clear();
+			}
+			this.contextTypes = contextTypes;
+		}
+		if (relevance.size() >= MAX_CACHED_RELEVANCE) {
+			relevance.clear();
+		}
+		return relevance.get(key);
+	}
+}
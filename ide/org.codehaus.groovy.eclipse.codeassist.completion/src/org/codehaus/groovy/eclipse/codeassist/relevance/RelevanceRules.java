@@ -15,8 +15,6 @@
  */
 package org.codehaus.groovy.eclipse.codeassist.relevance;
 
-import java.util.Arrays;
-
 import org.codehaus.groovy.eclipse.codeassist.ProposalUtils;
 import org.codehaus.groovy.eclipse.core.GroovyCore;
 import org.eclipse.jdt.core.Flags;
@@ -34,7 +32,9 @@ import org.eclipse.jdt.internal.core.SourceType;
  * caller has the option of specifying a subset of available rules to use, or if
  * none is provided, by default all the rules will be used. <br>
  * New rules can be added and require a corresponding type definition </br>
- *
+ * <p>
+ * See {@link RelevanceCache} for remembering the values during one content
+ * assist invocation.
  *
  * @author Nieraj Singh
  * @created 2011-02-17
@@ -47,7 +47,7 @@ public class RelevanceRules implements IRelevanceRule {
 		SOURCE_TYPE, ACCESSIBILITY, MODIFIERS, LIBRARY_TYPE, SIMILAR_PACKAGE
 	}
 
-	private RelevanceRuleType[] ruleTypes;
+	private final IRelevanceRule[] rules;
 
 	public static RelevanceRules ALL_RULES = new RelevanceRules(
 			RelevanceRuleType.LIBRARY_TYPE, RelevanceRuleType.SOURCE_TYPE,
@@ -90,7 +90,13 @@ public class RelevanceRules implements IRelevanceRule {
 	 * use only a subset of rules.
 	 */
 	public RelevanceRules(RelevanceRuleType... ruleTypes) {
-		this.ruleTypes = ruleTypes;
+		// use all the rule types if none were specified by the invoker.
+		RelevanceRuleType[] rTypes = ruleTypes == null || ruleTypes.length == 0 ? RelevanceRuleType
+				.values() : ruleTypes;
+		this.rules = new IRelevanceRule[rTypes.length];
+		for (int i = 0; i < rTypes.length; i += 1) {
+			rules[i] = getRule(rTypes[i]);
+		}
 	}
 
 	/**
@@ -103,13 +109,8 @@ public class RelevanceRules implements IRelevanceRule {
 			return 0;
 		}
 
-		// use all the rule types if none were specified by the invoker.
-		RelevanceRuleType[] rTypes = ruleTypes == null || ruleTypes.length == 0 ? RelevanceRuleType
-				.values() : ruleTypes;
-
 		int relevance = getStartingRelevanceValue();
-		for (RelevanceRuleType ruleType : rTypes) {
-			IRelevanceRule rule = getRule(ruleType);
+		for (IRelevanceRule rule : rules) {
 			if (rule != null) {
 				relevance += rule.getRelevance(fullyQualifiedName,
 						contextTypes, accessibility, modifiers);
@@ -129,13 +130,8 @@ public class RelevanceRules implements IRelevanceRule {
 			return 0;
 		}
 
-		// use all the rule types if none were specified by the invoker.
-		RelevanceRuleType[] rTypes = ruleTypes == null || ruleTypes.length == 0 ? RelevanceRuleType
-				.values() : ruleTypes;
-
 		int relevance = getStartingRelevanceValue();
-		for (RelevanceRuleType ruleType : rTypes) {
-			IRelevanceRule rule = getRule(ruleType);
+		for (IRelevanceRule rule : rules) {
 			if (rule != null) {
 				relevance += rule.getRelevance(type, contextTypes);
 			}
@@ -244,9 +240,10 @@ public class RelevanceRules implements IRelevanceRule {
 			int relevance = 0;
 			TypeRelevanceCategory category = null;
 			try {
-				int modifiers = relevanceType.getFlags();
+				// the category only needs handles; check it before the flags, which open the type
 				category = getTypeCategory(relevanceType, contextTypes);
 				if (category != null) {
+					int modifiers = relevanceType.getFlags();
 					relevance += (modifiers & Flags.AccDefault) != 0 ? 0 : 1;
 					relevance += (modifiers & Flags.AccPrivate) != 0 ? 0 : 1;
 					return category.applyCategory(relevance);
@@ -301,11 +298,12 @@ public class RelevanceRules implements IRelevanceRule {
 		 * @return first segment in the package name containing the type
 		 */
 		protected LibraryType getLibraryType(char[] qualifiedName) {
-			char[][] segments = CharOperation.splitOn('.', qualifiedName);
-			if (segments != null && segments.length > 0) {
-				char[] firstPackSegment = segments[0];
+			if (qualifiedName != null && qualifiedName.length > 0) {
+				int dot = CharOperation.indexOf('.', qualifiedName);
+				int length = dot < 0 ? qualifiedName.length : dot;
 				for (LibraryType type : LibraryType.values()) {
-					if (Arrays.equals(type.getValue(), firstPackSegment)) {
+					char[] value = type.getValue();
+					if (value.length == length && CharOperation.prefixEquals(value, qualifiedName)) {
 						return type;
 					}
 				}
@@ -378,10 +376,24 @@ public class RelevanceRules implements IRelevanceRule {
 	 */
 	public static class SimilarPackagesRule extends AbstractRule {
 
+		// package segments of the most recent context types
+		private IType[] contextTypes;
+		private String[] contextSegments;
+
 		protected String convertToDot(String name) {
 			return name != null ? name.replace('$', '.') : name;
 		}
 
+		private synchronized String[] getContextSegments(IType[] contextTypes) {
+			if (this.contextTypes != contextTypes || contextTypes == null) {
+				IPackageFragment contextFragment = getContextPackageFragment(contextTypes);
+				this.contextSegments = contextFragment == null ? null
+						: convertToDot(contextFragment.getElementName()).split("\\.");
+				this.contextTypes = contextTypes;
+			}
+			return contextSegments;
+		}
+
 		public int getRelevance(IType relevanceType, IType[] contextTypes) {
 			return getRelevance(relevanceType.getFullyQualifiedName('.')
 					.toCharArray(), contextTypes, 0, 0);
@@ -390,14 +402,11 @@ public class RelevanceRules implements IRelevanceRule {
 		public int getRelevance(char[] fullyQualifiedName,
 				IType[] contextTypes, int accessibility, int modifiers) {
 			int relevance = 0;
-			IPackageFragment contextFragment = getContextPackageFragment(contextTypes);
-			if (contextFragment != null && fullyQualifiedName != null) {
+			String[] contextSegments = getContextSegments(contextTypes);
+			if (contextSegments != null && fullyQualifiedName != null) {
 				String relQualified = String.valueOf(fullyQualifiedName);
-				String contextQualified = convertToDot(contextFragment
-						.getElementName());
 
 				String[] relSegments = relQualified.split("\\.");
-				String[] contextSegments = contextQualified.split("\\.");
 
 				for (int i = 0; i < relSegments.length
 						&& i < contextSegments.length; i++) {
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.codebrowsing.selection;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.ast.FieldNode;
+import org.codehaus.groovy.ast.expr.ArrayExpression;
+import org.codehaus.groovy.ast.expr.BinaryExpression;
+import org.codehaus.groovy.ast.expr.BitwiseNegationExpression;
+import org.codehaus.groovy.ast.expr.BooleanExpression;
+import org.codehaus.groovy.ast.expr.CastExpression;
+import org.codehaus.groovy.ast.expr.ClassExpression;
+import org.codehaus.groovy.ast.expr.ConstantExpression;
+import org.codehaus.groovy.ast.expr.ConstructorCallExpression;
+import org.codehaus.groovy.ast.expr.Expression;
+import org.codehaus.groovy.ast.expr.FieldExpression;
+import org.codehaus.groovy.ast.expr.GStringExpression;
+import org.codehaus.groovy.ast.expr.ListExpression;
+import org.codehaus.groovy.ast.expr.MapExpression;
+import org.codehaus.groovy.ast.expr.MethodCallExpression;
+import org.codehaus.groovy.ast.expr.MethodPointerExpression;
+import org.codehaus.groovy.ast.expr.PostfixExpression;
+import org.codehaus.groovy.ast.expr.PrefixExpression;
+import org.codehaus.groovy.ast.expr.PropertyExpression;
+import org.codehaus.groovy.ast.expr.RangeExpression;
+import org.codehaus.groovy.ast.expr.SpreadExpression;
+import org.codehaus.groovy.ast.expr.SpreadMapExpression;
+import org.codehaus.groovy.ast.expr.StaticMethodCallExpression;
+import org.codehaus.groovy.ast.expr.TernaryExpression;
+import org.codehaus.groovy.ast.expr.TupleExpression;
+import org.codehaus.groovy.ast.expr.UnaryMinusExpression;
+import org.codehaus.groovy.ast.expr.UnaryPlusExpression;
+import org.codehaus.groovy.ast.expr.VariableExpression;
+
+/**
+ * Computes structural hash codes of expressions that agree with
+ * {@link IsSameExpression}: expressions that are the same have the same hash.
+ * Comparing hashes first lets a search skip the structural comparison for
+ * almost all candidates.
+ * <p>
+ * Hashes are computed bottom-up and remembered per expression instance, so an
+ * instance should only be used while the AST it has seen is unchanged.
+ */
+public class ExpressionHasher {
+
+    // ConstantExpression and ClassExpression may be the same; see IsSameExpression.handleSpecialCases
+    private static final int CONSTANT_OR_CLASS = 0x1F2E3D;
+
+    private final Map<Expression, Integer> hashes = new IdentityHashMap<Expression, Integer>();
+
+    public int hash(Expression expression) {
+        if (expression == null) {
+            return 0;
+        }
+        Integer hash = hashes.get(expression);
+        if (hash == null) {
+            hash = computeHash(expression);
+            hashes.put(expression, hash);
+        }
+        return hash.intValue();
+    }
+
+    private int computeHash(Expression expression) {
+        if (expression instanceof ConstantExpression) {
+            return combine(CONSTANT_OR_CLASS, hash(((ConstantExpression) expression).getText()));
+        }
+        if (expression instanceof ClassExpression) {
+            return combine(CONSTANT_OR_CLASS, hash(expression.getType()));
+        }
+
+        // IsSameExpression requires the same class for all other expressions
+        int hash = expression.getClass().getName().hashCode();
+
+        if (expression instanceof VariableExpression) {
+            hash = combine(hash, hash(((VariableExpression) expression).getName()));
+        } else if (expression instanceof BinaryExpression) {
+            BinaryExpression binary = (BinaryExpression) expression;
+            hash = combine(hash, binary.getOperation().getType());
+            hash = combine(hash, hash(binary.getLeftExpression()));
+            hash = combine(hash, hash(binary.getRightExpression()));
+        } else if (expression instanceof PropertyExpression) {
+            PropertyExpression property = (PropertyExpression) expression;
+            hash = combine(hash, hash(property.getObjectExpression()));
+            hash = combine(hash, hash(property.getProperty()));
+        } else if (expression instanceof MethodCallExpression) {
+            MethodCallExpression call = (MethodCallExpression) expression;
+            hash = combine(hash, hash(call.getObjectExpression()));
+            hash = combine(hash, hash(call.getMethod()));
+            hash = combine(hash, hash(call.getArguments()));
+        } else if (expression instanceof StaticMethodCallExpression) {
+            StaticMethodCallExpression call = (StaticMethodCallExpression) expression;
+            hash = combine(hash, hash(call.getType()));
+            hash = combine(hash, hash(call.getMethod()));
+            hash = combine(hash, hash(call.getArguments()));
+        } else if (expression instanceof ConstructorCallExpression) {
+            ConstructorCallExpression call = (ConstructorCallExpression) expression;
+            hash = combine(hash, hash(call.getType()));
+            hash = combine(hash, hash(call.getArguments()));
+        } else if (expression instanceof MethodPointerExpression) {
+            MethodPointerExpression pointer = (MethodPointerExpression) expression;
+            hash = combine(hash, hash(pointer.getExpression()));
+            hash = combine(hash, hash(pointer.getMethodName()));
+        } else if (expression instanceof TupleExpression) {
+            hash = combine(hash, hash(((TupleExpression) expression).getExpressions()));
+        } else if (expression instanceof ListExpression) {
+            hash = combine(hash, hash(((ListExpression) expression).getExpressions()));
+        } else if (expression instanceof MapExpression) {
+            // map entries are never the same, so only the number of entries counts
+            hash = combine(hash, ((MapExpression) expression).getMapEntryExpressions().size());
+        } else if (expression instanceof ArrayExpression) {
+            ArrayExpression array = (ArrayExpression) expression;
+            hash = combine(hash, hash(array.getExpressions()));
+            hash = combine(hash, hash(array.getSizeExpression()));
+        } else if (expression instanceof GStringExpression) {
+            GStringExpression gstring = (GStringExpression) expression;
+            hash = combine(hash, hash(gstring.getStrings()));
+            hash = combine(hash, hash(gstring.getValues()));
+        } else if (expression instanceof TernaryExpression) {
+            TernaryExpression ternary = (TernaryExpression) expression;
+            hash = combine(hash, hash(ternary.getBooleanExpression()));
+            hash = combine(hash, hash(ternary.getTrueExpression()));
+            hash = combine(hash, hash(ternary.getFalseExpression()));
+        } else if (expression instanceof RangeExpression) {
+            RangeExpression range = (RangeExpression) expression;
+            hash = combine(hash, hash(range.getFrom()));
+            hash = combine(hash, hash(range.getTo()));
+        } else if (expression instanceof CastExpression) {
+            hash = combine(hash, hash(expression.getType()));
+            hash = combine(hash, hash(((CastExpression) expression).getExpression()));
+        } else if (expression instanceof FieldExpression) {
+            FieldNode field = ((FieldExpression) expression).getField();
+            hash = combine(hash, hash(field.getDeclaringClass()));
+            hash = combine(hash, hash(field.getName()));
+        } else if (expression instanceof BooleanExpression) {
+            hash = combine(hash, hash(((BooleanExpression) expression).getExpression()));
+        } else if (expression instanceof BitwiseNegationExpression) {
+            hash = combine(hash, hash(((BitwiseNegationExpression) expression).getExpression()));
+        } else if (expression instanceof UnaryMinusExpression) {
+            hash = combine(hash, hash(((UnaryMinusExpression) expression).getExpression()));
+        } else if (expression instanceof UnaryPlusExpression) {
+            hash = combine(hash, hash(((UnaryPlusExpression) expression).getExpression()));
+        } else if (expression instanceof SpreadExpression) {
+            hash = combine(hash, hash(((SpreadExpression) expression).getExpression()));
+        } else if (expression instanceof SpreadMapExpression) {
+            hash = combine(hash, hash(((SpreadMapExpression) expression).getExpression()));
+        } else if (expression instanceof PrefixExpression) {
+            // operation tokens are compared by identity, so they are left out
+            hash = combine(hash, hash(((PrefixExpression) expression).getExpression()));
+        } else if (expression instanceof PostfixExpression) {
+            hash = combine(hash, hash(((PostfixExpression) expression).getExpression()));
+        }
+        // closures and other expressions are never the same as each other; their class is enough
+        return hash;
+    }
+
+    private int hash(List<? extends Expression> expressions) {
+        if (expressions == null) {
+            return 0;
+        }
+        int hash = 1;
+        for (Expression expression : expressions) {
+            hash = combine(hash, hash(expression));
+        }
+        return hash;
+    }
+
+    private static int hash(ClassNode type) {
+        return type != null ? type.getName().hashCode() : 0;
+    }
+
+    private static int hash(String string) {
+        return string != null ? string.hashCode() : 0;
+    }
+
+    private static int combine(int hash, int value) {
+        return 31 * hash + value;
+    }
+}
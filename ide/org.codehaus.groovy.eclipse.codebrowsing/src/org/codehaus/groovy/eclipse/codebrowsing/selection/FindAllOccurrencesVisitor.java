@@ -79,6 +79,11 @@ public class FindAllOccurrencesVisitor extends ClassCodeVisitorSupport {
 
         @Override
         public boolean previsit(IASTFragment fragment) {
+            // a match starts with an expression that is the same as the first one of toFind
+            if (toFindHash != null && ASTFragmentKind.isExpressionKind(fragment)
+                    && hasher.hash(fragment.getAssociatedExpression()) != toFindHash.intValue()) {
+                return fragment.kind() == ASTFragmentKind.BINARY;
+            }
             IASTFragment matched = fragment.findMatchingSubFragment(toFind);
             if (matched.kind() != ASTFragmentKind.EMPTY) {
                 // prevent double matching, which may occur in binary fragments when searching for a simple expression fragment
@@ -124,6 +129,10 @@ public class FindAllOccurrencesVisitor extends ClassCodeVisitorSupport {
 
     private IASTFragment toFind;
 
+    private Integer toFindHash;
+
+    private final ExpressionHasher hasher = new ExpressionHasher();
+
     private List<IASTFragment> occurrences;
 
     private ModuleNode module;
@@ -150,6 +159,7 @@ public class FindAllOccurrencesVisitor extends ClassCodeVisitorSupport {
 
     public List<IASTFragment> findOccurrences(IASTFragment fragment) {
         this.toFind = fragment;
+        this.toFindHash = ASTFragmentKind.isExpressionKind(fragment) ? Integer.valueOf(hasher.hash(fragment.getAssociatedExpression())) : null;
         this.occurrences = new ArrayList<IASTFragment>();
 
         if (limitTo == null) {
@@ -15,6 +15,7 @@
  */
 package org.codehaus.groovy.eclipse.core;
 
+import org.codehaus.groovy.eclipse.core.model.GroovyRuntime;
 import org.eclipse.core.runtime.Plugin;
 import org.eclipse.core.runtime.preferences.IEclipsePreferences;
 import org.eclipse.core.runtime.preferences.InstanceScope;
@@ -42,6 +43,7 @@ public class GroovyCoreActivator extends Plugin {
 
     @Override
     public void stop(BundleContext context) throws Exception {
+        GroovyRuntime.dispose();
         plugin = null;
     }
 
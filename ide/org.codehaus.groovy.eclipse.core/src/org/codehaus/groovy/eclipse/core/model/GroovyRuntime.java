@@ -15,6 +15,12 @@
  */
 package org.codehaus.groovy.eclipse.core.model;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.codehaus.groovy.eclipse.core.GroovyCore;
 import org.codehaus.groovy.eclipse.core.builder.GroovyClasspathContainer;
 import org.codehaus.groovy.eclipse.core.util.ArrayUtils;
@@ -25,9 +31,12 @@ import org.eclipse.core.resources.IProjectDescription;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.Path;
+import org.eclipse.jdt.core.ElementChangedEvent;
 import org.eclipse.jdt.core.IAccessRule;
 import org.eclipse.jdt.core.IClasspathAttribute;
 import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElementDelta;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.IPackageFragmentRoot;
 import org.eclipse.jdt.core.JavaCore;
@@ -37,9 +46,88 @@ import org.eclipse.jdt.internal.core.ClasspathEntry;
 /**
  * This class contains all the utility methods used in adding the Groovy Runtime
  * to a Java project.
+ * <p>
+ * The container entries of each project's raw classpath are remembered, so that
+ * the frequent checks for the Groovy (or any other) classpath container do not
+ * scan the raw classpath again.  They are forgotten when Java model deltas
+ * report a change to the raw classpath or when they are changed from here.
  */
 public class GroovyRuntime {
 
+    private static final Map<IJavaProject, IClasspathEntry[]> containerEntries = new ConcurrentHashMap<IJavaProject, IClasspathEntry[]>();
+
+    // incremented whenever container entries are forgotten
+    private static final AtomicInteger generation = new AtomicInteger();
+
+    private static IElementChangedListener classpathListener;
+
+    private static synchronized void ensureClasspathListener() {
+        if (classpathListener == null) {
+            classpathListener = new IElementChangedListener() {
+                public void elementChanged(ElementChangedEvent event) {
+                    IJavaElementDelta delta = event.getDelta();
+                    if (delta != null) {
+                        for (IJavaElementDelta child : delta.getAffectedChildren()) {
+                            if (child.getElement() instanceof IJavaProject && (child.getKind() != IJavaElementDelta.CHANGED ||
+                                    (child.getFlags() & (IJavaElementDelta.F_CLASSPATH_CHANGED | IJavaElementDelta.F_OPENED | IJavaElementDelta.F_CLOSED)) != 0)) {
+                                forgetContainerEntries((IJavaProject) child.getElement());
+                            }
+                        }
+                    }
+                }
+            };
+            JavaCore.addElementChangedListener(classpathListener, ElementChangedEvent.POST_CHANGE);
+        }
+    }
+
+    /**
+     * Stops remembering the container entries of projects.
+     */
+    public static synchronized void dispose() {
+        if (classpathListener != null) {
+            JavaCore.removeElementChangedListener(classpathListener);
+            classpathListener = null;
+        }
+        generation.incrementAndGet();
+        containerEntries.clear();
+    }
+
+    private static void forgetContainerEntries(IJavaProject javaProject) {
+        generation.incrementAndGet();
+        containerEntries.remove(javaProject);
+    }
+
+    /**
+     * @return the container entries of the project's raw classpath
+     */
+    private static IClasspathEntry[] getContainerEntries(IJavaProject javaProject) throws JavaModelException {
+        IClasspathEntry[] entries = containerEntries.get(javaProject);
+        if (entries == null) {
+            ensureClasspathListener();
+            int before = generation.get();
+            List<IClasspathEntry> containers = new ArrayList<IClasspathEntry>();
+            for (IClasspathEntry entry : javaProject.getRawClasspath()) {
+                if (entry.getEntryKind() == IClasspathEntry.CPE_CONTAINER) {
+                    containers.add(entry);
+                }
+            }
+            entries = containers.toArray(new IClasspathEntry[containers.size()]);
+            // a change may have been reported while the classpath was read
+            if (generation.get() == before) {
+                containerEntries.put(javaProject, entries);
+            }
+        }
+        return entries;
+    }
+
+    private static void setRawClasspath(IJavaProject javaProject, IClasspathEntry[] entries) throws JavaModelException {
+        try {
+            javaProject.setRawClasspath(entries, null);
+        } finally {
+            forgetContainerEntries(javaProject);
+        }
+    }
+
     public static void removeGroovyNature(final IProject project)
             throws CoreException {
         GroovyCore.trace("GroovyRuntime.removeGroovyNature()");
@@ -65,7 +153,7 @@ public class GroovyRuntime {
             if (entry.getPath().equals(libraryPath)) {
                 final IClasspathEntry[] newEntries = (IClasspathEntry[]) ArrayUtils
                         .remove(oldEntries, i);
-                javaProject.setRawClasspath(newEntries, null);
+                setRawClasspath(javaProject, newEntries);
                 return;
             }
         }
@@ -107,14 +195,12 @@ public class GroovyRuntime {
     public static IClasspathEntry getGroovyClasspathEntry(IJavaProject javaProject) throws JavaModelException {
         if (javaProject == null || !javaProject.getProject().isAccessible())
             return null;
-        final IClasspathEntry[] entries = javaProject.getRawClasspath();
+        final IClasspathEntry[] entries = getContainerEntries(javaProject);
         for (int i = 0; i < entries.length; i++) {
             final IClasspathEntry entry = entries[i];
-            if (entry.getEntryKind() == IClasspathEntry.CPE_CONTAINER) {
-                if (ObjectUtils.equals(entry.getPath(), GroovyClasspathContainer.CONTAINER_ID)
-                        || GroovyClasspathContainer.CONTAINER_ID.isPrefixOf(entry.getPath())) {
-                    return entry;
-                }
+            if (ObjectUtils.equals(entry.getPath(), GroovyClasspathContainer.CONTAINER_ID)
+                    || GroovyClasspathContainer.CONTAINER_ID.isPrefixOf(entry.getPath())) {
+                return entry;
             }
         }
         return null;
@@ -123,13 +209,11 @@ public class GroovyRuntime {
     public static boolean hasClasspathContainer(final IJavaProject javaProject, final IPath libraryPath) throws CoreException {
         if (javaProject == null || !javaProject.getProject().isAccessible())
             return false;
-        final IClasspathEntry[] entries = javaProject.getRawClasspath();
+        final IClasspathEntry[] entries = getContainerEntries(javaProject);
         for (int i = 0; i < entries.length; i++) {
             final IClasspathEntry entry = entries[i];
-            if (entry.getEntryKind() == IClasspathEntry.CPE_CONTAINER) {
-                if (ObjectUtils.equals(entry.getPath(), libraryPath) || libraryPath.isPrefixOf(entry.getPath())) {
-                    return true;
-                }
+            if (ObjectUtils.equals(entry.getPath(), libraryPath) || libraryPath.isPrefixOf(entry.getPath())) {
+                return true;
             }
         }
         return false;
@@ -241,7 +325,7 @@ public class GroovyRuntime {
             }
 
             if (workDone) {
-                javaProject.setRawClasspath(rawClasspath, null);
+                setRawClasspath(javaProject, rawClasspath);
             }
         } catch (JavaModelException e) {
             GroovyCore.logException("Problem setting groovy classpath container", e);
@@ -268,7 +352,7 @@ public class GroovyRuntime {
                 }
             }
             IClasspathEntry[] newEntries = (IClasspathEntry[]) ArrayUtils.remove(entries, removeIndex);
-            javaProject.setRawClasspath(newEntries, null);
+            setRawClasspath(javaProject, newEntries);
         } catch (final CoreException ce) {
             GroovyCore.logException("Failed to add groovy classpath container:"
                     + ce.getMessage(), ce);
@@ -338,7 +422,7 @@ public class GroovyRuntime {
             IClasspathEntry newEntry) throws JavaModelException {
         IClasspathEntry[] newEntries = (IClasspathEntry[]) ArrayUtils.add(
                 project.getRawClasspath(), newEntry);
-        project.setRawClasspath(newEntries, null);
+        setRawClasspath(project, newEntries);
     }
 
     /**
@@ -352,7 +436,7 @@ public class GroovyRuntime {
      */
     public static void addClassPathEntryToFront(IJavaProject project, IClasspathEntry newEntry) throws JavaModelException {
         IClasspathEntry[] newEntries = (IClasspathEntry[]) ArrayUtils.add(project.getRawClasspath(), 0, newEntry);
-        project.setRawClasspath(newEntries, null);
+        setRawClasspath(project, newEntries);
     }
 
     /**
@@ -368,7 +452,7 @@ public class GroovyRuntime {
             IClasspathEntry newEntry) throws JavaModelException {
         IClasspathEntry[] newEntries = (IClasspathEntry[]) ArrayUtils.removeElement(
                 project.getRawClasspath(), newEntry);
-        project.setRawClasspath(newEntries, null);
+        setRawClasspath(project, newEntries);
     }
 
     /**
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.core.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.codehaus.groovy.ast.ASTNode;
+import org.codehaus.groovy.ast.AnnotatedNode;
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.ast.FieldNode;
+import org.codehaus.groovy.ast.MethodNode;
+import org.codehaus.groovy.ast.ModuleNode;
+import org.codehaus.groovy.ast.PropertyNode;
+import org.codehaus.groovy.ast.Variable;
+import org.codehaus.jdt.groovy.model.GroovyCompilationUnit;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.groovy.search.ITypeRequestor;
+import org.eclipse.jdt.groovy.search.TypeInferencingVisitorFactory;
+import org.eclipse.jdt.groovy.search.TypeInferencingVisitorWithRequestor;
+import org.eclipse.jdt.groovy.search.TypeLookupResult;
+
+/**
+ * Records, for one module node, every AST node that refers to a declaration,
+ * grouped by the name of the declaration.  Finding the references to a
+ * declaration (mark occurrences, local rename) is then a lookup of its group
+ * instead of a type inferencing visit of the whole file.
+ * <p>
+ * The index is kept in the metadata of the module node, so it is discarded with
+ * the module node when the unit is reconciled again.  It is usually built as a
+ * side product of the semantic highlighting visit; see {@link #alongside}.
+ */
+public class ReferencesIndex implements ITypeRequestor {
+
+    private static final String METADATA_KEY = ReferencesIndex.class.getName();
+
+    /**
+     * @return the index of the unit's current module node, which is built with
+     *         one visit if it is not available yet, or {@code null} if the unit
+     *         has no module node
+     */
+    public static ReferencesIndex get(GroovyCompilationUnit unit) {
+        ModuleNode module = unit.getModuleNode();
+        if (module == null) {
+            return null;
+        }
+        ReferencesIndex index = find(module);
+        if (index == null) {
+            index = new ReferencesIndex();
+            TypeInferencingVisitorWithRequestor visitor = new TypeInferencingVisitorFactory().createVisitor(unit);
+            visitor.visitCompilationUnit(index);
+            index.attachTo(visitor.getModuleNode());
+        }
+        return index;
+    }
+
+    private static ReferencesIndex find(ModuleNode module) {
+        synchronized (module) {
+            return (ReferencesIndex) module.getNodeMetaData(METADATA_KEY);
+        }
+    }
+
+    //--------------------------------------------------------------------------
+
+    private static class Reference {
+        final ASTNode node;
+        final TypeLookupResult result;
+
+        Reference(ASTNode node, TypeLookupResult result) {
+            this.node = node;
+            this.result = result;
+        }
+    }
+
+    private final Map<String, List<Reference>> references = new HashMap<String, List<Reference>>();
+
+    private boolean complete = true;
+
+    public VisitStatus acceptASTNode(ASTNode node, TypeLookupResult result, IJavaElement enclosingElement) {
+        if (node instanceof AnnotatedNode && node.getLength() > 0 && result.declaration != null) {
+            // keep only what FindAllReferencesRequestor looks at
+            TypeLookupResult reference = new TypeLookupResult(null, null, result.declaration, result.confidence, null);
+            reference.enclosingAssignment = result.enclosingAssignment;
+
+            String key = keyOf(result.declaration);
+            List<Reference> group = references.get(key);
+            if (group == null) {
+                group = new ArrayList<Reference>(2);
+                references.put(key, group);
+            }
+            group.add(new Reference(node, reference));
+        }
+        return VisitStatus.CONTINUE;
+    }
+
+    /**
+     * Returns a requestor that passes each node to the given requestor and also
+     * records it in this index.  If the requestor skips part of the visit, the
+     * index is incomplete and will not be attached to the module node.
+     */
+    public ITypeRequestor alongside(final ITypeRequestor requestor) {
+        return new ITypeRequestor() {
+            public VisitStatus acceptASTNode(ASTNode node, TypeLookupResult result, IJavaElement enclosingElement) {
+                ReferencesIndex.this.acceptASTNode(node, result, enclosingElement);
+                VisitStatus status = requestor.acceptASTNode(node, result, enclosingElement);
+                if (status != VisitStatus.CONTINUE) {
+                    complete = false;
+                }
+                return status;
+            }
+        };
+    }
+
+    /**
+     * Makes this index available to {@link #get} for the visited module node.
+     */
+    public void attachTo(ModuleNode module) {
+        if (complete && module != null) {
+            synchronized (module) {
+                if (module.getNodeMetaData(METADATA_KEY) == null) {
+                    module.setNodeMetaData(METADATA_KEY, this);
+                }
+            }
+        }
+    }
+
+    /**
+     * Passes the recorded references that may be to the requestor's
+     * declaration to it, in the order in which they were visited.
+     */
+    public void findReferences(AnnotatedNode declaration, FindAllReferencesRequestor requestor) {
+        List<Reference> group = references.get(keyOf(declaration));
+        for (Reference reference : group != null ? group : Collections.<Reference>emptyList()) {
+            requestor.acceptASTNode(reference.node, reference.result, null);
+        }
+    }
+
+    /**
+     * Declarations that {@link FindAllReferencesRequestor} considers equivalent
+     * always have the same name, so the name is used to group references.
+     */
+    private static String keyOf(ASTNode declaration) {
+        if (declaration instanceof ClassNode) {
+            return ((ClassNode) declaration).getName();
+        }
+        if (declaration instanceof FieldNode) {
+            return ((FieldNode) declaration).getName();
+        }
+        if (declaration instanceof PropertyNode) {
+            return ((PropertyNode) declaration).getName();
+        }
+        if (declaration instanceof MethodNode) {
+            return ((MethodNode) declaration).getName();
+        }
+        if (declaration instanceof Variable) {
+            return ((Variable) declaration).getName();
+        }
+        // only matches itself
+        return null;
+    }
+}
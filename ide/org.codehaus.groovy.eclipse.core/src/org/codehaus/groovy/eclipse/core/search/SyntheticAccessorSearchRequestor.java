@@ -1,5 +1,5 @@
 /*
- * Copyright 2009-2016 the original author or authors.
+ * Copyright 2009-2017 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,6 +15,7 @@
  */
 package org.codehaus.groovy.eclipse.core.search;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -46,12 +47,19 @@ import org.eclipse.jdt.core.ITypeRoot;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.search.IJavaSearchConstants;
 import org.eclipse.jdt.core.search.IJavaSearchScope;
+import org.eclipse.jdt.core.search.SearchDocument;
 import org.eclipse.jdt.core.search.SearchEngine;
 import org.eclipse.jdt.core.search.SearchMatch;
 import org.eclipse.jdt.core.search.SearchParticipant;
 import org.eclipse.jdt.core.search.SearchPattern;
 import org.eclipse.jdt.core.search.SearchRequestor;
+import org.eclipse.jdt.internal.core.index.EntryResult;
+import org.eclipse.jdt.internal.core.index.Index;
+import org.eclipse.jdt.internal.core.search.JavaSearchDocument;
 import org.eclipse.jdt.internal.core.search.JavaSearchParticipant;
+import org.eclipse.jdt.internal.core.search.indexing.AbstractIndexer;
+import org.eclipse.jdt.internal.core.search.indexing.IIndexConstants;
+import org.eclipse.jdt.internal.core.search.matching.MethodPattern;
 
 /**
  * Search requestor that finds synthetic accessors
@@ -342,6 +350,122 @@ public class SyntheticAccessorSearchRequestor {
         }
     }
 
+    /**
+     * Selects candidate documents for a property with a single index query:
+     * Groovy sources are indexed with the property name of every reference to
+     * {@code foo}, {@code getFoo}, {@code isFoo} or {@code setFoo}, and Java
+     * sources with the accessor method references.  The matches themselves are
+     * located in the candidates with the pattern for all accessor forms.
+     */
+    private static class PropertyKeyPattern extends SearchPattern {
+        private static final int EXACT = R_EXACT_MATCH | R_CASE_SENSITIVE;
+        private static final char[][] PROPERTY_CATEGORIES = { IIndexConstants.GROOVY_PROPERTY_REF };
+        private static final char[][] METHOD_CATEGORIES = { IIndexConstants.METHOD_REF };
+
+        private final char[] propertyKey;
+        private final char[][] accessorKeys;
+        final SearchPattern locatorPattern;
+
+        PropertyKeyPattern(String propertyKey, SearchPattern locatorPattern) {
+            super(EXACT);
+            this.propertyKey = propertyKey.toCharArray();
+            String suffix = Character.toUpperCase(propertyKey.charAt(0)) + propertyKey.substring(1);
+            this.accessorKeys = new char[][] {
+                MethodPattern.createIndexKey(("get" + suffix).toCharArray(), 0),
+                MethodPattern.createIndexKey(("is" + suffix).toCharArray(), 0),
+                MethodPattern.createIndexKey(("set" + suffix).toCharArray(), 1)
+            };
+            this.locatorPattern = locatorPattern;
+        }
+
+        @Override
+        public SearchPattern getBlankPattern() {
+            return new PropertyKeyPattern(String.valueOf(propertyKey), null);
+        }
+
+        @Override
+        public void decodeIndexKey(char[] key) {
+            // entries are only selected by exact key, so there is nothing to check
+        }
+
+        @Override
+        public char[][] getIndexCategories() {
+            return new char[][] { IIndexConstants.GROOVY_PROPERTY_REF, IIndexConstants.METHOD_REF };
+        }
+
+        @Override
+        public boolean matchesDecodedKey(SearchPattern decodedPattern) {
+            return true;
+        }
+
+        @Override
+        public EntryResult[] queryIn(Index index) throws IOException {
+            List<EntryResult> results = new ArrayList<EntryResult>();
+            addAll(results, index.query(PROPERTY_CATEGORIES, propertyKey, EXACT));
+            for (char[] accessorKey : accessorKeys) {
+                addAll(results, index.query(METHOD_CATEGORIES, accessorKey, EXACT));
+            }
+            return results.isEmpty() ? null : results.toArray(new EntryResult[results.size()]);
+        }
+
+        private static void addAll(List<EntryResult> results, EntryResult[] entries) {
+            if (entries != null) {
+                for (EntryResult entry : entries) {
+                    results.add(entry);
+                }
+            }
+        }
+    }
+
+    /**
+     * Uses the delegate's indexes, but locates matches in the documents
+     * selected by a {@link PropertyKeyPattern} with its locator pattern.
+     */
+    private static class PropertyKeyParticipant extends SearchParticipant {
+        private final SearchParticipant delegate;
+
+        PropertyKeyParticipant(SearchParticipant delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void beginSearching() {
+            delegate.beginSearching();
+        }
+
+        @Override
+        public void doneSearching() {
+            delegate.doneSearching();
+        }
+
+        @Override
+        public String getDescription() {
+            return delegate.getDescription();
+        }
+
+        @Override
+        public SearchDocument getDocument(String documentPath) {
+            // owned by this participant so that working copies replace their documents
+            return new JavaSearchDocument(documentPath, this);
+        }
+
+        @Override
+        public void indexDocument(SearchDocument document, IPath indexLocation) {
+            delegate.indexDocument(document, indexLocation);
+        }
+
+        @Override
+        public void locateMatches(SearchDocument[] documents, SearchPattern pattern, IJavaSearchScope scope,
+                SearchRequestor requestor, IProgressMonitor monitor) throws CoreException {
+            delegate.locateMatches(documents, ((PropertyKeyPattern) pattern).locatorPattern, scope, requestor, monitor);
+        }
+
+        @Override
+        public IPath[] selectIndexes(SearchPattern query, IJavaSearchScope scope) {
+            return delegate.selectIndexes(query, scope);
+        }
+    }
+
     public void findSyntheticMatches(IJavaElement element, ISearchRequestor uiRequestor, IProgressMonitor monitor)
             throws CoreException {
         // findSyntheticMatches(element, IJavaSearchConstants.REFERENCES, new
@@ -368,6 +492,16 @@ public class SyntheticAccessorSearchRequestor {
             return;
         }
 
+        String propertyKey = String.valueOf(AbstractIndexer.groovyPropertyKey(element.getElementName().toCharArray()));
+        if (propertyKey.length() > 0) {
+            SearchParticipant[] keyParticipants = new SearchParticipant[participants.length];
+            for (int i = 0; i < participants.length; i += 1) {
+                keyParticipants[i] = new PropertyKeyParticipant(participants[i]);
+            }
+            pattern = new PropertyKeyPattern(propertyKey, pattern);
+            participants = keyParticipants;
+        }
+
         Requestor requestor = new Requestor(uiRequestor);
         SearchEngine engine = new SearchEngine();
         engine.search(pattern, participants, scope, requestor, monitor);
@@ -23,12 +23,25 @@ import org.codehaus.groovy.eclipse.core.impl.ReverseSourceBuffer;
 
 /**
  * Token stream used by the ExpressionFinder parser.
+ * <p>
+ * Tokens are scanned backwards from the offset.  Quotes and comments are
+ * matched against a reversed view of the buffer; the patterns must match at
+ * the current position, so scanning a token costs time in proportion to the
+ * token (or at most its line), not to the distance from the start of the buffer.
  *
  * @author empovazan
  */
 public class TokenStream {
     private static final Token TOKEN_EOF = new Token(Token.Type.EOF, -1, -1, null);
 
+    // patterns are applied to the reversed buffer
+    private static final Pattern SINGLE_QUOTE = Pattern.compile("\'.*\'");
+    private static final Pattern TRIPLE_SINGLE_QUOTE = Pattern.compile("\'\'\'.*\'\'\'");
+    private static final Pattern DOUBLE_QUOTE = Pattern.compile("\".*\"");
+    private static final Pattern TRIPLE_DOUBLE_QUOTE = Pattern.compile("\"\"\".*\"\"\"");
+    private static final Pattern LINE_COMMENT = Pattern.compile(".*//");
+    private static final Pattern BLOCK_COMMENT = Pattern.compile("(?s)/\\*.*?\\*/");
+
     private ISourceBuffer buffer;
 
     private int offset;
@@ -39,6 +52,13 @@ public class TokenStream {
 
     private Token next = null;
 
+    // result of the last peek and the state after it
+    private Token peeked;
+    private int peekedOffset;
+    private char peekedCh;
+    private Token peekedLast;
+    private Token peekedNext;
+
     public TokenStream(ISourceBuffer buffer, int offset) {
         this.buffer = buffer;
         this.offset = offset;
@@ -50,6 +70,9 @@ public class TokenStream {
      * @throws TokenStreamException
      */
     public Token peek() throws TokenStreamException {
+        if (peeked != null) {
+            return peeked;
+        }
         int offset = this.offset;
         char ch = this.ch;
         Token last = this.last;
@@ -57,6 +80,13 @@ public class TokenStream {
 
         Token ret = next();
 
+        // remember the scan so that the following next() need not repeat it
+        peeked = ret;
+        peekedOffset = this.offset;
+        peekedCh = this.ch;
+        peekedLast = this.last;
+        peekedNext = this.next;
+
         this.offset = offset;
         this.ch = ch;
         this.last = last;
@@ -73,6 +103,15 @@ public class TokenStream {
      * @return The next token in the stream.
      */
     public Token next() throws TokenStreamException {
+        if (peeked != null) {
+            Token ret = peeked;
+            peeked = null;
+            offset = peekedOffset;
+            ch = peekedCh;
+            last = peekedLast;
+            next = peekedNext;
+            return ret;
+        }
         if (next != null) {
             last = next;
             next = null;
@@ -240,11 +279,11 @@ public class TokenStream {
         Pattern singleQuote;
         Pattern tripleQuote;
         if (quote == '\'') {
-            singleQuote = Pattern.compile("^\'.*\'");
-            tripleQuote = Pattern.compile("^\'\'\'.*\'\'\'");
+            singleQuote = SINGLE_QUOTE;
+            tripleQuote = TRIPLE_SINGLE_QUOTE;
         } else {
-            singleQuote = Pattern.compile("^\".*\"");
-            tripleQuote = Pattern.compile("^\"\"\".*\"\"\"");
+            singleQuote = DOUBLE_QUOTE;
+            tripleQuote = TRIPLE_DOUBLE_QUOTE;
         }
 
         Token token = matchQuote(tripleQuote);
@@ -264,7 +303,7 @@ public class TokenStream {
     private Token matchQuote(Pattern quotePattern) {
         ISourceBuffer matchBuffer = new ReverseSourceBuffer(this.buffer, offset);
         Matcher matcher = quotePattern.matcher(matchBuffer);
-        if (matcher.find()) {
+        if (matcher.lookingAt()) {
             String match = matcher.group(0);
             int endOffset = offset + 1;
             int startOffset = offset - match.length() + 1;
@@ -291,9 +330,8 @@ public class TokenStream {
 
     private Token skipLineComment() {
         ISourceBuffer matchBuffer = new ReverseSourceBuffer(this.buffer, offset);
-        Pattern pattern = Pattern.compile(".*//");
-        Matcher matcher = pattern.matcher(matchBuffer);
-        if (matcher.find() && matcher.start()==0) {
+        Matcher matcher = LINE_COMMENT.matcher(matchBuffer);
+        if (matcher.lookingAt()) {
             String match = matcher.group(0);
             int endOffset = offset + 1;
             int startOffset = offset - match.length() + 1;
@@ -319,9 +357,8 @@ public class TokenStream {
 
     private Token scanBlockComment() {
         ISourceBuffer matchBuffer = new ReverseSourceBuffer(this.buffer, offset);
-        Pattern pattern = Pattern.compile("(?s)/\\*.*\\*/");
-        Matcher matcher = pattern.matcher(matchBuffer);
-        if (matcher.find()) {
+        Matcher matcher = BLOCK_COMMENT.matcher(matchBuffer);
+        if (matcher.lookingAt()) {
             String match = matcher.group(0);
             int endOffset = offset + 1;
             int startOffset = offset - match.length() + 1;
@@ -160,6 +160,20 @@ public class DSLDStore {
         return elts;
     }
 
+    /**
+     * @return the number of pointcuts and the total number of contribution groups of this store
+     */
+    public int[] getSizes() {
+        int pointcuts = 0, contributions = 0;
+        synchronized (pointcutContributionMap) {
+            for (List<IContributionGroup> groups : pointcutContributionMap.values()) {
+                pointcuts += 1;
+                contributions += groups.size();
+            }
+        }
+        return new int[] {pointcuts, contributions};
+    }
+
     public IStorage[] getAllContextKeys() {
         synchronized (keyContextMap) {
             return keyContextMap.keySet().toArray(new IStorage[0]);
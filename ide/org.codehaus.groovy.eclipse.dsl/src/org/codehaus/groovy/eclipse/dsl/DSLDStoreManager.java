@@ -28,6 +28,8 @@ import org.codehaus.jdt.groovy.model.GroovyNature;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.groovy.core.CacheMetrics;
+import org.eclipse.jdt.groovy.core.ICacheReporter;
 import org.eclipse.jdt.core.IJavaProject;
 
 /**
@@ -36,7 +38,7 @@ import org.eclipse.jdt.core.IJavaProject;
  * @author andrew
  * @created Nov 17, 2010
  */
-public class DSLDStoreManager {
+public class DSLDStoreManager implements ICacheReporter {
 
     private final Map<String, DSLDStore> projectDSLDMap;
 
@@ -82,6 +84,18 @@ public class DSLDStoreManager {
         return new ArrayList<String>(projectDSLDMap.keySet());
     }
 
+    public String getCacheName() {
+        return "DSLDStoreManager";
+    }
+
+    public void report(CacheMetrics.Report report) {
+        for (Map.Entry<String, DSLDStore> entry : new HashMap<String, DSLDStore>(projectDSLDMap).entrySet()) {
+            int[] sizes = entry.getValue().getSizes();
+            // each pointcut is a small tree of closures; each group holds its contribution closure
+            report.add(entry.getKey(), sizes[0], 1024L * sizes[0] + 512L * sizes[1]);
+        }
+    }
+
     public void initializeAll(boolean synchronous) {
         if (GroovyDSLCoreActivator.getDefault().isDSLDDisabled()) {
             return;
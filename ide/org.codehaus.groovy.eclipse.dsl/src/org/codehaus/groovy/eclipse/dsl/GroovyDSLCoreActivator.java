@@ -26,6 +26,7 @@ import org.eclipse.core.runtime.Path;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.jdt.core.ElementChangedEvent;
 import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.groovy.core.CacheMetrics;
 import org.eclipse.jface.resource.ImageDescriptor;
 import org.eclipse.ui.plugin.AbstractUIPlugin;
 import org.osgi.framework.BundleContext;
@@ -60,12 +61,14 @@ public class GroovyDSLCoreActivator extends AbstractUIPlugin {
     public void start(BundleContext bundleContext) throws Exception {
         super.start(bundleContext);
         startListening();
+        CacheMetrics.register(contextStoreManager);
     }
 
     @Override
     public void stop(BundleContext bundleContext) throws Exception {
         super.stop(bundleContext);
         stopListening();
+        CacheMetrics.unregister(contextStoreManager);
     }
 
     public void startListening() {
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.dsl.checker;
+
+import java.io.Serializable;
+
+import org.codehaus.groovy.ast.ASTNode;
+import org.eclipse.jface.text.Position;
+
+/**
+ * A single problem found by the static checker, detached from the AST so that
+ * it can be buffered by a worker thread, cached between runs and replayed to
+ * an {@link IStaticCheckerHandler} later.
+ */
+public class CheckerProblem implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Stands in for the original AST node when a problem is replayed.
+     * Handlers only ever ask for the node's text.
+     */
+    private static class DetachedNode extends ASTNode {
+        private final String text;
+
+        DetachedNode(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public String getText() {
+            return text;
+        }
+    }
+
+    public final String text;
+    public final String expectedType; // null for unknown references
+    public final String actualType;
+    public final int offset, length, line;
+
+    public CheckerProblem(ASTNode node, String expectedType, String actualType, Position position, int line) {
+        this.text = node.getText();
+        this.expectedType = expectedType;
+        this.actualType = actualType;
+        this.offset = position.offset;
+        this.length = position.length;
+        this.line = line;
+    }
+
+    public boolean isUnknownReference() {
+        return expectedType == null;
+    }
+
+    public String getMessage() {
+        if (isUnknownReference()) {
+            return "Line " + line + ": unknown type: " + text;
+        }
+        return "Line " + line + ": Invalid inferred type.  " + text + "  Expected: " + expectedType + " Actual: " + actualType;
+    }
+
+    public void replay(IStaticCheckerHandler handler) {
+        ASTNode node = new DetachedNode(text);
+        Position position = new Position(offset, length);
+        if (isUnknownReference()) {
+            handler.handleUnknownReference(node, position, line);
+        } else {
+            handler.handleTypeAssertionFailed(node, expectedType, actualType, position, line);
+        }
+    }
+}
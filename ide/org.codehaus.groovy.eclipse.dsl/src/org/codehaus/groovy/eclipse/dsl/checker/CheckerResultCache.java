@@ -0,0 +1,334 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.dsl.checker;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.codehaus.groovy.eclipse.dsl.DSLDStore;
+import org.codehaus.groovy.eclipse.dsl.DSLPreferences;
+import org.codehaus.groovy.eclipse.dsl.GroovyDSLCoreActivator;
+import org.eclipse.core.resources.IContainer;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceVisitor;
+import org.eclipse.core.resources.IStorage;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+
+/**
+ * Remembers the static checking results of files between runs.  An entry is
+ * reused only when the file's content hash is unchanged and the fingerprint of
+ * everything else that can influence inference (the resolved classpath and
+ * the state of its source folders, class folders and archives, including
+ * those of required projects, the contents of the DSLD scripts that contribute
+ * to the project, the disabled scripts and the checker options) is unchanged
+ * as well.  So any edit of a project's sources invalidates its entries.  Entries of files
+ * that no longer exist are dropped when the cache is saved.
+ * <p>
+ * Instances are safe to use from multiple checker threads.
+ */
+public class CheckerResultCache {
+
+    private static class Entry implements Serializable {
+        private static final long serialVersionUID = 1L;
+        final String contentHash;
+        final List<CheckerProblem> problems;
+
+        Entry(String contentHash, List<CheckerProblem> problems) {
+            this.contentHash = contentHash;
+            this.problems = problems;
+        }
+    }
+
+    private final File cacheFile;
+    private String fingerprint;
+    private Map<String, Entry> entries = new HashMap<String, Entry>();
+
+    private int hits, misses;
+
+    public CheckerResultCache(File cacheFile) {
+        this.cacheFile = cacheFile;
+    }
+
+    /**
+     * @return a cache stored in the state location of the DSL plug-in
+     */
+    public static CheckerResultCache forProject(IProject project) {
+        File stateDir = GroovyDSLCoreActivator.getDefault().getStateLocation().toFile();
+        return new CheckerResultCache(new File(stateDir, "checker-" + project.getName() + ".cache"));
+    }
+
+    /**
+     * Loads the persisted results.  All entries are discarded if they were
+     * computed with a different fingerprint.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized void load(String fingerprint) {
+        this.fingerprint = fingerprint;
+        entries = new HashMap<String, Entry>();
+        if (!cacheFile.isFile()) {
+            return;
+        }
+        ObjectInputStream in = null;
+        try {
+            in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(cacheFile)));
+            if (fingerprint.equals(in.readUTF())) {
+                entries = (Map<String, Entry>) in.readObject();
+            }
+        } catch (Exception e) {
+            GroovyDSLCoreActivator.logException("Ignoring unreadable static checker cache " + cacheFile, e);
+        } finally {
+            close(in);
+        }
+    }
+
+    /**
+     * Stores the results, without those of files that no longer exist.
+     */
+    public synchronized void save() {
+        IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
+        for (Iterator<String> it = entries.keySet().iterator(); it.hasNext();) {
+            IResource resource = root.findMember(Path.fromPortableString(it.next()));
+            if (resource == null || resource.getType() != IResource.FILE) {
+                it.remove();
+            }
+        }
+        ObjectOutputStream out = null;
+        try {
+            cacheFile.getParentFile().mkdirs();
+            out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(cacheFile)));
+            out.writeUTF(fingerprint);
+            out.writeObject(entries);
+        } catch (IOException e) {
+            GroovyDSLCoreActivator.logException("Unable to save static checker cache " + cacheFile, e);
+        } finally {
+            close(out);
+        }
+    }
+
+    /**
+     * @return the cached problems of the file or {@code null} if the file must be checked
+     */
+    public synchronized List<CheckerProblem> get(IFile file, String contentHash) {
+        Entry entry = entries.get(file.getFullPath().toPortableString());
+        if (entry != null && entry.contentHash.equals(contentHash)) {
+            hits += 1;
+            return entry.problems;
+        }
+        misses += 1;
+        return null;
+    }
+
+    public synchronized void put(IFile file, String contentHash, List<CheckerProblem> problems) {
+        entries.put(file.getFullPath().toPortableString(), new Entry(contentHash, new ArrayList<CheckerProblem>(problems)));
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized int getHits() {
+        return hits;
+    }
+
+    public synchronized int getMisses() {
+        return misses;
+    }
+
+    //--------------------------------------------------------------------------
+
+    private static String hash(IStorage storage) throws CoreException {
+        MessageDigest digest = newDigest();
+        InputStream in = storage.getContents();
+        try {
+            byte[] buffer = new byte[8192];
+            for (int n; (n = in.read(buffer)) != -1;) {
+                digest.update(buffer, 0, n);
+            }
+        } catch (IOException e) {
+            GroovyDSLCoreActivator.logException("Unable to read " + storage.getFullPath(), e);
+        } finally {
+            close(in);
+        }
+        return toHex(digest.digest());
+    }
+
+    public static String hash(char[] contents) {
+        MessageDigest digest = newDigest();
+        for (char c : contents) {
+            digest.update((byte) (c >> 8));
+            digest.update((byte) c);
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Computes the fingerprint of the inputs other than the file itself that
+     * affect the checker results of the given projects.
+     */
+    public static String fingerprint(List<IProject> projects, boolean onlyAssertions) throws CoreException {
+        final MessageDigest digest = newDigest();
+        update(digest, String.valueOf(onlyAssertions));
+        List<IProject> sorted = new ArrayList<IProject>(projects);
+        Collections.sort(sorted, new Comparator<IProject>() {
+            public int compare(IProject p1, IProject p2) {
+                return p1.getName().compareTo(p2.getName());
+            }
+        });
+        IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
+        for (IProject project : sorted) {
+            update(digest, project.getName());
+            updateClasspath(digest, root, JavaCore.create(project), new HashSet<IProject>());
+            // the scripts that contribute to the project, including global and plug-in ones and any linked in
+            // for this run; by contents, since the modification stamps of linked files change with every link
+            IStorage[] scripts = GroovyDSLCoreActivator.getDefault().getContextStoreManager().getDSLDStore(project).getAllContextKeys();
+            Arrays.sort(scripts, new Comparator<IStorage>() {
+                public int compare(IStorage s1, IStorage s2) {
+                    return DSLDStore.toUniqueString(s1).compareTo(DSLDStore.toUniqueString(s2));
+                }
+            });
+            for (IStorage script : scripts) {
+                update(digest, DSLDStore.toUniqueString(script));
+                update(digest, hash(script));
+            }
+        }
+        update(digest, new TreeSet<String>(DSLPreferences.getDisabledScriptsAsSet()).toString());
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Adds the state of the classpath entries of the project and of the
+     * projects it requires: the files of source folders and class folders by
+     * modification stamp, archives by time stamp and length.
+     */
+    private static void updateClasspath(MessageDigest digest, IWorkspaceRoot root, IJavaProject javaProject, Set<IProject> visited) throws CoreException {
+        if (!visited.add(javaProject.getProject()) || !javaProject.exists()) {
+            return;
+        }
+        for (IClasspathEntry entry : javaProject.getResolvedClasspath(true)) {
+            IPath path = entry.getPath();
+            update(digest, path.toPortableString());
+            if (entry.getEntryKind() == IClasspathEntry.CPE_PROJECT) {
+                updateClasspath(digest, root, JavaCore.create(root.getProject(path.lastSegment())), visited);
+                continue;
+            }
+            // entries that are inside of the workspace have workspace-relative paths
+            IResource resource = root.findMember(path);
+            if (resource instanceof IContainer) {
+                updateTree(digest, resource);
+            } else {
+                updateTree(digest, (resource != null && resource.getLocation() != null) ? resource.getLocation().toFile() : path.toFile());
+            }
+        }
+    }
+
+    private static void updateTree(final MessageDigest digest, IResource container) throws CoreException {
+        container.accept(new IResourceVisitor() {
+            public boolean visit(IResource resource) {
+                // skip build output and scripts, which are fingerprinted by contents
+                if (resource.isDerived() || "dsld".equals(resource.getFileExtension())) {
+                    return false;
+                }
+                if (resource.getType() == IResource.FILE) {
+                    update(digest, resource.getFullPath().toPortableString());
+                    update(digest, String.valueOf(resource.getModificationStamp()));
+                }
+                return true;
+            }
+        });
+    }
+
+    private static void updateTree(MessageDigest digest, File file) {
+        if (file.isFile()) {
+            update(digest, String.valueOf(file.lastModified()));
+            update(digest, String.valueOf(file.length()));
+        } else if (file.isDirectory()) {
+            File[] children = file.listFiles();
+            if (children != null) {
+                Arrays.sort(children);
+                for (File child : children) {
+                    update(digest, child.getName());
+                    updateTree(digest, child);
+                }
+            }
+        }
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        try {
+            digest.update(value.getBytes("UTF-8"));
+            digest.update((byte) 0);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    private static void close(Closeable stream) {
+        if (stream != null) {
+            try {
+                stream.close();
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+    }
+}
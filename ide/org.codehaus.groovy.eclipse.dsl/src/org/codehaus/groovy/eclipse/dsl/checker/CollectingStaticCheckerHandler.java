@@ -0,0 +1,59 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.dsl.checker;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.codehaus.groovy.ast.ASTNode;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.jface.text.Position;
+import org.eclipse.swt.widgets.Shell;
+
+/**
+ * Buffers the problems of a single file.  Each file is checked with its own
+ * instance, so checking can happen on any thread and the results can be
+ * forwarded to the real handler in a deterministic order afterwards.
+ */
+class CollectingStaticCheckerHandler implements IStaticCheckerHandler {
+
+    final List<CheckerProblem> problems = new ArrayList<CheckerProblem>();
+
+    public void handleUnknownReference(ASTNode node, Position position, int line) {
+        problems.add(new CheckerProblem(node, null, null, position, line));
+    }
+
+    public void handleTypeAssertionFailed(ASTNode node, String expectedType, String actualType, Position position, int line) {
+        problems.add(new CheckerProblem(node, expectedType, actualType, position, line));
+    }
+
+    public void setResource(IFile resource) {
+        // one instance per file
+    }
+
+    public int numProblemsFound() {
+        return problems.size();
+    }
+
+    public void handleResourceStart(IResource resource) {
+        // one instance per file
+    }
+
+    public boolean finish(Shell shell) {
+        return problems.isEmpty();
+    }
+}
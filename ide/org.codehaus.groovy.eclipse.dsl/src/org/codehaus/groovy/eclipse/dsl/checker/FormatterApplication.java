@@ -0,0 +1,421 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.dsl.checker;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.codehaus.groovy.eclipse.refactoring.actions.OrganizeGroovyImports;
+import org.codehaus.groovy.eclipse.refactoring.formatter.DefaultGroovyFormatter;
+import org.codehaus.groovy.eclipse.refactoring.formatter.FormatterPreferences;
+import org.codehaus.groovy.eclipse.refactoring.formatter.IFormatterPreferences;
+import org.codehaus.jdt.groovy.model.GroovyCompilationUnit;
+import org.codehaus.jdt.groovy.model.GroovyNature;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IProjectDescription;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceVisitor;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.equinox.app.IApplication;
+import org.eclipse.equinox.app.IApplicationContext;
+import org.eclipse.jdt.core.ISourceRange;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.search.TypeNameMatch;
+import org.eclipse.jdt.groovy.core.util.ContentTypeUtils;
+import org.eclipse.jdt.internal.core.util.Util;
+import org.eclipse.jdt.internal.corext.codemanipulation.OrganizeImportsOperation.IChooseImportQuery;
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.TextSelection;
+import org.eclipse.text.edits.TextEdit;
+
+/**
+ * Headless application that formats and (optionally) organizes the imports of
+ * every Groovy file in one or more workspace projects.  Unlike the static
+ * checker application, no workbench or display is created, so this can be run
+ * on a CI server.
+ * <p>
+ * Files are distributed across a pool of worker threads.  Each worker owns its
+ * formatter preferences and documents, so no formatting state is shared
+ * between threads.
+ *
+ * <pre>
+ * eclipse -application org.codehaus.groovy.eclipse.dsl.formatter [--check] [--organize_imports] &lt;PROJECT_NAME&gt;
+ * </pre>
+ */
+public class FormatterApplication implements IApplication {
+
+    /**
+     * Formats a single file.  Instances are thread-confined; each worker
+     * thread of the pool gets its own.
+     */
+    class FormatterWorker {
+
+        private final Map<IProject, IFormatterPreferences> preferences = new HashMap<IProject, IFormatterPreferences>();
+
+        /**
+         * @return {@code true} iff the formatted contents differ from the contents on disk
+         */
+        boolean process(IFile file) throws CoreException {
+            GroovyCompilationUnit unit = (GroovyCompilationUnit) JavaCore.create(file);
+            if (unit == null || !unit.isOnBuildPath()) {
+                return false;
+            }
+
+            String original = new String(unit.getContents());
+            IDocument document = new Document(original);
+            try {
+                if (organizeImports) {
+                    unit.becomeWorkingCopy(null);
+                    try {
+                        TextEdit edit = new OrganizeGroovyImports(unit, NO_CHOICE_QUERY).calculateMissingImports();
+                        if (edit != null) {
+                            edit.apply(document);
+                        }
+                    } finally {
+                        unit.discardWorkingCopy();
+                    }
+                }
+
+                DefaultGroovyFormatter formatter = new DefaultGroovyFormatter(new TextSelection(0, 0), document, getPreferences(unit), indentOnly);
+                formatter.format().apply(document);
+            } catch (Exception e) {
+                synchronized (System.err) {
+                    System.err.println("Failed to format " + file.getFullPath());
+                    e.printStackTrace();
+                }
+                failures.incrementAndGet();
+                return false;
+            }
+
+            String formatted = document.get();
+            if (formatted.equals(original)) {
+                return false;
+            }
+            if (checkOnly) {
+                reportDifference(file, original, formatted);
+            } else {
+                file.setContents(new ByteArrayInputStream(formatted.getBytes(file.getCharset())), IResource.KEEP_HISTORY, null);
+            }
+            return true;
+        }
+
+        private IFormatterPreferences getPreferences(GroovyCompilationUnit unit) {
+            IProject project = unit.getJavaProject().getProject();
+            IFormatterPreferences prefs = preferences.get(project);
+            if (prefs == null) {
+                prefs = new FormatterPreferences(unit);
+                preferences.put(project, prefs);
+            }
+            return prefs;
+        }
+    }
+
+    /**
+     * Never picks an import when a simple name is ambiguous; headless runs
+     * cannot ask the user, so ambiguous types are left alone.
+     */
+    private static final IChooseImportQuery NO_CHOICE_QUERY = new IChooseImportQuery() {
+        public TypeNameMatch[] chooseImports(TypeNameMatch[][] openChoices, ISourceRange[] ranges) {
+            return new TypeNameMatch[0];
+        }
+    };
+
+    private String[] projectNames;
+    private char[][] inclusionFilters;
+    private char[][] exclusionFilters;
+    private String projectFolderPath;
+    private boolean checkOnly;
+    private boolean indentOnly;
+    private boolean organizeImports;
+    private int numThreads = Runtime.getRuntime().availableProcessors();
+
+    private final AtomicInteger failures = new AtomicInteger();
+
+    public Object start(IApplicationContext context) throws Exception {
+        if (!processCommandLine((String[]) context.getArguments().get(IApplicationContext.APPLICATION_ARGS))) {
+            return Integer.valueOf(-1);
+        }
+
+        // now ensure that the classpath containers and variables are initialized
+        JavaCore.initializeAfterLoad(new NullProgressMonitor());
+
+        List<IFile> files = new ArrayList<IFile>();
+        for (String projectName : projectNames) {
+            IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject(projectName);
+            try {
+                createProject(project);
+                project.open(null);
+            } catch (CoreException e) {
+                System.err.println("Failed to open project " + projectName);
+                e.printStackTrace();
+                return Integer.valueOf(-1);
+            }
+            if (!GroovyNature.hasGroovyNature(project)) {
+                System.err.println("Warning: " + projectName + " is not a Groovy project.  Ignoring.");
+                continue;
+            }
+            collectFiles(project, files);
+        }
+
+        System.out.println((checkOnly ? "Checking formatting of " : "Formatting ") + files.size() + " files using " + numThreads + " threads");
+        long start = System.nanoTime();
+        int changed = processFiles(files);
+        long elapsed = System.nanoTime() - start;
+
+        double seconds = elapsed / 1000000000.0;
+        System.out.println(String.format("%d files processed in %.2fs (%.1f files/sec)", files.size(), seconds, seconds > 0 ? files.size() / seconds : 0));
+        if (checkOnly) {
+            System.out.println(changed == 0 ? "SUCCESS" : "FAILURE " + changed + " files are not formatted");
+        } else {
+            System.out.println(changed + " files changed");
+        }
+        if (failures.get() > 0) {
+            System.out.println(failures.get() + " files could not be formatted");
+        }
+
+        boolean success = failures.get() == 0 && !(checkOnly && changed > 0);
+        return success ? IApplication.EXIT_OK : Integer.valueOf(-1);
+    }
+
+    public void stop() {
+        // nothing to clean up
+    }
+
+    private int processFiles(List<IFile> files) throws Exception {
+        final ThreadLocal<FormatterWorker> workers = new ThreadLocal<FormatterWorker>() {
+            @Override
+            protected FormatterWorker initialValue() {
+                return new FormatterWorker();
+            }
+        };
+
+        ExecutorService pool = Executors.newFixedThreadPool(numThreads, new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "Groovy Formatter Worker " + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        try {
+            List<Future<Boolean>> results = new ArrayList<Future<Boolean>>(files.size());
+            for (final IFile file : files) {
+                results.add(pool.submit(new Callable<Boolean>() {
+                    public Boolean call() throws Exception {
+                        return workers.get().process(file);
+                    }
+                }));
+            }
+            int changed = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get()) {
+                    changed += 1;
+                }
+            }
+            return changed;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void collectFiles(IProject project, final List<IFile> files) throws CoreException {
+        project.accept(new IResourceVisitor() {
+            public boolean visit(IResource resource) throws CoreException {
+                if (resource.isDerived()) {
+                    return false;
+                }
+                if (resource.getType() == IResource.FILE && ContentTypeUtils.isGroovyLikeFileName(resource.getName())) {
+                    if (!Util.isExcluded(resource, inclusionFilters, exclusionFilters)) {
+                        files.add((IFile) resource);
+                    }
+                }
+                return true;
+            }
+        });
+    }
+
+    private void reportDifference(IFile file, String original, String formatted) {
+        String[] before = original.split("\n", -1), after = formatted.split("\n", -1);
+        int line = 0;
+        while (line < before.length && line < after.length && before[line].equals(after[line])) {
+            line += 1;
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append(file.getFullPath()).append(": not formatted, first difference at line ").append(line + 1).append('\n');
+        if (line < before.length) {
+            sb.append("\t- ").append(before[line]).append('\n');
+        }
+        if (line < after.length) {
+            sb.append("\t+ ").append(after[line]).append('\n');
+        }
+        synchronized (System.out) {
+            System.out.print(sb);
+        }
+    }
+
+    private void createProject(IProject project) throws CoreException {
+        if (projectFolderPath == null) {
+            // nothing to do
+            return;
+        }
+        if (project.exists()) {
+            if (project.getLocation().toOSString().equals(projectFolderPath)) {
+                // project already exists do nothing
+                return;
+            } else {
+                // delete existing project from workspace, but not the filesystem
+                project.delete(IResource.NEVER_DELETE_PROJECT_CONTENT | IResource.FORCE, null);
+            }
+        }
+
+        IPath dotProjectPath = new Path(projectFolderPath).append(".project");
+        IProjectDescription description = ResourcesPlugin.getWorkspace().loadProjectDescription(dotProjectPath);
+        description.setName(project.getName());
+        project.create(description, null);
+    }
+
+    private boolean processCommandLine(String[] args) {
+        String excludes = null;
+        String includes = null;
+        if (args == null || args.length < 1) {
+            printUsage(true);
+            return false;
+        }
+
+        for (int i = 0; i < args.length - 1; i++) {
+            String arg = args[i];
+            if (arg.equals("-h") || arg.equals("--help")) {
+                printUsage(false);
+                return false;
+            } else if (arg.equals("--check")) {
+                checkOnly = true;
+            } else if (arg.equals("--indent_only")) {
+                indentOnly = true;
+            } else if (arg.equals("--organize_imports")) {
+                organizeImports = true;
+            } else if (arg.equals("--threads")) {
+                // the last argument is always the project name, never the count
+                int count = (i < args.length - 2) ? parseCount(args[i + 1]) : -1;
+                if (count < 1) {
+                    System.err.println("Missing or invalid --threads argument");
+                    printUsage(false);
+                    return false;
+                }
+                numThreads = count;
+                i += 1;
+            } else if (arg.equals("--excludes") || arg.equals("--includes") || arg.equals("--project_path")) {
+                if (i == args.length - 2) {
+                    System.err.println("Missing " + arg + " argument");
+                    printUsage(false);
+                    return false;
+                }
+                String value = args[++i];
+                if (arg.equals("--excludes")) {
+                    excludes = value;
+                } else if (arg.equals("--includes")) {
+                    includes = value;
+                } else {
+                    projectFolderPath = value;
+                }
+            }
+        }
+
+        String last = args[args.length - 1];
+        if (last.equals("-h") || last.equals("--help")) {
+            printUsage(false);
+            return false;
+        }
+        if (last.equals("ALL")) {
+            List<String> names = new ArrayList<String>();
+            for (IProject project : ResourcesPlugin.getWorkspace().getRoot().getProjects()) {
+                if (project.isAccessible()) {
+                    names.add(project.getName());
+                }
+            }
+            projectNames = names.toArray(new String[names.size()]);
+        } else {
+            projectNames = last.split("\\|");
+        }
+        if (projectFolderPath != null && projectNames.length != 1) {
+            System.err.println("--project_path requires a single project name");
+            return false;
+        }
+
+        inclusionFilters = convertToCharChar(includes);
+        exclusionFilters = convertToCharChar(excludes);
+        return true;
+    }
+
+    /**
+     * @return the value of a numeric argument or -1 if it is not a number
+     */
+    private static int parseCount(String arg) {
+        if (!arg.matches("\\d{1,9}")) {
+            return -1;
+        }
+        return Integer.parseInt(arg);
+    }
+
+    private char[][] convertToCharChar(String str) {
+        if (str == null) {
+            return null;
+        }
+        String[] splits = str.split("\\|");
+        List<char[]> chars = new ArrayList<char[]>(splits.length * projectNames.length);
+        for (String projectName : projectNames) {
+            for (String split : splits) {
+                chars.add(("/" + projectName + "/" + split).toCharArray());
+            }
+        }
+        return chars.toArray(new char[chars.size()][]);
+    }
+
+    private void printUsage(boolean isInvalid) {
+        if (isInvalid) {
+            System.out.println("Invalid command line.");
+        }
+
+        System.out.println("Usage:");
+        System.out.println("eclipse -application org.codehaus.groovy.eclipse.dsl.formatter [--help] [-h] [--check] [--indent_only] [--organize_imports] [--threads <N>] [--excludes <PATH>] [--includes <PATH>] [--project_path <PATH>] <PROJECT_NAME>");
+        System.out.println("where:");
+        System.out.println("\t--help OR -h  Print this message and exit.");
+        System.out.println("\t--check  Do not modify any files.  Only report the files that are not formatted and exit with an error if there are any.");
+        System.out.println("\t--indent_only  Only correct indentation.");
+        System.out.println("\t--organize_imports  Organize imports before formatting.");
+        System.out.println("\t--threads  Number of worker threads.  Defaults to the number of available processors.");
+        System.out.println("\t--excludes  Project-relative exclusion filters.");
+        System.out.println("\t--includes  Project-relative inclusion filters.");
+        System.out.println("\t--project_path  File system path to the project to format (only required if project is not already in workspace).");
+        System.out.println("\t<PROJECT_NAME>  Name of a project to format.  Use '|' to separate multiple projects or 'ALL' for every project in the workspace.");
+        System.out.println();
+        System.out.println("Ant style filters are allowed.  Eg, src/org/codehaus/groovy/**/*.groovy means all files with groovy extensions in the org.codehaus.groovy package or below will be ex/included   Filters can be concentenated using '|'.");
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.dsl.checker;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.eclipse.core.resources.IFile;
+
+/**
+ * Writes the static checker results as a JUnit XML report with one test case
+ * per checked file, so that CI servers can display failures and timings.
+ */
+public class JUnitReportWriter {
+
+    private static class FileResult {
+        final String path;
+        final List<CheckerProblem> problems;
+        final long nanos;
+        final boolean cached;
+
+        FileResult(String path, List<CheckerProblem> problems, long nanos, boolean cached) {
+            this.path = path;
+            this.problems = problems;
+            this.nanos = nanos;
+            this.cached = cached;
+        }
+    }
+
+    private final File reportFile;
+    private final List<FileResult> results = new ArrayList<FileResult>();
+
+    public JUnitReportWriter(File reportFile) {
+        this.reportFile = reportFile;
+    }
+
+    /**
+     * Records the result of one file.  Must be called in report order.
+     *
+     * @param nanos time spent checking the file
+     * @param cached true iff the result came from a {@link CheckerResultCache}
+     */
+    public void addResult(IFile file, List<CheckerProblem> problems, long nanos, boolean cached) {
+        results.add(new FileResult(file.getFullPath().toString(), problems, nanos, cached));
+    }
+
+    public void write() throws IOException {
+        int failures = 0;
+        long totalNanos = 0;
+        for (FileResult result : results) {
+            if (!result.problems.isEmpty()) {
+                failures += 1;
+            }
+            totalNanos += result.nanos;
+        }
+
+        PrintWriter out = new PrintWriter(new OutputStreamWriter(new FileOutputStream(reportFile), "UTF-8"));
+        try {
+            out.println("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+            out.println("<testsuite name=\"groovy.staticCheck\" tests=\"" + results.size() + "\" failures=\"" + failures + "\" errors=\"0\" time=\"" + seconds(totalNanos) + "\">");
+            for (FileResult result : results) {
+                String className = result.path.replace('/', '.');
+                if (className.startsWith(".")) {
+                    className = className.substring(1);
+                }
+                out.print("  <testcase classname=\"" + escape(className) + "\" name=\"typeCheck\" time=\"" + seconds(result.nanos) + "\"");
+                if (result.problems.isEmpty() && !result.cached) {
+                    out.println("/>");
+                    continue;
+                }
+                out.println(">");
+                if (!result.problems.isEmpty()) {
+                    out.println("    <failure message=\"" + result.problems.size() + " type checking problem(s)\" type=\"StaticCheck\">");
+                    for (CheckerProblem problem : result.problems) {
+                        out.println(escape(result.path + ": " + problem.getMessage()));
+                    }
+                    out.println("    </failure>");
+                }
+                if (result.cached) {
+                    out.println("    <system-out>result reused from cache</system-out>");
+                }
+                out.println("  </testcase>");
+            }
+            out.println("</testsuite>");
+        } finally {
+            out.close();
+        }
+    }
+
+    private static String seconds(long nanos) {
+        return String.format(Locale.ENGLISH, "%.3f", nanos / 1000000000.0);
+    }
+
+    private static String escape(String text) {
+        StringBuilder sb = new StringBuilder(text.length());
+        for (int i = 0, n = text.length(); i < n; i += 1) {
+            char c = text.charAt(i);
+            switch (c) {
+            case '<':
+                sb.append("&lt;");
+                break;
+            case '>':
+                sb.append("&gt;");
+                break;
+            case '&':
+                sb.append("&amp;");
+                break;
+            case '"':
+                sb.append("&quot;");
+                break;
+            default:
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -15,11 +15,19 @@
  */
 package org.codehaus.groovy.eclipse.dsl.checker;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.StringTokenizer;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.codehaus.groovy.ast.Comment;
 import org.codehaus.jdt.groovy.model.GroovyCompilationUnit;
@@ -40,50 +48,104 @@ import org.eclipse.jdt.groovy.search.TypeInferencingVisitorWithRequestor;
 import org.eclipse.jdt.internal.core.util.Util;
 
 /**
- * Performs static checking on all groovy files contained in the resource passed in
+ * Performs static checking on all groovy files contained in the resource passed in.
+ * Files may be checked concurrently (see {@link #setNumThreads(int)}), but the
+ * handler always receives the start of each resource followed by its results
+ * serially and in resource order.
  * @author andrew
  * @created Aug 29, 2011
  */
 public class ResourceTypeChecker {
     
+    /**
+     * Collects the resources to report, in visiting order, and the files to check.
+     */
     class CheckerVisitor implements IResourceVisitor {
-        private IProgressMonitor monitor;
+        private final IProgressMonitor monitor;
+        private final List<IResource> visited;
+        private final Map<IResource, FileChecker> checkers;
 
-        CheckerVisitor(IProgressMonitor monitor) {
+        CheckerVisitor(IProgressMonitor monitor, List<IResource> visited, Map<IResource, FileChecker> checkers) {
             this.monitor = monitor;
+            this.visited = visited;
+            this.checkers = checkers;
         }
 
         public boolean visit(IResource resource) throws CoreException {
             if (resource.isDerived()) {
                 return false;
             }
-            
-            handler.handleResourceStart(resource);
-            
+            if (monitor.isCanceled()) {
+                throw new OperationCanceledException();
+            }
+
+            visited.add(resource);
+
             if (resource.getType() == IResource.FILE && ContentTypeUtils.isGroovyLikeFileName(resource.getName())) {
                 if (Util.isExcluded(resource, includes, excludes)) {
                     return false;
                 }
-                
-                GroovyCompilationUnit unit = (GroovyCompilationUnit) JavaCore.create((IFile) resource);
-                if (unit != null && unit.isOnBuildPath()) {
-                    if (monitor.isCanceled()) {
-                        throw new OperationCanceledException();
-                    }
-                    monitor.subTask(resource.getName());
-                    handler.setResource((IFile) resource);
-                    Map<Integer, String> commentsMap = findComments(unit);
-                    StaticTypeCheckerRequestor requestor = new StaticTypeCheckerRequestor(handler, commentsMap, onlyAssertions);
-                    TypeInferencingVisitorWithRequestor visitor = new TypeInferencingVisitorFactory().createVisitor(unit);
-                    try {
-                        unit.becomeWorkingCopy(monitor);
-                        visitor.visitCompilationUnit(requestor);
-                    } finally {
-                        unit.discardWorkingCopy();
+                checkers.put(resource, new FileChecker((IFile) resource, monitor));
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Checks a single file.  Each file gets its own requestor, visitor and
+     * lookups, so files can be checked concurrently.
+     */
+    class FileChecker implements Callable<List<CheckerProblem>> {
+        private final IFile file;
+        private final IProgressMonitor monitor;
+        private long nanos;
+        private boolean cached;
+
+        FileChecker(IFile file, IProgressMonitor monitor) {
+            this.file = file;
+            this.monitor = monitor;
+        }
+
+        public List<CheckerProblem> call() throws CoreException {
+            long start = System.nanoTime();
+            try {
+                GroovyCompilationUnit unit = (GroovyCompilationUnit) JavaCore.create(file);
+                if (unit == null || !unit.isOnBuildPath()) {
+                    return null;
+                }
+                if (monitor.isCanceled()) {
+                    throw new OperationCanceledException();
+                }
+                String contentHash = null;
+                if (cache != null) {
+                    contentHash = CheckerResultCache.hash(unit.getContents());
+                    List<CheckerProblem> problems = cache.get(file, contentHash);
+                    if (problems != null) {
+                        cached = true;
+                        return problems;
                     }
                 }
+                synchronized (monitor) {
+                    monitor.subTask(file.getName());
+                }
+
+                CollectingStaticCheckerHandler collector = new CollectingStaticCheckerHandler();
+                Map<Integer, String> commentsMap = findComments(unit);
+                StaticTypeCheckerRequestor requestor = new StaticTypeCheckerRequestor(collector, commentsMap, onlyAssertions);
+                TypeInferencingVisitorWithRequestor visitor = new TypeInferencingVisitorFactory().createVisitor(unit);
+                try {
+                    unit.becomeWorkingCopy(null);
+                    visitor.visitCompilationUnit(requestor);
+                } finally {
+                    unit.discardWorkingCopy();
+                }
+                if (cache != null) {
+                    cache.put(file, contentHash, collector.problems);
+                }
+                return collector.problems;
+            } finally {
+                nanos = System.nanoTime() - start;
             }
-            return true;
         }
 
         private Map<Integer, String> findComments(GroovyCompilationUnit unit) {
@@ -129,7 +191,11 @@ public class ResourceTypeChecker {
     protected boolean onlyAssertions;
     protected final char[][] includes;
     protected final char[][] excludes;
-    
+
+    private int numThreads = 1;
+    private CheckerResultCache cache;
+    private JUnitReportWriter reportWriter;
+
     public ResourceTypeChecker(IStaticCheckerHandler handler, String projectName, char[][] includes, char[][] excludes, boolean onlyAssertions) {
         this(handler, createProject(projectName), includes, excludes, onlyAssertions);
     }
@@ -142,6 +208,35 @@ public class ResourceTypeChecker {
         this.onlyAssertions = onlyAssertions;
     }
 
+    /**
+     * @param numThreads number of files to check concurrently; 1 (the default) checks serially
+     */
+    public void setNumThreads(int numThreads) {
+        this.numThreads = Math.max(1, numThreads);
+    }
+
+    /**
+     * @param cache results of unchanged files are taken from here instead of being recomputed; may be null
+     */
+    public void setResultCache(CheckerResultCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * @param reportWriter receives the per-file results and timings; may be null
+     */
+    public void setReportWriter(JUnitReportWriter reportWriter) {
+        this.reportWriter = reportWriter;
+    }
+
+    public List<IProject> getProjects() {
+        Set<IProject> projects = new LinkedHashSet<IProject>();
+        for (IResource resource : resources) {
+            projects.add(resource.getProject());
+        }
+        return new ArrayList<IProject>(projects);
+    }
+
     private static List<IResource> createProject(String projectName) {
         IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject(projectName);
         if (!GroovyNature.hasGroovyNature(project)) {
@@ -160,15 +255,74 @@ public class ResourceTypeChecker {
         if (monitor == null) {
             monitor = new NullProgressMonitor();
         }
-        monitor.beginTask("Static type analysis", resources.size());
+        List<IResource> visited = new ArrayList<IResource>();
+        Map<IResource, FileChecker> checkers = new HashMap<IResource, FileChecker>();
         for (IResource resource : resources) {
             if (monitor.isCanceled()) {
                 throw new OperationCanceledException();
             }
-            CheckerVisitor visitor = new CheckerVisitor(monitor);
-            resource.accept(visitor);
-            monitor.worked(1);
+            resource.accept(new CheckerVisitor(monitor, visited, checkers));
         }
+
+        monitor.beginTask("Static type analysis", checkers.size());
+        ExecutorService pool = null;
+        Map<FileChecker, Future<List<CheckerProblem>>> results = null;
+        if (numThreads > 1 && checkers.size() > 1) {
+            pool = Executors.newFixedThreadPool(numThreads);
+            results = new HashMap<FileChecker, Future<List<CheckerProblem>>>();
+            for (IResource resource : visited) {
+                FileChecker checker = checkers.get(resource);
+                if (checker != null) {
+                    results.put(checker, pool.submit(checker));
+                }
+            }
+        }
+        try {
+            // each resource is started and its results reported before the next one, regardless of completion order
+            for (IResource resource : visited) {
+                handler.handleResourceStart(resource);
+                FileChecker checker = checkers.get(resource);
+                if (checker != null) {
+                    report(checker, results != null ? getResult(results.get(checker)) : checker.call());
+                    monitor.worked(1);
+                }
+            }
+        } catch (InterruptedException e) {
+            throw new OperationCanceledException();
+        } finally {
+            if (pool != null) {
+                pool.shutdownNow();
+            }
+        }
+        monitor.done();
         return handler.finish(null);
     }
+
+    private void report(FileChecker checker, List<CheckerProblem> problems) {
+        if (problems == null) {
+            return; // not on build path
+        }
+        handler.setResource(checker.file);
+        for (CheckerProblem problem : problems) {
+            problem.replay(handler);
+        }
+        if (reportWriter != null) {
+            reportWriter.addResult(checker.file, problems, checker.nanos, checker.cached);
+        }
+    }
+
+    private static List<CheckerProblem> getResult(Future<List<CheckerProblem>> future) throws CoreException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof CoreException) {
+                throw (CoreException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new RuntimeException(cause);
+        }
+    }
 }
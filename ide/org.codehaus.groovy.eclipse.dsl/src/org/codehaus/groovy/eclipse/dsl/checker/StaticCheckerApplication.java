@@ -74,7 +74,30 @@ public class StaticCheckerApplication implements IApplication {
             try {
                 IStaticCheckerHandler handler = new SysoutStaticCheckerHandler(resultFile == null ? System.out : createOutStream(resultFile));
                 ResourceTypeChecker checker = new ResourceTypeChecker(handler, projectName, inclusionFilters, exclusionFilters, assertionsOnly);
+                checker.setNumThreads(numThreads);
+                CheckerResultCache cache = null;
+                if (useCache) {
+                    cache = CheckerResultCache.forProject(project);
+                    cache.load(CheckerResultCache.fingerprint(checker.getProjects(), assertionsOnly));
+                    checker.setResultCache(cache);
+                }
+                JUnitReportWriter reportWriter = null;
+                if (reportFile != null) {
+                    reportWriter = new JUnitReportWriter(new File(reportFile));
+                    checker.setReportWriter(reportWriter);
+                }
+
+                long start = System.nanoTime();
                 success = checker.doCheck(null);
+                System.out.println(String.format("Static type checking took %.2fs", (System.nanoTime() - start) / 1000000000.0));
+
+                if (cache != null) {
+                    cache.save();
+                    System.out.println("Reused " + cache.getHits() + " cached results, checked " + cache.getMisses() + " files");
+                }
+                if (reportWriter != null) {
+                    reportWriter.write();
+                }
             } catch (Exception e) {
                 e.printStackTrace();
             } finally {
@@ -127,6 +150,9 @@ public class StaticCheckerApplication implements IApplication {
     private String projectFolderPath;
     Display display;
     private String resultFile;
+    private String reportFile;
+    private boolean useCache;
+    private int numThreads = 1;
     
     public Object start(IApplicationContext context) throws Exception {
         processCommandLine((String[]) context.getArguments().get(IApplicationContext.APPLICATION_ARGS));
@@ -248,6 +274,28 @@ public class StaticCheckerApplication implements IApplication {
                     break;
                 }
                 projectFolderPath = args[++i];
+            } else if (arg.equals("--report_file")) {
+                if (i == args.length-1) {
+                    System.err.println("Missing --report_file argument");
+                    doHelp = true;
+                    break;
+                }
+                reportFile = args[++i];
+            } else if (arg.equals("--threads")) {
+                if (i == args.length-1) {
+                    System.err.println("Missing --threads argument");
+                    doHelp = true;
+                    break;
+                }
+                try {
+                    numThreads = Integer.parseInt(args[++i]);
+                } catch (NumberFormatException e) {
+                    System.err.println("Invalid --threads argument: " + args[i]);
+                    doHelp = true;
+                    break;
+                }
+            } else if (arg.equals("--cache")) {
+                useCache = true;
             } else if (arg.equals("--result_file")) {
                 if (i == args.length-1) {
                     System.err.println("Missing --result_file argument");
@@ -285,7 +333,7 @@ public class StaticCheckerApplication implements IApplication {
         }
         
         System.out.println("Usage:");
-        System.out.println("eclipse -application org.codehause.groovy.eclipse.staticCheck [--help] [-h] [--extra_dslds <FILES>] [--assertions_only] [--excludes <PATH>] [--includes <PATH>] [--project_path <PATH>] <PROJECT_NAME>");
+        System.out.println("eclipse -application org.codehause.groovy.eclipse.staticCheck [--help] [-h] [--extra_dslds <FILES>] [--assertions_only] [--excludes <PATH>] [--includes <PATH>] [--project_path <PATH>] [--result_file <PATH>] [--report_file <PATH>] [--threads <N>] [--cache] <PROJECT_NAME>");
         System.out.println("where:");
         System.out.println("\t--help OR -h  Print this message and exit.");
         System.out.println("\t--extra_dslds  list of extra dsld files to be included in this check.  Use '|' as a file separator.");
@@ -294,6 +342,9 @@ public class StaticCheckerApplication implements IApplication {
         System.out.println("\t--includes  Project-relative inclusion filters.");
         System.out.println("\t--project_path  File system path to the project to check (only required if project is not already in workspace).");
         System.out.println("\t--result_file  File to send static checking results to.  If not specified, then results sent to sysout.");
+        System.out.println("\t--report_file  File to write a JUnit XML report with per-file results and timings to.");
+        System.out.println("\t--threads  Number of files to check concurrently.  Defaults to 1.");
+        System.out.println("\t--cache  Skip files whose contents, classpath and DSLDs are unchanged since the last cached run.");
         System.out.println("\t<PROJECT_NAME>  Name of a project to type check.  If not already in workspace, then must also use '--project_path'.");
         System.out.println();
         System.out.println("Ant style filters are allowed.  Eg, src/org/codehaus/groovy/**/*.groovy means all files with groovy extensions in the org.codehaus.groovy package or below will be ex/included   Filters can be concentenated using '|'.");
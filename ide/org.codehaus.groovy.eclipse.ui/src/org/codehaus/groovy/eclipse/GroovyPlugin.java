@@ -21,6 +21,7 @@ import org.codehaus.groovy.eclipse.debug.ui.GroovyDebugOptionsEnforcer;
 import org.codehaus.groovy.eclipse.debug.ui.GroovyJavaDebugElementAdapterFactory;
 import org.codehaus.groovy.eclipse.editor.GroovyOutlineTools;
 import org.codehaus.groovy.eclipse.editor.GroovyTextTools;
+import org.codehaus.groovy.eclipse.editor.highlighting.HighlightingSnapshots;
 import org.codehaus.groovy.eclipse.refactoring.actions.DelegatingCleanUpPostSaveListener;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Platform;
@@ -132,6 +133,7 @@ public class GroovyPlugin extends AbstractUIPlugin {
 
         DelegatingCleanUpPostSaveListener.uninstallCleanUp();
         removeMonospaceFontListener();
+        HighlightingSnapshots.dispose();
     }
 
     private void addMonospaceFontListener() {
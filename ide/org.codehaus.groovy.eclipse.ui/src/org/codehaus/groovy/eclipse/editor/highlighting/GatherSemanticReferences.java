@@ -21,6 +21,7 @@ import java.util.Collections;
 import org.codehaus.groovy.eclipse.GroovyPlugin;
 import org.codehaus.groovy.eclipse.core.GroovyCore;
 import org.codehaus.groovy.eclipse.core.preferences.PreferenceConstants;
+import org.codehaus.groovy.eclipse.core.search.ReferencesIndex;
 import org.codehaus.jdt.groovy.model.GroovyCompilationUnit;
 import org.eclipse.jdt.groovy.search.TypeInferencingVisitorFactory;
 import org.eclipse.jdt.groovy.search.TypeInferencingVisitorWithRequestor;
@@ -43,7 +44,10 @@ public class GatherSemanticReferences {
             try { // TODO: Time this tasks components and find opportunities to make it run faster.
                 SemanticHighlightingReferenceRequestor requestor = new SemanticHighlightingReferenceRequestor(unit);
                 TypeInferencingVisitorWithRequestor visitor = factory.createVisitor(unit);
-                visitor.visitCompilationUnit(requestor);
+                // record references for mark occurrences while the unit is visited anyway
+                ReferencesIndex index = new ReferencesIndex();
+                visitor.visitCompilationUnit(index.alongside(requestor));
+                index.attachTo(visitor.getModuleNode());
                 return requestor.typedPosition;
             } catch (Exception e) {
                 GroovyCore.logException("Semantic highlighting gather failed", e);
@@ -52,7 +56,7 @@ public class GatherSemanticReferences {
         return Collections.emptySet();
     }
 
-    private static boolean isSemanticHighlightingEnabled() {
+    static boolean isSemanticHighlightingEnabled() {
         IPreferenceStore prefs = GroovyPlugin.getDefault().getPreferenceStore();
         return prefs.getBoolean(PreferenceConstants.GROOVY_SEMANTIC_HIGHLIGHTING);
     }
@@ -23,6 +23,7 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -35,6 +36,10 @@ import org.codehaus.groovy.eclipse.core.preferences.PreferenceConstants;
 import org.codehaus.groovy.eclipse.editor.GroovyEditor;
 import org.codehaus.jdt.groovy.model.GroovyCompilationUnit;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.core.compiler.CharOperation;
 import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.groovy.core.util.ReflectionUtils;
 import org.eclipse.jdt.internal.ui.JavaPlugin;
@@ -99,6 +104,11 @@ public class GroovySemanticReconciler implements IJavaReconcilingListener {
     private SemanticHighlightingPresenter presenter;
     private final Semaphore lock = new Semaphore(1, true);
 
+    // guards the presentation of a snapshot against the first reconcile
+    private final Object snapshotLock = new Object();
+    private volatile boolean reconciledOnce;
+    private volatile String snapshotHash;
+
     // make these configurable
     private Object mapKeyHighlighting;
     private Object tagKeyHighlighting;
@@ -201,6 +211,56 @@ public class GroovySemanticReconciler implements IJavaReconcilingListener {
         this.editor = editor;
         presenter = new SemanticHighlightingPresenter();
         presenter.install(viewer, (JavaPresentationReconciler) editor.getGroovyConfiguration().getPresentationReconciler(viewer));
+        presentSnapshot();
+    }
+
+    /**
+     * Shows the highlighting of the previous session if the unit is unchanged
+     * and the editor has not been reconciled yet.
+     */
+    private void presentSnapshot() {
+        final GroovyCompilationUnit unit = editor.getGroovyCompilationUnit();
+        if (unit == null || !GatherSemanticReferences.isSemanticHighlightingEnabled()) {
+            return;
+        }
+        Job job = new Job("Groovy semantic highlighting snapshot") {
+            @Override
+            protected IStatus run(IProgressMonitor monitor) {
+                List<HighlightedTypedPosition> snapshot = HighlightingSnapshots.getDefault().load(unit);
+                if (snapshot != null && !reconciledOnce && lock.tryAcquire()) {
+                    try {
+                        SemanticHighlightingPresenter thisPresenter = presenter;
+                        if (thisPresenter != null && !reconciledOnce) {
+                            snapshotHash = HighlightingSnapshots.hash(unit.getContents());
+                            List<Position> newPositions = new ArrayList<Position>(snapshot.size());
+                            addHighlightedPositions(snapshot, newPositions, new LinkedList<Position>());
+                            List<Position> oldPositions = Collections.emptyList();
+                            TextPresentation textPresentation = thisPresenter.createPresentation(newPositions, oldPositions);
+                            final Runnable runnable = thisPresenter.createUpdateRunnable(textPresentation, newPositions, oldPositions);
+                            if (runnable != null) {
+                                asyncExec(new Runnable() {
+                                    public void run() {
+                                        synchronized (snapshotLock) {
+                                            if (!reconciledOnce) {
+                                                runnable.run();
+                                            }
+                                        }
+                                    }
+                                });
+                            }
+                        }
+                    } catch (Exception e) {
+                        GroovyCore.logException("Semantic highlighting snapshot failed", e);
+                    } finally {
+                        lock.release();
+                    }
+                }
+                return Status.OK_STATUS;
+            }
+        };
+        job.setSystem(true);
+        job.setPriority(Job.SHORT);
+        job.schedule();
     }
 
     public void uninstall() {
@@ -219,9 +279,14 @@ public class GroovySemanticReconciler implements IJavaReconcilingListener {
             monitor.beginTask("Groovy semantic highlighting", 10);
             GroovyCompilationUnit unit = editor.getGroovyCompilationUnit();
             if (unit != null) {
+                synchronized (snapshotLock) {
+                    // a snapshot that is not shown yet never will be
+                    reconciledOnce = true;
+                }
                 presenter.setCanceled(monitor.isCanceled());
                 if (update(monitor, 1)) return;
 
+                char[] contents = unit.getContents();
                 GatherSemanticReferences finder = new GatherSemanticReferences(unit);
                 Collection<HighlightedTypedPosition> semanticReferences = finder.findSemanticHighlightingReferences();
                 if (update(monitor, 5)) return;
@@ -230,35 +295,7 @@ public class GroovySemanticReconciler implements IJavaReconcilingListener {
                 List<Position> oldPositions = new LinkedList<Position>(getHighlightedPositions());
                 if (update(monitor, 1)) return;
 
-                HighlightedTypedPosition last = null; Position x = null;
-                for (HighlightedTypedPosition ref : semanticReferences) {
-                    if (ref.compareTo(last) != 0) {
-                        Position pos = newHighlightedPosition(ref);
-                        x = tryAddPosition(newPositions, oldPositions, pos);
-
-                    } else if (GET_HIGHLIGHTING != null && (ref.kind == DEPRECATED || ref.kind == UNKNOWN)) {
-                        // this and last cover same source range and this indicates deprecated or unknown
-                        Position pos = !newPositions.isEmpty() ? newPositions.get(newPositions.size() - 1) : null;
-                        if (ref.compareTo(pos) != 0) {
-                            if (ref.compareTo(x) == 0) {
-                                pos = newHighlightedPosition(last);
-                                newPositions.add(pos);
-                                oldPositions.add(x);
-                            } else {
-                                GroovyPlugin.getDefault().logWarning(
-                                    String.format("Failed to apply %s semantic at %s",
-                                    ref.kind.name().toLowerCase(), ((Position) ref).toString()));
-                                continue; // logic error?
-                            }
-                        }
-                        Object style = GET_HIGHLIGHTING.invoke(pos);
-                        TextAttribute one = getTextAttribute(style);
-                        TextAttribute two = getTextAttribute(ref.kind == DEPRECATED ? deprecatedRefHighlighting : undefinedRefHighlighting);
-                        // merge the text styling assigned to deprecated or unknown (usually strikethrough for deprecated and underline for unknown)
-                        ReflectionUtils.setPrivateField(pos.getClass(), "fStyle", pos, newHighlightingStyle(one.getForeground(), one.getStyle() | two.getStyle()));
-                    }
-                    last = ref;
-                }
+                addHighlightedPositions(semanticReferences, newPositions, oldPositions);
                 if (update(monitor, 2)) return;
 
                 TextPresentation textPresentation = null;
@@ -268,6 +305,7 @@ public class GroovySemanticReconciler implements IJavaReconcilingListener {
                 if (!presenter.isCanceled()) {
                     updatePresentation(textPresentation, newPositions, oldPositions);
                 }
+                saveSnapshot(unit, contents, semanticReferences);
                 update(monitor, 1);
             }
         } catch (Exception e) {
@@ -278,6 +316,54 @@ public class GroovySemanticReconciler implements IJavaReconcilingListener {
         }
     }
 
+    /**
+     * Remembers the highlighting of a unit that is unchanged from its file, for
+     * presentation in the next session.
+     */
+    private void saveSnapshot(GroovyCompilationUnit unit, char[] contents, Collection<HighlightedTypedPosition> semanticReferences) throws Exception {
+        if (GatherSemanticReferences.isSemanticHighlightingEnabled() &&
+                !unit.hasUnsavedChanges() && CharOperation.equals(contents, unit.getContents())) {
+            String hash = HighlightingSnapshots.hash(contents);
+            if (!hash.equals(snapshotHash)) {
+                HighlightingSnapshots.getDefault().save(unit, hash, semanticReferences);
+                snapshotHash = hash;
+            }
+        }
+    }
+
+    private void addHighlightedPositions(Collection<HighlightedTypedPosition> semanticReferences,
+            List<Position> newPositions, List<Position> oldPositions) throws Exception {
+        HighlightedTypedPosition last = null; Position x = null;
+        for (HighlightedTypedPosition ref : semanticReferences) {
+            if (ref.compareTo(last) != 0) {
+                Position pos = newHighlightedPosition(ref);
+                x = tryAddPosition(newPositions, oldPositions, pos);
+
+            } else if (GET_HIGHLIGHTING != null && (ref.kind == DEPRECATED || ref.kind == UNKNOWN)) {
+                // this and last cover same source range and this indicates deprecated or unknown
+                Position pos = !newPositions.isEmpty() ? newPositions.get(newPositions.size() - 1) : null;
+                if (ref.compareTo(pos) != 0) {
+                    if (ref.compareTo(x) == 0) {
+                        pos = newHighlightedPosition(last);
+                        newPositions.add(pos);
+                        oldPositions.add(x);
+                    } else {
+                        GroovyPlugin.getDefault().logWarning(
+                            String.format("Failed to apply %s semantic at %s",
+                            ref.kind.name().toLowerCase(), ((Position) ref).toString()));
+                        continue; // logic error?
+                    }
+                }
+                Object style = GET_HIGHLIGHTING.invoke(pos);
+                TextAttribute one = getTextAttribute(style);
+                TextAttribute two = getTextAttribute(ref.kind == DEPRECATED ? deprecatedRefHighlighting : undefinedRefHighlighting);
+                // merge the text styling assigned to deprecated or unknown (usually strikethrough for deprecated and underline for unknown)
+                ReflectionUtils.setPrivateField(pos.getClass(), "fStyle", pos, newHighlightingStyle(one.getForeground(), one.getStyle() | two.getStyle()));
+            }
+            last = ref;
+        }
+    }
+
     /**
      * Ensures that only one thread at a time performs this task.
      */
@@ -404,6 +490,10 @@ public class GroovySemanticReconciler implements IJavaReconcilingListener {
         if (runnable == null)
             return;
 
+        asyncExec(runnable);
+    }
+
+    private void asyncExec(Runnable runnable) {
         JavaEditor thisEditor = editor;
         if (thisEditor == null)
             return;
@@ -0,0 +1,356 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.editor.highlighting;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileFilter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.codehaus.groovy.eclipse.GroovyPlugin;
+import org.codehaus.groovy.eclipse.editor.highlighting.HighlightedTypedPosition.HighlightKind;
+import org.codehaus.jdt.groovy.model.GroovyCompilationUnit;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+
+/**
+ * Remembers the semantic highlighting of Groovy files between sessions, so that
+ * an editor that is restored with the workbench can show it right away instead
+ * of after its first reconcile.  A snapshot is shown only if the content hash
+ * of the unit and the fingerprint of its project's resolved classpath are the
+ * same as when it was taken; the reconcile that follows replaces it.
+ * <p>
+ * Other Groovy sources of the project are not part of the fingerprint, so a
+ * snapshot may briefly show highlighting that a change to another file has made
+ * out of date.
+ * <p>
+ * The fingerprint of a project is computed once and remembered until its
+ * classpath or one of its archives changes.  Only the most recently used
+ * snapshots are kept; the least recently used ones are deleted once there are
+ * more than the maximum, so snapshots of deleted files and projects go too.
+ */
+public class HighlightingSnapshots {
+
+    private static final int FORMAT = 1;
+
+    private static final int MAX_SNAPSHOTS = 500;
+
+    private static HighlightingSnapshots instance;
+
+    private static final Map<IJavaProject, String> fingerprints = new ConcurrentHashMap<IJavaProject, String>();
+
+    // incremented whenever fingerprints are forgotten
+    private static final AtomicInteger generation = new AtomicInteger();
+
+    private static IElementChangedListener classpathListener;
+
+    /**
+     * @return the snapshots stored in the state location of the Groovy UI plug-in
+     */
+    public static synchronized HighlightingSnapshots getDefault() {
+        if (instance == null) {
+            instance = new HighlightingSnapshots(GroovyPlugin.getDefault().getStateLocation().append("highlighting").toFile());
+        }
+        return instance;
+    }
+
+    private final File directory;
+    private final int maxSnapshots;
+
+    // number of snapshots in the directory; -1 until first counted
+    private int snapshotCount = -1;
+
+    public HighlightingSnapshots(File directory) {
+        this(directory, MAX_SNAPSHOTS);
+    }
+
+    public HighlightingSnapshots(File directory, int maxSnapshots) {
+        this.directory = directory;
+        this.maxSnapshots = maxSnapshots;
+    }
+
+    /**
+     * @return the highlighting of the unit's current contents or {@code null}
+     *         if there is no snapshot or it was taken of other contents or with
+     *         another classpath
+     */
+    public List<HighlightedTypedPosition> load(GroovyCompilationUnit unit) {
+        File file = fileOf(unit);
+        if (file == null || !file.isFile()) {
+            return null;
+        }
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            if (in.readInt() != FORMAT || !in.readUTF().equals(hash(unit.getContents())) ||
+                    !in.readUTF().equals(fingerprint(unit.getJavaProject()))) {
+                return null;
+            }
+            HighlightKind[] kinds = HighlightKind.values();
+            int n = in.readInt();
+            List<HighlightedTypedPosition> positions = new ArrayList<HighlightedTypedPosition>(n);
+            for (int i = 0; i < n; i += 1) {
+                int offset = in.readInt(), length = in.readInt();
+                positions.add(new HighlightedTypedPosition(offset, length, kinds[in.readUnsignedByte()]));
+            }
+            file.setLastModified(System.currentTimeMillis());
+            return positions;
+        } catch (Exception e) {
+            GroovyPlugin.getDefault().logError("Ignoring unreadable highlighting snapshot " + file, e);
+            return null;
+        } finally {
+            close(in);
+        }
+    }
+
+    /**
+     * Stores the highlighting of the unit's contents that have the given hash.
+     */
+    public void save(GroovyCompilationUnit unit, String contentHash, Collection<HighlightedTypedPosition> positions) {
+        File file = fileOf(unit);
+        if (file == null) {
+            return;
+        }
+        DataOutputStream out = null;
+        boolean added = !file.exists(), saved = false;
+        try {
+            String fingerprint = fingerprint(unit.getJavaProject());
+            directory.mkdirs();
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+            out.writeInt(FORMAT);
+            out.writeUTF(contentHash);
+            out.writeUTF(fingerprint);
+            out.writeInt(positions.size());
+            for (HighlightedTypedPosition position : positions) {
+                out.writeInt(position.offset);
+                out.writeInt(position.length);
+                out.writeByte(position.kind.ordinal());
+            }
+            saved = true;
+        } catch (Exception e) {
+            GroovyPlugin.getDefault().logError("Unable to save highlighting snapshot " + file, e);
+        } finally {
+            close(out);
+            if (!saved) {
+                file.delete();
+            }
+        }
+        if (saved && added) {
+            snapshotAdded();
+        }
+    }
+
+    /**
+     * Deletes the least recently used snapshots once there are too many, down
+     * to three quarters of the maximum so that it is not done on every save.
+     */
+    private synchronized void snapshotAdded() {
+        if (snapshotCount < 0) {
+            snapshotCount = listSnapshots().length;
+        } else {
+            snapshotCount += 1;
+        }
+        if (snapshotCount > maxSnapshots) {
+            File[] files = listSnapshots();
+            final long[] lastUsed = new long[files.length];
+            List<Integer> order = new ArrayList<Integer>(files.length);
+            for (int i = 0; i < files.length; i += 1) {
+                lastUsed[i] = files[i].lastModified();
+                order.add(i);
+            }
+            Collections.sort(order, new Comparator<Integer>() {
+                public int compare(Integer a, Integer b) {
+                    return lastUsed[a] < lastUsed[b] ? -1 : (lastUsed[a] == lastUsed[b] ? 0 : 1);
+                }
+            });
+            int keep = maxSnapshots - maxSnapshots / 4;
+            for (int i = 0, n = files.length - keep; i < n; i += 1) {
+                files[order.get(i)].delete();
+            }
+            snapshotCount = listSnapshots().length;
+        }
+    }
+
+    private File[] listSnapshots() {
+        File[] files = directory.listFiles(new FileFilter() {
+            public boolean accept(File file) {
+                return file.getName().endsWith(".snapshot");
+            }
+        });
+        return files != null ? files : new File[0];
+    }
+
+    private File fileOf(GroovyCompilationUnit unit) {
+        IResource resource = unit.getResource();
+        if (resource == null) {
+            return null;
+        }
+        return new File(directory, hash(resource.getFullPath().toPortableString().toCharArray()) + ".snapshot");
+    }
+
+    //--------------------------------------------------------------------------
+
+    public static String hash(char[] contents) {
+        MessageDigest digest = newDigest();
+        for (char c : contents) {
+            digest.update((byte) (c >> 8));
+            digest.update((byte) c);
+        }
+        return toHex(digest.digest());
+    }
+
+    private static synchronized void ensureClasspathListener() {
+        if (classpathListener == null) {
+            classpathListener = new IElementChangedListener() {
+                public void elementChanged(ElementChangedEvent event) {
+                    IJavaElementDelta delta = event.getDelta();
+                    if (delta != null) {
+                        for (IJavaElementDelta child : delta.getAffectedChildren()) {
+                            if (child.getElement() instanceof IJavaProject && (child.getKind() != IJavaElementDelta.CHANGED ||
+                                    (child.getFlags() & (IJavaElementDelta.F_CLASSPATH_CHANGED | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED |
+                                        IJavaElementDelta.F_OPENED | IJavaElementDelta.F_CLOSED)) != 0 || hasArchiveChanged(child))) {
+                                forgetFingerprint((IJavaProject) child.getElement());
+                            }
+                        }
+                    }
+                }
+            };
+            JavaCore.addElementChangedListener(classpathListener, ElementChangedEvent.POST_CHANGE);
+        }
+    }
+
+    private static boolean hasArchiveChanged(IJavaElementDelta projectDelta) {
+        for (IJavaElementDelta child : projectDelta.getAffectedChildren()) {
+            if ((child.getFlags() & IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void forgetFingerprint(IJavaProject javaProject) {
+        generation.incrementAndGet();
+        fingerprints.remove(javaProject);
+    }
+
+    /**
+     * Stops remembering the fingerprints of projects.
+     */
+    public static synchronized void dispose() {
+        if (classpathListener != null) {
+            JavaCore.removeElementChangedListener(classpathListener);
+            classpathListener = null;
+        }
+        generation.incrementAndGet();
+        fingerprints.clear();
+    }
+
+    /**
+     * @return the fingerprint of the project's resolved classpath, including
+     *         the time stamps of its archives, and of the kinds of highlighting
+     */
+    public static String fingerprint(IJavaProject javaProject) throws JavaModelException {
+        String fingerprint = fingerprints.get(javaProject);
+        if (fingerprint == null) {
+            ensureClasspathListener();
+            int before = generation.get();
+            fingerprint = computeFingerprint(javaProject);
+            // a change may have been reported while the classpath was read
+            if (generation.get() == before) {
+                fingerprints.put(javaProject, fingerprint);
+            }
+        }
+        return fingerprint;
+    }
+
+    private static String computeFingerprint(IJavaProject javaProject) throws JavaModelException {
+        MessageDigest digest = newDigest();
+        update(digest, Arrays.toString(HighlightKind.values()));
+        for (IClasspathEntry entry : javaProject.getResolvedClasspath(true)) {
+            IPath path = entry.getPath();
+            update(digest, path.toPortableString());
+            if (entry.getEntryKind() == IClasspathEntry.CPE_LIBRARY) {
+                IResource resource = ResourcesPlugin.getWorkspace().getRoot().findMember(path);
+                File file = (resource != null && resource.getLocation() != null) ? resource.getLocation().toFile() : path.toFile();
+                if (file.isFile()) {
+                    update(digest, String.valueOf(file.lastModified()));
+                    update(digest, String.valueOf(file.length()));
+                }
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        try {
+            digest.update(value.getBytes("UTF-8"));
+            digest.update((byte) 0);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    private static void close(Closeable stream) {
+        if (stream != null) {
+            try {
+                stream.close();
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+    }
+}
@@ -42,13 +42,12 @@ import org.codehaus.groovy.ast.expr.MethodCallExpression;
 import org.codehaus.groovy.ast.expr.StaticMethodCallExpression;
 import org.codehaus.groovy.eclipse.codebrowsing.requestor.CodeSelectHelper;
 import org.codehaus.groovy.eclipse.core.search.FindAllReferencesRequestor;
+import org.codehaus.groovy.eclipse.core.search.ReferencesIndex;
 import org.codehaus.jdt.groovy.model.GroovyCompilationUnit;
 import org.eclipse.jdt.core.ITypeRoot;
 import org.eclipse.jdt.core.SourceRange;
 import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.groovy.core.util.ReflectionUtils;
-import org.eclipse.jdt.groovy.search.TypeInferencingVisitorFactory;
-import org.eclipse.jdt.groovy.search.TypeInferencingVisitorWithRequestor;
 import org.eclipse.jdt.internal.ui.search.FindOccurrencesEngine;
 
 public class GroovyOccurrencesFinder {
@@ -151,11 +150,12 @@ public class GroovyOccurrencesFinder {
                 !(nodeToLookFor instanceof DeclarationExpression) &&
                 !(nodeToLookFor instanceof BinaryExpression) &&
                 !(nodeToLookFor instanceof MethodCallExpression)) {
-            FindAllReferencesRequestor requestor = new FindAllReferencesRequestor(nodeToLookFor);
-            TypeInferencingVisitorWithRequestor visitor = new TypeInferencingVisitorFactory().createVisitor(gunit);
-            visitor.visitCompilationUnit(requestor);
-            Map<ASTNode, Integer> occurences = requestor.getReferences();
-            return occurences;
+            ReferencesIndex index = ReferencesIndex.get(gunit);
+            if (index != null) {
+                FindAllReferencesRequestor requestor = new FindAllReferencesRequestor(nodeToLookFor);
+                index.findReferences(nodeToLookFor, requestor);
+                return requestor.getReferences();
+            }
         }
         return Collections.emptyMap();
     }
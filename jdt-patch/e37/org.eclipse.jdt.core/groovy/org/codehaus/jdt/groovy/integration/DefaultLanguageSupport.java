@@ -11,11 +11,17 @@
  *******************************************************************************/
 package org.codehaus.jdt.groovy.integration;
 
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
 import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.WorkingCopyOwner;
 import org.eclipse.jdt.core.search.IJavaSearchScope;
+import org.eclipse.jdt.core.search.SearchMatch;
 import org.eclipse.jdt.core.search.SearchPattern;
 import org.eclipse.jdt.core.search.SearchRequestor;
 import org.eclipse.jdt.internal.compiler.CompilationResult;
@@ -105,6 +111,11 @@ class DefaultLanguageSupport implements LanguageSupport {
 		return false;
 	}
 
+	public Map<PossibleMatch, List<SearchMatch>> performDelegatedSearches(PossibleMatch[] possibleMatches, int start, int length,
+			SearchPattern pattern, IProgressMonitor monitor) {
+		return Collections.emptyMap();
+	}
+
 	public EventHandler getEventHandler() {
 		return DefaultEventHandler.instance;
 	}
@@ -11,12 +11,17 @@
  *******************************************************************************/
 package org.codehaus.jdt.groovy.integration;
 
+import java.util.List;
+import java.util.Map;
+
 import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jdt.core.IClassFile;
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.WorkingCopyOwner;
 import org.eclipse.jdt.core.search.IJavaSearchScope;
+import org.eclipse.jdt.core.search.SearchMatch;
 import org.eclipse.jdt.core.search.SearchPattern;
 import org.eclipse.jdt.core.search.SearchRequestor;
 import org.eclipse.jdt.internal.compiler.CompilationResult;
@@ -107,6 +112,23 @@ public interface LanguageSupport {
 	 */
 	boolean maybePerformDelegatedSearch(PossibleMatch possibleMatch, SearchPattern pattern, SearchRequestor requestor);
 
+	/**
+	 * Performs the delegated search for a batch of possible matches at once.  The
+	 * special language support may search the possible matches concurrently; the
+	 * results are buffered and are reported by the caller, each in the place of
+	 * its possible match in the batch, so the SearchRequestor receives them in the
+	 * same order as from a sequential search.  Possible matches that are not in
+	 * the returned map are subsequently passed to
+	 * {@link #maybePerformDelegatedSearch(PossibleMatch, SearchPattern, SearchRequestor)}.
+	 * @param possibleMatches the possible matches to look for
+	 * @param start index of the first possible match of the batch
+	 * @param length number of possible matches in the batch
+	 * @param pattern
+	 * @param monitor progress monitor used for cancellation; may be null
+	 * @return the buffered results of the possible matches for which the search was performed
+	 */
+	Map<PossibleMatch, List<SearchMatch>> performDelegatedSearches(PossibleMatch[] possibleMatches, int start, int length, SearchPattern pattern, IProgressMonitor monitor);
+
 	EventHandler getEventHandler();
 
 	void filterNonSourceMembers(BinaryType binaryType);
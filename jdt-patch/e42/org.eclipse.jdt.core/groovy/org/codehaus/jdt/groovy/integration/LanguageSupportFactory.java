@@ -11,13 +11,19 @@
  *******************************************************************************/
 package org.codehaus.jdt.groovy.integration;
 
+import java.util.List;
+import java.util.Map;
+
 import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.WorkingCopyOwner;
 import org.eclipse.jdt.core.search.IJavaSearchScope;
+import org.eclipse.jdt.core.search.SearchMatch;
 import org.eclipse.jdt.core.search.SearchPattern;
 import org.eclipse.jdt.core.search.SearchRequestor;
 import org.eclipse.jdt.internal.compiler.CompilationResult;
@@ -99,6 +105,29 @@ public class LanguageSupportFactory {
 	public static boolean maybePerformDelegatedSearch(PossibleMatch possibleMatch, SearchPattern pattern, SearchRequestor requestor) {
 		return getLanguageSupport().maybePerformDelegatedSearch(possibleMatch, pattern, requestor);
 	}
+
+	public static Map<PossibleMatch, List<SearchMatch>> performDelegatedSearches(PossibleMatch[] possibleMatches, int start, int length, SearchPattern pattern, IProgressMonitor monitor) {
+		return getLanguageSupport().performDelegatedSearches(possibleMatches, start, length, pattern, monitor);
+	}
+
+	/**
+	 * Reports the buffered results of a possible match, if it was searched with its batch.
+	 * @return true iff the search for the possible match was performed with the batch
+	 */
+	public static boolean reportDelegatedMatches(Map<PossibleMatch, List<SearchMatch>> delegatedMatches, PossibleMatch possibleMatch, SearchRequestor requestor) {
+		List<SearchMatch> matches = delegatedMatches.get(possibleMatch);
+		if (matches == null) {
+			return false;
+		}
+		for (SearchMatch match : matches) {
+			try {
+				requestor.acceptSearchMatch(match);
+			} catch (CoreException e) {
+				Util.log(e, "Error reporting search match " + match); //$NON-NLS-1$
+			}
+		}
+		return true;
+	}
 	
 	/**
 	 * Removes members from this binary type that are not mapped to locations in the 
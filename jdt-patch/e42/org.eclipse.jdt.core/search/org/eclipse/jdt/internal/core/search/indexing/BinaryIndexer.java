@@ -805,12 +805,8 @@ public class BinaryIndexer extends AbstractIndexer implements SuffixConstants {
 				for (Iterator iterator = references.iterator(); iterator.hasNext();) {
 					char[] reference = (char[]) iterator.next();
 					addNameReference(reference);
-					addMethodReference(reference, 0);
-					addMethodReference(reference, 1);
-					addMethodReference(reference, 2);
-					addMethodReference(reference, 3);
-					addMethodReference(reference, 4);
-					addMethodReference(reference, 5);
+					addGroovyDynamicReference(reference);
+					addGroovyPropertyReference(reference);
 				}
 			}
 			// GROOVY end
@@ -91,6 +91,22 @@ public void acceptLineSeparatorPositions(int[] positions) {
 public void acceptMethodReference(char[] methodName, int argCount, int sourcePosition) {
 	this.indexer.addMethodReference(methodName, argCount);
 }
+// GROOVY add
+/**
+ * Records a reference to a method or property whose arity cannot be known
+ * until runtime.  Matched by method reference patterns of any arity.
+ */
+public void acceptGroovyDynamicReference(char[] name, int sourcePosition) {
+	this.indexer.addGroovyDynamicReference(name);
+}
+/**
+ * Records a reference to a property or to one of its accessors.  It is keyed
+ * by the property name, so that all forms are found by a single query.
+ */
+public void acceptGroovyPropertyReference(char[] name, int sourcePosition) {
+	this.indexer.addGroovyPropertyReference(name);
+}
+// GROOVY end
 /**
  * @see ISourceElementRequestor#acceptPackage(ImportReference)
  */
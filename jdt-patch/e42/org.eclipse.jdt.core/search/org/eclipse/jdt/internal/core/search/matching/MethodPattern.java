@@ -49,6 +49,9 @@ boolean methodParameters = false;
 char[][] methodArguments;
 
 protected static char[][] REF_CATEGORIES = { METHOD_REF };
+// GROOVY add
+protected static char[][] GROOVY_REF_CATEGORIES = { GROOVY_DYNAMIC_REF };
+// GROOVY end
 protected static char[][] REF_AND_DECL_CATEGORIES = { METHOD_REF, METHOD_DECL };
 protected static char[][] DECL_CATEGORIES = { METHOD_DECL };
 
@@ -273,6 +276,12 @@ public void decodeIndexKey(char[] key) {
 			this.parameterCount += power * (key[i] - '0');
 		}
 	}
+	// GROOVY add -- dynamic references are keyed by selector alone
+	if (this.selector == null) {
+		this.selector = key;
+		this.parameterCount = -1;
+	}
+	// GROOVY end
 }
 public SearchPattern getBlankPattern() {
 	return new MethodPattern(R_EXACT_MATCH | R_CASE_SENSITIVE);
@@ -296,8 +305,11 @@ public boolean isPolymorphicSearch() {
 public boolean matchesDecodedKey(SearchPattern decodedPattern) {
 	MethodPattern pattern = (MethodPattern) decodedPattern;
 
-	return (this.parameterCount == pattern.parameterCount || this.parameterCount == -1 || this.varargs)
+	// GROOVY edit
+	//return (this.parameterCount == pattern.parameterCount || this.parameterCount == -1 || this.varargs)
+	return (this.parameterCount == pattern.parameterCount || this.parameterCount == -1 || this.varargs || pattern.parameterCount == -1)
 		&& matchesName(this.selector, pattern.selector);
+	// GROOVY end
 }
 /**
  * Returns whether a method declaration or message send must be resolved to
@@ -350,7 +362,26 @@ public EntryResult[] queryIn(Index index) throws IOException {
 			break;
 	}
 
-	return index.query(getIndexCategories(), key, matchRule); // match rule is irrelevant when the key is null
+	// GROOVY edit
+	//return index.query(getIndexCategories(), key, matchRule); // match rule is irrelevant when the key is null
+	EntryResult[] results = index.query(getIndexCategories(), key, matchRule); // match rule is irrelevant when the key is null
+	// only Groovy sources and classes compiled from them have dynamic references
+	if (this.findReferences && index.hasCategory(GROOVY_DYNAMIC_REF)) {
+		// dynamic references have no arity, so query them with the selector alone
+		EntryResult[] dynamicResults = index.query(GROOVY_REF_CATEGORIES, this.selector, getMatchRule());
+		if (dynamicResults != null) {
+			if (results == null) {
+				results = dynamicResults;
+			} else {
+				EntryResult[] merged = new EntryResult[results.length + dynamicResults.length];
+				System.arraycopy(results, 0, merged, 0, results.length);
+				System.arraycopy(dynamicResults, 0, merged, results.length, dynamicResults.length);
+				results = merged;
+			}
+		}
+	}
+	return results;
+	// GROOVY end
 }
 protected StringBuffer print(StringBuffer output) {
 	if (this.findDeclarations) {
@@ -18,6 +18,12 @@ public interface IIndexConstants {
 	char[] REF= "ref".toCharArray(); //$NON-NLS-1$
 	char[] ANNOTATION_REF= "annotationRef".toCharArray(); //$NON-NLS-1$
 	char[] METHOD_REF= "methodRef".toCharArray(); //$NON-NLS-1$
+	// GROOVY add -- dynamic method and property references of unknown arity, keyed by name only
+	char[] GROOVY_DYNAMIC_REF= "groovyRef".toCharArray(); //$NON-NLS-1$
+	// GROOVY end
+	// GROOVY add -- property references, keyed by the property name shared by 'foo', 'getFoo', 'isFoo' and 'setFoo'
+	char[] GROOVY_PROPERTY_REF= "groovyPropertyRef".toCharArray(); //$NON-NLS-1$
+	// GROOVY end
 	char[] CONSTRUCTOR_REF= "constructorRef".toCharArray(); //$NON-NLS-1$
 	char[] SUPER_REF = "superRef".toCharArray(); //$NON-NLS-1$
 	char[] TYPE_DECL = "typeDecl".toCharArray(); //$NON-NLS-1$
@@ -1,3 +1,4 @@
+// GROOVY PATCHED
 /*******************************************************************************
  * Copyright (c) 2000, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
@@ -177,6 +178,37 @@ public abstract class AbstractIndexer implements IIndexConstants {
 	public void addMethodReference(char[] methodName, int argCount) {
 		addIndexEntry(METHOD_REF, MethodPattern.createIndexKey(methodName, argCount));
 	}
+	// GROOVY add
+	public void addGroovyDynamicReference(char[] name) {
+		// MethodPattern would decode a separator as the start of an arity; JVM method names have none
+		if (CharOperation.indexOf(SEPARATOR, name) < 0)
+			addIndexEntry(GROOVY_DYNAMIC_REF, name);
+	}
+	public void addGroovyPropertyReference(char[] name) {
+		char[] key = groovyPropertyKey(name);
+		if (key.length > 0)
+			addIndexEntry(GROOVY_PROPERTY_REF, key);
+	}
+	/**
+	 * Returns the name of the property that a reference to the given member may
+	 * denote, with its first character in lower case; for example "foo" for
+	 * "foo", "getFoo", "isFoo" and "setFoo".
+	 */
+	public static char[] groovyPropertyKey(char[] name) {
+		int start = 0;
+		if (name.length > 2 && name[0] == 'i' && name[1] == 's' && Character.isUpperCase(name[2])) {
+			start = 2;
+		} else if (name.length > 3 && (name[0] == 'g' || name[0] == 's') && name[1] == 'e' && name[2] == 't' && Character.isUpperCase(name[3])) {
+			start = 3;
+		}
+		char[] key = new char[name.length - start];
+		System.arraycopy(name, start, key, 0, key.length);
+		if (key.length > 0 && Character.isUpperCase(key[0])) {
+			key[0] = Character.toLowerCase(key[0]);
+		}
+		return key;
+	}
+	// GROOVY end
 	public void addNameReference(char[] name) {
 		addIndexEntry(REF, name);
 	}
@@ -1091,6 +1091,7 @@ protected void locateMatches(JavaProject javaProject, PossibleMatch[] possibleMa
 	// GROOVY start
 	boolean isInterestingProject = LanguageSupportFactory.isInterestingProject(javaProject.getProject());
 	Set alreadyMatched = new HashSet();
+	Map delegatedMatches = isInterestingProject ? LanguageSupportFactory.performDelegatedSearches(possibleMatches, start, length, this.pattern, this.progressMonitor) : null;
 	// GROOVY end
 
 	// create and resolve binding (equivalent to beginCompilation() in Compiler)
@@ -1103,7 +1104,7 @@ protected void locateMatches(JavaProject javaProject, PossibleMatch[] possibleMa
 			PossibleMatch possibleMatch = possibleMatches[i];
 			// GROOVY start
 			if (isInterestingProject && possibleMatch.isInterestingSourceFile()) {
-				boolean matchPerformed = LanguageSupportFactory.maybePerformDelegatedSearch(possibleMatch, this.pattern, this.requestor);
+				boolean matchPerformed = LanguageSupportFactory.reportDelegatedMatches(delegatedMatches, possibleMatch, this.requestor) || LanguageSupportFactory.maybePerformDelegatedSearch(possibleMatch, this.pattern, this.requestor);
 				if (matchPerformed) {
 					alreadyMatched.add(possibleMatch);
 				}
@@ -46,7 +46,10 @@ private int bufferIndex, bufferEnd; // used when reading from the file into the
 private int streamEnd; // used when writing data from the streamBuffer to the file
 char separator = Index.DEFAULT_SEPARATOR;
 
-public static final String SIGNATURE= "INDEX VERSION 1.127"; //$NON-NLS-1$
+// GROOVY edit -- Groovy reference categories were added to the index
+//public static final String SIGNATURE= "INDEX VERSION 1.127"; //$NON-NLS-1$
+public static final String SIGNATURE= "INDEX VERSION 1.127 GROOVY 1"; //$NON-NLS-1$
+// GROOVY end
 private static final char[] SIGNATURE_CHARS = SIGNATURE.toCharArray();
 public static boolean DEBUG = false;
 
@@ -854,6 +857,11 @@ private void readHeaderInfo(InputStream stream) throws IOException {
 	}
 	this.categoryTables = new HashtableOfObject(3);
 }
+// GROOVY add
+boolean hasCategory(char[] categoryName) {
+	return this.categoryOffsets != null && this.categoryOffsets.containsKey(categoryName);
+}
+// GROOVY end
 synchronized void startQuery() {
 	this.cacheUserCount++;
 }
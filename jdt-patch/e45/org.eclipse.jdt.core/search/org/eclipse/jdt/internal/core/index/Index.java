@@ -1,3 +1,4 @@
+// GROOVY PATCHED
 /*******************************************************************************
  * Copyright (c) 2000, 2012 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
@@ -37,6 +38,9 @@ static final char JAR_SEPARATOR = IJavaSearchScope.JAR_FILE_ENTRY_SEPARATOR.char
 
 protected DiskIndex diskIndex;
 protected MemoryIndex memoryIndex;
+// GROOVY add -- answers of hasCategory, discarded whenever the entries change
+private volatile HashtableOfObject categoryPresence = new HashtableOfObject(3);
+// GROOVY end
 
 /**
  * Mask used on match rule for indexing.
@@ -98,6 +102,9 @@ public Index(IndexLocation location, String containerPath, boolean reuseExisting
 }
 public void addIndexEntry(char[] category, char[] key, String containerRelativePath) {
 	this.memoryIndex.addIndexEntry(category, key, containerRelativePath);
+	// GROOVY add
+	categoriesChanged();
+	// GROOVY end
 }
 public String containerRelativePath(String documentPath) {
 	int index = documentPath.indexOf(IJavaSearchScope.JAR_FILE_ENTRY_SEPARATOR);
@@ -120,6 +127,42 @@ public long getIndexLastModified() {
 public boolean hasChanged() {
 	return this.memoryIndex.hasChanged();
 }
+// GROOVY add
+/**
+ * Returns whether any document of this index has entries in the given category,
+ * without reading the entries themselves.  The answer is remembered until the
+ * entries of the index change.
+ */
+public boolean hasCategory(char[] category) {
+	HashtableOfObject presence = this.categoryPresence;
+	synchronized (presence) {
+		Boolean present = (Boolean) presence.get(category);
+		if (present == null) {
+			present = Boolean.valueOf(computeHasCategory(category));
+			presence.put(category, present);
+		}
+		return present.booleanValue();
+	}
+}
+private boolean computeHasCategory(char[] category) {
+	if (this.memoryIndex.hasChanged()) {
+		Object[] referenceTables = this.memoryIndex.docsToReferences.valueTable;
+		for (int i = 0, l = referenceTables.length; i < l; i++) {
+			HashtableOfObject categoryToWords = (HashtableOfObject) referenceTables[i];
+			if (categoryToWords != null && categoryToWords.containsKey(category))
+				return true;
+		}
+	}
+	return this.diskIndex.hasCategory(category);
+}
+/**
+ * Must own the write lock of the monitor, like any other change of the entries.
+ */
+private void categoriesChanged() {
+	if (this.categoryPresence.elementSize > 0)
+		this.categoryPresence = new HashtableOfObject(3);
+}
+// GROOVY end
 /**
  * Returns the entries containing the given key in a group of categories, or null if no matches are found.
  * The matchRule dictates whether its an exact, prefix or pattern match, as well as case sensitive or insensitive.
@@ -177,6 +220,9 @@ public String[] queryDocumentNames(String substring) throws IOException {
 }
 public void remove(String containerRelativePath) {
 	this.memoryIndex.remove(containerRelativePath);
+	// GROOVY add
+	categoriesChanged();
+	// GROOVY end
 }
 /**
  * Reset memory and disk indexes.
@@ -187,6 +233,9 @@ public void reset() throws IOException {
 	this.memoryIndex = new MemoryIndex();
 	this.diskIndex = new DiskIndex(this.diskIndex.indexLocation);
 	this.diskIndex.initialize(false/*do not reuse the index file*/);
+	// GROOVY add
+	categoriesChanged();
+	// GROOVY end
 }
 public void save() throws IOException {
 	// must own the write lock of the monitor
@@ -196,6 +245,9 @@ public void save() throws IOException {
 	this.diskIndex.separator = this.separator;
 	this.diskIndex = this.diskIndex.mergeWith(this.memoryIndex);
 	this.memoryIndex = new MemoryIndex();
+	// GROOVY add
+	categoriesChanged();
+	// GROOVY end
 	if (numberOfChanges > 1000)
 		System.gc(); // reclaim space if the MemoryIndex was very BIG
 }
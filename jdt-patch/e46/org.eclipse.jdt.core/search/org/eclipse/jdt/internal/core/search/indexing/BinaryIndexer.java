@@ -825,12 +825,8 @@ public class BinaryIndexer extends AbstractIndexer implements SuffixConstants {
 				List<char[]> references = LanguageSupportFactory.getSupplementalIndexer().extractNamedReferences(contents, reader);
 				for (char[] reference : references) {
 					addNameReference(reference);
-					addMethodReference(reference, 0);
-					addMethodReference(reference, 1);
-					addMethodReference(reference, 2);
-					addMethodReference(reference, 3);
-					addMethodReference(reference, 4);
-					addMethodReference(reference, 5);
+					addGroovyDynamicReference(reference);
+					addGroovyPropertyReference(reference);
 				}
 			}
 			// GROOVY end
@@ -820,12 +820,8 @@ public class BinaryIndexer extends AbstractIndexer implements SuffixConstants {
 			if (sourceFileName != null && LanguageSupportFactory.isInterestingSourceFile(String.valueOf(sourceFileName))) {
 				for (char[] reference : LanguageSupportFactory.getSupplementalIndexer().extractNamedReferences(contents, reader)) {
 					addNameReference(reference);
-					addMethodReference(reference, 0);
-					addMethodReference(reference, 1);
-					addMethodReference(reference, 2);
-					addMethodReference(reference, 3);
-					addMethodReference(reference, 4);
-					addMethodReference(reference, 5);
+					addGroovyDynamicReference(reference);
+					addGroovyPropertyReference(reference);
 				}
 			}
 			// GROOVY end